@@ -0,0 +1,54 @@
+package bm.net.emb.hcat.cli;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import net.emb.hcat.cli.haplotype.Haplotype;
+import net.emb.hcat.cli.sequence.AlignmentGenerator;
+import net.emb.hcat.cli.sequence.Sequence;
+
+@SuppressWarnings("javadoc")
+@State(Scope.Benchmark)
+public class AlignmentState {
+
+	public static final long SEED = 42;
+
+	// Every sequence may be its own haplotype, so the divergence decides how
+	// many haplotypes there actually are.
+	public static List<Sequence> generate(final int count, final int length, final double divergence) {
+		final AlignmentGenerator generator = new AlignmentGenerator();
+		generator.setSeed(SEED);
+		generator.setCount(count);
+		generator.setLength(length);
+		generator.setHaplotypes(count);
+		generator.setMutationRate(divergence);
+		return new ArrayList<>(generator.generate());
+	}
+
+	@Param({ "100", "1000" })
+	public int count;
+
+	@Param({ "300", "3000" })
+	public int length;
+
+	@Param({ "0.001", "0.01" })
+	public double divergence;
+
+	public List<Sequence> sequences;
+	public List<Haplotype> haplotypes;
+	public Sequence master;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		sequences = generate(count, length, divergence);
+		haplotypes = Haplotype.wrap(sequences);
+		master = sequences.get(0);
+	}
+
+}
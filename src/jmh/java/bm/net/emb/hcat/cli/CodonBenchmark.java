@@ -0,0 +1,36 @@
+package bm.net.emb.hcat.cli;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import net.emb.hcat.cli.codon.CodonTransformationData;
+import net.emb.hcat.cli.codon.CodonTransformer;
+import net.emb.hcat.cli.io.CodonTableRegistry;
+import net.emb.hcat.cli.sequence.Sequence;
+
+@SuppressWarnings("javadoc")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodonBenchmark {
+
+	private static final CodonTransformationData STANDARD = CodonTableRegistry.getDefault().getData(1);
+
+	@Benchmark
+	public void transformAuto(final AlignmentState state, final Blackhole blackhole) {
+		for (final Sequence sequence : state.sequences) {
+			blackhole.consume(new CodonTransformer(STANDARD, sequence).transformAuto());
+		}
+	}
+
+}
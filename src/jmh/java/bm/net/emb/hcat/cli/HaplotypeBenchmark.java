@@ -0,0 +1,57 @@
+package bm.net.emb.hcat.cli;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import net.emb.hcat.cli.haplotype.DistanceMatrix;
+import net.emb.hcat.cli.haplotype.Haplotype;
+import net.emb.hcat.cli.haplotype.HaplotypeTransformer;
+import net.emb.hcat.cli.io.HaplotypeTableWriter;
+import net.emb.hcat.cli.sequence.Difference;
+import net.emb.hcat.cli.sequence.Sequence;
+
+@SuppressWarnings("javadoc")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HaplotypeBenchmark {
+
+	@Benchmark
+	public List<Haplotype> wrap(final AlignmentState state) {
+		return Haplotype.wrap(state.sequences);
+	}
+
+	@Benchmark
+	public void difference(final AlignmentState state, final Blackhole blackhole) {
+		for (final Sequence sequence : state.sequences) {
+			blackhole.consume(new Difference(state.master, sequence));
+		}
+	}
+
+	@Benchmark
+	public DistanceMatrix distanceMatrix(final AlignmentState state) {
+		return new DistanceMatrix(state.haplotypes);
+	}
+
+	@Benchmark
+	public String haplotypeTable(final AlignmentState state) throws IOException {
+		final StringWriter writer = new StringWriter();
+		final HaplotypeTableWriter tableWriter = new HaplotypeTableWriter(writer);
+		tableWriter.write(state.master, new HaplotypeTransformer(state.haplotypes).compareToMaster(state.master));
+		return writer.toString();
+	}
+
+}
@@ -0,0 +1,65 @@
+package bm.net.emb.hcat.cli;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.emb.hcat.cli.ErrorCodeException;
+import net.emb.hcat.cli.io.sequence.ESequenceType;
+import net.emb.hcat.cli.io.sequence.ISequenceReader;
+import net.emb.hcat.cli.io.sequence.ISequenceWriter;
+import net.emb.hcat.cli.sequence.Sequence;
+
+@SuppressWarnings("javadoc")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReaderBenchmark {
+
+	@Param({ "FASTA", "CSV", "PHYLIP" })
+	public ESequenceType format;
+
+	@Param({ "100", "1000" })
+	public int count;
+
+	@Param({ "300", "3000" })
+	public int length;
+
+	@Param({ "0.001", "0.01" })
+	public double divergence;
+
+	private String content;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		final StringWriter writer = new StringWriter();
+		final ISequenceWriter sequenceWriter = format.createWriter(writer);
+		sequenceWriter.write(AlignmentState.generate(count, length, divergence));
+		content = writer.toString();
+	}
+
+	@Benchmark
+	public List<Sequence> read() throws ErrorCodeException {
+		final ISequenceReader reader = format.createReader(new StringReader(content));
+		return reader.read();
+	}
+
+}
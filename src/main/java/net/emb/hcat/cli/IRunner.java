@@ -0,0 +1,30 @@
+package net.emb.hcat.cli;
+
+import java.io.File;
+import java.io.PrintStream;
+
+/**
+ * Performs a single run of the command line interface, e.g. on behalf of a
+ * client or for a single file of a batch.
+ *
+ * @author Heiko Mattes
+ */
+@FunctionalInterface
+public interface IRunner {
+
+	/**
+	 * Performs a single run. May be called concurrently.
+	 *
+	 * @param out
+	 *            Stream to write the output and help texts to.
+	 * @param err
+	 *            Stream to write error messages to.
+	 * @param workDir
+	 *            Directory relative paths are resolved against.
+	 * @param args
+	 *            Arguments of the run.
+	 * @return The exit status. 0 on success.
+	 */
+	int run(PrintStream out, PrintStream err, File workDir, String[] args);
+
+}
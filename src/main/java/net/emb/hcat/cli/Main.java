@@ -1,33 +1,82 @@
 package net.emb.hcat.cli;
 
-import java.io.FileInputStream;
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
+import java.io.PrintStream;
 import java.io.Writer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 import com.jenkov.cliargs.CliArgs;
 
+import net.emb.hcat.cli.batch.Batch;
+import net.emb.hcat.cli.batch.BatchInput;
+import net.emb.hcat.cli.batch.BatchResult;
+import net.emb.hcat.cli.batch.OutputTemplate;
+import net.emb.hcat.cli.codon.CodonTable;
 import net.emb.hcat.cli.codon.CodonTransformationData;
 import net.emb.hcat.cli.codon.CodonTransformer;
+import net.emb.hcat.cli.codon.CodonUsage;
+import net.emb.hcat.cli.codon.EDnDsValue;
+import net.emb.hcat.cli.codon.NeiGojobori;
+import net.emb.hcat.cli.haplotype.DistanceMatrix;
+import net.emb.hcat.cli.haplotype.DnDsMatrix;
 import net.emb.hcat.cli.haplotype.Haplotype;
+import net.emb.hcat.cli.haplotype.HaplotypeCollector;
 import net.emb.hcat.cli.haplotype.HaplotypeTransformer;
-import net.emb.hcat.cli.io.CodonTableReader;
+import net.emb.hcat.cli.io.ChannelWriter;
+import net.emb.hcat.cli.io.ChannelWriter.EFlushPolicy;
+import net.emb.hcat.cli.io.CodonTableRegistry;
+import net.emb.hcat.cli.io.CodonUsageWriter;
+import net.emb.hcat.cli.io.DistanceMatrixWriter;
+import net.emb.hcat.cli.io.DnDsMatrixWriter;
 import net.emb.hcat.cli.io.HaplotypeTableWriter;
+import net.emb.hcat.cli.io.StatisticsWriter;
+import net.emb.hcat.cli.io.compress.Compression;
+import net.emb.hcat.cli.io.sequence.AsciiLineReader;
 import net.emb.hcat.cli.io.sequence.BaseSequenceReader;
+import net.emb.hcat.cli.io.sequence.BaseSequenceWriter;
+import net.emb.hcat.cli.io.sequence.BinaryAlignmentReader;
+import net.emb.hcat.cli.io.sequence.BinaryAlignmentWriter;
 import net.emb.hcat.cli.io.sequence.ESequenceType;
+import net.emb.hcat.cli.io.sequence.FastaIndex;
+import net.emb.hcat.cli.io.sequence.FastqReader;
+import net.emb.hcat.cli.io.sequence.IndexedFastaReader;
 import net.emb.hcat.cli.io.sequence.ISequenceReader;
 import net.emb.hcat.cli.io.sequence.ISequenceWriter;
+import net.emb.hcat.cli.io.sequence.ParallelFastaReader;
+import net.emb.hcat.cli.io.sequence.PhylipReader;
+import net.emb.hcat.cli.io.sequence.PhylipWriter;
+import net.emb.hcat.cli.jfr.CodonBatchEvent;
+import net.emb.hcat.cli.jfr.CollapseEvent;
+import net.emb.hcat.cli.pipeline.BaseFileSink;
+import net.emb.hcat.cli.pipeline.DistanceMatrixSink;
+import net.emb.hcat.cli.pipeline.FanOut;
+import net.emb.hcat.cli.pipeline.HaplotypeTableSink;
+import net.emb.hcat.cli.pipeline.Pipeline;
+import net.emb.hcat.cli.pipeline.PipelineException;
+import net.emb.hcat.cli.pipeline.SequenceWriterSink;
+import net.emb.hcat.cli.sequence.AlignmentGenerator;
+import net.emb.hcat.cli.server.Client;
+import net.emb.hcat.cli.server.Protocol;
+import net.emb.hcat.cli.server.Server;
 import net.emb.hcat.cli.sequence.Difference;
+import net.emb.hcat.cli.sequence.EFrequencyDistribution;
 import net.emb.hcat.cli.sequence.Sequence;
+import net.emb.hcat.cli.stats.Phase;
+import net.emb.hcat.cli.stats.Statistics;
 
 /**
  * Main class.
@@ -37,8 +86,12 @@ import net.emb.hcat.cli.sequence.Sequence;
 public class Main {
 
 	private static final String HAPLOTYPE_ARG = "-haplotype";
+	private static final String AMINO_ACID_HAPLOTYPE_ARG = "-aahaplotype";
 	private static final String CODON_ARG = "-codon";
 	private static final String CONVERT_ARG = "-convert";
+	private static final String DNDS_ARG = "-dnds";
+	private static final String CODON_USAGE_ARG = "-codonusage";
+	private static final String GENERATE_ARG = "-generate";
 	private static final String HELP_1_ARG = "-?";
 	private static final String HELP_2_ARG = "-h";
 	private static final String HELP_3_ARG = "--help";
@@ -56,8 +109,77 @@ public class Main {
 	private static final String MASTER_ID_LONG_ARG = "--masterid";
 	private static final String CODON_DATA_NUMBER_ARG = "-cn";
 	private static final String CODON_DATA_NUMBER_LONG_ARG = "--codonnumber";
+	private static final String CODON_OFFSET_ARG = "-co";
+	private static final String CODON_OFFSET_LONG_ARG = "--codonoffset";
+	private static final String DNDS_VALUE_ARG = "-dv";
+	private static final String DNDS_VALUE_LONG_ARG = "--dndsvalue";
+	private static final String DISTANCE_MATRIX_ARG = "-dm";
+	private static final String DISTANCE_MATRIX_LONG_ARG = "--distancematrix";
+	private static final String THREADS_ARG = "-t";
+	private static final String THREADS_LONG_ARG = "--threads";
+	private static final String SEED_ARG = "-s";
+	private static final String SEED_LONG_ARG = "--seed";
+	private static final String SEQUENCE_COUNT_ARG = "-sc";
+	private static final String SEQUENCE_COUNT_LONG_ARG = "--seqcount";
+	private static final String SEQUENCE_LENGTH_ARG = "-sl";
+	private static final String SEQUENCE_LENGTH_LONG_ARG = "--seqlength";
+	private static final String HAPLOTYPE_COUNT_ARG = "-hc";
+	private static final String HAPLOTYPE_COUNT_LONG_ARG = "--haplotypecount";
+	private static final String MUTATION_RATE_ARG = "-mr";
+	private static final String MUTATION_RATE_LONG_ARG = "--mutationrate";
+	private static final String GAP_FRACTION_ARG = "-gf";
+	private static final String GAP_FRACTION_LONG_ARG = "--gapfraction";
+	private static final String UNKNOWN_FRACTION_ARG = "-nf";
+	private static final String UNKNOWN_FRACTION_LONG_ARG = "--nfraction";
+	private static final String DISTRIBUTION_ARG = "-fd";
+	private static final String DISTRIBUTION_LONG_ARG = "--distribution";
+	private static final String STATS_ARG = "-st";
+	private static final String STATS_LONG_ARG = "--stats";
+	private static final String STATS_FILE_ARG = "-sf";
+	private static final String STATS_FILE_LONG_ARG = "--statsfile";
 	private static final String OUTPUT_FILE_FORMAT_ARG = "-of";
 	private static final String OUTPUT_FILE_FORMAT_LONG_ARG = "--outputformat";
+	private static final String SERVER_ARG = "-server";
+	private static final String CLIENT_ARG = "-client";
+	private static final String PORT_ARG = "-p";
+	private static final String PORT_LONG_ARG = "--port";
+	private static final String PIPELINE_ARG = "-pipeline";
+	private static final String PIPE_CONVERT_ARG = "-pc";
+	private static final String PIPE_CONVERT_LONG_ARG = "--pipeconvert";
+	private static final String PIPE_HAPLOTYPE_ARG = "-ph";
+	private static final String PIPE_HAPLOTYPE_LONG_ARG = "--pipehaplotype";
+	private static final String PIPE_DISTANCE_ARG = "-pd";
+	private static final String PIPE_DISTANCE_LONG_ARG = "--pipedistance";
+	private static final String PIPE_TRANSLATE_ARG = "-pt";
+	private static final String PIPE_TRANSLATE_LONG_ARG = "--pipetranslate";
+	private static final String FASTA_INDEX_ARG = "-faidx";
+	private static final String MASTER_FILE_ARG = "-mf";
+	private static final String MASTER_FILE_LONG_ARG = "--masterfile";
+	private static final String BATCH_ARG = "-batch";
+	private static final String BATCH_INPUT_ARG = "-bi";
+	private static final String BATCH_INPUT_LONG_ARG = "--batchinput";
+	private static final String BATCH_MANIFEST_ARG = "-bm";
+	private static final String BATCH_MANIFEST_LONG_ARG = "--batchmanifest";
+	private static final String BATCH_OUTPUT_ARG = "-bo";
+	private static final String BATCH_OUTPUT_LONG_ARG = "--batchoutput";
+	private static final String BATCH_THREADS_ARG = "-bt";
+	private static final String BATCH_THREADS_LONG_ARG = "--batchthreads";
+	private static final String INTERLEAVED_ARG = "-il";
+	private static final String INTERLEAVED_LONG_ARG = "--interleaved";
+	private static final String MIN_QUALITY_ARG = "-mq";
+	private static final String MIN_QUALITY_LONG_ARG = "--minquality";
+	private static final String MEAN_QUALITY_ARG = "-aq";
+	private static final String MEAN_QUALITY_LONG_ARG = "--meanquality";
+	private static final String MIN_LENGTH_ARG = "-ml";
+	private static final String MIN_LENGTH_LONG_ARG = "--minlength";
+	private static final String MAX_LENGTH_ARG = "-xl";
+	private static final String MAX_LENGTH_LONG_ARG = "--maxlength";
+
+	// Functions reading a single input file, which can be performed in batch.
+	private static final String[] BATCH_FUNCTIONS = { CODON_ARG, CONVERT_ARG, HAPLOTYPE_ARG, AMINO_ACID_HAPLOTYPE_ARG, DNDS_ARG, CODON_USAGE_ARG };
+	// Arguments of a batch, which are not forwarded to the run of each file.
+	private static final String[] BATCH_ONLY_FLAGS = { BATCH_ARG, STATS_ARG, STATS_LONG_ARG };
+	private static final String[] BATCH_ONLY_VALUES = { BATCH_INPUT_ARG, BATCH_INPUT_LONG_ARG, BATCH_MANIFEST_ARG, BATCH_MANIFEST_LONG_ARG, BATCH_OUTPUT_ARG, BATCH_OUTPUT_LONG_ARG, BATCH_THREADS_ARG, BATCH_THREADS_LONG_ARG, INPUT_ARG, INPUT_LONG_ARG, OUTPUT_ARG, OUTPUT_LONG_ARG, STATS_FILE_ARG, STATS_FILE_LONG_ARG };
 
 	/**
 	 * Entry method for the jar file.
@@ -74,17 +196,163 @@ public class Main {
 	 */
 	public static void main(final String[] args) {
 		final CliArgs cliArgs = new CliArgs(args);
-		if (cliArgs.switchPresent(CODON_ARG)) {
+		if (cliArgs.switchPresent(SERVER_ARG) && !isHelp(cliArgs)) {
+			performServer(cliArgs);
+		} else if (cliArgs.switchPresent(CLIENT_ARG)) {
+			System.exit(performClient(args, cliArgs));
+		} else {
+			System.exit(new Main(System.out, System.err, new File("").getAbsoluteFile()).run(args));
+		}
+	}
+
+	// Thrown to end the current run with the given exit status, instead of
+	// ending the whole virtual machine.
+	private static final class ExitException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		private final int status;
+
+		private ExitException(final int status) {
+			super(null, null, false, false);
+			this.status = status;
+		}
+	}
+
+	private final PrintStream out;
+	private final PrintStream err;
+	private final File workDir;
+
+	// Statistics of the current run. Disabled, unless requested.
+	private Statistics statistics = Statistics.disabled();
+
+	// Whether Phylip files of the current run use the interleaved layout.
+	private boolean interleaved;
+
+	// Filters of FASTQ reads of the current run. 0 doesn't filter.
+	private int minQuality;
+	private double minMeanQuality;
+	private int minLength;
+	private int maxLength;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param out
+	 *            Stream to write the output and help texts to, if no output
+	 *            file is given. Must not be <code>null</code>.
+	 * @param err
+	 *            Stream to write error messages and statistics to. Must not be
+	 *            <code>null</code>.
+	 * @param workDir
+	 *            Directory relative paths are resolved against. Must not be
+	 *            <code>null</code>.
+	 */
+	public Main(final PrintStream out, final PrintStream err, final File workDir) {
+		if (out == null || err == null) {
+			throw new IllegalArgumentException("Output streams must not be null.");
+		}
+		if (workDir == null) {
+			throw new IllegalArgumentException("Working directory must not be null.");
+		}
+		this.out = out;
+		this.err = err;
+		this.workDir = workDir;
+	}
+
+	/**
+	 * Performs a single run with the given arguments. Instead of exiting the
+	 * virtual machine, the exit status is returned, so several runs can be
+	 * performed by the same virtual machine, one after another or
+	 * concurrently.
+	 *
+	 * @param args
+	 *            Arguments, as given to {@link #main(String[])}.
+	 * @return The exit status. 0 on success.
+	 */
+	public int run(final String[] args) {
+		try {
+			perform(args);
+			return 0;
+		} catch (final ExitException e) {
+			return e.status;
+		} finally {
+			out.flush();
+			err.flush();
+		}
+	}
+
+	private void perform(final String[] args) {
+		final CliArgs cliArgs = new CliArgs(args);
+		final String statsFile = getArg(cliArgs, STATS_FILE_ARG, STATS_FILE_LONG_ARG);
+		final boolean stats = statsFile != null || cliArgs.switchPresent(STATS_ARG) || cliArgs.switchPresent(STATS_LONG_ARG);
+		statistics = stats ? new Statistics() : Statistics.disabled();
+		interleaved = cliArgs.switchPresent(INTERLEAVED_ARG) || cliArgs.switchPresent(INTERLEAVED_LONG_ARG);
+		minQuality = parseFilter(cliArgs, MIN_QUALITY_ARG, MIN_QUALITY_LONG_ARG, "Minimum quality");
+		minMeanQuality = parseMeanQuality(cliArgs);
+		minLength = parseFilter(cliArgs, MIN_LENGTH_ARG, MIN_LENGTH_LONG_ARG, "Minimum length");
+		maxLength = parseFilter(cliArgs, MAX_LENGTH_ARG, MAX_LENGTH_LONG_ARG, "Maximum length");
+
+		if (cliArgs.switchPresent(BATCH_ARG)) {
+			performBatch(args, cliArgs);
+		} else if (cliArgs.switchPresent(CODON_ARG)) {
 			performCodon(cliArgs);
 		} else if (cliArgs.switchPresent(CONVERT_ARG)) {
 			performConversion(cliArgs);
 		} else if (cliArgs.switchPresent(HAPLOTYPE_ARG)) {
 			performHaplotype(cliArgs);
+		} else if (cliArgs.switchPresent(AMINO_ACID_HAPLOTYPE_ARG)) {
+			performAminoAcidHaplotype(cliArgs);
+		} else if (cliArgs.switchPresent(DNDS_ARG)) {
+			performDnDs(cliArgs);
+		} else if (cliArgs.switchPresent(CODON_USAGE_ARG)) {
+			performCodonUsage(cliArgs);
+		} else if (cliArgs.switchPresent(GENERATE_ARG)) {
+			performGenerate(cliArgs);
+		} else if (cliArgs.switchPresent(PIPELINE_ARG)) {
+			performPipeline(cliArgs);
+		} else if (cliArgs.switchPresent(FASTA_INDEX_ARG)) {
+			performFastaIndex(cliArgs);
+		} else if (cliArgs.switchPresent(SERVER_ARG)) {
+			writeServerHelp();
+			exit(isHelp(cliArgs) ? 0 : 1);
 		} else if (isHelp(cliArgs)) {
 			performHelp();
 		} else {
 			performUnknown();
 		}
+
+		if (stats) {
+			writeStatistics(statsFile);
+		}
+	}
+
+	private void exit(final int status) {
+		throw new ExitException(status);
+	}
+
+	private File resolve(final String path) {
+		final File file = new File(path);
+		return file.isAbsolute() ? file : new File(workDir, path);
+	}
+
+	private void writeStatistics(final String statsFile) {
+		if (statsFile == null) {
+			final StatisticsWriter statsWriter = new StatisticsWriter(new OutputStreamWriter(err, StandardCharsets.UTF_8));
+			try {
+				statsWriter.write(statistics);
+			} catch (final IOException e) {
+				err.println("Could not write statistics. Underlying error message: " + e.getMessage());
+			}
+			return;
+		}
+
+		try (Writer writer = new OutputStreamWriter(new FileOutputStream(resolve(statsFile)), StandardCharsets.UTF_8)) {
+			final StatisticsWriter statsWriter = new StatisticsWriter(writer);
+			statsWriter.setJson(true);
+			statsWriter.write(statistics);
+		} catch (final IOException e) {
+			err.println("Could not write statistics file. Underlying error message: " + e.getMessage());
+		}
 	}
 
 	private static final boolean isHelp(final CliArgs args) {
@@ -99,7 +367,43 @@ public class Main {
 		return value;
 	}
 
-	private static final ESequenceType getFileFormat(final String fileTypeArg) {
+	private int parseFilter(final CliArgs args, final String shortOpt, final String longOpt, final String name) {
+		final String value = getArg(args, shortOpt, longOpt);
+		if (value == null) {
+			return 0;
+		}
+		try {
+			final int parsed = Integer.parseInt(value);
+			if (parsed >= 0) {
+				return parsed;
+			}
+		} catch (final NumberFormatException e) {
+			// Reported below.
+		}
+		err.println(name + " parameter is not a number or negative. Given parameter: " + value);
+		exit(1);
+		return 0;
+	}
+
+	private double parseMeanQuality(final CliArgs args) {
+		final String value = getArg(args, MEAN_QUALITY_ARG, MEAN_QUALITY_LONG_ARG);
+		if (value == null) {
+			return 0;
+		}
+		try {
+			final double parsed = Double.parseDouble(value);
+			if (parsed >= 0) {
+				return parsed;
+			}
+		} catch (final NumberFormatException e) {
+			// Reported below.
+		}
+		err.println("Mean quality parameter is not a number or negative. Given parameter: " + value);
+		exit(1);
+		return 0;
+	}
+
+	private final ESequenceType getFileFormat(final String fileTypeArg) {
 		switch (fileTypeArg.toLowerCase()) {
 		case "fasta":
 			return ESequenceType.FASTA;
@@ -109,70 +413,364 @@ public class Main {
 			return ESequenceType.PHYLIP_TCS;
 		case "csv":
 			return ESequenceType.CSV;
+		case "binary":
+			return ESequenceType.BINARY;
+		case "fastq":
+			return ESequenceType.FASTQ;
 		default:
-			System.err.println("File Type argument is unknown: " + fileTypeArg);
+			err.println("File Type argument is unknown: " + fileTypeArg);
 			return null;
 		}
 	}
 
-	private static List<Sequence> readSequences(final String input, final ESequenceType seqType, final Charset charset) {
+	private List<Sequence> readSequences(final String input, final ESequenceType seqType, final Charset charset) {
 		final List<Sequence> sequences;
-		try (ISequenceReader reader = seqType.createReader(new InputStreamReader(new FileInputStream(input), charset))) {
+		try (Phase phase = statistics.start("read"); ISequenceReader reader = openReader(input, seqType, charset)) {
 			if (reader instanceof BaseSequenceReader) {
 				((BaseSequenceReader) reader).setEnforceSameLength(true);
 			}
 			sequences = reader.read();
-		} catch (final FileNotFoundException e) {
-			System.err.println("Input file could not be found. Underlying error message: " + e.getMessage());
-			e.printStackTrace();
-			System.exit(1);
-			return null;
+			phase.addSequences(sequences);
 		} catch (final ErrorCodeException | IOException e) {
-			System.err.println("Error reading input file. Underlying error message: " + e.getMessage());
-			e.printStackTrace();
-			System.exit(1);
+			err.println("Error reading input file. Underlying error message: " + e.getMessage());
+			e.printStackTrace(err);
+			exit(1);
 			return null;
 		}
 
 		if (sequences.isEmpty()) {
-			System.err.println("No sequences found in input file.");
-			System.exit(1);
+			err.println("No sequences found in input file.");
+			exit(1);
 		}
 
 		return sequences;
 	}
 
-	private static void writeOutput(final String output, final Charset charset, final Consumer<Writer> data) {
-		// Create output writer.
-		final Writer writer;
-		if (output == null) {
-			writer = new OutputStreamWriter(System.out, charset);
-		} else {
-			try {
-				writer = new OutputStreamWriter(new FileOutputStream(output), charset);
-			} catch (final FileNotFoundException e) {
-				System.err.println("Could not write to output file. Underlying error message: " + e.getMessage());
-				e.printStackTrace();
-				System.exit(1);
-				return;
+	// Hands each sequence to the haplotype collapse as soon as it is read, so
+	// no list of sequences is built. Sequences of the same haplotype share
+	// their value, so many reads of few haplotypes need little memory.
+	private List<Haplotype> collectHaplotypes(final String input, final ESequenceType seqType, final Charset charset) {
+		final HaplotypeCollector collector = new HaplotypeCollector();
+		collector.setShareValues(true);
+		final long[] bases = new long[1];
+		final CollapseEvent event = new CollapseEvent();
+		event.begin();
+		try (Phase phase = statistics.start("collapse"); ISequenceReader reader = openReader(input, seqType, charset)) {
+			if (reader instanceof BaseSequenceReader) {
+				((BaseSequenceReader) reader).setEnforceSameLength(true);
 			}
+			reader.read(sequence -> {
+				collector.accept(sequence);
+				bases[0] += sequence.getLength();
+			});
+			phase.addSequences(collector.getSequenceCount());
+			phase.addBases(bases[0]);
+		} catch (final ErrorCodeException | IOException e) {
+			err.println("Error reading input file. Underlying error message: " + e.getMessage());
+			e.printStackTrace(err);
+			exit(1);
+			return null;
+		}
+
+		if (collector.getSequenceCount() == 0) {
+			err.println("No sequences found in input file.");
+			exit(1);
 		}
 
+		final List<Haplotype> haplotypes = collector.getHaplotypes();
+		if (event.shouldCommit()) {
+			event.sequences = collector.getSequenceCount();
+			event.haplotypes = haplotypes.size();
+			event.commit();
+		}
+		return haplotypes;
+	}
+
+	// Only the first bytes of the input are looked at, so it is parsed once
+	// only. Missing files are reported when they are opened.
+	private ESequenceType detectFileFormat(final String input) {
+		try {
+			return ESequenceType.detect(resolve(input));
+		} catch (final IOException e) {
+			return ESequenceType.byFileEnding(input);
+		}
+	}
+
+	private ISequenceReader openReader(final String input, final ESequenceType seqType, final Charset charset) {
+		final File file = resolve(input);
+		final int threads = Runtime.getRuntime().availableProcessors();
 		try {
+			if (seqType == ESequenceType.BINARY) {
+				// Mapped, so nothing is parsed.
+				return new BinaryAlignmentReader(file);
+			}
+			if (seqType == ESequenceType.FASTA && Compression.detect(file) == Compression.EFormat.PLAIN) {
+				// Large FASTA files are parsed on all processors.
+				return new ParallelFastaReader(file, charset, threads);
+			}
+			// Compressed input is decompressed on the fly. Lines are decoded
+			// only, if they aren't plain ASCII.
+			final ISequenceReader reader = seqType.createReader(AsciiLineReader.create(Compression.open(file, threads), charset));
+			if (reader instanceof PhylipReader) {
+				((PhylipReader) reader).setInterleaved(interleaved);
+			}
+			if (reader instanceof FastqReader) {
+				// Reads are filtered while they are read, so filtered reads
+				// are never kept.
+				final FastqReader fastqReader = (FastqReader) reader;
+				fastqReader.setMinQuality(minQuality);
+				fastqReader.setMinMeanQuality(minMeanQuality);
+				fastqReader.setMinLength(minLength);
+				fastqReader.setMaxLength(maxLength);
+			}
+			return reader;
+		} catch (final FileNotFoundException e) {
+			err.println("Input file could not be found. Underlying error message: " + e.getMessage());
+			e.printStackTrace(err);
+			exit(1);
+			return null;
+		} catch (final IOException e) {
+			err.println("Error reading input file. Underlying error message: " + e.getMessage());
+			e.printStackTrace(err);
+			exit(1);
+			return null;
+		}
+	}
+
+	private void translate(final CodonTransformationData data, final List<Sequence> sequences, final boolean keepNames, final List<Sequence> result) {
+		CodonBatchEvent batch = new CodonBatchEvent();
+		batch.begin();
+		for (final Sequence seq : sequences) {
+			final Sequence translated = new CodonTransformer(data, seq).transformAuto();
+			result.add(keepNames ? new Sequence(translated.getValue(), seq.getName()) : translated);
+
+			batch.codons += translated.getLength();
+			if (++batch.sequences == CodonBatchEvent.BATCH_SIZE) {
+				commitBatch(batch);
+				batch = new CodonBatchEvent();
+				batch.begin();
+			}
+		}
+		commitBatch(batch);
+	}
+
+	private static void commitBatch(final CodonBatchEvent batch) {
+		if (batch.sequences > 0 && batch.shouldCommit()) {
+			batch.operation = "translate";
+			batch.commit();
+		}
+	}
+
+	private long countBases(final Collection<Sequence> sequences) {
+		if (!statistics.isEnabled()) {
+			return 0;
+		}
+		long bases = 0;
+		for (final Sequence sequence : sequences) {
+			bases += sequence.getLength();
+		}
+		return bases;
+	}
+
+	private void writeOutput(final String output, final Charset charset, final Consumer<Writer> data) {
+		writeOutput(output, charset, 0, 0, data);
+	}
+
+	private void writeOutput(final String output, final Charset charset, final long sequences, final long bases, final Consumer<Writer> data) {
+		final Writer writer = openOutput(output, charset);
+		try (Phase phase = statistics.start("write")) {
+			phase.addSequences(sequences);
+			phase.addBases(bases);
 			data.accept(writer);
 		} finally {
 			try {
 				writer.close();
 			} catch (final IOException e) {
-				System.err.println("Could not close writer. Underlying error mesage: " + e.getMessage());
+				err.println("Could not close writer. Underlying error mesage: " + e.getMessage());
+			}
+		}
+	}
+
+	private Writer openOutput(final String output, final Charset charset) {
+		if (output == null) {
+			return new ChannelWriter(out, charset, EFlushPolicy.EXPLICIT);
+		}
+		try {
+			// Compressed, if the file name asks for it. Files are read only
+			// after they have been written, so flushes are ignored.
+			return new ChannelWriter(Compression.create(resolve(output), Runtime.getRuntime().availableProcessors()), charset, EFlushPolicy.ON_CLOSE);
+		} catch (final FileNotFoundException e) {
+			err.println("Could not write to output file. Underlying error message: " + e.getMessage());
+			e.printStackTrace(err);
+			exit(1);
+			return null;
+		}
+	}
+
+	private BinaryAlignmentWriter openBinaryOutput(final String output) {
+		if (output == null) {
+			err.println("Binary alignments can only be written to an output file.");
+			exit(1);
+			return null;
+		}
+		try {
+			return new BinaryAlignmentWriter(resolve(output));
+		} catch (final FileNotFoundException e) {
+			err.println("Could not write to output file. Underlying error message: " + e.getMessage());
+			e.printStackTrace(err);
+			exit(1);
+			return null;
+		}
+	}
+
+	private ISequenceWriter createWriter(final ESequenceType seqType, final Writer writer) {
+		final ISequenceWriter seqWriter = seqType.createWriter(writer);
+		if (seqWriter instanceof PhylipWriter) {
+			((PhylipWriter) seqWriter).setInterleaved(interleaved);
+		}
+		return seqWriter;
+	}
+
+	// Writes Phylip straight from the mapped rows of a binary alignment, so
+	// no sequence is held in memory. Replaces the output like stream() does.
+	private void writePhylip(final String input, final String output, final Charset charset) {
+		final File target = output == null ? null : resolve(output);
+		final File temp = target == null ? null : createTemporaryOutput(target);
+		try {
+			writePhylipTo(input, temp == null ? null : temp.getPath(), charset);
+			if (temp != null) {
+				replaceOutput(temp, target);
+			}
+		} finally {
+			if (temp != null) {
+				temp.delete();
+			}
+		}
+	}
+
+	private void writePhylipTo(final String input, final String output, final Charset charset) {
+		try (BinaryAlignmentReader reader = new BinaryAlignmentReader(resolve(input)); Writer writer = openOutput(output, charset); Phase phase = statistics.start("stream")) {
+			if (reader.size() == 0) {
+				err.println("No sequences found in input file.");
+				exit(1);
+			}
+			final PhylipWriter seqWriter = (PhylipWriter) createWriter(ESequenceType.PHYLIP, writer);
+			seqWriter.write(reader);
+			phase.addSequences(reader.size());
+			phase.addBases((long) reader.size() * reader.getLength(0));
+		} catch (final IOException e) {
+			err.println("Error writing output file. Underlying error message: " + e.getMessage());
+			e.printStackTrace(err);
+			exit(1);
+		}
+	}
+
+	// The output is written to a temporary file next to it, which replaces the
+	// output only once everything has been written. So the input may be the
+	// output, and a failed run leaves the output untouched.
+	private void stream(final String input, final ESequenceType seqType, final String output, final ESequenceType outputType, final Charset charset, final int threads, final Function<List<Sequence>, List<Sequence>> transform) {
+		final File target = output == null ? null : resolve(output);
+		final File temp = target == null ? null : createTemporaryOutput(target);
+		try {
+			streamTo(input, seqType, temp == null ? null : temp.getPath(), outputType, charset, threads, transform);
+			if (temp != null) {
+				replaceOutput(temp, target);
+			}
+		} finally {
+			if (temp != null) {
+				temp.delete();
+			}
+		}
+	}
+
+	// Keeps the file name at the end, so the compression is taken from it.
+	private File createTemporaryOutput(final File target) {
+		try {
+			return File.createTempFile(".hcat", "-" + target.getName(), target.getAbsoluteFile().getParentFile());
+		} catch (final IOException e) {
+			err.println("Could not write to output file. Underlying error message: " + e.getMessage());
+			e.printStackTrace(err);
+			exit(1);
+			return null;
+		}
+	}
+
+	private void replaceOutput(final File temp, final File target) {
+		try {
+			Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (final IOException e) {
+			err.println("Could not write to output file. Underlying error message: " + e.getMessage());
+			e.printStackTrace(err);
+			exit(1);
+		}
+	}
+
+	private void streamTo(final String input, final ESequenceType seqType, final String output, final ESequenceType outputType, final Charset charset, final int threads, final Function<List<Sequence>, List<Sequence>> transform) {
+		final boolean binary = outputType == ESequenceType.BINARY;
+		try (ISequenceReader reader = openReader(input, seqType, charset); Writer writer = binary ? null : openOutput(output, charset); BinaryAlignmentWriter binaryWriter = binary ? openBinaryOutput(output) : null; Phase phase = statistics.start("stream")) {
+			if (reader instanceof BaseSequenceReader) {
+				((BaseSequenceReader) reader).setEnforceSameLength(true);
+			}
+
+			// Formats needing all sequences up front are collected and written
+			// at the end, all others are written while reading.
+			final ISequenceWriter seqWriter = binary ? binaryWriter : createWriter(outputType, writer);
+			final BaseSequenceWriter streamWriter = seqWriter instanceof BaseSequenceWriter && ((BaseSequenceWriter) seqWriter).isStreaming() ? (BaseSequenceWriter) seqWriter : null;
+			final List<Sequence> collected = new ArrayList<>();
+			final long[] bases = new long[1];
+			if (streamWriter != null) {
+				streamWriter.start();
+			} else if (binary) {
+				binaryWriter.start();
+			}
+			final int count = new Pipeline<Sequence, Sequence>(threads).run(reader::read, transform, sequence -> {
+				bases[0] += sequence.getLength();
+				if (streamWriter != null) {
+					streamWriter.append(sequence);
+				} else if (binary) {
+					binaryWriter.append(sequence);
+				} else {
+					collected.add(sequence);
+				}
+			});
+			if (count == 0) {
+				err.println("No sequences found in input file.");
+				exit(1);
+			}
+			if (streamWriter != null) {
+				streamWriter.end();
+			} else if (binary) {
+				binaryWriter.end();
+			} else {
+				seqWriter.write(collected);
+			}
+			phase.addSequences(count);
+			phase.addBases(bases[0]);
+		} catch (final PipelineException e) {
+			switch (e.getStage()) {
+			case READ:
+				err.println("Error reading input file. Underlying error message: " + e.getMessage());
+				break;
+			case TRANSFORM:
+				err.println("Error processing sequences. Underlying error message: " + e.getMessage());
+				break;
+			default:
+				err.println("Error writing output file. Underlying error message: " + e.getMessage());
+				break;
 			}
+			e.getCause().printStackTrace(err);
+			exit(1);
+		} catch (final IOException e) {
+			err.println("Error writing output file. Underlying error message: " + e.getMessage());
+			e.printStackTrace(err);
+			exit(1);
 		}
 	}
 
-	private static final void performConversion(final CliArgs args) {
+	private final void performConversion(final CliArgs args) {
 		if (isHelp(args)) {
 			writeConversionHelp();
-			System.exit(0);
+			exit(0);
 		}
 
 		// Read command line arguments.
@@ -186,8 +784,8 @@ public class Main {
 			if (targets.length > 0) {
 				input = targets[0];
 			} else {
-				System.err.println("No input file specified.");
-				System.exit(1);
+				err.println("No input file specified.");
+				exit(1);
 			}
 		}
 		if (outputFormat == null) {
@@ -195,8 +793,8 @@ public class Main {
 			if (targets.length > 1) {
 				outputFormat = targets[1];
 			} else {
-				System.err.println("No output file format specified.");
-				System.exit(1);
+				err.println("No output file format specified.");
+				exit(1);
 			}
 		}
 		if (output == null) {
@@ -207,41 +805,36 @@ public class Main {
 		}
 
 		// Read sequence formats
-		final ESequenceType seqType = fileFormat != null ? getFileFormat(fileFormat) : ESequenceType.byFileEnding(input);
+		final ESequenceType seqType = fileFormat != null ? getFileFormat(fileFormat) : detectFileFormat(input);
 		if (seqType == null) {
-			System.err.println("Could not determine input file format by file name and no valid file format was specified.");
-			System.exit(1);
+			err.println("Could not determine input file format by file content or name and no valid file format was specified.");
+			exit(1);
 		}
 		final ESequenceType outputType = ESequenceType.byFileEnding(outputFormat);
 		if (seqType == null) {
-			System.err.println("No valid output file format was specified.");
-			System.exit(1);
+			err.println("No valid output file format was specified.");
+			exit(1);
+		}
+		if (outputType == ESequenceType.FASTQ) {
+			err.println("FASTQ files can only be read, not written.");
+			exit(1);
 		}
 
 		// Encoding charset.
 		final Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
 
-		// Read input sequences
-		final List<Sequence> sequences = readSequences(input, seqType, charset);
-
-		// Write output.
-		writeOutput(output, charset, writer -> {
-			final ISequenceWriter seqWriter = outputType.createWriter(writer);
-			try {
-				seqWriter.write(sequences);
-			} catch (final IOException e) {
-				System.err.println("Error writing output file. Underlying error message: " + e.getMessage());
-				e.printStackTrace();
-				System.exit(1);
-				return;
-			}
-		});
+		// Write sequences while reading them.
+		if (seqType == ESequenceType.BINARY && outputType == ESequenceType.PHYLIP) {
+			writePhylip(input, output, charset);
+			return;
+		}
+		stream(input, seqType, output, outputType, charset, 1, Function.identity());
 	}
 
-	private static final void performCodon(final CliArgs args) {
+	private final void performCodon(final CliArgs args) {
 		if (isHelp(args)) {
 			writeCodonHelp();
-			System.exit(0);
+			exit(0);
 		}
 
 		// Read command line arguments.
@@ -250,13 +843,14 @@ public class Main {
 		String output = getArg(args, OUTPUT_ARG, OUTPUT_LONG_ARG);
 		final String fileFormat = getArg(args, FILE_FORMAT_ARG, FILE_FORMAT_LONG_ARG);
 		final String encoding = getArg(args, ENCODING_ARG, ENCODING_LONG_ARG);
+		final String threads = getArg(args, THREADS_ARG, THREADS_LONG_ARG);
 		if (codonNumber == null) {
 			final String[] targets = args.targets();
 			if (targets.length > 0) {
 				codonNumber = targets[0];
 			} else {
-				System.err.println("No codon number specified.");
-				System.exit(1);
+				err.println("No codon number specified.");
+				exit(1);
 			}
 		}
 		if (input == null) {
@@ -264,8 +858,8 @@ public class Main {
 			if (targets.length > 1) {
 				input = targets[1];
 			} else {
-				System.err.println("No input file specified.");
-				System.exit(1);
+				err.println("No input file specified.");
+				exit(1);
 			}
 		}
 		if (output == null) {
@@ -276,70 +870,62 @@ public class Main {
 		}
 
 		// Read sequence format.
-		final ESequenceType seqType = fileFormat != null ? getFileFormat(fileFormat) : ESequenceType.byFileEnding(input);
+		final ESequenceType seqType = fileFormat != null ? getFileFormat(fileFormat) : detectFileFormat(input);
 		if (seqType == null) {
-			System.err.println("Could not determine file format by file name and no valid file format was specified.");
-			System.exit(1);
+			err.println("Could not determine file format by file content or name and no valid file format was specified.");
+			exit(1);
 		}
 
 		// Get desired number of codon data.
 		if (codonNumber == null) {
-			System.err.println("No codon number given.");
-			System.exit(1);
+			err.println("No codon number given.");
+			exit(1);
 		}
 		int parsedCodonNumber = -1;
 		try {
 			parsedCodonNumber = Integer.parseInt(codonNumber);
 		} catch (final NumberFormatException e) {
-			System.err.println("Codon number parameter is not a number. Given parameter: " + codonNumber);
-			System.exit(1);
+			err.println("Codon number parameter is not a number. Given parameter: " + codonNumber);
+			exit(1);
 		}
 
 		// Get correct codon data.
-		CodonTransformationData data = null;
-		final List<CodonTransformationData> codonTable = CodonTableReader.readDefaultTable();
-		for (final CodonTransformationData codonData : codonTable) {
-			if (codonData.number == parsedCodonNumber) {
-				data = codonData;
-				break;
-			}
-		}
+		final CodonTransformationData data = CodonTableRegistry.getDefault().getData(parsedCodonNumber);
 		if (data == null) {
-			System.err.println("No codon transformation data with number " + codonNumber + " known.");
-			System.exit(1);
+			err.println("No codon transformation data with number " + codonNumber + " known.");
+			exit(1);
+		}
+		int parsedThreads = Runtime.getRuntime().availableProcessors();
+		if (threads != null) {
+			try {
+				parsedThreads = Integer.parseInt(threads);
+			} catch (final NumberFormatException e) {
+				err.println("Threads parameter is not a number. Given parameter: " + threads);
+				exit(1);
+			}
+			if (parsedThreads < 1) {
+				err.println("Threads must be a positive number. Given parameter: " + threads);
+				exit(1);
+			}
 		}
 
 		// Encoding charset.
 		final Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
 
-		// Read input sequences
-		final List<Sequence> sequences = readSequences(input, seqType, charset);
-
-		// Transform sequences.
-		final List<Sequence> transformedSeqs = new ArrayList<Sequence>(sequences.size());
-		for (final Sequence seq : sequences) {
-			final CodonTransformer transformer = new CodonTransformer(data, seq);
-			transformedSeqs.add(transformer.transformAuto());
-		}
-
-		// Write transformed output.
-		writeOutput(output, charset, writer -> {
-			final ISequenceWriter seqWriter = seqType.createWriter(writer);
-			try {
-				seqWriter.write(transformedSeqs);
-			} catch (final IOException e) {
-				System.err.println("Error writing output file. Underlying error message: " + e.getMessage());
-				e.printStackTrace();
-				System.exit(1);
-				return;
-			}
+		// Translate sequences while reading and writing them. FASTQ can't be
+		// written, so translated reads are written as Fasta.
+		final ESequenceType outputType = seqType == ESequenceType.FASTQ ? ESequenceType.FASTA : seqType;
+		stream(input, seqType, output, outputType, charset, parsedThreads, batch -> {
+			final List<Sequence> translated = new ArrayList<>(batch.size());
+			translate(data, batch, false, translated);
+			return translated;
 		});
 	}
 
-	private static final void performHaplotype(final CliArgs args) {
+	private final void performHaplotype(final CliArgs args) {
 		if (isHelp(args)) {
 			writeHaplotypeHelp();
-			System.exit(0);
+			exit(0);
 		}
 
 		// Read command line arguments.
@@ -349,15 +935,22 @@ public class Main {
 		final String encoding = getArg(args, ENCODING_ARG, ENCODING_LONG_ARG);
 		final String seq = getArg(args, MASTER_SEQUENCE_ARG, MASTER_SEQUENCE_LONG_ARG);
 		final String id = getArg(args, MASTER_ID_ARG, MASTER_ID_LONG_ARG);
+		final String masterFile = getArg(args, MASTER_FILE_ARG, MASTER_FILE_LONG_ARG);
+		final String codonNumber = getArg(args, CODON_DATA_NUMBER_ARG, CODON_DATA_NUMBER_LONG_ARG);
+		final String codonOffset = getArg(args, CODON_OFFSET_ARG, CODON_OFFSET_LONG_ARG);
 		if (input == null) {
 			final String[] targets = args.targets();
 			if (targets.length > 0) {
 				input = targets[0];
 			} else {
-				System.err.println("No input file specified.");
-				System.exit(1);
+				err.println("No input file specified.");
+				exit(1);
 			}
 		}
+		if (masterFile != null && id == null) {
+			err.println("No master ID specified to look up in master file.");
+			exit(1);
+		}
 		if (output == null) {
 			final String[] targets = args.targets();
 			if (targets.length > 1) {
@@ -366,24 +959,51 @@ public class Main {
 		}
 
 		// Read sequence format.
-		final ESequenceType seqType = fileFormat != null ? getFileFormat(fileFormat) : ESequenceType.byFileEnding(input);
+		final ESequenceType seqType = fileFormat != null ? getFileFormat(fileFormat) : detectFileFormat(input);
 		if (seqType == null) {
-			System.err.println("Could not determine file format by file name and no valid file format was specified.");
-			System.exit(1);
+			err.println("Could not determine file format by file content or name and no valid file format was specified.");
+			exit(1);
+		}
+
+		// Get codon table to classify differences with.
+		CodonTable codonTable = null;
+		if (codonNumber != null) {
+			try {
+				codonTable = CodonTableRegistry.getDefault().get(Integer.parseInt(codonNumber));
+			} catch (final NumberFormatException e) {
+				err.println("Codon number parameter is not a number. Given parameter: " + codonNumber);
+				exit(1);
+			}
+			if (codonTable == null) {
+				err.println("No codon transformation data with number " + codonNumber + " known.");
+				exit(1);
+			}
+		}
+		int parsedCodonOffset = 0;
+		if (codonOffset != null) {
+			try {
+				parsedCodonOffset = Integer.parseInt(codonOffset);
+			} catch (final NumberFormatException e) {
+				err.println("Codon offset parameter is not a number. Given parameter: " + codonOffset);
+				exit(1);
+			}
+			if (parsedCodonOffset < 0 || parsedCodonOffset > 2) {
+				err.println("Codon offset must be 0, 1 or 2. Given parameter: " + codonOffset);
+				exit(1);
+			}
 		}
 
 		// Encoding charset.
 		final Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
 
-		// Read input sequences
-		final List<Sequence> sequences = readSequences(input, seqType, charset);
-
-		// Create haplotypes.
-		final List<Haplotype> haplotypes = Haplotype.wrap(sequences);
+		// Collapse input sequences into haplotypes while reading them.
+		final List<Haplotype> haplotypes = collectHaplotypes(input, seqType, charset);
 
 		// Get master sequence to compare to.
 		Sequence master = null;
-		if (id != null) {
+		if (masterFile != null) {
+			master = readMaster(masterFile, id, charset);
+		} else if (id != null) {
 			for (final Haplotype haplotype : haplotypes) {
 				for (final Sequence sequence : haplotype) {
 					if (id.equals(sequence.getName())) {
@@ -396,13 +1016,13 @@ public class Main {
 				}
 			}
 			if (master == null) {
-				System.err.println("Master sequence with ID \"" + id + "\" not found in input file.");
-				System.exit(1);
+				err.println("Master sequence with ID \"" + id + "\" not found in input file.");
+				exit(1);
 				return;
 			}
 		} else {
 			if (seq == null) {
-				master = sequences.get(0);
+				master = haplotypes.get(0).getFirstSequence();
 			} else {
 				master = new Sequence(seq, "Master Sequence");
 			}
@@ -411,103 +1031,1216 @@ public class Main {
 		// Create haplotype analysis.
 		final Sequence usedMaster = master;
 		final Map<Haplotype, Difference> haplotypeMap;
-		final HaplotypeTransformer transformer = new HaplotypeTransformer(haplotypes);
-		haplotypeMap = transformer.compareToMaster(usedMaster);
+		try (Phase phase = statistics.start("compare")) {
+			final HaplotypeTransformer transformer = new HaplotypeTransformer(haplotypes);
+			haplotypeMap = transformer.compareToMaster(usedMaster);
+			phase.addSequences(haplotypes.size());
+			phase.addBases((long) haplotypes.size() * usedMaster.getLength());
+		}
 
 		// Write output.
+		final CodonTable usedCodonTable = codonTable;
+		final int usedCodonOffset = parsedCodonOffset;
 		writeOutput(output, charset, writer -> {
 			final HaplotypeTableWriter haplotypeWriter = new HaplotypeTableWriter(writer);
+			haplotypeWriter.setCodonTable(usedCodonTable);
+			haplotypeWriter.setCodonOffset(usedCodonOffset);
 			try {
 				haplotypeWriter.write(usedMaster, haplotypeMap);
 			} catch (final IOException e) {
-				System.err.println("Error writing output file. Underlying error message: " + e.getMessage());
-				e.printStackTrace();
-				System.exit(1);
+				err.println("Error writing output file. Underlying error message: " + e.getMessage());
+				e.printStackTrace(err);
+				exit(1);
 				return;
 			}
 		});
 	}
 
-	private static final void performHelp() {
-		writeFullHelp();
-		System.exit(0);
-	}
-
-	private static final void performUnknown() {
-		System.out.println("Could not detect what function to perform.");
-		System.out.println();
-		writeFullHelp();
-		System.exit(1);
-	}
-
-	private static final void writeFullHelp() {
-		System.out.println("The following functions are available:");
-		System.out.println();
-
-		System.out.println("\t* Perform a file type conversion.");
-		System.out.println("\t\t" + CONVERT_ARG + " <args>");
-		System.out.println("\t\tFor help use: " + CONVERT_ARG + " " + HELP_1_ARG);
-		System.out.println();
-
-		System.out.println("\t* Perform a haplotype analysis.");
-		System.out.println("\t\t" + HAPLOTYPE_ARG + " <args>");
-		System.out.println("\t\tFor help use: " + HAPLOTYPE_ARG + " " + HELP_1_ARG);
-		System.out.println();
-
-		System.out.println("\t* Perform a codon transformation.");
-		System.out.println("\t\t" + CODON_ARG + " <args>");
-		System.out.println("\t\tFor help use: " + CODON_ARG + " " + HELP_1_ARG);
-		System.out.println();
-	}
-
-	private static final void writeConversionHelp() {
-		System.out.println("Performs a file type conversion. Reads in sequences in one format and writes them out in another.");
-		System.out.println();
-		System.out.println("Usage: -convert [options] input_file output_format [output_file]");
-		System.out.println("Example: -convert input_seq.fas tcs");
-		System.out.println("Example: -codon -f fasta -of tcs -i input_seq.txt -o output_seq.txt");
-		System.out.println("Options:");
+	private final void performAminoAcidHaplotype(final CliArgs args) {
+		if (isHelp(args)) {
+			writeAminoAcidHaplotypeHelp();
+			exit(0);
+		}
 
-		writeOptionLine(ENCODING_ARG, ENCODING_LONG_ARG, "Encoding of input file and output. If not given, UTF-8 will be used.");
-		writeOptionLine(FILE_FORMAT_ARG, FILE_FORMAT_LONG_ARG, "File format of input file. Possible values are: \"fasta\" for Fasta-, \"phylip\" for Phylip-, \"tcs\" for Phylip TCS- and \"csv\" for CSV/Excel-format. If not given, file type will be estimated according to the file ending.");
-		writeOptionLine(INPUT_ARG, INPUT_LONG_ARG, "\tPath to input file. If present, 'input_file' will be ignored.");
-		writeOptionLine(OUTPUT_ARG, OUTPUT_LONG_ARG, "Path to output file. If present, 'output_file' will be ignored. If not present and 'output_file' is not present either, will be written to console.");
-		writeOptionLine(OUTPUT_FILE_FORMAT_ARG, OUTPUT_FILE_FORMAT_LONG_ARG, "File format of output file. Possible values are: \"fasta\" for Fasta-, \"phylip\" for Phylip-, \"tcs\" for Phylip TCS- and \"csv\" for CSV/Excel-format. If present, 'output_format' will be ignored.");
-	}
+		// Read command line arguments.
+		String codonNumber = getArg(args, CODON_DATA_NUMBER_ARG, CODON_DATA_NUMBER_LONG_ARG);
+		String input = getArg(args, INPUT_ARG, INPUT_LONG_ARG);
+		String output = getArg(args, OUTPUT_ARG, OUTPUT_LONG_ARG);
+		final String fileFormat = getArg(args, FILE_FORMAT_ARG, FILE_FORMAT_LONG_ARG);
+		final String encoding = getArg(args, ENCODING_ARG, ENCODING_LONG_ARG);
+		final String id = getArg(args, MASTER_ID_ARG, MASTER_ID_LONG_ARG);
+		final String matrixOutput = getArg(args, DISTANCE_MATRIX_ARG, DISTANCE_MATRIX_LONG_ARG);
+		if (codonNumber == null) {
+			final String[] targets = args.targets();
+			if (targets.length > 0) {
+				codonNumber = targets[0];
+			} else {
+				err.println("No codon number specified.");
+				exit(1);
+			}
+		}
+		if (input == null) {
+			final String[] targets = args.targets();
+			if (targets.length > 1) {
+				input = targets[1];
+			} else {
+				err.println("No input file specified.");
+				exit(1);
+			}
+		}
+		if (output == null) {
+			final String[] targets = args.targets();
+			if (targets.length > 2) {
+				output = targets[2];
+			}
+		}
+
+		// Read sequence format.
+		final ESequenceType seqType = fileFormat != null ? getFileFormat(fileFormat) : detectFileFormat(input);
+		if (seqType == null) {
+			err.println("Could not determine file format by file content or name and no valid file format was specified.");
+			exit(1);
+		}
+
+		// Get correct codon data.
+		CodonTransformationData data = null;
+		try {
+			data = CodonTableRegistry.getDefault().getData(Integer.parseInt(codonNumber));
+		} catch (final NumberFormatException e) {
+			err.println("Codon number parameter is not a number. Given parameter: " + codonNumber);
+			exit(1);
+		}
+		if (data == null) {
+			err.println("No codon transformation data with number " + codonNumber + " known.");
+			exit(1);
+		}
+
+		// Encoding charset.
+		final Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+
+		// Read input sequences
+		final List<Sequence> sequences = readSequences(input, seqType, charset);
+
+		// Translate sequences, keeping their names, so they can still be
+		// found by ID.
+		final List<Sequence> translatedSeqs = new ArrayList<Sequence>(sequences.size());
+		try (Phase phase = statistics.start("translate")) {
+			translate(data, sequences, true, translatedSeqs);
+			phase.addSequences(sequences);
+		}
+
+		// Create amino acid haplotypes.
+		final List<Haplotype> haplotypes;
+		try (Phase phase = statistics.start("collapse")) {
+			haplotypes = Haplotype.wrap(translatedSeqs);
+			phase.addSequences(translatedSeqs);
+		}
+
+		// Get master sequence to compare to.
+		Sequence master = translatedSeqs.get(0);
+		if (id != null) {
+			master = null;
+			for (final Sequence sequence : translatedSeqs) {
+				if (id.equals(sequence.getName())) {
+					master = sequence;
+					break;
+				}
+			}
+			if (master == null) {
+				err.println("Master sequence with ID \"" + id + "\" not found in input file.");
+				exit(1);
+				return;
+			}
+		}
+
+		// Create haplotype analysis.
+		final Sequence usedMaster = master;
+		final Map<Haplotype, Difference> haplotypeMap;
+		try (Phase phase = statistics.start("compare")) {
+			haplotypeMap = new HaplotypeTransformer(haplotypes).compareToMaster(usedMaster);
+			phase.addSequences(haplotypes.size());
+			phase.addBases((long) haplotypes.size() * usedMaster.getLength());
+		}
+
+		// Write output.
+		writeOutput(output, charset, writer -> {
+			final HaplotypeTableWriter haplotypeWriter = new HaplotypeTableWriter(writer);
+			try {
+				haplotypeWriter.write(usedMaster, haplotypeMap);
+			} catch (final IOException e) {
+				err.println("Error writing output file. Underlying error message: " + e.getMessage());
+				e.printStackTrace(err);
+				exit(1);
+				return;
+			}
+		});
+
+		// Write protein distance matrix.
+		if (matrixOutput != null) {
+			final DistanceMatrix matrix;
+			try (Phase phase = statistics.start("distance")) {
+				matrix = DistanceMatrix.ofProteins(haplotypes);
+				phase.addSequences(haplotypes.size());
+			}
+			writeOutput(matrixOutput, charset, writer -> {
+				final DistanceMatrixWriter matrixWriter = new DistanceMatrixWriter(writer);
+				matrixWriter.setProportional(true);
+				try {
+					matrixWriter.write(matrix);
+				} catch (final IOException e) {
+					err.println("Error writing distance matrix file. Underlying error message: " + e.getMessage());
+					e.printStackTrace(err);
+					exit(1);
+					return;
+				}
+			});
+		}
+	}
+
+	private final void performDnDs(final CliArgs args) {
+		if (isHelp(args)) {
+			writeDnDsHelp();
+			exit(0);
+		}
+
+		// Read command line arguments.
+		String codonNumber = getArg(args, CODON_DATA_NUMBER_ARG, CODON_DATA_NUMBER_LONG_ARG);
+		String input = getArg(args, INPUT_ARG, INPUT_LONG_ARG);
+		String output = getArg(args, OUTPUT_ARG, OUTPUT_LONG_ARG);
+		final String fileFormat = getArg(args, FILE_FORMAT_ARG, FILE_FORMAT_LONG_ARG);
+		final String encoding = getArg(args, ENCODING_ARG, ENCODING_LONG_ARG);
+		final String codonOffset = getArg(args, CODON_OFFSET_ARG, CODON_OFFSET_LONG_ARG);
+		final String dndsValue = getArg(args, DNDS_VALUE_ARG, DNDS_VALUE_LONG_ARG);
+		if (codonNumber == null) {
+			final String[] targets = args.targets();
+			if (targets.length > 0) {
+				codonNumber = targets[0];
+			} else {
+				err.println("No codon number specified.");
+				exit(1);
+			}
+		}
+		if (input == null) {
+			final String[] targets = args.targets();
+			if (targets.length > 1) {
+				input = targets[1];
+			} else {
+				err.println("No input file specified.");
+				exit(1);
+			}
+		}
+		if (output == null) {
+			final String[] targets = args.targets();
+			if (targets.length > 2) {
+				output = targets[2];
+			}
+		}
+
+		// Read sequence format.
+		final ESequenceType seqType = fileFormat != null ? getFileFormat(fileFormat) : detectFileFormat(input);
+		if (seqType == null) {
+			err.println("Could not determine file format by file content or name and no valid file format was specified.");
+			exit(1);
+		}
+
+		// Get correct codon table.
+		CodonTable codonTable = null;
+		try {
+			codonTable = CodonTableRegistry.getDefault().get(Integer.parseInt(codonNumber));
+		} catch (final NumberFormatException e) {
+			err.println("Codon number parameter is not a number. Given parameter: " + codonNumber);
+			exit(1);
+		}
+		if (codonTable == null) {
+			err.println("No codon transformation data with number " + codonNumber + " known.");
+			exit(1);
+		}
+		int parsedCodonOffset = 0;
+		if (codonOffset != null) {
+			try {
+				parsedCodonOffset = Integer.parseInt(codonOffset);
+			} catch (final NumberFormatException e) {
+				err.println("Codon offset parameter is not a number. Given parameter: " + codonOffset);
+				exit(1);
+			}
+			if (parsedCodonOffset < 0 || parsedCodonOffset > 2) {
+				err.println("Codon offset must be 0, 1 or 2. Given parameter: " + codonOffset);
+				exit(1);
+			}
+		}
+		EDnDsValue value = EDnDsValue.DN_DS;
+		if (dndsValue != null) {
+			try {
+				value = EDnDsValue.valueOf(dndsValue.toUpperCase().replace('/', '_'));
+			} catch (final IllegalArgumentException e) {
+				err.println("Value argument is unknown: " + dndsValue);
+				exit(1);
+			}
+		}
+
+		// Encoding charset.
+		final Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+
+		// Read input sequences
+		final List<Sequence> sequences = readSequences(input, seqType, charset);
+
+		// Count substitutions between all haplotypes.
+		final List<Haplotype> haplotypes;
+		try (Phase phase = statistics.start("collapse")) {
+			haplotypes = Haplotype.wrap(sequences);
+			phase.addSequences(sequences);
+		}
+		final DnDsMatrix matrix;
+		try (Phase phase = statistics.start("dnds")) {
+			matrix = new DnDsMatrix(haplotypes, new NeiGojobori(codonTable), parsedCodonOffset);
+			phase.addSequences(haplotypes.size());
+		}
+
+		// Write output.
+		final EDnDsValue usedValue = value;
+		writeOutput(output, charset, writer -> {
+			final DnDsMatrixWriter matrixWriter = new DnDsMatrixWriter(writer);
+			matrixWriter.setValue(usedValue);
+			try {
+				matrixWriter.write(matrix);
+			} catch (final IOException e) {
+				err.println("Error writing output file. Underlying error message: " + e.getMessage());
+				e.printStackTrace(err);
+				exit(1);
+				return;
+			}
+		});
+	}
+
+	private final void performCodonUsage(final CliArgs args) {
+		if (isHelp(args)) {
+			writeCodonUsageHelp();
+			exit(0);
+		}
+
+		// Read command line arguments.
+		String codonNumber = getArg(args, CODON_DATA_NUMBER_ARG, CODON_DATA_NUMBER_LONG_ARG);
+		String input = getArg(args, INPUT_ARG, INPUT_LONG_ARG);
+		String output = getArg(args, OUTPUT_ARG, OUTPUT_LONG_ARG);
+		final String fileFormat = getArg(args, FILE_FORMAT_ARG, FILE_FORMAT_LONG_ARG);
+		final String encoding = getArg(args, ENCODING_ARG, ENCODING_LONG_ARG);
+		final String codonOffset = getArg(args, CODON_OFFSET_ARG, CODON_OFFSET_LONG_ARG);
+		final String threads = getArg(args, THREADS_ARG, THREADS_LONG_ARG);
+		if (codonNumber == null) {
+			final String[] targets = args.targets();
+			if (targets.length > 0) {
+				codonNumber = targets[0];
+			} else {
+				err.println("No codon number specified.");
+				exit(1);
+			}
+		}
+		if (input == null) {
+			final String[] targets = args.targets();
+			if (targets.length > 1) {
+				input = targets[1];
+			} else {
+				err.println("No input file specified.");
+				exit(1);
+			}
+		}
+		if (output == null) {
+			final String[] targets = args.targets();
+			if (targets.length > 2) {
+				output = targets[2];
+			}
+		}
+
+		// Read sequence format.
+		final ESequenceType seqType = fileFormat != null ? getFileFormat(fileFormat) : detectFileFormat(input);
+		if (seqType == null) {
+			err.println("Could not determine file format by file content or name and no valid file format was specified.");
+			exit(1);
+		}
+
+		// Get correct codon table.
+		CodonTable codonTable = null;
+		try {
+			codonTable = CodonTableRegistry.getDefault().get(Integer.parseInt(codonNumber));
+		} catch (final NumberFormatException e) {
+			err.println("Codon number parameter is not a number. Given parameter: " + codonNumber);
+			exit(1);
+		}
+		if (codonTable == null) {
+			err.println("No codon transformation data with number " + codonNumber + " known.");
+			exit(1);
+		}
+		int parsedCodonOffset = 0;
+		if (codonOffset != null) {
+			try {
+				parsedCodonOffset = Integer.parseInt(codonOffset);
+			} catch (final NumberFormatException e) {
+				err.println("Codon offset parameter is not a number. Given parameter: " + codonOffset);
+				exit(1);
+			}
+			if (parsedCodonOffset < 0 || parsedCodonOffset > 2) {
+				err.println("Codon offset must be 0, 1 or 2. Given parameter: " + codonOffset);
+				exit(1);
+			}
+		}
+		int parsedThreads = Runtime.getRuntime().availableProcessors();
+		if (threads != null) {
+			try {
+				parsedThreads = Integer.parseInt(threads);
+			} catch (final NumberFormatException e) {
+				err.println("Threads parameter is not a number. Given parameter: " + threads);
+				exit(1);
+			}
+			if (parsedThreads < 1) {
+				err.println("Threads must be a positive number. Given parameter: " + threads);
+				exit(1);
+			}
+		}
+
+		// Encoding charset.
+		final Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+
+		// Stream input sequences and count codons.
+		CodonUsage usage = null;
+		try (Phase phase = statistics.start("count"); ISequenceReader reader = openReader(input, seqType, charset)) {
+			usage = CodonUsage.count(reader, parsedCodonOffset, parsedThreads);
+			phase.addBases(3 * (usage.getTotal() + usage.getInvalid()));
+		} catch (final ErrorCodeException | IOException e) {
+			err.println("Error reading input file. Underlying error message: " + e.getMessage());
+			e.printStackTrace(err);
+			exit(1);
+		}
+
+		// Write output.
+		final CodonUsage usedUsage = usage;
+		final CodonTable usedTable = codonTable;
+		writeOutput(output, charset, writer -> {
+			final CodonUsageWriter usageWriter = new CodonUsageWriter(writer);
+			try {
+				usageWriter.write(usedUsage, usedTable);
+			} catch (final IOException e) {
+				err.println("Error writing output file. Underlying error message: " + e.getMessage());
+				e.printStackTrace(err);
+				exit(1);
+				return;
+			}
+		});
+	}
+
+	private final void performGenerate(final CliArgs args) {
+		if (isHelp(args)) {
+			writeGenerateHelp();
+			exit(0);
+		}
+
+		// Read command line arguments.
+		String output = getArg(args, OUTPUT_ARG, OUTPUT_LONG_ARG);
+		final String outputFormat = getArg(args, OUTPUT_FILE_FORMAT_ARG, OUTPUT_FILE_FORMAT_LONG_ARG);
+		final String encoding = getArg(args, ENCODING_ARG, ENCODING_LONG_ARG);
+		final String seed = getArg(args, SEED_ARG, SEED_LONG_ARG);
+		final String count = getArg(args, SEQUENCE_COUNT_ARG, SEQUENCE_COUNT_LONG_ARG);
+		final String length = getArg(args, SEQUENCE_LENGTH_ARG, SEQUENCE_LENGTH_LONG_ARG);
+		final String haplotypes = getArg(args, HAPLOTYPE_COUNT_ARG, HAPLOTYPE_COUNT_LONG_ARG);
+		final String mutationRate = getArg(args, MUTATION_RATE_ARG, MUTATION_RATE_LONG_ARG);
+		final String gapFraction = getArg(args, GAP_FRACTION_ARG, GAP_FRACTION_LONG_ARG);
+		final String unknownFraction = getArg(args, UNKNOWN_FRACTION_ARG, UNKNOWN_FRACTION_LONG_ARG);
+		final String distribution = getArg(args, DISTRIBUTION_ARG, DISTRIBUTION_LONG_ARG);
+		if (output == null) {
+			final String[] targets = args.targets();
+			if (targets.length > 0) {
+				output = targets[0];
+			}
+		}
+
+		// Read sequence format.
+		ESequenceType seqType = ESequenceType.FASTA;
+		if (outputFormat != null) {
+			seqType = getFileFormat(outputFormat);
+		} else if (output != null) {
+			seqType = ESequenceType.byFileEnding(output);
+		}
+		if (seqType == null) {
+			err.println("Could not determine file format by file name and no valid file format was specified.");
+			exit(1);
+		}
+		if (seqType == ESequenceType.FASTQ) {
+			err.println("FASTQ files can only be read, not written.");
+			exit(1);
+		}
+
+		// Configure generator.
+		final AlignmentGenerator generator = new AlignmentGenerator();
+		try {
+			if (seed != null) {
+				generator.setSeed(Long.parseLong(seed));
+			}
+			if (count != null) {
+				generator.setCount(Integer.parseInt(count));
+			}
+			if (length != null) {
+				generator.setLength(Integer.parseInt(length));
+			}
+			if (haplotypes != null) {
+				generator.setHaplotypes(Integer.parseInt(haplotypes));
+			}
+			if (mutationRate != null) {
+				generator.setMutationRate(Double.parseDouble(mutationRate));
+			}
+			if (gapFraction != null) {
+				generator.setGapFraction(Double.parseDouble(gapFraction));
+			}
+			if (unknownFraction != null) {
+				generator.setUnknownFraction(Double.parseDouble(unknownFraction));
+			}
+			if (distribution != null) {
+				generator.setDistribution(EFrequencyDistribution.valueOf(distribution.toUpperCase()));
+			}
+		} catch (final IllegalArgumentException e) {
+			// Also covers NumberFormatException.
+			err.println("Invalid generator parameter. Underlying error message: " + e.getMessage());
+			exit(1);
+		}
+
+		// Encoding charset.
+		final Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+
+		// Generate and write output.
+		final List<Sequence> sequences = generator.generate();
+		if (seqType == ESequenceType.BINARY) {
+			try (Phase phase = statistics.start("write"); BinaryAlignmentWriter writer = openBinaryOutput(output)) {
+				phase.addSequences(generator.getCount());
+				phase.addBases((long) generator.getCount() * generator.getLength());
+				writer.write(sequences);
+			} catch (final IOException e) {
+				err.println("Error writing output file. Underlying error message: " + e.getMessage());
+				e.printStackTrace(err);
+				exit(1);
+			}
+			return;
+		}
+		final ESequenceType usedSeqType = seqType;
+		writeOutput(output, charset, generator.getCount(), (long) generator.getCount() * generator.getLength(), writer -> {
+			final ISequenceWriter seqWriter = createWriter(usedSeqType, writer);
+			try {
+				seqWriter.write(sequences);
+			} catch (final IOException e) {
+				err.println("Error writing output file. Underlying error message: " + e.getMessage());
+				e.printStackTrace(err);
+				exit(1);
+				return;
+			}
+		});
+	}
+
+	private final void performPipeline(final CliArgs args) {
+		if (isHelp(args)) {
+			writePipelineHelp();
+			exit(0);
+		}
+
+		// Read command line arguments.
+		String input = getArg(args, INPUT_ARG, INPUT_LONG_ARG);
+		final String fileFormat = getArg(args, FILE_FORMAT_ARG, FILE_FORMAT_LONG_ARG);
+		final String encoding = getArg(args, ENCODING_ARG, ENCODING_LONG_ARG);
+		final String convert = getArg(args, PIPE_CONVERT_ARG, PIPE_CONVERT_LONG_ARG);
+		final String haplotype = getArg(args, PIPE_HAPLOTYPE_ARG, PIPE_HAPLOTYPE_LONG_ARG);
+		final String distance = getArg(args, PIPE_DISTANCE_ARG, PIPE_DISTANCE_LONG_ARG);
+		final String translate = getArg(args, PIPE_TRANSLATE_ARG, PIPE_TRANSLATE_LONG_ARG);
+		final String seq = getArg(args, MASTER_SEQUENCE_ARG, MASTER_SEQUENCE_LONG_ARG);
+		final String id = getArg(args, MASTER_ID_ARG, MASTER_ID_LONG_ARG);
+		final String codonNumber = getArg(args, CODON_DATA_NUMBER_ARG, CODON_DATA_NUMBER_LONG_ARG);
+		final String codonOffset = getArg(args, CODON_OFFSET_ARG, CODON_OFFSET_LONG_ARG);
+		if (input == null) {
+			final String[] targets = args.targets();
+			if (targets.length > 0) {
+				input = targets[0];
+			} else {
+				err.println("No input file specified.");
+				exit(1);
+			}
+		}
+		if (convert == null && haplotype == null && distance == null && translate == null) {
+			err.println("No output of the pipeline specified.");
+			exit(1);
+		}
+
+		// Read sequence format.
+		final ESequenceType seqType = fileFormat != null ? getFileFormat(fileFormat) : detectFileFormat(input);
+		if (seqType == null) {
+			err.println("Could not determine file format by file content or name and no valid file format was specified.");
+			exit(1);
+		}
+
+		// Get codon table to translate and classify differences with.
+		CodonTable codonTable = null;
+		if (codonNumber != null) {
+			try {
+				codonTable = CodonTableRegistry.getDefault().get(Integer.parseInt(codonNumber));
+			} catch (final NumberFormatException e) {
+				err.println("Codon number parameter is not a number. Given parameter: " + codonNumber);
+				exit(1);
+			}
+			if (codonTable == null) {
+				err.println("No codon transformation data with number " + codonNumber + " known.");
+				exit(1);
+			}
+		} else if (translate != null) {
+			err.println("No codon number specified for translation.");
+			exit(1);
+		}
+		int parsedCodonOffset = 0;
+		if (codonOffset != null) {
+			try {
+				parsedCodonOffset = Integer.parseInt(codonOffset);
+			} catch (final NumberFormatException e) {
+				err.println("Codon offset parameter is not a number. Given parameter: " + codonOffset);
+				exit(1);
+			}
+			if (parsedCodonOffset < 0 || parsedCodonOffset > 2) {
+				err.println("Codon offset must be 0, 1 or 2. Given parameter: " + codonOffset);
+				exit(1);
+			}
+		}
+
+		// Encoding charset.
+		final Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+
+		// Create sinks.
+		final List<BaseFileSink> sinks = new ArrayList<>();
+		if (convert != null) {
+			for (final String output : convert.split(",")) {
+				final ESequenceType outputType = ESequenceType.byFileEnding(output);
+				if (outputType == null) {
+					err.println("Could not determine output file format by file name: " + output);
+					exit(1);
+				}
+				if (outputType == ESequenceType.FASTQ) {
+					err.println("FASTQ files can only be read, not written: " + output);
+					exit(1);
+				}
+				sinks.add(new SequenceWriterSink(resolve(output), charset, outputType, null));
+			}
+		}
+		if (haplotype != null) {
+			final HaplotypeTableSink sink = new HaplotypeTableSink(resolve(haplotype), charset);
+			sink.setMasterId(id);
+			sink.setMasterSequence(seq);
+			sink.setCodonTable(codonTable);
+			sink.setCodonOffset(parsedCodonOffset);
+			sinks.add(sink);
+		}
+		if (distance != null) {
+			sinks.add(new DistanceMatrixSink(resolve(distance), charset));
+		}
+		if (translate != null) {
+			final ESequenceType outputType = ESequenceType.byFileEnding(translate);
+			if (outputType == null) {
+				err.println("Could not determine output file format by file name: " + translate);
+				exit(1);
+			}
+			if (outputType == ESequenceType.FASTQ) {
+				err.println("FASTQ files can only be read, not written: " + translate);
+				exit(1);
+			}
+			final CodonTransformationData data = CodonTableRegistry.getDefault().getData(codonTable.getNumber());
+			sinks.add(new SequenceWriterSink(resolve(translate), charset, outputType, sequence -> new CodonTransformer(data, sequence).transformAuto()));
+		}
+
+		// Read input once, feeding all sinks.
+		final FanOut fanOut = new FanOut(new ArrayList<>(sinks), FanOut.DEFAULT_CAPACITY);
+		final List<Exception> failures;
+		try (Phase phase = statistics.start("pipeline"); ISequenceReader reader = openReader(input, seqType, charset)) {
+			if (reader instanceof BaseSequenceReader) {
+				((BaseSequenceReader) reader).setEnforceSameLength(true);
+			}
+			fanOut.start();
+			reader.read(fanOut);
+			if (fanOut.getCount() == 0) {
+				err.println("No sequences found in input file.");
+				exit(1);
+			}
+			failures = fanOut.finish();
+			phase.addSequences(fanOut.getCount());
+			phase.addBases(fanOut.getBases());
+		} catch (final ErrorCodeException | IOException e) {
+			err.println("Error reading input file. Underlying error message: " + e.getMessage());
+			e.printStackTrace(err);
+			exit(1);
+			return;
+		} finally {
+			// Only ends the sinks, if reading failed.
+			fanOut.cancel();
+		}
+
+		boolean failed = false;
+		for (int i = 0; i < failures.size(); i++) {
+			if (failures.get(i) != null) {
+				failed = true;
+				err.println("Error writing output file " + sinks.get(i).getFile() + ". Underlying error message: " + failures.get(i).getMessage());
+			}
+		}
+		if (failed) {
+			exit(1);
+		}
+	}
+
+	private Sequence readMaster(final String masterFile, final String id, final Charset charset) {
+		try (IndexedFastaReader reader = new IndexedFastaReader(resolve(masterFile), charset)) {
+			final Sequence master = reader.read(id);
+			if (master == null) {
+				err.println("Master sequence with ID \"" + id + "\" not found in master file.");
+				exit(1);
+			}
+			return master;
+		} catch (final IOException e) {
+			err.println("Error reading master file. Underlying error message: " + e.getMessage());
+			e.printStackTrace(err);
+			exit(1);
+			return null;
+		}
+	}
+
+	private final void performFastaIndex(final CliArgs args) {
+		if (isHelp(args)) {
+			writeFastaIndexHelp();
+			exit(0);
+		}
+
+		// Read command line arguments.
+		String input = getArg(args, INPUT_ARG, INPUT_LONG_ARG);
+		final String output = getArg(args, OUTPUT_ARG, OUTPUT_LONG_ARG);
+		final String encoding = getArg(args, ENCODING_ARG, ENCODING_LONG_ARG);
+		final List<String> regions = new ArrayList<>(Arrays.asList(args.targets()));
+		if (input == null) {
+			if (!regions.isEmpty()) {
+				input = regions.remove(0);
+			} else {
+				err.println("No input file specified.");
+				exit(1);
+			}
+		}
+
+		// Encoding charset.
+		final Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+
+		// Load or build index.
+		final List<Sequence> sequences = new ArrayList<>(regions.size());
+		try (Phase phase = statistics.start("index"); IndexedFastaReader reader = new IndexedFastaReader(resolve(input), charset)) {
+			for (final String region : regions) {
+				final Sequence sequence = readRegion(reader, region);
+				if (sequence == null) {
+					err.println("Sequence of region \"" + region + "\" not found in index.");
+					exit(1);
+				}
+				sequences.add(sequence);
+			}
+			phase.addSequences(sequences);
+			if (regions.isEmpty()) {
+				err.println("Indexed " + reader.getIndex().size() + " sequence(s) in " + FastaIndex.indexFile(resolve(input)).getPath());
+				return;
+			}
+		} catch (final FileNotFoundException e) {
+			err.println("Input file could not be found. Underlying error message: " + e.getMessage());
+			e.printStackTrace(err);
+			exit(1);
+		} catch (final IOException e) {
+			err.println("Error indexing input file. Underlying error message: " + e.getMessage());
+			e.printStackTrace(err);
+			exit(1);
+		}
+
+		// Write output.
+		writeOutput(output, charset, sequences.size(), countBases(sequences), writer -> {
+			final ISequenceWriter seqWriter = ESequenceType.FASTA.createWriter(writer);
+			try {
+				seqWriter.write(sequences);
+			} catch (final IOException e) {
+				err.println("Error writing output file. Underlying error message: " + e.getMessage());
+				e.printStackTrace(err);
+				exit(1);
+				return;
+			}
+		});
+	}
+
+	private Sequence readRegion(final IndexedFastaReader reader, final String region) throws IOException {
+		// Names may contain a colon themselves.
+		final int colon = region.lastIndexOf(':');
+		if (reader.getIndex().get(region) != null || colon < 0) {
+			return reader.read(region);
+		}
+
+		final String range = region.substring(colon + 1);
+		final int dash = range.indexOf('-');
+		long from = 0;
+		long to = 0;
+		try {
+			from = Long.parseLong(dash < 0 ? range : range.substring(0, dash));
+			to = dash < 0 ? Long.MAX_VALUE : Long.parseLong(range.substring(dash + 1));
+		} catch (final NumberFormatException e) {
+			err.println("Invalid region: " + region);
+			exit(1);
+		}
+		if (from < 1 || to < from) {
+			err.println("Invalid region: " + region);
+			exit(1);
+		}
+		return reader.read(region.substring(0, colon), from - 1, to);
+	}
 
-	private static final void writeCodonHelp() {
-		System.out.println("Performs a codon translation. Reads in sequences and translates them via a codon table.");
-		System.out.println();
-		System.out.println("Usage: -codon [options] codon_number input_file [output_file]");
-		System.out.println("Example: -codon 1 input_seq.fas");
-		System.out.println("Example: -codon -cn 26 -i input_seq.fas -o codon.txt");
-		System.out.println("Options:");
+	private final void performBatch(final String[] rawArgs, final CliArgs args) {
+		if (isHelp(args)) {
+			writeBatchHelp();
+			exit(0);
+		}
+
+		// Read command line arguments.
+		final String input = getArg(args, BATCH_INPUT_ARG, BATCH_INPUT_LONG_ARG);
+		final String manifest = getArg(args, BATCH_MANIFEST_ARG, BATCH_MANIFEST_LONG_ARG);
+		final String template = getArg(args, BATCH_OUTPUT_ARG, BATCH_OUTPUT_LONG_ARG);
+		final String threads = getArg(args, BATCH_THREADS_ARG, BATCH_THREADS_LONG_ARG);
+		final String encoding = getArg(args, ENCODING_ARG, ENCODING_LONG_ARG);
+		if (input == null && manifest == null) {
+			err.println("No batch input directory, pattern or manifest specified.");
+			exit(1);
+		}
+		if (template == null) {
+			err.println("No batch output template specified.");
+			exit(1);
+		}
+		boolean function = false;
+		for (final String batchFunction : BATCH_FUNCTIONS) {
+			function |= args.switchPresent(batchFunction);
+		}
+		if (!function) {
+			err.println("No function to perform in batch specified.");
+			exit(1);
+		}
+		int parsedThreads = Runtime.getRuntime().availableProcessors();
+		if (threads != null) {
+			try {
+				parsedThreads = Integer.parseInt(threads);
+			} catch (final NumberFormatException e) {
+				err.println("Batch threads parameter is not a number. Given parameter: " + threads);
+				exit(1);
+			}
+			if (parsedThreads < 1) {
+				err.println("Batch threads must be a positive number. Given parameter: " + threads);
+				exit(1);
+			}
+		}
+
+		// Collect input files.
+		final List<File> inputs = new ArrayList<>();
+		try {
+			if (manifest != null) {
+				final Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+				inputs.addAll(BatchInput.fromManifest(resolve(manifest), charset));
+			}
+			if (input != null) {
+				if (BatchInput.isGlob(input)) {
+					inputs.addAll(BatchInput.fromGlob(workDir, input));
+				} else {
+					inputs.addAll(BatchInput.fromDirectory(resolve(input)));
+				}
+			}
+		} catch (final IOException e) {
+			err.println("Could not collect batch input files. Underlying error message: " + e.getMessage());
+			e.printStackTrace(err);
+			exit(1);
+		}
+		if (inputs.isEmpty()) {
+			err.println("No batch input files found.");
+			exit(1);
+		}
+
+		// Forward everything, except the batch's own arguments.
+		final List<String> forwarded = new ArrayList<>(rawArgs.length);
+		for (int i = 0; i < rawArgs.length; i++) {
+			if (Arrays.asList(BATCH_ONLY_VALUES).contains(rawArgs[i])) {
+				i++;
+			} else if (!Arrays.asList(BATCH_ONLY_FLAGS).contains(rawArgs[i])) {
+				forwarded.add(rawArgs[i]);
+			}
+		}
+
+		// Process input files. The phase counts no sequences, as the files are
+		// only read by the runs of the batch.
+		final List<BatchResult> results;
+		final Phase phase = statistics.start("batch");
+		try {
+			final Batch batch = new Batch((runOut, runErr, runDir, runArgs) -> new Main(runOut, runErr, runDir).run(runArgs), parsedThreads);
+			results = batch.run(workDir, inputs, forwarded.toArray(new String[forwarded.size()]), new OutputTemplate(template));
+		} catch (final IllegalArgumentException e) {
+			err.println(e.getMessage());
+			exit(1);
+			return;
+		} finally {
+			phase.close();
+		}
+
+		int failed = 0;
+		for (final BatchResult result : results) {
+			if (!result.isSuccess()) {
+				failed++;
+				err.println("Failed: " + result.getInput() + " (exit status " + result.getStatus() + ")");
+				for (final String line : result.getErrors().split("\\R")) {
+					if (!line.isEmpty()) {
+						err.println("\t" + line);
+					}
+				}
+			}
+		}
+		err.println("Processed " + results.size() + " file(s), " + (results.size() - failed) + " successfully, " + failed + " failed.");
+		if (failed > 0) {
+			exit(1);
+		}
+	}
+
+	private static final void performServer(final CliArgs args) {
+		final String port = getArg(args, PORT_ARG, PORT_LONG_ARG);
+		final String threads = getArg(args, THREADS_ARG, THREADS_LONG_ARG);
+
+		final int parsedPort = parsePort(port);
+		int parsedThreads = Runtime.getRuntime().availableProcessors();
+		if (threads != null) {
+			try {
+				parsedThreads = Integer.parseInt(threads);
+			} catch (final NumberFormatException e) {
+				System.err.println("Threads parameter is not a number. Given parameter: " + threads);
+				System.exit(1);
+			}
+			if (parsedThreads < 1) {
+				System.err.println("Threads must be a positive number. Given parameter: " + threads);
+				System.exit(1);
+			}
+		}
+
+		final IRunner runner = (out, err, workDir, runArgs) -> new Main(out, err, workDir).run(runArgs);
+		try (Server server = new Server(runner, parsedPort, parsedThreads)) {
+			System.out.println("Server listening on port " + server.getPort() + ".");
+			server.serve();
+		} catch (final IOException e) {
+			System.err.println("Could not run server. Underlying error message: " + e.getMessage());
+			e.printStackTrace();
+			System.exit(1);
+		}
+	}
+
+	private static final int performClient(final String[] args, final CliArgs cliArgs) {
+		final int port = parsePort(getArg(cliArgs, PORT_ARG, PORT_LONG_ARG));
+
+		// Forward everything, except the client's own arguments.
+		final List<String> forwarded = new ArrayList<>(args.length);
+		for (int i = 0; i < args.length; i++) {
+			if (PORT_ARG.equals(args[i]) || PORT_LONG_ARG.equals(args[i])) {
+				i++;
+			} else if (!CLIENT_ARG.equals(args[i])) {
+				forwarded.add(args[i]);
+			}
+		}
+
+		try {
+			final String workDir = new File("").getAbsolutePath();
+			return new Client(port).execute(workDir, forwarded.toArray(new String[forwarded.size()]), System.out, System.err);
+		} catch (final IOException e) {
+			System.err.println("Could not perform request on server. Underlying error message: " + e.getMessage());
+			return 1;
+		}
+	}
+
+	private static final int parsePort(final String port) {
+		if (port == null) {
+			return Protocol.DEFAULT_PORT;
+		}
+		try {
+			final int parsedPort = Integer.parseInt(port);
+			if (parsedPort >= 0 && parsedPort <= 0xFFFF) {
+				return parsedPort;
+			}
+		} catch (final NumberFormatException e) {
+			// Handled below.
+		}
+		System.err.println("Port must be a number between 0 and 65535. Given parameter: " + port);
+		System.exit(1);
+		return -1;
+	}
+
+	private final void performHelp() {
+		writeFullHelp();
+		exit(0);
+	}
+
+	private final void performUnknown() {
+		out.println("Could not detect what function to perform.");
+		out.println();
+		writeFullHelp();
+		exit(1);
+	}
+
+	private final void writeFullHelp() {
+		out.println("The following functions are available:");
+		out.println();
+
+		out.println("\t* Perform a file type conversion.");
+		out.println("\t\t" + CONVERT_ARG + " <args>");
+		out.println("\t\tFor help use: " + CONVERT_ARG + " " + HELP_1_ARG);
+		out.println();
+
+		out.println("\t* Perform a haplotype analysis.");
+		out.println("\t\t" + HAPLOTYPE_ARG + " <args>");
+		out.println("\t\tFor help use: " + HAPLOTYPE_ARG + " " + HELP_1_ARG);
+		out.println();
+
+		out.println("\t* Perform a haplotype analysis on amino acid level.");
+		out.println("\t\t" + AMINO_ACID_HAPLOTYPE_ARG + " <args>");
+		out.println("\t\tFor help use: " + AMINO_ACID_HAPLOTYPE_ARG + " " + HELP_1_ARG);
+		out.println();
+
+		out.println("\t* Perform a codon transformation.");
+		out.println("\t\t" + CODON_ARG + " <args>");
+		out.println("\t\tFor help use: " + CODON_ARG + " " + HELP_1_ARG);
+		out.println();
+
+		out.println("\t* Compute dN/dS between all haplotypes.");
+		out.println("\t\t" + DNDS_ARG + " <args>");
+		out.println("\t\tFor help use: " + DNDS_ARG + " " + HELP_1_ARG);
+		out.println();
+
+		out.println("\t* Count codon usage.");
+		out.println("\t\t" + CODON_USAGE_ARG + " <args>");
+		out.println("\t\tFor help use: " + CODON_USAGE_ARG + " " + HELP_1_ARG);
+		out.println();
+
+		out.println("\t* Generate a synthetic alignment.");
+		out.println("\t\t" + GENERATE_ARG + " <args>");
+		out.println("\t\tFor help use: " + GENERATE_ARG + " " + HELP_1_ARG);
+		out.println();
+
+		out.println("\t* Perform several functions on a single read of the input.");
+		out.println("\t\t" + PIPELINE_ARG + " <args>");
+		out.println("\t\tFor help use: " + PIPELINE_ARG + " " + HELP_1_ARG);
+		out.println();
+
+		out.println("\t* Index a FASTA file and read sequences or regions by name.");
+		out.println("\t\t" + FASTA_INDEX_ARG + " <args>");
+		out.println("\t\tFor help use: " + FASTA_INDEX_ARG + " " + HELP_1_ARG);
+		out.println();
+
+		out.println("\t* Perform a function on many files in parallel.");
+		out.println("\t\t" + BATCH_ARG + " <function> <args>");
+		out.println("\t\tFor help use: " + BATCH_ARG + " " + HELP_1_ARG);
+		out.println();
+
+		out.println("\t* Keep a server running, which performs functions on behalf of clients.");
+		out.println("\t\t" + SERVER_ARG + " <args>");
+		out.println("\t\tFor help use: " + SERVER_ARG + " " + HELP_1_ARG);
+		out.println();
+
+		out.println("The following options are available for all functions:");
+		writeOptionLine(STATS_ARG, STATS_LONG_ARG, "\tWrites time, CPU time, allocated memory, peak heap and throughput of each phase to the error console.");
+		writeOptionLine(STATS_FILE_ARG, STATS_FILE_LONG_ARG, "Writes the statistics of each phase as JSON to the given file.");
+		out.println("\t" + CLIENT_ARG + "\t\t\tPerforms the function on a running server, instead of in a new virtual machine.");
+		writeOptionLine(PORT_ARG, PORT_LONG_ARG, "\tPort of the server, if performed on a server. If not given, " + Protocol.DEFAULT_PORT + " will be used.");
+		out.println();
+	}
+
+	private final void writePipelineHelp() {
+		out.println("Reads in sequences once and hands them to several outputs at the same time: conversions, a haplotype table, a distance matrix and a codon translation. Each output is produced on its own thread.");
+		out.println();
+		out.println("Usage: -pipeline [options] input_file");
+		out.println("Example: -pipeline -pc seq.phy,seq.csv -ph haplotypes.txt -pd distances.txt input_seq.fas");
+		out.println("Example: -pipeline -cn 1 -pt translated.fas -ph haplotypes.txt -mi Seq3 -i input_seq.fas");
+		out.println("Options:");
+
+		writeOptionLine(PIPE_CONVERT_ARG, PIPE_CONVERT_LONG_ARG, "Comma separated list of files the sequences should be converted to. The file format is determined by the file ending of each file.");
+		writeOptionLine(PIPE_HAPLOTYPE_ARG, PIPE_HAPLOTYPE_LONG_ARG, "File the haplotype table should be written to.");
+		writeOptionLine(PIPE_DISTANCE_ARG, PIPE_DISTANCE_LONG_ARG, "File the distance matrix between all haplotypes should be written to.");
+		writeOptionLine(PIPE_TRANSLATE_ARG, PIPE_TRANSLATE_LONG_ARG, "File the codon translation should be written to. The file format is determined by the file ending. Needs a codon number.");
+		writeOptionLine(CODON_DATA_NUMBER_ARG, CODON_DATA_NUMBER_LONG_ARG, "Uses the codon translation with the defined number for the translation. Also classifies each difference in the haplotype table as synonymous (S) or non-synonymous (N).");
+		writeOptionLine(CODON_OFFSET_ARG, CODON_OFFSET_LONG_ARG, "Offset of the first codon in the master sequence, if differences are classified. Possible values are 0, 1 and 2. If not given, 0 will be used.");
+		writeOptionLine(MASTER_SEQUENCE_ARG, MASTER_SEQUENCE_LONG_ARG, "Master sequence to compare to in the haplotype table. If neither master sequence nor ID is given, will use first sequence of input.");
+		writeOptionLine(MASTER_ID_ARG, MASTER_ID_LONG_ARG, "ID of master sequence to compare to in the haplotype table. If neither master sequence nor ID is given, will use first sequence of input.");
+		writeOptionLine(ENCODING_ARG, ENCODING_LONG_ARG, "Encoding of input file and outputs. If not given, UTF-8 will be used.");
+		writeOptionLine(FILE_FORMAT_ARG, FILE_FORMAT_LONG_ARG, "File format of input file. Possible values are: \"fasta\" for Fasta-, \"phylip\" for Phylip-, \"tcs\" for Phylip TCS-, \"csv\" for CSV/Excel-, \"binary\" for binary alignment and \"fastq\" for FASTQ format. If not given, file type will be estimated according to the file content or ending.");
+		writeOptionLine(INPUT_ARG, INPUT_LONG_ARG, "\tPath to input file. If present, 'input_file' will be ignored.");
+	}
+
+	private final void writeFastaIndexHelp() {
+		out.println("Creates a samtools compatible index (.fai) of a FASTA file, if it doesn't exist or is older than the FASTA file. Then writes the given sequences or regions, read by seeking instead of parsing the whole file. Regions are given as name:from-to, with positions starting at 1.");
+		out.println();
+		out.println("Usage: -faidx [options] input_file [region ...]");
+		out.println("Example: -faidx input_seq.fas");
+		out.println("Example: -faidx -o regions.fas input_seq.fas Seq1 Seq3:100-200");
+		out.println("Options:");
+
+		writeOptionLine(ENCODING_ARG, ENCODING_LONG_ARG, "Encoding of input file and output. If not given, UTF-8 will be used.");
+		writeOptionLine(INPUT_ARG, INPUT_LONG_ARG, "\tPath to input file. If present, all targets are regions.");
+		writeOptionLine(OUTPUT_ARG, OUTPUT_LONG_ARG, "Path to output file. If not present, will be written to console.");
+	}
+
+	private final void writeBatchHelp() {
+		out.println("Performs a function on many input files in parallel. Each file is processed independently, so errors in one file do not stop the others. The options of the function are given as usual, except for input and output files.");
+		out.println();
+		out.println("Usage: -batch function [function options] [options]");
+		out.println("Example: -batch -haplotype -bi data -bo {dir}/{base}.hap.txt");
+		out.println("Example: -batch -convert -of csv -bi \"data/**/*.fas\" -bo out/{base}.csv -bt 8");
+		out.println("Example: -batch -codon -cn 2 -bm files.txt -bo {dir}/{base}.aa.{ext}");
+		out.println("Options:");
+
+		writeOptionLine(BATCH_INPUT_ARG, BATCH_INPUT_LONG_ARG, "Directory, whose files should be processed, or glob pattern matching the files to process, e.g. \"data/*.fas\". Only \"**\" matches across directories.");
+		writeOptionLine(BATCH_MANIFEST_ARG, BATCH_MANIFEST_LONG_ARG, "File listing the files to process, one per line. Relative paths are resolved against the directory of the manifest. Empty lines and lines starting with '#' are ignored.");
+		writeOptionLine(BATCH_OUTPUT_ARG, BATCH_OUTPUT_LONG_ARG, "Template of the output file of each input file. May contain {name} (file name of the input), {base} (file name without extension), {ext} (extension) and {dir} (directory of the input).");
+		writeOptionLine(BATCH_THREADS_ARG, BATCH_THREADS_LONG_ARG, "Number of files processed in parallel. If not given, the number of available processors will be used.");
+		writeOptionLine(ENCODING_ARG, ENCODING_LONG_ARG, "Encoding of the manifest, input files and output. If not given, UTF-8 will be used.");
+	}
+
+	private final void writeServerHelp() {
+		out.println("Keeps a server running on the local machine, which performs functions on behalf of clients. Avoids starting a new virtual machine for each function. Only clients of the same user are served, as they need the token the server writes to ~/.hcat.");
+		out.println();
+		out.println("Usage: -server [options]");
+		out.println("Example: -server -p 47474 -t 4");
+		out.println("Example: -client -haplotype input_seq.fas");
+		out.println("Options:");
+
+		writeOptionLine(PORT_ARG, PORT_LONG_ARG, "\tPort to listen on. Only connections from the local machine are accepted. If not given, " + Protocol.DEFAULT_PORT + " will be used.");
+		writeOptionLine(THREADS_ARG, THREADS_LONG_ARG, "\tNumber of functions performed concurrently. If not given, the number of available processors will be used.");
+	}
+
+	private final void writeConversionHelp() {
+		out.println("Performs a file type conversion. Reads in sequences in one format and writes them out in another.");
+		out.println();
+		out.println("Usage: -convert [options] input_file output_format [output_file]");
+		out.println("Example: -convert input_seq.fas tcs");
+		out.println("Example: -codon -f fasta -of tcs -i input_seq.txt -o output_seq.txt");
+		out.println("Options:");
+
+		writeOptionLine(ENCODING_ARG, ENCODING_LONG_ARG, "Encoding of input file and output. If not given, UTF-8 will be used.");
+		writeOptionLine(FILE_FORMAT_ARG, FILE_FORMAT_LONG_ARG, "File format of input file. Possible values are: \"fasta\" for Fasta-, \"phylip\" for Phylip-, \"tcs\" for Phylip TCS-, \"csv\" for CSV/Excel-, \"binary\" for binary alignment and \"fastq\" for FASTQ format. If not given, file type will be estimated according to the file content or ending.");
+		writeOptionLine(INPUT_ARG, INPUT_LONG_ARG, "\tPath to input file. If present, 'input_file' will be ignored.");
+		writeOptionLine(INTERLEAVED_ARG, INTERLEAVED_LONG_ARG, "Reads and writes Phylip files in interleaved instead of sequential layout.");
+		writeOptionLine(MIN_QUALITY_ARG, MIN_QUALITY_LONG_ARG, "Filters out FASTQ reads with any base of a lower quality. If not given, reads are not filtered by quality.");
+		writeOptionLine(MEAN_QUALITY_ARG, MEAN_QUALITY_LONG_ARG, "Filters out FASTQ reads with a lower mean quality. If not given, reads are not filtered by mean quality.");
+		writeOptionLine(MIN_LENGTH_ARG, MIN_LENGTH_LONG_ARG, "Filters out FASTQ reads with less bases. If not given, only reads without any bases are filtered out.");
+		writeOptionLine(MAX_LENGTH_ARG, MAX_LENGTH_LONG_ARG, "Filters out FASTQ reads with more bases. If not given, reads are not filtered by maximum length.");
+		writeOptionLine(OUTPUT_ARG, OUTPUT_LONG_ARG, "Path to output file. If present, 'output_file' will be ignored. If not present and 'output_file' is not present either, will be written to console.");
+		writeOptionLine(OUTPUT_FILE_FORMAT_ARG, OUTPUT_FILE_FORMAT_LONG_ARG, "File format of output file. Possible values are: \"fasta\" for Fasta-, \"phylip\" for Phylip-, \"tcs\" for Phylip TCS-, \"csv\" for CSV/Excel- and \"binary\" for binary alignment format. If present, 'output_format' will be ignored.");
+	}
+
+	private final void writeCodonHelp() {
+		out.println("Performs a codon translation. Reads in sequences and translates them via a codon table.");
+		out.println();
+		out.println("Usage: -codon [options] codon_number input_file [output_file]");
+		out.println("Example: -codon 1 input_seq.fas");
+		out.println("Example: -codon -cn 26 -i input_seq.fas -o codon.txt");
+		out.println("Options:");
 
 		writeOptionLine(CODON_DATA_NUMBER_ARG, CODON_DATA_NUMBER_LONG_ARG, "Uses the codon translation with the defined number. If present, 'codon_number' will be ignored.");
 		writeOptionLine(ENCODING_ARG, ENCODING_LONG_ARG, "Encoding of input file and output. If not given, UTF-8 will be used.");
-		writeOptionLine(FILE_FORMAT_ARG, FILE_FORMAT_LONG_ARG, "File format of input file. Possible values are: \"fasta\" for Fasta-, \"phylip\" for Phylip-, \"tcs\" for Phylip TCS- and \"csv\" for CSV/Excel-format. If not given, file type will be estimated according to the file ending.");
+		writeOptionLine(FILE_FORMAT_ARG, FILE_FORMAT_LONG_ARG, "File format of input file. Possible values are: \"fasta\" for Fasta-, \"phylip\" for Phylip-, \"tcs\" for Phylip TCS-, \"csv\" for CSV/Excel-, \"binary\" for binary alignment and \"fastq\" for FASTQ format. If not given, file type will be estimated according to the file content or ending. Output is written in the same format, except for FASTQ, which is written as Fasta.");
 		writeOptionLine(INPUT_ARG, INPUT_LONG_ARG, "\tPath to input file. If present, 'input_file' will be ignored.");
 		writeOptionLine(OUTPUT_ARG, OUTPUT_LONG_ARG, "Path to output file. If present, 'output_file' will be ignored. If not present and 'output_file' is not present either, will be written to console.");
+		writeOptionLine(THREADS_ARG, THREADS_LONG_ARG, "\tNumber of threads translating sequences while they are read and written. If not given, the number of available processors will be used.");
 	}
 
-	private static final void writeHaplotypeHelp() {
-		System.out.println("Performs an analysis of haploytpes. Reads in sequences and writes them out as haploytpes.");
-		System.out.println();
-		System.out.println("Usage: -haplotype [options] input_file [output_file]");
-		System.out.println("Example: -haplotype input_seq.fas");
-		System.out.println("Example: -haplotype -ms ACGTGTCAC -i input_seq.fas -o haplotype.txt");
-		System.out.println("Options:");
+	private final void writeHaplotypeHelp() {
+		out.println("Performs an analysis of haploytpes. Reads in sequences and writes them out as haploytpes.");
+		out.println();
+		out.println("Usage: -haplotype [options] input_file [output_file]");
+		out.println("Example: -haplotype input_seq.fas");
+		out.println("Example: -haplotype -ms ACGTGTCAC -i input_seq.fas -o haplotype.txt");
+		out.println("Options:");
 
 		writeOptionLine(ENCODING_ARG, ENCODING_LONG_ARG, "Encoding of input file and output. If not given, UTF-8 will be used.");
-		writeOptionLine(FILE_FORMAT_ARG, FILE_FORMAT_LONG_ARG, "File format of input file. Possible values are: \"fasta\" for Fasta-, \"phylip\" for Phylip-, \"tcs\" for Phylip TCS- and \"csv\" for CSV/Excel-format. If not given, file type will be estimated according to the file ending.");
+		writeOptionLine(FILE_FORMAT_ARG, FILE_FORMAT_LONG_ARG, "File format of input file. Possible values are: \"fasta\" for Fasta-, \"phylip\" for Phylip-, \"tcs\" for Phylip TCS-, \"csv\" for CSV/Excel-, \"binary\" for binary alignment and \"fastq\" for FASTQ format. If not given, file type will be estimated according to the file content or ending.");
 		writeOptionLine(INPUT_ARG, INPUT_LONG_ARG, "\tPath to input file. If present, 'input_file' will be ignored.");
 		writeOptionLine(OUTPUT_ARG, OUTPUT_LONG_ARG, "Path to output file. If present, 'output_file' will be ignored. If not present and 'output_file' is not present either, will be written to console.");
 		writeOptionLine(MASTER_SEQUENCE_ARG, MASTER_SEQUENCE_LONG_ARG, "Master sequence to compare to. If neither master sequence nor ID is given, will use first sequence of input.");
 		writeOptionLine(MASTER_ID_ARG, MASTER_ID_LONG_ARG, "ID of master sequence to compare to. If neither master sequence nor ID is given, will use first sequence of input.");
+		writeOptionLine(MASTER_FILE_ARG, MASTER_FILE_LONG_ARG, "FASTA file to look up the master sequence in by its ID, instead of the input. Uses the index (.fai) of the file, which is created if needed, so the file isn't parsed.");
+		writeOptionLine(CODON_DATA_NUMBER_ARG, CODON_DATA_NUMBER_LONG_ARG, "Classifies each difference as synonymous (S) or non-synonymous (N), using the codon translation with the defined number.");
+		writeOptionLine(CODON_OFFSET_ARG, CODON_OFFSET_LONG_ARG, "Offset of the first codon in the master sequence, if differences are classified. Possible values are 0, 1 and 2. If not given, 0 will be used.");
+		writeOptionLine(MIN_QUALITY_ARG, MIN_QUALITY_LONG_ARG, "Filters out FASTQ reads with any base of a lower quality. If not given, reads are not filtered by quality.");
+		writeOptionLine(MEAN_QUALITY_ARG, MEAN_QUALITY_LONG_ARG, "Filters out FASTQ reads with a lower mean quality. If not given, reads are not filtered by mean quality.");
+		writeOptionLine(MIN_LENGTH_ARG, MIN_LENGTH_LONG_ARG, "Filters out FASTQ reads with less bases. If not given, only reads without any bases are filtered out.");
+		writeOptionLine(MAX_LENGTH_ARG, MAX_LENGTH_LONG_ARG, "Filters out FASTQ reads with more bases. If not given, reads are not filtered by maximum length.");
+	}
+
+	private final void writeAminoAcidHaplotypeHelp() {
+		out.println("Translates sequences and performs a haplotype analysis on the resulting amino acid sequences. Optionally writes the protein p-distance between all haplotypes.");
+		out.println();
+		out.println("Usage: -aahaplotype [options] codon_number input_file [output_file]");
+		out.println("Example: -aahaplotype 1 input_seq.fas");
+		out.println("Example: -aahaplotype -cn 2 -i input_seq.fas -o haplotypes.txt -dm distances.txt");
+		out.println("Options:");
+
+		writeOptionLine(CODON_DATA_NUMBER_ARG, CODON_DATA_NUMBER_LONG_ARG, "Uses the codon translation with the defined number. If present, 'codon_number' will be ignored.");
+		writeOptionLine(DISTANCE_MATRIX_ARG, DISTANCE_MATRIX_LONG_ARG, "Path to a file the protein p-distance matrix between all haplotypes should be written to. If not given, no matrix will be written.");
+		writeOptionLine(ENCODING_ARG, ENCODING_LONG_ARG, "Encoding of input file and output. If not given, UTF-8 will be used.");
+		writeOptionLine(FILE_FORMAT_ARG, FILE_FORMAT_LONG_ARG, "File format of input file. Possible values are: \"fasta\" for Fasta-, \"phylip\" for Phylip-, \"tcs\" for Phylip TCS-, \"csv\" for CSV/Excel-, \"binary\" for binary alignment and \"fastq\" for FASTQ format. If not given, file type will be estimated according to the file content or ending.");
+		writeOptionLine(INPUT_ARG, INPUT_LONG_ARG, "\tPath to input file. If present, 'input_file' will be ignored.");
+		writeOptionLine(OUTPUT_ARG, OUTPUT_LONG_ARG, "Path to output file. If present, 'output_file' will be ignored. If not present and 'output_file' is not present either, will be written to console.");
+		writeOptionLine(MASTER_ID_ARG, MASTER_ID_LONG_ARG, "ID of master sequence to compare to. If not given, will use first sequence of input.");
+	}
+
+	private final void writeDnDsHelp() {
+		out.println("Computes dN/dS between all haplotypes (Nei-Gojobori). Reads in sequences, collapses them into haplotypes and writes out a matrix.");
+		out.println();
+		out.println("Usage: -dnds [options] codon_number input_file [output_file]");
+		out.println("Example: -dnds 1 input_seq.fas");
+		out.println("Example: -dnds -cn 2 -co 1 -dv dn -i input_seq.fas -o dn.txt");
+		out.println("Options:");
+
+		writeOptionLine(CODON_DATA_NUMBER_ARG, CODON_DATA_NUMBER_LONG_ARG, "Uses the codon translation with the defined number. If present, 'codon_number' will be ignored.");
+		writeOptionLine(CODON_OFFSET_ARG, CODON_OFFSET_LONG_ARG, "Offset of the first codon. Possible values are 0, 1 and 2. If not given, 0 will be used.");
+		writeOptionLine(DNDS_VALUE_ARG, DNDS_VALUE_LONG_ARG, "Value to write for each pair of haplotypes. Possible values are: \"dn_ds\", \"dn\", \"ds\", \"pn\" and \"ps\". If not given, \"dn_ds\" will be used.");
+		writeOptionLine(ENCODING_ARG, ENCODING_LONG_ARG, "Encoding of input file and output. If not given, UTF-8 will be used.");
+		writeOptionLine(FILE_FORMAT_ARG, FILE_FORMAT_LONG_ARG, "File format of input file. Possible values are: \"fasta\" for Fasta-, \"phylip\" for Phylip-, \"tcs\" for Phylip TCS-, \"csv\" for CSV/Excel-, \"binary\" for binary alignment and \"fastq\" for FASTQ format. If not given, file type will be estimated according to the file content or ending.");
+		writeOptionLine(INPUT_ARG, INPUT_LONG_ARG, "\tPath to input file. If present, 'input_file' will be ignored.");
+		writeOptionLine(OUTPUT_ARG, OUTPUT_LONG_ARG, "Path to output file. If present, 'output_file' will be ignored. If not present and 'output_file' is not present either, will be written to console.");
+	}
+
+	private final void writeCodonUsageHelp() {
+		out.println("Counts codon usage. Streams in sequences and writes out count, frequency and relative synonymous codon usage (RSCU) of each codon.");
+		out.println();
+		out.println("Usage: -codonusage [options] codon_number input_file [output_file]");
+		out.println("Example: -codonusage 1 input_seq.fas");
+		out.println("Example: -codonusage -cn 2 -co 1 -t 4 -i input_seq.fas -o usage.txt");
+		out.println("Options:");
+
+		writeOptionLine(CODON_DATA_NUMBER_ARG, CODON_DATA_NUMBER_LONG_ARG, "Uses the codon translation with the defined number. If present, 'codon_number' will be ignored.");
+		writeOptionLine(CODON_OFFSET_ARG, CODON_OFFSET_LONG_ARG, "Offset of the first codon. Possible values are 0, 1 and 2. If not given, 0 will be used.");
+		writeOptionLine(THREADS_ARG, THREADS_LONG_ARG, "\tNumber of threads counting codons. If not given, the number of available processors will be used.");
+		writeOptionLine(ENCODING_ARG, ENCODING_LONG_ARG, "Encoding of input file and output. If not given, UTF-8 will be used.");
+		writeOptionLine(FILE_FORMAT_ARG, FILE_FORMAT_LONG_ARG, "File format of input file. Possible values are: \"fasta\" for Fasta-, \"phylip\" for Phylip-, \"tcs\" for Phylip TCS-, \"csv\" for CSV/Excel-, \"binary\" for binary alignment and \"fastq\" for FASTQ format. If not given, file type will be estimated according to the file content or ending.");
+		writeOptionLine(INPUT_ARG, INPUT_LONG_ARG, "\tPath to input file. If present, 'input_file' will be ignored.");
+		writeOptionLine(OUTPUT_ARG, OUTPUT_LONG_ARG, "Path to output file. If present, 'output_file' will be ignored. If not present and 'output_file' is not present either, will be written to console.");
+	}
+
+	private final void writeGenerateHelp() {
+		out.println("Generates a synthetic alignment. The same seed and options always produce the same alignment.");
+		out.println();
+		out.println("Usage: -generate [options] [output_file]");
+		out.println("Example: -generate alignment.fas");
+		out.println("Example: -generate -s 7 -sc 100000 -sl 5000 -hc 50 -mr 0.02 -fd zipf -of phylip -o alignment.phy");
+		out.println("Options:");
+
+		writeOptionLine(SEED_ARG, SEED_LONG_ARG, "\tSeed of the random generator. If not given, 0 will be used.");
+		writeOptionLine(SEQUENCE_COUNT_ARG, SEQUENCE_COUNT_LONG_ARG, "Number of sequences. If not given, 100 will be used.");
+		writeOptionLine(SEQUENCE_LENGTH_ARG, SEQUENCE_LENGTH_LONG_ARG, "Length of each sequence. If not given, 1000 will be used.");
+		writeOptionLine(HAPLOTYPE_COUNT_ARG, HAPLOTYPE_COUNT_LONG_ARG, "Number of haplotypes sequences are drawn from. If not given, 10 will be used.");
+		writeOptionLine(MUTATION_RATE_ARG, MUTATION_RATE_LONG_ARG, "Probability of each position of a haplotype to differ from the master sequence. If not given, 0.01 will be used.");
+		writeOptionLine(GAP_FRACTION_ARG, GAP_FRACTION_LONG_ARG, "Fraction of gaps in each haplotype. If not given, 0 will be used.");
+		writeOptionLine(UNKNOWN_FRACTION_ARG, UNKNOWN_FRACTION_LONG_ARG, "Fraction of unknown bases (N) in each haplotype. If not given, 0 will be used.");
+		writeOptionLine(DISTRIBUTION_ARG, DISTRIBUTION_LONG_ARG, "Frequency distribution of the haplotypes. Possible values are: \"uniform\", \"zipf\" and \"geometric\". If not given, \"uniform\" will be used.");
+		writeOptionLine(ENCODING_ARG, ENCODING_LONG_ARG, "Encoding of output. If not given, UTF-8 will be used.");
+		writeOptionLine(INTERLEAVED_ARG, INTERLEAVED_LONG_ARG, "Writes Phylip files in interleaved instead of sequential layout.");
+		writeOptionLine(OUTPUT_ARG, OUTPUT_LONG_ARG, "Path to output file. If present, 'output_file' will be ignored. If not present and 'output_file' is not present either, will be written to console.");
+		writeOptionLine(OUTPUT_FILE_FORMAT_ARG, OUTPUT_FILE_FORMAT_LONG_ARG, "File format of output file. Possible values are: \"fasta\" for Fasta-, \"phylip\" for Phylip-, \"tcs\" for Phylip TCS-, \"csv\" for CSV/Excel- and \"binary\" for binary alignment format. If not given, file type will be estimated according to the file ending, or Fasta-format will be used if written to console.");
 	}
 
-	private static final void writeOptionLine(final String shortOpt, final String longOpt, final String text) {
-		System.out.println("\t" + shortOpt + ",\t" + longOpt + "\t" + text);
+	private final void writeOptionLine(final String shortOpt, final String longOpt, final String text) {
+		out.println("\t" + shortOpt + ",\t" + longOpt + "\t" + text);
 	}
 
 }
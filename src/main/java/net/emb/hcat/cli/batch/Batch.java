@@ -0,0 +1,151 @@
+package net.emb.hcat.cli.batch;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.emb.hcat.cli.IRunner;
+
+/**
+ * Performs the same run on many input files in parallel. Each file is
+ * processed by its own run, so an error in one file does not affect the
+ * others. All runs share the same virtual machine, including loaded codon
+ * tables and compiled code.
+ *
+ * @author Heiko Mattes
+ */
+public class Batch {
+
+	private static final Logger log = LoggerFactory.getLogger(Batch.class);
+
+	private static final String INPUT_ARG = "-i";
+	private static final String OUTPUT_ARG = "-o";
+
+	private final IRunner runner;
+	private final int threads;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param runner
+	 *            Performs the run of each file. Must not be <code>null</code>.
+	 * @param threads
+	 *            Number of files processed concurrently. Must be a positive
+	 *            number.
+	 */
+	public Batch(final IRunner runner, final int threads) {
+		if (runner == null) {
+			throw new IllegalArgumentException("Runner must not be null.");
+		}
+		if (threads < 1) {
+			throw new IllegalArgumentException("Number of threads must be a positive number.");
+		}
+		this.runner = runner;
+		this.threads = threads;
+	}
+
+	/**
+	 * Processes all given input files. The arguments of each run are the
+	 * given arguments, followed by <code>-i</code> with the input file and
+	 * <code>-o</code> with the output file. Missing directories of the output
+	 * files are created.
+	 *
+	 * @param workDir
+	 *            Directory relative paths are resolved against.
+	 * @param inputs
+	 *            The input files. Must not be <code>null</code>.
+	 * @param args
+	 *            Arguments shared by all runs. Must not be <code>null</code>.
+	 * @param template
+	 *            Template deriving the output file from each input file. Must
+	 *            not be <code>null</code>.
+	 * @return The result of each input file, in the order of the inputs.
+	 */
+	public List<BatchResult> run(final File workDir, final List<File> inputs, final String[] args, final OutputTemplate template) {
+		if (inputs == null || args == null || template == null) {
+			throw new IllegalArgumentException("Inputs, arguments and template must not be null.");
+		}
+
+		final List<String> outputs = new ArrayList<>(inputs.size());
+		final Set<String> used = new HashSet<>();
+		for (final File input : inputs) {
+			final String output = template.apply(input);
+			if (!used.add(output)) {
+				throw new IllegalArgumentException("Several input files would be written to the same output file: " + output);
+			}
+			outputs.add(output);
+
+			// Create missing output directories up front, so concurrent runs
+			// don't race for them.
+			final File outputFile = new File(output);
+			final File parent = (outputFile.isAbsolute() ? outputFile : new File(workDir, output)).getParentFile();
+			if (parent != null) {
+				parent.mkdirs();
+			}
+		}
+
+		final ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, Math.max(1, inputs.size())));
+		try {
+			final List<Future<BatchResult>> futures = new ArrayList<>(inputs.size());
+			for (int i = 0; i < inputs.size(); i++) {
+				final File input = inputs.get(i);
+				final String output = outputs.get(i);
+				futures.add(executor.submit(() -> runFile(workDir, input, output, args)));
+			}
+
+			final List<BatchResult> results = new ArrayList<>(inputs.size());
+			for (int i = 0; i < futures.size(); i++) {
+				try {
+					results.add(futures.get(i).get());
+				} catch (final ExecutionException e) {
+					// Should never happen, as runFile catches everything.
+					results.add(new BatchResult(inputs.get(i), outputs.get(i), 1, String.valueOf(e.getCause())));
+				}
+			}
+			return results;
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while processing batch.", e);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private BatchResult runFile(final File workDir, final File input, final String output, final String[] args) throws UnsupportedEncodingException {
+		final String[] fileArgs = Arrays.copyOf(args, args.length + 4);
+		fileArgs[args.length] = INPUT_ARG;
+		fileArgs[args.length + 1] = input.getPath();
+		fileArgs[args.length + 2] = OUTPUT_ARG;
+		fileArgs[args.length + 3] = output;
+
+		final ByteArrayOutputStream errors = new ByteArrayOutputStream();
+		final PrintStream out = new PrintStream(new ByteArrayOutputStream(), false, StandardCharsets.UTF_8.name());
+		final PrintStream err = new PrintStream(errors, true, StandardCharsets.UTF_8.name());
+		int status;
+		try {
+			log.info("Processing batch file: {}", input);
+			status = runner.run(out, err, workDir, fileArgs);
+		} catch (final RuntimeException e) {
+			log.error(e.getMessage(), e);
+			e.printStackTrace(err);
+			status = 1;
+		}
+		err.flush();
+		return new BatchResult(input, output, status, new String(errors.toByteArray(), StandardCharsets.UTF_8));
+	}
+
+}
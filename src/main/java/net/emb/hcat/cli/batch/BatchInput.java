@@ -0,0 +1,132 @@
+package net.emb.hcat.cli.batch;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Collects the input files of a batch, either from a directory, a glob
+ * pattern or a manifest file.
+ *
+ * @author Heiko Mattes
+ */
+public final class BatchInput {
+
+	private static final String GLOB_CHARS = "*?[{";
+
+	private BatchInput() {
+		// Utility class.
+	}
+
+	/**
+	 * Checks whether the given input looks like a glob pattern.
+	 *
+	 * @param input
+	 *            The input to check.
+	 * @return <code>true</code>, if it contains any of the glob characters
+	 *         <code>*?[{</code>, <code>false</code> otherwise.
+	 */
+	public static boolean isGlob(final String input) {
+		for (int i = 0; i < input.length(); i++) {
+			if (GLOB_CHARS.indexOf(input.charAt(i)) >= 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Collects all regular files directly within the given directory.
+	 *
+	 * @param dir
+	 *            The directory.
+	 * @return The files, sorted by name.
+	 * @throws IOException
+	 *             If the directory could not be read.
+	 */
+	public static List<File> fromDirectory(final File dir) throws IOException {
+		try (Stream<Path> stream = Files.list(dir.toPath())) {
+			return stream.filter(Files::isRegularFile).sorted().map(Path::toFile).collect(Collectors.toList());
+		}
+	}
+
+	/**
+	 * Collects all regular files matching the given glob pattern, e.g.
+	 * <code>data/*.fas</code> or <code>data/**&#47;*.fas</code>. The leading
+	 * part of the pattern without any glob characters is the directory files
+	 * are searched in. Only <code>**</code> crosses directory boundaries. A
+	 * leading <code>**&#47;</code> also matches files directly within that
+	 * directory.
+	 *
+	 * @param workDir
+	 *            Directory a relative pattern is resolved against.
+	 * @param pattern
+	 *            The glob pattern, using '/' as separator.
+	 * @return The matching files, sorted by path.
+	 * @throws IOException
+	 *             If a directory could not be read.
+	 */
+	public static List<File> fromGlob(final File workDir, final String pattern) throws IOException {
+		int firstGlob = 0;
+		while (firstGlob < pattern.length() && GLOB_CHARS.indexOf(pattern.charAt(firstGlob)) < 0) {
+			firstGlob++;
+		}
+		final int split = pattern.lastIndexOf('/', firstGlob);
+		final String base = split < 0 ? "" : pattern.substring(0, split + 1);
+		final String rest = split < 0 ? pattern : pattern.substring(split + 1);
+
+		final File baseFile = new File(base);
+		final Path root = (baseFile.isAbsolute() ? baseFile : new File(workDir, base)).toPath();
+		if (!Files.isDirectory(root)) {
+			return Collections.emptyList();
+		}
+
+		final PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + rest);
+		// Let a leading "**/" match no directory at all, too.
+		final PathMatcher topMatcher = rest.startsWith("**/") ? FileSystems.getDefault().getPathMatcher("glob:" + rest.substring(3)) : matcher;
+		final int depth = rest.contains("**") ? Integer.MAX_VALUE : rest.split("/").length;
+		try (Stream<Path> stream = Files.walk(root, depth)) {
+			return stream.filter(path -> {
+				final Path relative = root.relativize(path);
+				return Files.isRegularFile(path) && (matcher.matches(relative) || topMatcher.matches(relative));
+			}).sorted().map(Path::toFile).collect(Collectors.toList());
+		}
+	}
+
+	/**
+	 * Reads the input files listed in a manifest file. Each line contains one
+	 * path. Empty lines and lines starting with '#' are ignored. Relative
+	 * paths are resolved against the directory of the manifest.
+	 *
+	 * @param manifest
+	 *            The manifest file.
+	 * @param charset
+	 *            The encoding of the manifest file.
+	 * @return The listed files, in the order of the manifest.
+	 * @throws IOException
+	 *             If the manifest could not be read.
+	 */
+	public static List<File> fromManifest(final File manifest, final Charset charset) throws IOException {
+		final File dir = manifest.getAbsoluteFile().getParentFile();
+		final List<File> files = new ArrayList<>();
+		for (final String line : Files.readAllLines(manifest.toPath(), charset)) {
+			final String path = line.trim();
+			if (path.isEmpty() || path.startsWith("#")) {
+				continue;
+			}
+			final File file = new File(path);
+			files.add(file.isAbsolute() ? file : new File(dir, path));
+		}
+		return files;
+	}
+
+}
@@ -0,0 +1,87 @@
+package net.emb.hcat.cli.batch;
+
+import java.io.File;
+
+/**
+ * Result of processing a single file of a batch.
+ *
+ * @author Heiko Mattes
+ */
+public class BatchResult {
+
+	private final File input;
+	private final String output;
+	private final int status;
+	private final String errors;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param input
+	 *            The input file.
+	 * @param output
+	 *            The name of the output file.
+	 * @param status
+	 *            The exit status of the run. 0 on success.
+	 * @param errors
+	 *            Everything the run wrote to standard error.
+	 */
+	public BatchResult(final File input, final String output, final int status, final String errors) {
+		this.input = input;
+		this.output = output;
+		this.status = status;
+		this.errors = errors;
+	}
+
+	/**
+	 * Gets the input file.
+	 *
+	 * @return The input file.
+	 */
+	public File getInput() {
+		return input;
+	}
+
+	/**
+	 * Gets the name of the output file.
+	 *
+	 * @return The name of the output file.
+	 */
+	public String getOutput() {
+		return output;
+	}
+
+	/**
+	 * Gets the exit status of the run.
+	 *
+	 * @return The exit status. 0 on success.
+	 */
+	public int getStatus() {
+		return status;
+	}
+
+	/**
+	 * Checks whether the file was processed successfully.
+	 *
+	 * @return <code>true</code>, if the exit status is 0, <code>false</code>
+	 *         otherwise.
+	 */
+	public boolean isSuccess() {
+		return status == 0;
+	}
+
+	/**
+	 * Gets everything the run wrote to standard error.
+	 *
+	 * @return The error output. Empty, if nothing was written.
+	 */
+	public String getErrors() {
+		return errors;
+	}
+
+	@Override
+	public String toString() {
+		return "BatchResult [input=" + input + ", output=" + output + ", status=" + status + "]";
+	}
+
+}
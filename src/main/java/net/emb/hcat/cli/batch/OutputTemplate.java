@@ -0,0 +1,69 @@
+package net.emb.hcat.cli.batch;
+
+import java.io.File;
+
+/**
+ * Derives the name of an output file from the name of an input file. The
+ * template may contain the following placeholders:
+ * <ul>
+ * <li><code>{name}</code>: File name of the input, e.g.
+ * <code>seq.fas</code>.</li>
+ * <li><code>{base}</code>: File name of the input without extension, e.g.
+ * <code>seq</code>.</li>
+ * <li><code>{ext}</code>: Extension of the input without the dot, e.g.
+ * <code>fas</code>. Empty, if there is none.</li>
+ * <li><code>{dir}</code>: Directory of the input.</li>
+ * </ul>
+ *
+ * @author Heiko Mattes
+ */
+public class OutputTemplate {
+
+	private final String template;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param template
+	 *            The template. Must not be <code>null</code> or empty.
+	 */
+	public OutputTemplate(final String template) {
+		if (template == null || template.isEmpty()) {
+			throw new IllegalArgumentException("Template must not be empty.");
+		}
+		this.template = template;
+	}
+
+	/**
+	 * Gets the name of the output file for the given input file.
+	 *
+	 * @param input
+	 *            The input file.
+	 * @return The name of the output file.
+	 */
+	public String apply(final File input) {
+		final String name = input.getName();
+		final int dot = name.lastIndexOf('.');
+		final String base = dot > 0 ? name.substring(0, dot) : name;
+		final String ext = dot > 0 ? name.substring(dot + 1) : "";
+		final File parent = input.getParentFile();
+		final String dir = parent == null ? "." : parent.getPath();
+
+		return template.replace("{name}", name).replace("{base}", base).replace("{ext}", ext).replace("{dir}", dir);
+	}
+
+	/**
+	 * Gets the template.
+	 *
+	 * @return The template.
+	 */
+	public String getTemplate() {
+		return template;
+	}
+
+	@Override
+	public String toString() {
+		return "OutputTemplate [template=" + template + "]";
+	}
+
+}
@@ -0,0 +1,300 @@
+package net.emb.hcat.cli.codon;
+
+import java.util.Arrays;
+
+/**
+ * A compiled, immutable form of {@link CodonTransformationData}. Instead of
+ * looking up each triple in a map, every codon is addressed by an index
+ * between 0 and 63, which is derived directly from its three nucleotides.
+ * Thus, instances can be shared freely between threads.
+ *
+ * @author Heiko Mattes
+ */
+public final class CodonTable {
+
+	/** Number of different codons. */
+	public static final int CODON_COUNT = 64;
+
+	/** Order of the nucleotides, as used by the NCBI codon tables. */
+	private static final String BASES = "TCAG";
+
+	private static final byte[] BASE_INDEX = new byte[128];
+
+	static {
+		Arrays.fill(BASE_INDEX, (byte) -1);
+		for (int i = 0; i < BASES.length(); i++) {
+			BASE_INDEX[BASES.charAt(i)] = (byte) i;
+			BASE_INDEX[Character.toLowerCase(BASES.charAt(i))] = (byte) i;
+		}
+	}
+
+	/**
+	 * Gets the index of a single nucleotide.
+	 *
+	 * @param c
+	 *            The nucleotide (case-insensitive).
+	 * @return The index of the nucleotide between 0 and 3, or -1 if it is not
+	 *         one of ACGT.
+	 */
+	public static int baseIndex(final char c) {
+		return c < BASE_INDEX.length ? BASE_INDEX[c] : -1;
+	}
+
+	/**
+	 * Gets the index of the codon, consisting of the three given nucleotides.
+	 *
+	 * @param c1
+	 *            The first nucleotide (case-insensitive).
+	 * @param c2
+	 *            The second nucleotide (case-insensitive).
+	 * @param c3
+	 *            The third nucleotide (case-insensitive).
+	 * @return The index of the codon between 0 and 63, or -1 if any of the
+	 *         characters is not one of ACGT.
+	 */
+	public static int codonIndex(final char c1, final char c2, final char c3) {
+		final int b1 = baseIndex(c1);
+		final int b2 = baseIndex(c2);
+		final int b3 = baseIndex(c3);
+		if (b1 < 0 || b2 < 0 || b3 < 0) {
+			return -1;
+		}
+		return b1 << 4 | b2 << 2 | b3;
+	}
+
+	/**
+	 * Gets the index of the codon starting at the given offset.
+	 *
+	 * @param value
+	 *            The sequence value to read the codon from.
+	 * @param offset
+	 *            The offset of the first nucleotide of the codon.
+	 * @return The index of the codon between 0 and 63, or -1 if the codon is
+	 *         incomplete or contains a character that is not one of ACGT.
+	 */
+	public static int codonIndex(final CharSequence value, final int offset) {
+		if (offset < 0 || offset + 2 >= value.length()) {
+			return -1;
+		}
+		return codonIndex(value.charAt(offset), value.charAt(offset + 1), value.charAt(offset + 2));
+	}
+
+	/**
+	 * Gets the codon for the given index.
+	 *
+	 * @param index
+	 *            The index of the codon between 0 and 63.
+	 * @return The codon as a triple of upper case ACGT characters.
+	 */
+	public static String codon(final int index) {
+		return new String(new char[] { BASES.charAt(index >> 4 & 3), BASES.charAt(index >> 2 & 3), BASES.charAt(index & 3) });
+	}
+
+	/**
+	 * Compiles the given transformation data.
+	 *
+	 * @param data
+	 *            The data to compile. Must not be <code>null</code>.
+	 * @return The compiled codon table. Codons missing in the given data will
+	 *         be translated to '?'.
+	 */
+	public static CodonTable compile(final CodonTransformationData data) {
+		if (data == null) {
+			throw new IllegalArgumentException("Data must not be null.");
+		}
+
+		final char[] aminoAcids = new char[CODON_COUNT];
+		long startMask = 0;
+		long endMask = 0;
+		for (int i = 0; i < CODON_COUNT; i++) {
+			final String codon = codon(i);
+			final Character aminoAcid = data.codon.get(codon);
+			aminoAcids[i] = aminoAcid == null ? '?' : aminoAcid.charValue();
+			if (data.start.containsKey(codon)) {
+				startMask |= 1L << i;
+			}
+			if (data.end.containsKey(codon)) {
+				endMask |= 1L << i;
+			}
+		}
+		return new CodonTable(data.number, data.name, aminoAcids, startMask, endMask);
+	}
+
+	private final int number;
+	private final String name;
+	private final char[] aminoAcids;
+	private final long startMask;
+	private final long endMask;
+	// For each codon, a bit mask marking all codons translating to the same
+	// amino acid. Together forms a 64x64 bit table.
+	private final long[] synonymous = new long[CODON_COUNT];
+
+	/**
+	 * Constructor.
+	 *
+	 * @param number
+	 *            Unique number of the codon table.
+	 * @param name
+	 *            Name of the codon table.
+	 * @param aminoAcids
+	 *            For each codon index, the amino acid it translates to. Must
+	 *            have a length of 64. Will be copied.
+	 * @param startMask
+	 *            Bit mask, where each set bit marks the codon with that index
+	 *            as a start codon.
+	 * @param endMask
+	 *            Bit mask, where each set bit marks the codon with that index
+	 *            as an end codon.
+	 */
+	public CodonTable(final int number, final String name, final char[] aminoAcids, final long startMask, final long endMask) {
+		if (aminoAcids == null || aminoAcids.length != CODON_COUNT) {
+			throw new IllegalArgumentException("Amino acids must contain exactly " + CODON_COUNT + " entries.");
+		}
+		this.number = number;
+		this.name = name;
+		this.aminoAcids = aminoAcids.clone();
+		this.startMask = startMask;
+		this.endMask = endMask;
+
+		for (int i = 0; i < CODON_COUNT; i++) {
+			for (int j = 0; j < CODON_COUNT; j++) {
+				if (this.aminoAcids[i] == this.aminoAcids[j]) {
+					synonymous[i] |= 1L << j;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the amino acid for the codon with the given index.
+	 *
+	 * @param index
+	 *            The index of the codon.
+	 * @return The amino acid, or '?' if the index is not a valid codon index.
+	 */
+	public char getAminoAcid(final int index) {
+		return index < 0 || index >= CODON_COUNT ? '?' : aminoAcids[index];
+	}
+
+	/**
+	 * Checks whether two codons translate to the same amino acid. Uses a
+	 * precomputed table, so this is a constant time lookup.
+	 *
+	 * @param index1
+	 *            The index of the first codon.
+	 * @param index2
+	 *            The index of the second codon.
+	 * @return <code>true</code>, if both codons are valid and translate to the
+	 *         same amino acid, <code>false</code> otherwise.
+	 */
+	public boolean isSynonymous(final int index1, final int index2) {
+		if (index1 < 0 || index1 >= CODON_COUNT || index2 < 0 || index2 >= CODON_COUNT) {
+			return false;
+		}
+		return (synonymous[index1] >>> index2 & 1L) != 0;
+	}
+
+	/**
+	 * Gets all codons translating to the same amino acid as the given codon,
+	 * including the codon itself.
+	 *
+	 * @param index
+	 *            The index of the codon.
+	 * @return A bit mask, where each set bit marks the codon with that index
+	 *         as synonymous. Zero if the index is not a valid codon index.
+	 */
+	public long getSynonymousCodons(final int index) {
+		return index < 0 || index >= CODON_COUNT ? 0 : synonymous[index];
+	}
+
+	/**
+	 * Checks whether the codon with the given index is a start codon.
+	 *
+	 * @param index
+	 *            The index of the codon.
+	 * @return <code>true</code>, if it is a start codon, <code>false</code>
+	 *         otherwise.
+	 */
+	public boolean isStart(final int index) {
+		return index >= 0 && index < CODON_COUNT && (startMask >>> index & 1L) != 0;
+	}
+
+	/**
+	 * Checks whether the codon with the given index is an end codon.
+	 *
+	 * @param index
+	 *            The index of the codon.
+	 * @return <code>true</code>, if it is an end codon, <code>false</code>
+	 *         otherwise.
+	 */
+	public boolean isEnd(final int index) {
+		return index >= 0 && index < CODON_COUNT && (endMask >>> index & 1L) != 0;
+	}
+
+	/**
+	 * Creates a new {@link CodonTransformationData} with the same content as
+	 * this table.
+	 *
+	 * @return A new, independent instance of the transformation data.
+	 */
+	public CodonTransformationData toData() {
+		final CodonTransformationData data = new CodonTransformationData();
+		data.name = name;
+		data.number = number;
+		for (int i = 0; i < CODON_COUNT; i++) {
+			final String codon = codon(i);
+			data.codon.put(codon, aminoAcids[i]);
+			if (isStart(i)) {
+				data.start.put(codon, 'M');
+			}
+			if (isEnd(i)) {
+				data.end.put(codon, '*');
+			}
+		}
+		return data;
+	}
+
+	/**
+	 * Gets the unique number of this codon table.
+	 *
+	 * @return The number.
+	 */
+	public int getNumber() {
+		return number;
+	}
+
+	/**
+	 * Gets the name of this codon table.
+	 *
+	 * @return The name.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Gets the bit mask of all start codons.
+	 *
+	 * @return The bit mask, where each set bit marks the codon with that index
+	 *         as a start codon.
+	 */
+	public long getStartMask() {
+		return startMask;
+	}
+
+	/**
+	 * Gets the bit mask of all end codons.
+	 *
+	 * @return The bit mask, where each set bit marks the codon with that index
+	 *         as an end codon.
+	 */
+	public long getEndMask() {
+		return endMask;
+	}
+
+	@Override
+	public String toString() {
+		return "CodonTable [number=" + number + ", name=" + name + "]";
+	}
+
+}
@@ -1,5 +1,6 @@
 package net.emb.hcat.cli.codon;
 
+import java.util.Collections;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
@@ -17,17 +18,47 @@ public class CodonTransformationData {
 	/**
 	 * Contains for each triple of ACGT into which codon it will be transformed.
 	 */
-	public final SortedMap<String, Character> codon = new TreeMap<String, Character>();
+	public final SortedMap<String, Character> codon;
 	/**
 	 * Contains for each triple of ACGT into which start codon it will be
 	 * transformed.
 	 */
-	public final SortedMap<String, Character> start = new TreeMap<String, Character>();
+	public final SortedMap<String, Character> start;
 	/**
 	 * Contains for each triple of ACGT into which end codon it will be
 	 * transformed.
 	 */
-	public final SortedMap<String, Character> end = new TreeMap<String, Character>();
+	public final SortedMap<String, Character> end;
+
+	/**
+	 * Constructor. Creates empty, modifiable transformation data.
+	 */
+	public CodonTransformationData() {
+		this(new TreeMap<String, Character>(), new TreeMap<String, Character>(), new TreeMap<String, Character>());
+	}
+
+	private CodonTransformationData(final SortedMap<String, Character> codon, final SortedMap<String, Character> start, final SortedMap<String, Character> end) {
+		this.codon = codon;
+		this.start = start;
+		this.end = end;
+	}
+
+	/**
+	 * Creates a copy of this data, whose codons can't be modified. Changes to
+	 * this data are not visible in the copy.
+	 *
+	 * @return A new copy with unmodifiable maps.
+	 */
+	public CodonTransformationData unmodifiableCopy() {
+		final CodonTransformationData copy = new CodonTransformationData(unmodifiable(codon), unmodifiable(start), unmodifiable(end));
+		copy.name = name;
+		copy.number = number;
+		return copy;
+	}
+
+	private static SortedMap<String, Character> unmodifiable(final SortedMap<String, Character> map) {
+		return Collections.unmodifiableSortedMap(new TreeMap<String, Character>(map));
+	}
 
 	@Override
 	public String toString() {
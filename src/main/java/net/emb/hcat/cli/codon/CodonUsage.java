@@ -0,0 +1,230 @@
+package net.emb.hcat.cli.codon;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import net.emb.hcat.cli.ErrorCodeException;
+import net.emb.hcat.cli.ErrorCodeException.EErrorCode;
+import net.emb.hcat.cli.io.sequence.ISequenceReader;
+import net.emb.hcat.cli.jfr.CodonBatchEvent;
+import net.emb.hcat.cli.sequence.Sequence;
+
+/**
+ * Counts how often each codon is used. Counts are kept in a primitive array,
+ * so counting does not allocate. A single instance is not thread-safe, instead
+ * each thread should count into its own instance, which are merged at the end.
+ *
+ * @author Heiko Mattes
+ */
+public class CodonUsage {
+
+	// Marks the end of the stream of sequences for the workers.
+	private static final Sequence END = new Sequence("");
+
+	/**
+	 * Counts the codon usage of all sequences of the given reader. Sequences
+	 * are streamed from the reader and counted on several worker threads, each
+	 * using its own counter.
+	 *
+	 * @param reader
+	 *            The reader to read sequences from. Must not be
+	 *            <code>null</code>.
+	 * @param offset
+	 *            The offset of the first codon in each sequence. Must be a
+	 *            non-negative number.
+	 * @param workers
+	 *            The number of worker threads. Must be a positive number.
+	 * @return The merged codon usage of all sequences.
+	 * @throws ErrorCodeException
+	 *             An exception happened reading in the sequences.
+	 */
+	public static CodonUsage count(final ISequenceReader reader, final int offset, final int workers) throws ErrorCodeException {
+		if (reader == null) {
+			throw new IllegalArgumentException("Reader must not be null.");
+		}
+		if (offset < 0) {
+			throw new IllegalArgumentException("Offset must be a non-negative number. Offset: " + offset);
+		}
+		if (workers < 1) {
+			throw new IllegalArgumentException("Number of workers must be a positive number.");
+		}
+
+		final BlockingQueue<Sequence> queue = new ArrayBlockingQueue<>(64 * workers);
+		final ExecutorService executor = Executors.newFixedThreadPool(workers);
+		final List<Future<CodonUsage>> futures = new ArrayList<>(workers);
+		try {
+			for (int i = 0; i < workers; i++) {
+				futures.add(executor.submit(() -> {
+					final CodonUsage usage = new CodonUsage();
+					CodonBatchEvent batch = new CodonBatchEvent();
+					batch.begin();
+					Sequence sequence;
+					while ((sequence = queue.take()) != END) {
+						usage.add(sequence, offset);
+						batch.codons += Math.max(0, sequence.getLength() - offset) / 3;
+						if (++batch.sequences == CodonBatchEvent.BATCH_SIZE) {
+							commitBatch(batch);
+							batch = new CodonBatchEvent();
+							batch.begin();
+						}
+					}
+					commitBatch(batch);
+					return usage;
+				}));
+			}
+
+			try {
+				reader.read(sequence -> put(queue, sequence));
+			} finally {
+				// Always stop the workers, even if reading failed.
+				for (int i = 0; i < workers; i++) {
+					put(queue, END);
+				}
+			}
+
+			final CodonUsage total = new CodonUsage();
+			for (final Future<CodonUsage> future : futures) {
+				total.merge(future.get());
+			}
+			return total;
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ErrorCodeException(EErrorCode.UNEXPECTED, e, "Interrupted while counting codons.");
+		} catch (final ExecutionException e) {
+			throw new ErrorCodeException(EErrorCode.UNEXPECTED, e, "Could not count codons. Error message: {}", e.getCause().getMessage());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static void commitBatch(final CodonBatchEvent batch) {
+		if (batch.sequences > 0 && batch.shouldCommit()) {
+			batch.operation = "usage";
+			batch.commit();
+		}
+	}
+
+	private static void put(final BlockingQueue<Sequence> queue, final Sequence sequence) {
+		try {
+			queue.put(sequence);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while handing over sequence.", e);
+		}
+	}
+
+	private final long[] counts = new long[CodonTable.CODON_COUNT];
+	private long invalid;
+
+	/**
+	 * Counts all codons of the given sequence.
+	 *
+	 * @param sequence
+	 *            The sequence to count. Must not be <code>null</code>.
+	 * @param offset
+	 *            The offset of the first codon. Must be a non-negative number.
+	 */
+	public void add(final Sequence sequence, final int offset) {
+		final String value = sequence.getValue();
+		for (int i = offset; i + 2 < value.length(); i += 3) {
+			final int index = CodonTable.codonIndex(value.charAt(i), value.charAt(i + 1), value.charAt(i + 2));
+			if (index < 0) {
+				invalid++;
+			} else {
+				counts[index]++;
+			}
+		}
+	}
+
+	/**
+	 * Adds all counts of another codon usage to this one.
+	 *
+	 * @param other
+	 *            The other codon usage. Must not be <code>null</code>.
+	 */
+	public void merge(final CodonUsage other) {
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] += other.counts[i];
+		}
+		invalid += other.invalid;
+	}
+
+	/**
+	 * Gets how often the codon with the given index was counted.
+	 *
+	 * @param index
+	 *            The index of the codon.
+	 * @return The count.
+	 * @see CodonTable#codonIndex(char, char, char)
+	 */
+	public long getCount(final int index) {
+		return counts[index];
+	}
+
+	/**
+	 * Gets the number of all counted codons. Does not include invalid codons.
+	 *
+	 * @return The number of all counted codons.
+	 */
+	public long getTotal() {
+		long total = 0;
+		for (final long count : counts) {
+			total += count;
+		}
+		return total;
+	}
+
+	/**
+	 * Gets the number of codons that were skipped, as they contained other
+	 * characters than ACGT.
+	 *
+	 * @return The number of invalid codons.
+	 */
+	public long getInvalid() {
+		return invalid;
+	}
+
+	/**
+	 * Gets the frequency of the codon with the given index among all counted
+	 * codons.
+	 *
+	 * @param index
+	 *            The index of the codon.
+	 * @return The frequency between 0 and 1, or NaN if no codons were counted.
+	 */
+	public double getFrequency(final int index) {
+		final long total = getTotal();
+		return total == 0 ? Double.NaN : (double) counts[index] / total;
+	}
+
+	/**
+	 * Gets the relative synonymous codon usage (RSCU) of the codon with the
+	 * given index. It is the count of the codon, divided by the average count
+	 * of all codons translating to the same amino acid.
+	 *
+	 * @param index
+	 *            The index of the codon.
+	 * @param table
+	 *            The codon table defining which codons are synonymous. Must
+	 *            not be <code>null</code>.
+	 * @return The RSCU, or NaN if no synonymous codon was counted.
+	 */
+	public double getRscu(final int index, final CodonTable table) {
+		long synonymous = table.getSynonymousCodons(index);
+		final int codons = Long.bitCount(synonymous);
+		long sum = 0;
+		while (synonymous != 0) {
+			final int codon = Long.numberOfTrailingZeros(synonymous);
+			sum += counts[codon];
+			synonymous &= synonymous - 1;
+		}
+		return sum == 0 ? Double.NaN : (double) counts[index] * codons / sum;
+	}
+
+}
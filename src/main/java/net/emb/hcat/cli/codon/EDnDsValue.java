@@ -0,0 +1,47 @@
+package net.emb.hcat.cli.codon;
+
+/**
+ * Enum containing all values that can be derived from a
+ * {@link SubstitutionCount}.
+ *
+ * @author Heiko Mattes
+ */
+public enum EDnDsValue {
+
+	/** Ratio of non-synonymous to synonymous substitutions (dN/dS). */
+	DN_DS,
+	/** Non-synonymous substitutions per non-synonymous site (dN). */
+	DN,
+	/** Synonymous substitutions per synonymous site (dS). */
+	DS,
+	/** Proportion of non-synonymous differences (pN). */
+	PN,
+	/** Proportion of synonymous differences (pS). */
+	PS;
+
+	/**
+	 * Gets the value described by this enum from the given count.
+	 *
+	 * @param count
+	 *            The count to get the value from.
+	 * @return The value.
+	 */
+	public double of(final SubstitutionCount count) {
+		switch (this) {
+		case DN_DS:
+			return count.getDNDS();
+		case DN:
+			return count.getDN();
+		case DS:
+			return count.getDS();
+		case PN:
+			return count.getPN();
+		case PS:
+			return count.getPS();
+		default:
+			// Will never happen.
+			throw new IllegalStateException("Enum not fully implemented. Missing case: " + this);
+		}
+	}
+
+}
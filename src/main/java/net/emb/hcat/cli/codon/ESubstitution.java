@@ -0,0 +1,36 @@
+package net.emb.hcat.cli.codon;
+
+/**
+ * Enum classifying the effect of a nucleotide substitution on the translated
+ * amino acid.
+ *
+ * @author Heiko Mattes
+ */
+public enum ESubstitution {
+
+	/** The substitution does not change the amino acid. */
+	SYNONYMOUS('S'),
+	/** The substitution changes the amino acid. */
+	NON_SYNONYMOUS('N'),
+	/**
+	 * The substitution can't be classified, e.g. because the codon contains
+	 * gaps or ambiguous nucleotides, or lies outside the reading frame.
+	 */
+	UNKNOWN('?');
+
+	private final char symbol;
+
+	private ESubstitution(final char symbol) {
+		this.symbol = symbol;
+	}
+
+	/**
+	 * Gets the symbol used to display this classification.
+	 *
+	 * @return The symbol.
+	 */
+	public char getSymbol() {
+		return symbol;
+	}
+
+}
@@ -0,0 +1,230 @@
+package net.emb.hcat.cli.codon;
+
+import net.emb.hcat.cli.sequence.Sequence;
+
+/**
+ * Counts synonymous and non-synonymous sites and differences between two
+ * coding sequences, according to Nei and Gojobori (1986). The number of sites
+ * for each codon, and the number of differences along all evolutionary
+ * pathways for each pair of codons, are precomputed once per codon table.
+ * Thus, comparing two sequences only needs table lookups, and an instance can
+ * be shared between threads.
+ *
+ * @author Heiko Mattes
+ */
+public class NeiGojobori {
+
+	private static final int COUNT = CodonTable.CODON_COUNT;
+
+	// All orders in which 1, 2 or 3 differing positions can be changed.
+	private static final int[][][] ORDERS = { {}, { { 0 } }, { { 0, 1 }, { 1, 0 } }, { { 0, 1, 2 }, { 0, 2, 1 }, { 1, 0, 2 }, { 1, 2, 0 }, { 2, 0, 1 }, { 2, 1, 0 } } };
+
+	private final CodonTable table;
+	private final double[] synonymousSites = new double[COUNT];
+	private final double[] synonymousDifferences = new double[COUNT * COUNT];
+	private final double[] nonSynonymousDifferences = new double[COUNT * COUNT];
+
+	/**
+	 * Constructor.
+	 *
+	 * @param data
+	 *            The data describing how to translate codons. Must not be
+	 *            <code>null</code>.
+	 */
+	public NeiGojobori(final CodonTransformationData data) {
+		this(CodonTable.compile(data));
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param table
+	 *            The codon table describing how to translate codons. Must not
+	 *            be <code>null</code>.
+	 */
+	public NeiGojobori(final CodonTable table) {
+		if (table == null) {
+			throw new IllegalArgumentException("Codon table must not be null.");
+		}
+		this.table = table;
+
+		for (int codon = 0; codon < COUNT; codon++) {
+			synonymousSites[codon] = countSynonymousSites(codon);
+		}
+		for (int from = 0; from < COUNT; from++) {
+			for (int to = 0; to < COUNT; to++) {
+				countPathways(from, to);
+			}
+		}
+	}
+
+	// Counts, how many of the possible single nucleotide changes of a codon
+	// are synonymous. Each position contributes the fraction of its three
+	// possible changes that are synonymous.
+	private double countSynonymousSites(final int codon) {
+		if (table.isEnd(codon)) {
+			return 0;
+		}
+		double sites = 0;
+		for (int position = 0; position < 3; position++) {
+			final int shift = 4 - 2 * position;
+			for (int base = 0; base < 4; base++) {
+				final int mutated = codon & ~(3 << shift) | base << shift;
+				if (mutated != codon && table.isSynonymous(codon, mutated)) {
+					sites += 1.0 / 3;
+				}
+			}
+		}
+		return sites;
+	}
+
+	// Averages the synonymous and non-synonymous differences over all
+	// pathways between two codons, ignoring pathways through end codons.
+	private void countPathways(final int from, final int to) {
+		final int[] positions = new int[3];
+		int differing = 0;
+		for (int position = 0; position < 3; position++) {
+			final int shift = 4 - 2 * position;
+			if ((from >> shift & 3) != (to >> shift & 3)) {
+				positions[differing++] = shift;
+			}
+		}
+		if (differing == 0) {
+			return;
+		}
+
+		double synonymous = 0;
+		double nonSynonymous = 0;
+		int pathways = 0;
+		for (final int[] order : ORDERS[differing]) {
+			int current = from;
+			int pathSynonymous = 0;
+			int pathNonSynonymous = 0;
+			boolean valid = true;
+			for (final int step : order) {
+				final int shift = positions[step];
+				final int next = current & ~(3 << shift) | to & 3 << shift;
+				if (next != to && table.isEnd(next)) {
+					valid = false;
+					break;
+				}
+				if (table.isSynonymous(current, next)) {
+					pathSynonymous++;
+				} else {
+					pathNonSynonymous++;
+				}
+				current = next;
+			}
+			if (valid) {
+				synonymous += pathSynonymous;
+				nonSynonymous += pathNonSynonymous;
+				pathways++;
+			}
+		}
+
+		final int index = from * COUNT + to;
+		if (pathways == 0) {
+			// All pathways pass through end codons. Count all changes as
+			// non-synonymous.
+			nonSynonymousDifferences[index] = differing;
+		} else {
+			synonymousDifferences[index] = synonymous / pathways;
+			nonSynonymousDifferences[index] = nonSynonymous / pathways;
+		}
+	}
+
+	/**
+	 * Compares two coding sequences. Codons are read from the given offset on.
+	 * Codons that contain other characters than ACGT, or that are end codons
+	 * in either sequence, are skipped.
+	 *
+	 * @param sequence1
+	 *            The first sequence. Must not be <code>null</code>.
+	 * @param sequence2
+	 *            The second sequence. Must not be <code>null</code>.
+	 * @param offset
+	 *            The offset of the first codon. Must be a non-negative number.
+	 * @return The counted sites and differences.
+	 */
+	public SubstitutionCount compare(final Sequence sequence1, final Sequence sequence2, final int offset) {
+		if (sequence1 == null || sequence2 == null) {
+			throw new IllegalArgumentException("Sequences must not be null.");
+		}
+		if (offset < 0) {
+			throw new IllegalArgumentException("Offset must be a non-negative number. Offset: " + offset);
+		}
+
+		final String value1 = sequence1.getValue();
+		final String value2 = sequence2.getValue();
+		final int length = Math.min(value1.length(), value2.length());
+
+		double sites = 0;
+		double synonymous = 0;
+		double nonSynonymous = 0;
+		int codons = 0;
+		for (int i = offset; i + 2 < length; i += 3) {
+			final int codon1 = CodonTable.codonIndex(value1.charAt(i), value1.charAt(i + 1), value1.charAt(i + 2));
+			final int codon2 = CodonTable.codonIndex(value2.charAt(i), value2.charAt(i + 1), value2.charAt(i + 2));
+			if (codon1 < 0 || codon2 < 0 || table.isEnd(codon1) || table.isEnd(codon2)) {
+				continue;
+			}
+			codons++;
+			sites += (synonymousSites[codon1] + synonymousSites[codon2]) / 2;
+			synonymous += synonymousDifferences[codon1 * COUNT + codon2];
+			nonSynonymous += nonSynonymousDifferences[codon1 * COUNT + codon2];
+		}
+
+		return new SubstitutionCount(sites, 3 * codons - sites, synonymous, nonSynonymous, codons);
+	}
+
+	/**
+	 * Gets the number of synonymous sites of a codon.
+	 *
+	 * @param codon
+	 *            The index of the codon.
+	 * @return The number of synonymous sites. The number of non-synonymous
+	 *         sites is three minus this value. Zero for end codons.
+	 * @see CodonTable#codonIndex(char, char, char)
+	 */
+	public double getSynonymousSites(final int codon) {
+		return synonymousSites[codon];
+	}
+
+	/**
+	 * Gets the number of synonymous differences between two codons, averaged
+	 * over all pathways not passing through an end codon.
+	 *
+	 * @param from
+	 *            The index of the first codon.
+	 * @param to
+	 *            The index of the second codon.
+	 * @return The number of synonymous differences.
+	 */
+	public double getSynonymousDifferences(final int from, final int to) {
+		return synonymousDifferences[from * COUNT + to];
+	}
+
+	/**
+	 * Gets the number of non-synonymous differences between two codons,
+	 * averaged over all pathways not passing through an end codon.
+	 *
+	 * @param from
+	 *            The index of the first codon.
+	 * @param to
+	 *            The index of the second codon.
+	 * @return The number of non-synonymous differences.
+	 */
+	public double getNonSynonymousDifferences(final int from, final int to) {
+		return nonSynonymousDifferences[from * COUNT + to];
+	}
+
+	/**
+	 * Gets the codon table used for translation.
+	 *
+	 * @return The codon table.
+	 */
+	public CodonTable getTable() {
+		return table;
+	}
+
+}
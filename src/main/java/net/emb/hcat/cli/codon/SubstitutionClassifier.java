@@ -0,0 +1,115 @@
+package net.emb.hcat.cli.codon;
+
+import net.emb.hcat.cli.sequence.Sequence;
+
+/**
+ * Classifies differences to a master sequence as synonymous or non-synonymous.
+ * The codons of the master sequence are indexed once, so classifying a single
+ * position of another sequence only costs a codon lookup and a table access.
+ *
+ * @author Heiko Mattes
+ */
+public class SubstitutionClassifier {
+
+	private final CodonTable table;
+	private final Sequence master;
+	private final int offset;
+	private final int[] masterCodons;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param table
+	 *            The codon table to translate codons with. Must not be
+	 *            <code>null</code>.
+	 * @param master
+	 *            The master sequence, all other sequences are compared to.
+	 *            Must not be <code>null</code>.
+	 * @param offset
+	 *            The offset of the first codon in the master sequence. Must be
+	 *            0, 1 or 2.
+	 */
+	public SubstitutionClassifier(final CodonTable table, final Sequence master, final int offset) {
+		if (table == null) {
+			throw new IllegalArgumentException("Codon table must not be null.");
+		}
+		if (master == null) {
+			throw new IllegalArgumentException("Master sequence must not be null.");
+		}
+		if (offset < 0 || offset > 2) {
+			throw new IllegalArgumentException("Offset must be 0, 1 or 2. Offset: " + offset);
+		}
+		this.table = table;
+		this.master = master;
+		this.offset = offset;
+
+		final String value = master.getValue();
+		masterCodons = new int[Math.max(0, (value.length() - offset) / 3)];
+		for (int i = 0; i < masterCodons.length; i++) {
+			masterCodons[i] = CodonTable.codonIndex(value, offset + 3 * i);
+		}
+	}
+
+	/**
+	 * Classifies the substitution at the given position. Only the base at
+	 * that position is put into the codon of the master sequence, so each
+	 * differing position within the same codon is classified on its own.
+	 *
+	 * @param sequence
+	 *            The sequence to classify. Should be of the same length as the
+	 *            master sequence.
+	 * @param position
+	 *            The position of the difference, starting at zero.
+	 * @return The classification of the substitution. Will be
+	 *         {@link ESubstitution#UNKNOWN}, if the position is outside of a
+	 *         complete codon, the codon of the master sequence contains a
+	 *         character other than ACGT, or the base at the position isn't
+	 *         one of ACGT.
+	 */
+	public ESubstitution classify(final Sequence sequence, final int position) {
+		if (position < offset) {
+			return ESubstitution.UNKNOWN;
+		}
+		final int codon = (position - offset) / 3;
+		if (codon >= masterCodons.length || masterCodons[codon] < 0) {
+			return ESubstitution.UNKNOWN;
+		}
+		final String value = sequence.getValue();
+		final int base = position < value.length() ? CodonTable.baseIndex(value.charAt(position)) : -1;
+		if (base < 0) {
+			return ESubstitution.UNKNOWN;
+		}
+		// Two bits per base, the first base being the highest.
+		final int shift = 2 * (2 - (position - offset) % 3);
+		final int index = masterCodons[codon] & ~(3 << shift) | base << shift;
+		return table.isSynonymous(masterCodons[codon], index) ? ESubstitution.SYNONYMOUS : ESubstitution.NON_SYNONYMOUS;
+	}
+
+	/**
+	 * Gets the codon table used for translation.
+	 *
+	 * @return The codon table.
+	 */
+	public CodonTable getTable() {
+		return table;
+	}
+
+	/**
+	 * Gets the master sequence all other sequences are compared to.
+	 *
+	 * @return The master sequence.
+	 */
+	public Sequence getMaster() {
+		return master;
+	}
+
+	/**
+	 * Gets the offset of the first codon.
+	 *
+	 * @return The offset.
+	 */
+	public int getOffset() {
+		return offset;
+	}
+
+}
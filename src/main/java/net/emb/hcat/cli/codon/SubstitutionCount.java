@@ -0,0 +1,162 @@
+package net.emb.hcat.cli.codon;
+
+/**
+ * The result of counting synonymous and non-synonymous sites and differences
+ * between two coding sequences. Derives the proportions, the Jukes-Cantor
+ * corrected distances and their ratio from the counts.
+ *
+ * @author Heiko Mattes
+ */
+public final class SubstitutionCount {
+
+	private final double synonymousSites;
+	private final double nonSynonymousSites;
+	private final double synonymousDifferences;
+	private final double nonSynonymousDifferences;
+	private final int codons;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param synonymousSites
+	 *            The average number of synonymous sites of both sequences.
+	 * @param nonSynonymousSites
+	 *            The average number of non-synonymous sites of both
+	 *            sequences.
+	 * @param synonymousDifferences
+	 *            The number of synonymous differences.
+	 * @param nonSynonymousDifferences
+	 *            The number of non-synonymous differences.
+	 * @param codons
+	 *            The number of codons that were compared.
+	 */
+	public SubstitutionCount(final double synonymousSites, final double nonSynonymousSites, final double synonymousDifferences, final double nonSynonymousDifferences, final int codons) {
+		this.synonymousSites = synonymousSites;
+		this.nonSynonymousSites = nonSynonymousSites;
+		this.synonymousDifferences = synonymousDifferences;
+		this.nonSynonymousDifferences = nonSynonymousDifferences;
+		this.codons = codons;
+	}
+
+	// Jukes-Cantor correction of a proportion of differences.
+	private static double jukesCantor(final double p) {
+		final double inner = 1 - 4 * p / 3;
+		if (inner <= 0) {
+			return Double.POSITIVE_INFINITY;
+		}
+		return -0.75 * Math.log(inner);
+	}
+
+	/**
+	 * Gets the proportion of synonymous differences per synonymous site.
+	 *
+	 * @return The proportion (pS), or NaN if there are no synonymous sites.
+	 */
+	public double getPS() {
+		return synonymousSites == 0 ? Double.NaN : synonymousDifferences / synonymousSites;
+	}
+
+	/**
+	 * Gets the proportion of non-synonymous differences per non-synonymous
+	 * site.
+	 *
+	 * @return The proportion (pN), or NaN if there are no non-synonymous
+	 *         sites.
+	 */
+	public double getPN() {
+		return nonSynonymousSites == 0 ? Double.NaN : nonSynonymousDifferences / nonSynonymousSites;
+	}
+
+	/**
+	 * Gets the Jukes-Cantor corrected number of synonymous substitutions per
+	 * synonymous site.
+	 *
+	 * @return The distance (dS). NaN if there are no synonymous sites, and
+	 *         positive infinity if the proportion is too high to be
+	 *         corrected.
+	 */
+	public double getDS() {
+		final double p = getPS();
+		return Double.isNaN(p) ? p : jukesCantor(p);
+	}
+
+	/**
+	 * Gets the Jukes-Cantor corrected number of non-synonymous substitutions
+	 * per non-synonymous site.
+	 *
+	 * @return The distance (dN). NaN if there are no non-synonymous sites, and
+	 *         positive infinity if the proportion is too high to be
+	 *         corrected.
+	 */
+	public double getDN() {
+		final double p = getPN();
+		return Double.isNaN(p) ? p : jukesCantor(p);
+	}
+
+	/**
+	 * Gets the ratio of non-synonymous to synonymous substitutions.
+	 *
+	 * @return The ratio dN/dS. NaN if it is not defined, e.g. if there are no
+	 *         synonymous substitutions.
+	 */
+	public double getDNDS() {
+		final double dS = getDS();
+		final double dN = getDN();
+		if (Double.isNaN(dS) || Double.isNaN(dN) || dS == 0 || Double.isInfinite(dS)) {
+			return Double.NaN;
+		}
+		return dN / dS;
+	}
+
+	/**
+	 * Gets the average number of synonymous sites of both sequences.
+	 *
+	 * @return The number of synonymous sites.
+	 */
+	public double getSynonymousSites() {
+		return synonymousSites;
+	}
+
+	/**
+	 * Gets the average number of non-synonymous sites of both sequences.
+	 *
+	 * @return The number of non-synonymous sites.
+	 */
+	public double getNonSynonymousSites() {
+		return nonSynonymousSites;
+	}
+
+	/**
+	 * Gets the number of synonymous differences.
+	 *
+	 * @return The number of synonymous differences.
+	 */
+	public double getSynonymousDifferences() {
+		return synonymousDifferences;
+	}
+
+	/**
+	 * Gets the number of non-synonymous differences.
+	 *
+	 * @return The number of non-synonymous differences.
+	 */
+	public double getNonSynonymousDifferences() {
+		return nonSynonymousDifferences;
+	}
+
+	/**
+	 * Gets the number of codons that were compared. Codons containing other
+	 * characters than ACGT, or being end codons, are not compared.
+	 *
+	 * @return The number of compared codons.
+	 */
+	public int getCodons() {
+		return codons;
+	}
+
+	@Override
+	public String toString() {
+		return "SubstitutionCount [S=" + synonymousSites + ", N=" + nonSynonymousSites + ", Sd=" + synonymousDifferences + ", Nd=" + nonSynonymousDifferences + ", codons=" + codons + "]";
+	}
+
+}
@@ -2,12 +2,16 @@ package net.emb.hcat.cli.haplotype;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.function.ToIntBiFunction;
 
+import net.emb.hcat.cli.jfr.DistanceTileEvent;
 import net.emb.hcat.cli.sequence.Difference;
+import net.emb.hcat.cli.sequence.PackedProtein;
 import net.emb.hcat.cli.sequence.Sequence;
 
 /**
@@ -18,6 +22,37 @@ import net.emb.hcat.cli.sequence.Sequence;
  */
 public class DistanceMatrix {
 
+	/**
+	 * Creates a distance matrix of amino acid haplotypes. Each haplotype is
+	 * packed once into a {@link PackedProtein}, so that all pairs can be
+	 * compared several positions at a time. Haplotypes containing characters
+	 * that can't be packed are compared with a {@link Difference} instead.
+	 *
+	 * @param haplotypes
+	 *            A collection of amino acid haplotypes that should be compared.
+	 * @return The distance matrix.
+	 */
+	public static DistanceMatrix ofProteins(final List<Haplotype> haplotypes) {
+		if (haplotypes == null) {
+			throw new IllegalArgumentException("Haplotype list must not be null.");
+		}
+		final Map<Sequence, PackedProtein> packed = new IdentityHashMap<>();
+		for (final Haplotype haplotype : haplotypes) {
+			final Sequence sequence = haplotype.getFirstSequence();
+			if (sequence != null && PackedProtein.isPackable(sequence)) {
+				packed.put(sequence, new PackedProtein(sequence));
+			}
+		}
+		return new DistanceMatrix(haplotypes, (seq1, seq2) -> {
+			final PackedProtein packed1 = packed.get(seq1);
+			final PackedProtein packed2 = packed.get(seq2);
+			if (packed1 == null || packed2 == null) {
+				return new Difference(seq1, seq2).getDistance();
+			}
+			return packed1.distance(packed2);
+		});
+	}
+
 	private final Map<Haplotype, Map<Haplotype, Integer>> matrix;
 
 	/**
@@ -29,13 +64,31 @@ public class DistanceMatrix {
 	 *            or it will be skipped.
 	 */
 	public DistanceMatrix(final List<Haplotype> haplotypes) {
+		this(haplotypes, (seq1, seq2) -> new Difference(seq1, seq2).getDistance());
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param haplotypes
+	 *            A collection of haplotypes that should be compared. No
+	 *            haplotype should be empty (as in, having no sequences to it)
+	 *            or it will be skipped.
+	 * @param distance
+	 *            The function computing the distance between the first
+	 *            sequences of two haplotypes.
+	 */
+	public DistanceMatrix(final List<Haplotype> haplotypes, final ToIntBiFunction<Sequence, Sequence> distance) {
 		if (haplotypes == null) {
 			throw new IllegalArgumentException("Haplotype list must not be null.");
 		}
-		matrix = createMatrix(haplotypes);
+		if (distance == null) {
+			throw new IllegalArgumentException("Distance function must not be null.");
+		}
+		matrix = createMatrix(haplotypes, distance);
 	}
 
-	private Map<Haplotype, Map<Haplotype, Integer>> createMatrix(final List<Haplotype> haplotypes) {
+	private Map<Haplotype, Map<Haplotype, Integer>> createMatrix(final List<Haplotype> haplotypes, final ToIntBiFunction<Sequence, Sequence> function) {
 		final Map<Haplotype, Map<Haplotype, Integer>> map = new LinkedHashMap<>(2 * haplotypes.size());
 		for (int i = 0; i < haplotypes.size(); i++) {
 			final Haplotype haplotype1 = haplotypes.get(i);
@@ -45,6 +98,9 @@ public class DistanceMatrix {
 			}
 			final Map<Haplotype, Integer> innerMap1 = getInnerMap(map, haplotype1);
 
+			final DistanceTileEvent event = new DistanceTileEvent();
+			event.begin();
+			int comparisons = 0;
 			for (int j = i + 1; j < haplotypes.size(); j++) {
 				final Haplotype haplotype2 = haplotypes.get(j);
 				final Sequence seq2 = haplotype2.getFirstSequence();
@@ -53,10 +109,17 @@ public class DistanceMatrix {
 				}
 				final Map<Haplotype, Integer> innerMap2 = getInnerMap(map, haplotype2);
 
-				final Difference difference = new Difference(seq1, seq2);
-				final int distance = difference.getDistance();
+				final int distance = function.applyAsInt(seq1, seq2);
 				innerMap1.put(haplotype2, distance);
 				innerMap2.put(haplotype1, distance);
+				comparisons++;
+			}
+			if (event.shouldCommit()) {
+				event.matrix = "distance";
+				event.row = i;
+				event.comparisons = comparisons;
+				event.length = seq1.getLength();
+				event.commit();
 			}
 		}
 		return map;
@@ -0,0 +1,143 @@
+package net.emb.hcat.cli.haplotype;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.stream.IntStream;
+
+import net.emb.hcat.cli.codon.NeiGojobori;
+import net.emb.hcat.cli.codon.SubstitutionCount;
+import net.emb.hcat.cli.jfr.DistanceTileEvent;
+import net.emb.hcat.cli.sequence.Sequence;
+
+/**
+ * A dN/dS matrix describes the synonymous and non-synonymous substitutions of
+ * each haplotype to each other haplotype. The pairs are compared in parallel.
+ *
+ * @author Heiko Mattes
+ */
+public class DnDsMatrix {
+
+	private final Map<Haplotype, Map<Haplotype, SubstitutionCount>> matrix;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param haplotypes
+	 *            A collection of haplotypes that should be compared. No
+	 *            haplotype should be empty (as in, having no sequences to it)
+	 *            or it will be skipped.
+	 * @param counter
+	 *            The counter used to compare two haplotypes. Must not be
+	 *            <code>null</code>.
+	 * @param offset
+	 *            The offset of the first codon in each haplotype. Must be a
+	 *            non-negative number.
+	 */
+	public DnDsMatrix(final List<Haplotype> haplotypes, final NeiGojobori counter, final int offset) {
+		if (haplotypes == null) {
+			throw new IllegalArgumentException("Haplotype list must not be null.");
+		}
+		if (counter == null) {
+			throw new IllegalArgumentException("Counter must not be null.");
+		}
+		if (offset < 0) {
+			throw new IllegalArgumentException("Offset must be a non-negative number. Offset: " + offset);
+		}
+		matrix = createMatrix(haplotypes, counter, offset);
+	}
+
+	private Map<Haplotype, Map<Haplotype, SubstitutionCount>> createMatrix(final List<Haplotype> haplotypes, final NeiGojobori counter, final int offset) {
+		final List<Haplotype> used = new ArrayList<>(haplotypes.size());
+		for (final Haplotype haplotype : haplotypes) {
+			if (haplotype.getFirstSequence() != null) {
+				used.add(haplotype);
+			}
+		}
+
+		// Compute the upper triangle in parallel, one row per task.
+		final int size = used.size();
+		final SubstitutionCount[][] counts = new SubstitutionCount[size][];
+		IntStream.range(0, size).parallel().forEach(i -> {
+			final DistanceTileEvent event = new DistanceTileEvent();
+			event.begin();
+			final Sequence seq1 = used.get(i).getFirstSequence();
+			final SubstitutionCount[] row = new SubstitutionCount[size];
+			for (int j = i + 1; j < size; j++) {
+				row[j] = counter.compare(seq1, used.get(j).getFirstSequence(), offset);
+			}
+			counts[i] = row;
+			if (event.shouldCommit()) {
+				event.matrix = "dnds";
+				event.row = i;
+				event.comparisons = size - i - 1;
+				event.length = seq1.getLength();
+				event.commit();
+			}
+		});
+
+		final Map<Haplotype, Map<Haplotype, SubstitutionCount>> map = new LinkedHashMap<>(2 * size);
+		for (final Haplotype haplotype : used) {
+			map.put(haplotype, new LinkedHashMap<>());
+		}
+		for (int i = 0; i < size; i++) {
+			for (int j = i + 1; j < size; j++) {
+				map.get(used.get(i)).put(used.get(j), counts[i][j]);
+				map.get(used.get(j)).put(used.get(i), counts[i][j]);
+			}
+		}
+		return map;
+	}
+
+	/**
+	 * Gets the counted substitutions between the two given haplotypes. If
+	 * either is null, or one can't be found, null is returned.
+	 *
+	 * @param haplotype1
+	 *            The first haplotype.
+	 * @param haplotype2
+	 *            The second haplotype.
+	 * @return The counted substitutions between the two haplotypes.
+	 */
+	public SubstitutionCount getCount(final Haplotype haplotype1, final Haplotype haplotype2) {
+		final Map<Haplotype, SubstitutionCount> map = matrix.get(haplotype1);
+		if (map != null) {
+			return map.get(haplotype2);
+		}
+		return null;
+	}
+
+	/**
+	 * Gets all counted substitutions for a given haplotype.
+	 *
+	 * @param haplotype
+	 *            The haplotype to get all counted substitutions for.
+	 * @return An unmodifable map containing for each other haplotype the
+	 *         counted substitutions to the given haplotype.
+	 */
+	public Map<Haplotype, SubstitutionCount> getCounts(final Haplotype haplotype) {
+		final Map<Haplotype, SubstitutionCount> map = matrix.get(haplotype);
+		if (map != null) {
+			return Collections.unmodifiableMap(map);
+		}
+		return null;
+	}
+
+	/**
+	 * Gets the complete matrix.
+	 *
+	 * @return A copy of the internal map, containing for each haplotype the
+	 *         counted substitutions to each other haplotype.
+	 */
+	public Map<Haplotype, Map<Haplotype, SubstitutionCount>> getMatrix() {
+		final Map<Haplotype, Map<Haplotype, SubstitutionCount>> copy = new LinkedHashMap<>();
+		for (final Entry<Haplotype, Map<Haplotype, SubstitutionCount>> entry : matrix.entrySet()) {
+			copy.put(entry.getKey(), new LinkedHashMap<Haplotype, SubstitutionCount>(entry.getValue()));
+		}
+		return copy;
+	}
+
+}
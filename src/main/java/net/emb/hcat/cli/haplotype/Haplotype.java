@@ -2,10 +2,9 @@ package net.emb.hcat.cli.haplotype;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 
+import net.emb.hcat.cli.jfr.CollapseEvent;
 import net.emb.hcat.cli.sequence.Sequence;
 
 /**
@@ -30,30 +29,17 @@ public class Haplotype extends ArrayList<Sequence> {
 			return null;
 		}
 
-		// Create haplotypes.
-		final Map<String, Haplotype> map = new LinkedHashMap<>();
-		for (final Sequence sequence : sequences) {
-			Haplotype haplotype = map.get(sequence.getValue());
-			if (haplotype == null) {
-				haplotype = new Haplotype();
-				map.put(sequence.getValue(), haplotype);
-			}
-			haplotype.add(sequence);
-		}
+		final CollapseEvent event = new CollapseEvent();
+		event.begin();
 
-		// Set names. Make sure that all names have the same length by padding
-		// zeros to the name.
-		final List<Haplotype> haplotypes = new ArrayList<>(map.values());
-		final int digits = (int) Math.log10(haplotypes.size()) + 1;
-		for (int i = 1; i <= haplotypes.size(); i++) {
-			final int currentDigits = (int) Math.log10(i) + 1;
-			final StringBuilder builder = new StringBuilder(3 + digits);
-			builder.append("Hap");
-			for (int k = 0; k < digits - currentDigits; k++) {
-				builder.append('0');
-			}
-			builder.append(i);
-			haplotypes.get(i - 1).setName(builder.toString());
+		final HaplotypeCollector collector = new HaplotypeCollector();
+		sequences.forEach(collector);
+		final List<Haplotype> haplotypes = collector.getHaplotypes();
+
+		if (event.shouldCommit()) {
+			event.sequences = sequences.size();
+			event.haplotypes = haplotypes.size();
+			event.commit();
 		}
 
 		return haplotypes;
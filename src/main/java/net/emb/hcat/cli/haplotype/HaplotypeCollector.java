@@ -0,0 +1,115 @@
+package net.emb.hcat.cli.haplotype;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import net.emb.hcat.cli.sequence.Sequence;
+
+/**
+ * Collapses sequences into haplotypes one by one, as they are read, so the
+ * sequences don't need to be collected into a list first. Not thread safe.
+ *
+ * @author Heiko Mattes
+ */
+public class HaplotypeCollector implements Consumer<Sequence> {
+
+	private final Map<String, Haplotype> map = new LinkedHashMap<>();
+	private int sequences;
+	private boolean shareValues;
+
+	/**
+	 * Adds a sequence to the haplotype with the same value, creating a new
+	 * haplotype, if there is none yet. If values are shared, a copy of the
+	 * sequence with the value of the haplotype is added instead, see
+	 * {@link #setShareValues(boolean)}.
+	 *
+	 * @param sequence
+	 *            The sequence to add. Must not be <code>null</code>.
+	 */
+	@Override
+	public void accept(final Sequence sequence) {
+		final Haplotype haplotype = map.get(sequence.getValue());
+		if (haplotype == null) {
+			final Haplotype created = new Haplotype();
+			created.add(sequence);
+			map.put(sequence.getValue(), created);
+		} else if (shareValues) {
+			haplotype.add(new Sequence(haplotype.getFirstSequence().getValue(), sequence.getName()));
+		} else {
+			haplotype.add(sequence);
+		}
+		sequences++;
+	}
+
+	/**
+	 * Gets whether all sequences of a haplotype share the same value. Default
+	 * is <code>false</code>.
+	 *
+	 * @return <code>true</code>, if values are shared, <code>false</code>
+	 *         otherwise.
+	 */
+	public boolean isShareValues() {
+		return shareValues;
+	}
+
+	/**
+	 * Sets whether all sequences of a haplotype share the same value. If so,
+	 * each sequence added to an existing haplotype is replaced by a copy with
+	 * the value of the haplotype, so its own value can be garbage collected.
+	 * Then memory grows with the number of haplotypes, not with the number of
+	 * bases read, which matters for many short reads. Default is
+	 * <code>false</code>, which adds the given sequences.
+	 *
+	 * @param shareValues
+	 *            <code>true</code>, if values are to be shared,
+	 *            <code>false</code> otherwise.
+	 */
+	public void setShareValues(final boolean shareValues) {
+		this.shareValues = shareValues;
+	}
+
+	/**
+	 * Gets the number of sequences added so far.
+	 *
+	 * @return The number of sequences.
+	 */
+	public int getSequenceCount() {
+		return sequences;
+	}
+
+	/**
+	 * Gets the number of haplotypes found so far.
+	 *
+	 * @return The number of haplotypes.
+	 */
+	public int getHaplotypeCount() {
+		return map.size();
+	}
+
+	/**
+	 * Gets all haplotypes found so far, in the order their first sequence was
+	 * added. Names them "Hap1", "Hap2" and so on. Makes sure that all names
+	 * have the same length by padding zeros to the number.
+	 *
+	 * @return A new list, containing all found haplotypes.
+	 */
+	public List<Haplotype> getHaplotypes() {
+		final List<Haplotype> haplotypes = new ArrayList<>(map.values());
+		final int digits = (int) Math.log10(haplotypes.size()) + 1;
+		for (int i = 1; i <= haplotypes.size(); i++) {
+			final int currentDigits = (int) Math.log10(i) + 1;
+			final StringBuilder builder = new StringBuilder(3 + digits);
+			builder.append("Hap");
+			for (int k = 0; k < digits - currentDigits; k++) {
+				builder.append('0');
+			}
+			builder.append(i);
+			haplotypes.get(i - 1).setName(builder.toString());
+		}
+		return haplotypes;
+	}
+
+}
@@ -0,0 +1,321 @@
+package net.emb.hcat.cli.io;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A writer encoding characters into a large direct {@link ByteBuffer}, which
+ * is written to a channel when it is full. For charsets compatible to ASCII,
+ * ASCII characters are stored as bytes directly, without going through a
+ * {@link CharsetEncoder}. All other characters are encoded as usual. Unlike
+ * {@link java.io.OutputStreamWriter}, this class is not synchronized.
+ * <br>
+ * <br>
+ * When buffered data is written to the channel on {@link #flush()} is
+ * configured by the {@link EFlushPolicy}.
+ *
+ * @author Heiko Mattes
+ */
+public class ChannelWriter extends Writer {
+
+	/**
+	 * When to write buffered data on {@link ChannelWriter#flush()}.
+	 */
+	public enum EFlushPolicy {
+		/**
+		 * Buffered data is written on each flush, as usual for writers. Suits
+		 * interactive output, like the console.
+		 */
+		EXPLICIT,
+		/**
+		 * Flushes are ignored. Buffered data is written only when the buffer
+		 * is full, and on close. Suits files, which are read only after they
+		 * have been written completely.
+		 */
+		ON_CLOSE;
+	}
+
+	/** Default size of the byte buffer. */
+	public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+	// Number of characters handed to the encoder at once.
+	private static final int ENCODE_SIZE = 1024;
+
+	// Stream to flush after writing to the channel, if the channel wraps it.
+	private final OutputStream stream;
+	private final WritableByteChannel channel;
+	private final CharsetEncoder encoder;
+	private final boolean ascii;
+	private final EFlushPolicy policy;
+
+	private final ByteBuffer buffer;
+	// Characters waiting to be encoded. Never contains anything, if only
+	// ASCII characters are written with an ASCII compatible charset.
+	private final CharBuffer chars = CharBuffer.allocate(ENCODE_SIZE);
+	// Runs of ASCII characters, copied into the buffer at once.
+	private final byte[] bytes = new byte[ENCODE_SIZE * 8];
+	private boolean closed;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param channel
+	 *            The channel to write to. Must not be <code>null</code>.
+	 * @param charset
+	 *            The charset to encode characters with. Must not be
+	 *            <code>null</code>.
+	 * @param policy
+	 *            When to write buffered data on flush. Must not be
+	 *            <code>null</code>.
+	 */
+	public ChannelWriter(final WritableByteChannel channel, final Charset charset, final EFlushPolicy policy) {
+		this(channel, null, charset, policy, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Constructor. Writes to the channel of the stream, if it is a
+	 * {@link FileOutputStream}, or wraps the stream in a channel otherwise.
+	 *
+	 * @param stream
+	 *            The stream to write to. Must not be <code>null</code>.
+	 * @param charset
+	 *            The charset to encode characters with. Must not be
+	 *            <code>null</code>.
+	 * @param policy
+	 *            When to write buffered data on flush. Must not be
+	 *            <code>null</code>.
+	 */
+	public ChannelWriter(final OutputStream stream, final Charset charset, final EFlushPolicy policy) {
+		this(channelOf(stream), stream instanceof FileOutputStream ? null : stream, charset, policy, DEFAULT_BUFFER_SIZE);
+	}
+
+	private static WritableByteChannel channelOf(final OutputStream stream) {
+		if (stream == null) {
+			throw new IllegalArgumentException("Stream must not be null.");
+		}
+		// Files are written directly, all other streams through a copy.
+		return stream instanceof FileOutputStream ? ((FileOutputStream) stream).getChannel() : Channels.newChannel(stream);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param channel
+	 *            The channel to write to. Must not be <code>null</code>.
+	 * @param stream
+	 *            The stream wrapped by the channel, which is flushed after
+	 *            buffered data has been written on flush. May be
+	 *            <code>null</code>.
+	 * @param charset
+	 *            The charset to encode characters with. Must not be
+	 *            <code>null</code>.
+	 * @param policy
+	 *            When to write buffered data on flush. Must not be
+	 *            <code>null</code>.
+	 * @param bufferSize
+	 *            The size of the byte buffer. Must be at least 16.
+	 */
+	public ChannelWriter(final WritableByteChannel channel, final OutputStream stream, final Charset charset, final EFlushPolicy policy, final int bufferSize) {
+		if (channel == null) {
+			throw new IllegalArgumentException("Channel must not be null.");
+		}
+		if (charset == null || policy == null) {
+			throw new IllegalArgumentException("Charset and flush policy must not be null.");
+		}
+		if (bufferSize < 16) {
+			throw new IllegalArgumentException("Buffer size must be at least 16.");
+		}
+		this.channel = channel;
+		this.stream = stream;
+		this.policy = policy;
+		encoder = charset.newEncoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+		ascii = charset.equals(StandardCharsets.UTF_8) || charset.equals(StandardCharsets.US_ASCII) || charset.equals(StandardCharsets.ISO_8859_1);
+		buffer = ByteBuffer.allocateDirect(bufferSize);
+	}
+
+	@Override
+	public void write(final int c) throws IOException {
+		checkOpen();
+		put((char) c);
+	}
+
+	@Override
+	public void write(final char[] cbuf, final int off, final int len) throws IOException {
+		checkOpen();
+		if (off < 0 || len < 0 || off + len > cbuf.length) {
+			throw new IndexOutOfBoundsException();
+		}
+		int i = off;
+		while (i < off + len) {
+			if (!ascii || chars.position() > 0) {
+				put(cbuf[i++]);
+				continue;
+			}
+			// Copies a run of ASCII characters at once.
+			final int max = Math.min(off + len - i, bytes.length);
+			int count = 0;
+			char c;
+			while (count < max && (c = cbuf[i + count]) < 0x80) {
+				bytes[count++] = (byte) c;
+			}
+			putBytes(count);
+			i += count;
+			if (count < max) {
+				put(cbuf[i++]);
+			}
+		}
+	}
+
+	@Override
+	public void write(final String str, final int off, final int len) throws IOException {
+		checkOpen();
+		if (off < 0 || len < 0 || off + len > str.length()) {
+			throw new IndexOutOfBoundsException();
+		}
+		int i = off;
+		while (i < off + len) {
+			if (!ascii || chars.position() > 0) {
+				put(str.charAt(i++));
+				continue;
+			}
+			// Copies a run of ASCII characters at once.
+			final int max = Math.min(off + len - i, bytes.length);
+			int count = 0;
+			char c;
+			while (count < max && (c = str.charAt(i + count)) < 0x80) {
+				bytes[count++] = (byte) c;
+			}
+			putBytes(count);
+			i += count;
+			if (count < max) {
+				put(str.charAt(i++));
+			}
+		}
+	}
+
+	private void putBytes(final int count) throws IOException {
+		int done = 0;
+		while (done < count) {
+			if (!buffer.hasRemaining()) {
+				drain();
+			}
+			final int length = Math.min(count - done, buffer.remaining());
+			buffer.put(bytes, done, length);
+			done += length;
+		}
+	}
+
+	private void put(final char c) throws IOException {
+		if (ascii && c < 0x80 && chars.position() == 0) {
+			if (!buffer.hasRemaining()) {
+				drain();
+			}
+			buffer.put((byte) c);
+			return;
+		}
+		if (!chars.hasRemaining()) {
+			encode(false);
+		}
+		chars.put(c);
+	}
+
+	// Encodes all waiting characters. Without end of input, a high surrogate
+	// at the end is kept, waiting for its low surrogate.
+	private void encode(final boolean endOfInput) throws IOException {
+		chars.flip();
+		while (true) {
+			final CoderResult result = encoder.encode(chars, buffer, endOfInput);
+			if (result.isOverflow()) {
+				drain();
+				continue;
+			}
+			if (result.isError()) {
+				// Can't happen, as errors are replaced.
+				result.throwException();
+			}
+			break;
+		}
+		if (endOfInput) {
+			while (encoder.flush(buffer).isOverflow()) {
+				drain();
+			}
+			encoder.reset();
+		}
+		chars.compact();
+	}
+
+	private void drain() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	private void checkOpen() throws IOException {
+		if (closed) {
+			throw new IOException("Writer has been closed.");
+		}
+	}
+
+	/**
+	 * Writes buffered data to the channel, if the {@link EFlushPolicy} asks
+	 * for it.
+	 */
+	@Override
+	public void flush() throws IOException {
+		checkOpen();
+		if (policy == EFlushPolicy.EXPLICIT) {
+			writeOut(false);
+		}
+	}
+
+	// A high surrogate waiting for its low surrogate stays in the buffer,
+	// unless it is the end of input.
+	private void writeOut(final boolean endOfInput) throws IOException {
+		if (chars.position() > 0 || endOfInput) {
+			encode(endOfInput);
+		}
+		drain();
+		if (stream != null) {
+			stream.flush();
+		}
+	}
+
+	/**
+	 * Writes all buffered data and closes the channel.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		try {
+			writeOut(true);
+		} finally {
+			closed = true;
+			channel.close();
+		}
+	}
+
+	/**
+	 * Gets the flush policy.
+	 *
+	 * @return The flush policy.
+	 */
+	public EFlushPolicy getFlushPolicy() {
+		return policy;
+	}
+
+}
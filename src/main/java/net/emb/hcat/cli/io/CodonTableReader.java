@@ -2,11 +2,8 @@ package net.emb.hcat.cli.io;
 
 import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.io.Reader;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -44,8 +41,6 @@ public class CodonTableReader {
 	private static Pattern STARTS_PATTERN = createPattern("Starts", "M\\-\\*");
 	private static Pattern BASE_PATTERN = createPattern("Base1|Base2|Base3", "ACGT");
 
-	private static List<CodonTransformationData> defaultTable;
-
 	private static final Pattern createPattern(final String name, final String value) {
 		return Pattern.compile("\\s*(" + name + ")\\s*=\\s*([" + value + "]{64})\\s*");
 	}
@@ -53,21 +48,13 @@ public class CodonTableReader {
 	/**
 	 * Reads the default table that comes prepackaged with this program.
 	 *
-	 * @return A list containing all found {@link CodonTransformationData}.
+	 * @return A new, modifiable list containing all found
+	 *         {@link CodonTransformationData}. The codons of each data can't be
+	 *         modified.
+	 * @see CodonTableRegistry#getDefault()
 	 */
 	public static final List<CodonTransformationData> readDefaultTable() {
-		if (defaultTable == null) {
-			log.info("Reading default codon table.");
-			try (Reader reader = new InputStreamReader(CodonTableReader.class.getResourceAsStream("/codonTable.txt"), StandardCharsets.UTF_8)) {
-				final CodonTableReader codonReader = new CodonTableReader(reader);
-				defaultTable = Collections.unmodifiableList(codonReader.read());
-			} catch (final IOException e) {
-				// Should never happen.
-				log.error(e.getMessage(), e);
-				return Collections.emptyList();
-			}
-		}
-		return defaultTable;
+		return CodonTableRegistry.getDefault().getData();
 	}
 
 	private final BufferedReader reader;
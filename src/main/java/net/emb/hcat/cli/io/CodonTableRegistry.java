@@ -0,0 +1,253 @@
+package net.emb.hcat.cli.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.emb.hcat.cli.codon.CodonTable;
+import net.emb.hcat.cli.codon.CodonTransformationData;
+
+/**
+ * An immutable registry of all codon tables that come prepackaged with this
+ * program, keyed by their NCBI number. The default registry is initialized
+ * exactly once, on first access, and can safely be shared between threads.
+ * <br>
+ * <br>
+ * If available, the tables are loaded from a precompiled binary resource
+ * (generated during the build by {@link #main(String[])}). Otherwise, the
+ * text resource is parsed with a {@link CodonTableReader}.
+ *
+ * @author Heiko Mattes
+ */
+public final class CodonTableRegistry {
+
+	private static final Logger log = LoggerFactory.getLogger(CodonTableRegistry.class);
+
+	/** Resource containing the codon tables as text. */
+	public static final String TEXT_RESOURCE = "/codonTable.txt";
+	/** Resource containing the precompiled codon tables. */
+	public static final String BINARY_RESOURCE = "/codonTable.bin";
+
+	private static final int MAGIC = 0x48434354; // HCCT
+	private static final int VERSION = 1;
+
+	// Initialization-on-demand holder. Class loading guarantees that the
+	// default registry is created exactly once and safely published.
+	private static final class Holder {
+		private static final CodonTableRegistry DEFAULT = loadDefault();
+	}
+
+	/**
+	 * Gets the registry containing the default codon tables.
+	 *
+	 * @return The default registry. Never <code>null</code>, but may be empty
+	 *         if the prepackaged tables could not be read.
+	 */
+	public static CodonTableRegistry getDefault() {
+		return Holder.DEFAULT;
+	}
+
+	private static CodonTableRegistry loadDefault() {
+		try (InputStream in = CodonTableRegistry.class.getResourceAsStream(BINARY_RESOURCE)) {
+			if (in != null) {
+				log.info("Reading precompiled codon table.");
+				return new CodonTableRegistry(readBinary(in));
+			}
+		} catch (final IOException e) {
+			log.warn("Could not read precompiled codon table, falling back to text table. Error message: {}", e.getMessage());
+		}
+
+		log.info("Reading default codon table.");
+		try (Reader reader = new InputStreamReader(CodonTableRegistry.class.getResourceAsStream(TEXT_RESOURCE), StandardCharsets.UTF_8)) {
+			final CodonTableReader codonReader = new CodonTableReader(reader);
+			final List<CodonTable> tables = new ArrayList<>();
+			for (final CodonTransformationData data : codonReader.read()) {
+				tables.add(CodonTable.compile(data));
+			}
+			return new CodonTableRegistry(tables);
+		} catch (final IOException e) {
+			// Should never happen.
+			log.error(e.getMessage(), e);
+			return new CodonTableRegistry(Collections.<CodonTable> emptyList());
+		}
+	}
+
+	/**
+	 * Reads codon tables in the precompiled binary format.
+	 *
+	 * @param in
+	 *            The stream to read from.
+	 * @return A list containing all read codon tables.
+	 * @throws IOException
+	 *             If an I/O error occurs, or the stream is not in the expected
+	 *             format.
+	 */
+	public static List<CodonTable> readBinary(final InputStream in) throws IOException {
+		final DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+		if (data.readInt() != MAGIC) {
+			throw new IOException("Not a precompiled codon table.");
+		}
+		final int version = data.readInt();
+		if (version != VERSION) {
+			throw new IOException("Unsupported precompiled codon table version: " + version);
+		}
+
+		final int count = data.readInt();
+		final List<CodonTable> tables = new ArrayList<>(count);
+		final char[] aminoAcids = new char[CodonTable.CODON_COUNT];
+		for (int i = 0; i < count; i++) {
+			final int number = data.readInt();
+			final String name = data.readUTF();
+			for (int j = 0; j < aminoAcids.length; j++) {
+				aminoAcids[j] = (char) data.readUnsignedByte();
+			}
+			final long startMask = data.readLong();
+			final long endMask = data.readLong();
+			tables.add(new CodonTable(number, name, aminoAcids, startMask, endMask));
+		}
+		return tables;
+	}
+
+	/**
+	 * Writes codon tables in the precompiled binary format.
+	 *
+	 * @param tables
+	 *            The codon tables to write.
+	 * @param out
+	 *            The stream to write to. Will be flushed, but not closed.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	public static void writeBinary(final Collection<CodonTable> tables, final OutputStream out) throws IOException {
+		final DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+		data.writeInt(MAGIC);
+		data.writeInt(VERSION);
+		data.writeInt(tables.size());
+		for (final CodonTable table : tables) {
+			data.writeInt(table.getNumber());
+			data.writeUTF(table.getName() == null ? "" : table.getName());
+			for (int j = 0; j < CodonTable.CODON_COUNT; j++) {
+				data.writeByte(table.getAminoAcid(j));
+			}
+			data.writeLong(table.getStartMask());
+			data.writeLong(table.getEndMask());
+		}
+		data.flush();
+	}
+
+	/**
+	 * Precompiles the prepackaged text codon table into the binary format.
+	 * Used during the build.
+	 *
+	 * @param args
+	 *            The first argument is the file to write the binary table to.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	public static void main(final String[] args) throws IOException {
+		if (args.length < 1) {
+			throw new IllegalArgumentException("Output file must be given.");
+		}
+
+		final List<CodonTable> tables = new ArrayList<>();
+		try (Reader reader = new InputStreamReader(CodonTableRegistry.class.getResourceAsStream(TEXT_RESOURCE), StandardCharsets.UTF_8)) {
+			for (final CodonTransformationData data : new CodonTableReader(reader).read()) {
+				tables.add(CodonTable.compile(data));
+			}
+		}
+		try (OutputStream out = new FileOutputStream(args[0])) {
+			writeBinary(tables, out);
+		}
+		log.info("Precompiled {} codon table(s) to: {}", tables.size(), args[0]);
+	}
+
+	private final Map<Integer, CodonTable> tables;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param tables
+	 *            The codon tables to register. If several tables share the
+	 *            same number, the last one wins.
+	 */
+	public CodonTableRegistry(final Collection<CodonTable> tables) {
+		if (tables == null) {
+			throw new IllegalArgumentException("Tables must not be null.");
+		}
+		final Map<Integer, CodonTable> map = new LinkedHashMap<>();
+		for (final CodonTable table : tables) {
+			map.put(table.getNumber(), table);
+		}
+		this.tables = Collections.unmodifiableMap(map);
+	}
+
+	/**
+	 * Gets the codon table with the given number.
+	 *
+	 * @param number
+	 *            The NCBI number of the codon table.
+	 * @return The codon table, or <code>null</code>, if no table with that
+	 *         number is known.
+	 */
+	public CodonTable get(final int number) {
+		return tables.get(number);
+	}
+
+	/**
+	 * Gets the transformation data of the codon table with the given number.
+	 * The data is created from the codon table on each call, so changes by
+	 * the caller don't affect other callers.
+	 *
+	 * @param number
+	 *            The NCBI number of the codon table.
+	 * @return A new copy of the transformation data with unmodifiable codons,
+	 *         or <code>null</code>, if no table with that number is known.
+	 */
+	public CodonTransformationData getData(final int number) {
+		final CodonTable table = tables.get(number);
+		return table == null ? null : table.toData().unmodifiableCopy();
+	}
+
+	/**
+	 * Gets all registered codon tables.
+	 *
+	 * @return An unmodifiable collection of all codon tables, in the order they
+	 *         were registered.
+	 */
+	public Collection<CodonTable> getTables() {
+		return tables.values();
+	}
+
+	/**
+	 * Gets the transformation data of all registered codon tables.
+	 *
+	 * @return A new, modifiable list of copies of the transformation data, in
+	 *         the order they were registered.
+	 * @see #getData(int)
+	 */
+	public List<CodonTransformationData> getData() {
+		final List<CodonTransformationData> data = new ArrayList<>(tables.size());
+		for (final CodonTable table : tables.values()) {
+			data.add(table.toData().unmodifiableCopy());
+		}
+		return data;
+	}
+
+}
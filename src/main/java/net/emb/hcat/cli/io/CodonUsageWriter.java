@@ -0,0 +1,93 @@
+package net.emb.hcat.cli.io;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.emb.hcat.cli.codon.CodonTable;
+import net.emb.hcat.cli.codon.CodonUsage;
+import net.emb.hcat.cli.jfr.WriterFlushEvent;
+
+/**
+ * Writes out the codon usage in text form. For each codon, the translated
+ * amino acid, count, frequency and relative synonymous codon usage (RSCU) is
+ * written.
+ *
+ * @author Heiko Mattes
+ */
+public class CodonUsageWriter {
+
+	private static final Logger log = LoggerFactory.getLogger(CodonUsageWriter.class);
+
+	private static final String NOT_AVAILABLE = "NA";
+
+	private final BufferedWriter writer;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param writer
+	 *            The writer data should be written to.
+	 */
+	public CodonUsageWriter(final Writer writer) {
+		if (writer == null) {
+			throw new IllegalArgumentException("Writer can't be null.");
+		}
+		this.writer = writer instanceof BufferedWriter ? (BufferedWriter) writer : new BufferedWriter(writer);
+	}
+
+	/**
+	 * Writes the codon usage.
+	 *
+	 * @param usage
+	 *            The codon usage to write.
+	 * @param table
+	 *            The codon table to translate codons and determine synonymous
+	 *            codons with.
+	 * @throws IOException
+	 *             An I/O exception.
+	 */
+	public void write(final CodonUsage usage, final CodonTable table) throws IOException {
+		log.info("Writing codon usage for codon table: {}", table.getNumber());
+
+		writer.append("Codon\tAA\tCount\tFrequency\tRSCU");
+		writer.newLine();
+		for (int i = 0; i < CodonTable.CODON_COUNT; i++) {
+			writer.append(CodonTable.codon(i));
+			writer.append('\t');
+			writer.append(table.getAminoAcid(i));
+			writer.append('\t');
+			writer.append(Long.toString(usage.getCount(i)));
+			writer.append('\t');
+			writer.append(format(usage.getFrequency(i)));
+			writer.append('\t');
+			writer.append(format(usage.getRscu(i, table)));
+			writer.newLine();
+		}
+		WriterFlushEvent.flush(writer, this, CodonTable.CODON_COUNT + 1, 0);
+
+		log.info("{} codons successfully written. Skipped {} invalid codon(s).", usage.getTotal(), usage.getInvalid());
+	}
+
+	private static String format(final double number) {
+		return Double.isNaN(number) ? NOT_AVAILABLE : String.format(Locale.ROOT, "%.4f", number);
+	}
+
+	/**
+	 * Convenience method to close the underlying writer.
+	 *
+	 * @see Writer#close()
+	 */
+	public void close() {
+		try {
+			writer.close();
+		} catch (final IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+}
@@ -3,6 +3,7 @@ package net.emb.hcat.cli.io;
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.Writer;
+import java.util.Locale;
 import java.util.Map;
 
 import org.slf4j.Logger;
@@ -10,6 +11,7 @@ import org.slf4j.LoggerFactory;
 
 import net.emb.hcat.cli.haplotype.DistanceMatrix;
 import net.emb.hcat.cli.haplotype.Haplotype;
+import net.emb.hcat.cli.jfr.WriterFlushEvent;
 
 /**
  * Writes out the distance matrix in text form.
@@ -31,6 +33,8 @@ public class DistanceMatrixWriter {
 
 	private final BufferedWriter writer;
 
+	private boolean proportional;
+
 	/**
 	 * Constructor.
 	 *
@@ -41,7 +45,7 @@ public class DistanceMatrixWriter {
 		if (writer == null) {
 			throw new IllegalArgumentException("Writer can't be null.");
 		}
-		this.writer = writer instanceof BufferedWriter ? (BufferedWriter) writer : new BufferedWriter(writer, 1024);
+		this.writer = writer instanceof BufferedWriter ? (BufferedWriter) writer : new BufferedWriter(writer);
 	}
 
 	/**
@@ -78,7 +82,6 @@ public class DistanceMatrixWriter {
 			}
 		}
 		writer.newLine();
-		writer.flush();
 
 		// Writing data.
 		for (final Haplotype haplotype : matrixMap.keySet()) {
@@ -96,18 +99,48 @@ public class DistanceMatrixWriter {
 					indent(otherLength - 1, writer);
 				} else {
 					final Integer distance = distanceMap.get(otherHaplotype);
-					final String distanceString = distance.toString();
+					final String distanceString = proportional ? proportion(distance, haplotype, otherHaplotype) : distance.toString();
 					writer.append(distanceString);
 					indent(otherLength - distanceString.length(), writer);
 				}
 			}
 			writer.newLine();
-			writer.flush();
 		}
+		WriterFlushEvent.flush(writer, this, matrixMap.size() + 1, 0);
 
 		log.info("{} entries successfully written.", matrixMap.size());
 	}
 
+	// Divides the distance by the length of the longer haplotype.
+	private static String proportion(final int distance, final Haplotype haplotype1, final Haplotype haplotype2) {
+		final int length = Math.max(haplotype1.getFirstSequence().getLength(), haplotype2.getFirstSequence().getLength());
+		return String.format(Locale.ROOT, "%.4f", length == 0 ? 0d : (double) distance / length);
+	}
+
+	/**
+	 * Sets whether the proportion of differing positions (p-distance) should
+	 * be written, instead of the number of differing positions. The proportion
+	 * is relative to the length of the longer haplotype.
+	 *
+	 * @param proportional
+	 *            <code>true</code>, if the p-distance should be written,
+	 *            <code>false</code> for the absolute distance (default).
+	 */
+	public void setProportional(final boolean proportional) {
+		this.proportional = proportional;
+	}
+
+	/**
+	 * Gets whether the proportion of differing positions (p-distance) is
+	 * written.
+	 *
+	 * @return <code>true</code>, if the p-distance is written,
+	 *         <code>false</code> if the absolute distance is written.
+	 */
+	public boolean isProportional() {
+		return proportional;
+	}
+
 	/**
 	 * Convenience method to close the underlying writer.
 	 *
@@ -0,0 +1,160 @@
+package net.emb.hcat.cli.io;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.emb.hcat.cli.codon.EDnDsValue;
+import net.emb.hcat.cli.codon.SubstitutionCount;
+import net.emb.hcat.cli.haplotype.DnDsMatrix;
+import net.emb.hcat.cli.haplotype.Haplotype;
+import net.emb.hcat.cli.jfr.WriterFlushEvent;
+
+/**
+ * Writes out the dN/dS matrix in text form.
+ *
+ * @author Heiko Mattes
+ */
+public class DnDsMatrixWriter {
+
+	private static final Logger log = LoggerFactory.getLogger(DnDsMatrixWriter.class);
+
+	private static final String HEADER = "HT-ID";
+	private static final String NOT_AVAILABLE = "NA";
+
+	// Indents the given Appendable by the given amount of spaces.
+	private static void indent(final int times, final Appendable appendable) throws IOException {
+		for (int i = 0; i < times; i++) {
+			appendable.append(' ');
+		}
+	}
+
+	private final BufferedWriter writer;
+
+	private EDnDsValue value = EDnDsValue.DN_DS;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param writer
+	 *            The writer data should be written to.
+	 */
+	public DnDsMatrixWriter(final Writer writer) {
+		if (writer == null) {
+			throw new IllegalArgumentException("Writer can't be null.");
+		}
+		this.writer = writer instanceof BufferedWriter ? (BufferedWriter) writer : new BufferedWriter(writer);
+	}
+
+	/**
+	 * Writes the dN/dS matrix.
+	 *
+	 * @param matrix
+	 *            The dN/dS matrix to write.
+	 * @throws IOException
+	 *             An I/O exception.
+	 */
+	public void write(final DnDsMatrix matrix) throws IOException {
+		log.info("Writing dN/dS matrix. Value: {}", getValue());
+
+		final Map<Haplotype, Map<Haplotype, SubstitutionCount>> matrixMap = matrix.getMatrix();
+
+		// Compute maximum length of names and values, so indentation can
+		// happen.
+		int maxLength = HEADER.length();
+		int columnLength = 4;
+		for (final Haplotype haplotype : matrixMap.keySet()) {
+			final String name = haplotype.getName();
+			maxLength = Math.max(maxLength, name != null ? name.length() : 4);
+			columnLength = Math.max(columnLength, name != null ? name.length() : 4);
+			for (final SubstitutionCount count : matrixMap.get(haplotype).values()) {
+				columnLength = Math.max(columnLength, format(count).length());
+			}
+		}
+
+		// Writing header line.
+		writer.append(HEADER);
+		indent(maxLength - HEADER.length(), writer);
+		for (final Haplotype haplotype : matrixMap.keySet()) {
+			writer.append('\t');
+			final String name = String.valueOf(haplotype.getName());
+			writer.append(name);
+			indent(columnLength - name.length(), writer);
+		}
+		writer.newLine();
+
+		// Writing data.
+		for (final Haplotype haplotype : matrixMap.keySet()) {
+			final String name = String.valueOf(haplotype.getName());
+			writer.append(name);
+			indent(maxLength - name.length(), writer);
+			final Map<Haplotype, SubstitutionCount> countMap = matrixMap.get(haplotype);
+			for (final Haplotype otherHaplotype : matrixMap.keySet()) {
+				writer.append('\t');
+				if (haplotype == otherHaplotype) {
+					writer.append('-');
+					indent(columnLength - 1, writer);
+				} else {
+					final String valueString = format(countMap.get(otherHaplotype));
+					writer.append(valueString);
+					indent(columnLength - valueString.length(), writer);
+				}
+			}
+			writer.newLine();
+		}
+		WriterFlushEvent.flush(writer, this, matrixMap.size() + 1, 0);
+
+		log.info("{} entries successfully written.", matrixMap.size());
+	}
+
+	private String format(final SubstitutionCount count) {
+		final double number = getValue().of(count);
+		if (Double.isNaN(number) || Double.isInfinite(number)) {
+			return NOT_AVAILABLE;
+		}
+		return String.format(Locale.ROOT, "%.4f", number);
+	}
+
+	/**
+	 * Gets the value that will be written for each pair of haplotypes. Default
+	 * is {@link EDnDsValue#DN_DS}.
+	 *
+	 * @return The value to write.
+	 */
+	public EDnDsValue getValue() {
+		return value;
+	}
+
+	/**
+	 * Sets the value that will be written for each pair of haplotypes. Values
+	 * that are not defined will be written as "NA". Default is
+	 * {@link EDnDsValue#DN_DS}.
+	 *
+	 * @param value
+	 *            The value to write. Must not be <code>null</code>.
+	 */
+	public void setValue(final EDnDsValue value) {
+		if (value == null) {
+			throw new IllegalArgumentException("Value must not be null.");
+		}
+		this.value = value;
+	}
+
+	/**
+	 * Convenience method to close the underlying writer.
+	 *
+	 * @see Writer#close()
+	 */
+	public void close() {
+		try {
+			writer.close();
+		} catch (final IOException e) {
+			e.printStackTrace();
+		}
+	}
+}
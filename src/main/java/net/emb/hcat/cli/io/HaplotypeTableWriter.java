@@ -12,7 +12,11 @@ import java.util.TreeSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import net.emb.hcat.cli.codon.CodonTable;
+import net.emb.hcat.cli.codon.ESubstitution;
+import net.emb.hcat.cli.codon.SubstitutionClassifier;
 import net.emb.hcat.cli.haplotype.Haplotype;
+import net.emb.hcat.cli.jfr.WriterFlushEvent;
 import net.emb.hcat.cli.sequence.Difference;
 import net.emb.hcat.cli.sequence.Sequence;
 
@@ -34,6 +38,9 @@ public class HaplotypeTableWriter {
 
 	private final BufferedWriter writer;
 
+	private CodonTable codonTable;
+	private int codonOffset;
+
 	/**
 	 * Constructor.
 	 *
@@ -44,7 +51,7 @@ public class HaplotypeTableWriter {
 		if (writer == null) {
 			throw new IllegalArgumentException("Writer can't be null.");
 		}
-		this.writer = writer instanceof BufferedWriter ? (BufferedWriter) writer : new BufferedWriter(writer, 1024);
+		this.writer = writer instanceof BufferedWriter ? (BufferedWriter) writer : new BufferedWriter(writer);
 	}
 
 	/**
@@ -67,6 +74,7 @@ public class HaplotypeTableWriter {
 		}
 
 		log.info("Writing haplotype table with master haplotype: {}", masterHaplotype.getName());
+		final SubstitutionClassifier classifier = getCodonTable() == null ? null : new SubstitutionClassifier(getCodonTable(), master, getCodonOffset());
 		// Calculate all positions.
 		final Set<Integer> positions = new TreeSet<>();
 		for (final Difference difference : result.values()) {
@@ -109,12 +117,14 @@ public class HaplotypeTableWriter {
 		writer.append("\tSequences");
 		indent(seqMaxLength - seqLength, writer);
 		writer.append("\tCount");
+		if (classifier != null) {
+			writer.append("\tSyn\tNonSyn");
+		}
 		for (final Integer pos : positions) {
 			writer.append('\t');
 			writer.append(String.valueOf(pos.intValue() + 1));
 		}
 		writer.newLine();
-		writer.flush();
 
 		// Write master sequence.
 		final String hapMasterName = masterHaplotype.getName() == null ? "" : masterHaplotype.getName();
@@ -126,12 +136,14 @@ public class HaplotypeTableWriter {
 		indent(seqMaxLength - seqMasterName.length(), writer);
 		writer.append('\t');
 		writer.append(Integer.toString(masterHaplotype.size()));
+		if (classifier != null) {
+			writer.append("\t0\t0");
+		}
 		for (final Integer pos : positions) {
 			writer.append('\t');
 			writer.append(master.getValue().charAt(pos.intValue()));
 		}
 		writer.newLine();
-		writer.flush();
 
 		// Write out the differences.
 		for (final Entry<Haplotype, StringBuilder> entry : seqNames.entrySet()) {
@@ -147,18 +159,115 @@ public class HaplotypeTableWriter {
 			writer.append(entry.getValue().toString());
 			writer.append('\t');
 			writer.append(Integer.toString(entry.getKey().size()));
-			final String difference = result.get(haplotype).getDifference();
-			for (final Integer pos : positions) {
-				writer.append('\t');
-				writer.append(difference.charAt(pos.intValue()));
+			final Difference difference = result.get(haplotype);
+			if (classifier == null) {
+				final String differenceString = difference.getDifference();
+				for (final Integer pos : positions) {
+					writer.append('\t');
+					writer.append(differenceString.charAt(pos.intValue()));
+				}
+			} else {
+				writeClassifiedDifference(classifier, difference, positions);
 			}
 			writer.newLine();
-			writer.flush();
 		}
+		WriterFlushEvent.flush(writer, this, result.size() + 1, 0);
 
 		log.info("{} entries successfully written.", result.size());
 	}
 
+	// Writes the synonymous and non-synonymous counts, followed by each
+	// difference marked with its classification.
+	private void writeClassifiedDifference(final SubstitutionClassifier classifier, final Difference difference, final Set<Integer> positions) throws IOException {
+		final String differenceString = difference.getDifference();
+		final ESubstitution[] substitutions = new ESubstitution[positions.size()];
+		int synonymous = 0;
+		int nonSynonymous = 0;
+		int i = 0;
+		for (final Integer pos : positions) {
+			if (differenceString.charAt(pos.intValue()) != difference.getNoDifference()) {
+				final ESubstitution substitution = classifier.classify(difference.getSlave(), pos.intValue());
+				if (substitution == ESubstitution.SYNONYMOUS) {
+					synonymous++;
+				} else if (substitution == ESubstitution.NON_SYNONYMOUS) {
+					nonSynonymous++;
+				}
+				substitutions[i] = substitution;
+			}
+			i++;
+		}
+
+		writer.append('\t');
+		writer.append(Integer.toString(synonymous));
+		writer.append('\t');
+		writer.append(Integer.toString(nonSynonymous));
+		i = 0;
+		for (final Integer pos : positions) {
+			writer.append('\t');
+			writer.append(differenceString.charAt(pos.intValue()));
+			if (substitutions[i] != null) {
+				writer.append(':');
+				writer.append(substitutions[i].getSymbol());
+			}
+			i++;
+		}
+	}
+
+	/**
+	 * Gets the codon table used to classify differences. If set, the table
+	 * will contain for each haplotype the number of synonymous and
+	 * non-synonymous differences, and each difference will be marked with its
+	 * classification (S, N or ? if unknown). Default is <code>null</code>.
+	 *
+	 * @return The codon table, or <code>null</code>, if differences are not
+	 *         classified.
+	 * @see SubstitutionClassifier
+	 */
+	public CodonTable getCodonTable() {
+		return codonTable;
+	}
+
+	/**
+	 * Sets the codon table used to classify differences. If set, the table
+	 * will contain for each haplotype the number of synonymous and
+	 * non-synonymous differences, and each difference will be marked with its
+	 * classification (S, N or ? if unknown). Default is <code>null</code>.
+	 *
+	 * @param codonTable
+	 *            The codon table, or <code>null</code>, if differences should
+	 *            not be classified.
+	 * @see SubstitutionClassifier
+	 */
+	public void setCodonTable(final CodonTable codonTable) {
+		this.codonTable = codonTable;
+	}
+
+	/**
+	 * Gets the offset of the first codon in the master sequence. Only used if
+	 * a codon table is set. Default is zero.
+	 *
+	 * @return The offset.
+	 */
+	public int getCodonOffset() {
+		return codonOffset;
+	}
+
+	/**
+	 * Sets the offset of the first codon in the master sequence. Only used if
+	 * a codon table is set. Default is zero.
+	 *
+	 * @param codonOffset
+	 *            The offset. Must be 0, 1 or 2.
+	 * @throws IllegalArgumentException
+	 *             If the offset is not 0, 1 or 2.
+	 */
+	public void setCodonOffset(final int codonOffset) {
+		if (codonOffset < 0 || codonOffset > 2) {
+			throw new IllegalArgumentException("Codon offset must be 0, 1 or 2.");
+		}
+		this.codonOffset = codonOffset;
+	}
+
 	/**
 	 * Convenience method to close the underlying writer.
 	 *
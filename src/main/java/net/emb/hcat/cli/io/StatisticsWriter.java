@@ -0,0 +1,114 @@
+package net.emb.hcat.cli.io;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
+
+import net.emb.hcat.cli.stats.Phase;
+import net.emb.hcat.cli.stats.Statistics;
+
+/**
+ * Writes out the statistics of a run, either as a text table or as JSON.
+ *
+ * @author Heiko Mattes
+ */
+public class StatisticsWriter {
+
+	private static final double MILLIS = 1e6;
+	private static final double MEGABYTES = 1024 * 1024;
+
+	private final BufferedWriter writer;
+
+	private boolean json;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param writer
+	 *            The writer data should be written to.
+	 */
+	public StatisticsWriter(final Writer writer) {
+		if (writer == null) {
+			throw new IllegalArgumentException("Writer can't be null.");
+		}
+		this.writer = writer instanceof BufferedWriter ? (BufferedWriter) writer : new BufferedWriter(writer);
+	}
+
+	/**
+	 * Writes the statistics.
+	 *
+	 * @param statistics
+	 *            The statistics to write.
+	 * @throws IOException
+	 *             An I/O exception.
+	 */
+	public void write(final Statistics statistics) throws IOException {
+		final List<Phase> phases = statistics.getPhases();
+		if (json) {
+			writeJson(phases);
+		} else {
+			writeText(phases);
+		}
+		writer.flush();
+	}
+
+	private void writeText(final List<Phase> phases) throws IOException {
+		writer.append(String.format(Locale.ROOT, "%-12s %10s %12s %14s %12s %12s %14s", "Phase", "Wall ms", "Proc CPU ms", "Proc alloc MB", "Peak heap MB", "Seq/s", "Bases/s"));
+		writer.newLine();
+		for (final Phase phase : phases) {
+			writer.append(String.format(Locale.ROOT, "%-12s %10.1f %12s %14s %12.1f %12.0f %14.0f", phase.getName(), phase.getWallNanos() / MILLIS, phase.getCpuNanos() < 0 ? "NA" : String.format(Locale.ROOT, "%.1f", phase.getCpuNanos() / MILLIS), phase.getAllocatedBytes() < 0 ? "NA" : String.format(Locale.ROOT, "%.1f", phase.getAllocatedBytes() / MEGABYTES), phase.getPeakHeapBytes() / MEGABYTES, phase.getSequencesPerSecond(), phase.getBasesPerSecond()));
+			writer.newLine();
+		}
+	}
+
+	private void writeJson(final List<Phase> phases) throws IOException {
+		writer.append("{\"phases\":[");
+		for (int i = 0; i < phases.size(); i++) {
+			final Phase phase = phases.get(i);
+			if (i > 0) {
+				writer.append(',');
+			}
+			writer.newLine();
+			writer.append("  {\"name\":\"").append(escape(phase.getName())).append('"');
+			writer.append(",\"wallNanos\":").append(Long.toString(phase.getWallNanos()));
+			writer.append(",\"cpuNanos\":").append(Long.toString(phase.getCpuNanos()));
+			writer.append(",\"allocatedBytes\":").append(Long.toString(phase.getAllocatedBytes()));
+			writer.append(",\"peakHeapBytes\":").append(Long.toString(phase.getPeakHeapBytes()));
+			writer.append(",\"sequences\":").append(Long.toString(phase.getSequences()));
+			writer.append(",\"bases\":").append(Long.toString(phase.getBases()));
+			writer.append(",\"sequencesPerSecond\":").append(String.format(Locale.ROOT, "%.1f", phase.getSequencesPerSecond()));
+			writer.append(",\"basesPerSecond\":").append(String.format(Locale.ROOT, "%.1f", phase.getBasesPerSecond()));
+			writer.append('}');
+		}
+		writer.newLine();
+		writer.append("]}");
+		writer.newLine();
+	}
+
+	private static String escape(final String value) {
+		return value == null ? "" : value.replace("\\", "\\\\").replace("\"", "\\\"");
+	}
+
+	/**
+	 * Sets whether the statistics should be written as JSON.
+	 *
+	 * @param json
+	 *            <code>true</code> for JSON, <code>false</code> for a text
+	 *            table (default).
+	 */
+	public void setJson(final boolean json) {
+		this.json = json;
+	}
+
+	/**
+	 * Gets whether the statistics are written as JSON.
+	 *
+	 * @return <code>true</code> for JSON, <code>false</code> for a text table.
+	 */
+	public boolean isJson() {
+		return json;
+	}
+
+}
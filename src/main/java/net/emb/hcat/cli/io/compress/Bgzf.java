@@ -0,0 +1,77 @@
+package net.emb.hcat.cli.io.compress;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Constants of the BGZF (blocked gzip) format, as used by samtools. A BGZF
+ * file is a series of gzip members, each holding at most 64 KB of data, with
+ * its compressed size stored in an extra field of its header. Thus, blocks can
+ * be found without decompressing them, and can be compressed and decompressed
+ * independently of each other. As it is valid gzip, any gzip reader can read
+ * it.
+ *
+ * @author Heiko Mattes
+ */
+final class Bgzf {
+
+	/** Maximum number of uncompressed bytes in a block. */
+	static final int MAX_DATA_SIZE = 0xff00;
+
+	/** Maximum size of a compressed block, including header and footer. */
+	static final int MAX_BLOCK_SIZE = 0x10000;
+
+	/** Size of the header of a block written by this program. */
+	static final int HEADER_SIZE = 18;
+
+	/** Size of the footer of a block, containing CRC32 and data size. */
+	static final int FOOTER_SIZE = 8;
+
+	/** First gzip magic byte. */
+	static final int ID1 = 0x1f;
+
+	/** Second gzip magic byte. */
+	static final int ID2 = 0x8b;
+
+	/** Compression method deflate. */
+	static final int CM_DEFLATE = 8;
+
+	/** Flag indicating an extra field. */
+	static final int FLG_EXTRA = 4;
+
+	/** Subfield ID of the block size. */
+	static final int SI1 = 'B';
+
+	/** Subfield ID of the block size. */
+	static final int SI2 = 'C';
+
+	/** The empty block marking the end of a BGZF file. */
+	static final byte[] EOF_BLOCK = { 0x1f, (byte) 0x8b, 0x08, 0x04, 0x00, 0x00, 0x00, 0x00, 0x00, (byte) 0xff, 0x06, 0x00, 0x42, 0x43, 0x02, 0x00, 0x1b, 0x00, 0x03, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00 };
+
+	/** Number of blocks in flight per thread. */
+	static final int BLOCKS_PER_THREAD = 4;
+
+	private Bgzf() {
+		// Only constants.
+	}
+
+	/**
+	 * Creates a thread pool for compressing or decompressing blocks. The
+	 * threads are daemon threads, so an unclosed stream doesn't keep the
+	 * virtual machine alive.
+	 *
+	 * @param threads
+	 *            Number of threads.
+	 * @param name
+	 *            Name of the threads.
+	 * @return A new thread pool.
+	 */
+	static ExecutorService createExecutor(final int threads, final String name) {
+		return Executors.newFixedThreadPool(threads, runnable -> {
+			final Thread thread = new Thread(runnable, name);
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+}
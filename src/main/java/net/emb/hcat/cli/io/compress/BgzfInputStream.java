@@ -0,0 +1,278 @@
+package net.emb.hcat.cli.io.compress;
+
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads data compressed in BGZF format. As the size of each block is stored in
+ * its header, blocks are read ahead and decompressed on several threads, while
+ * the data is returned in order. At most a few blocks per thread are in flight,
+ * so memory stays bounded.
+ *
+ * @author Heiko Mattes
+ */
+public class BgzfInputStream extends FilterInputStream {
+
+	private static final byte[] EMPTY = new byte[0];
+
+	private final int threads;
+	private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+	private final byte[] header = new byte[12];
+	private ExecutorService executor;
+	private byte[] block = EMPTY;
+	private int position;
+	private boolean end;
+	private boolean closed;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param in
+	 *            The stream to read the compressed data from. Must not be
+	 *            <code>null</code>.
+	 * @param threads
+	 *            Number of threads decompressing blocks. Must be a positive
+	 *            number.
+	 */
+	public BgzfInputStream(final InputStream in, final int threads) {
+		super(in);
+		if (in == null) {
+			throw new IllegalArgumentException("Input stream must not be null.");
+		}
+		if (threads < 1) {
+			throw new IllegalArgumentException("Threads must be a positive number.");
+		}
+		this.threads = threads;
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (!fill()) {
+			return -1;
+		}
+		return block[position++] & 0xff;
+	}
+
+	@Override
+	public int read(final byte[] b, final int off, final int len) throws IOException {
+		if (off < 0 || len < 0 || off + len > b.length) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (len == 0) {
+			return 0;
+		}
+		if (!fill()) {
+			return -1;
+		}
+		final int length = Math.min(len, block.length - position);
+		System.arraycopy(block, position, b, off, length);
+		position += length;
+		return length;
+	}
+
+	@Override
+	public int available() throws IOException {
+		ensureOpen();
+		return block.length - position;
+	}
+
+	@Override
+	public long skip(final long n) throws IOException {
+		long skipped = 0;
+		while (skipped < n && fill()) {
+			final int length = (int) Math.min(n - skipped, block.length - position);
+			position += length;
+			skipped += length;
+		}
+		return skipped;
+	}
+
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+
+	@Override
+	public synchronized void mark(final int readlimit) {
+		// Not supported.
+	}
+
+	@Override
+	public synchronized void reset() throws IOException {
+		throw new IOException("Mark not supported.");
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		for (final Future<byte[]> future : pending) {
+			future.cancel(true);
+		}
+		pending.clear();
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+		in.close();
+	}
+
+	private void ensureOpen() throws IOException {
+		if (closed) {
+			throw new IOException("Stream closed.");
+		}
+	}
+
+	// Makes sure data is available. Returns false at the end of the stream.
+	private boolean fill() throws IOException {
+		ensureOpen();
+		while (position == block.length) {
+			readAhead();
+			if (pending.isEmpty()) {
+				return false;
+			}
+			block = take(pending.poll());
+			position = 0;
+		}
+		return true;
+	}
+
+	private void readAhead() throws IOException {
+		while (!end && pending.size() < threads * Bgzf.BLOCKS_PER_THREAD) {
+			final byte[] raw = readBlock();
+			if (raw == null) {
+				end = true;
+			} else if (threads == 1) {
+				pending.add(CompletableFuture.completedFuture(decompress(raw)));
+			} else {
+				if (executor == null) {
+					executor = Bgzf.createExecutor(threads, "bgzf-decompress");
+				}
+				pending.add(executor.submit(() -> decompress(raw)));
+			}
+		}
+	}
+
+	// Reads the next compressed block, or null at the end of the stream.
+	private byte[] readBlock() throws IOException {
+		final int first = in.read();
+		if (first < 0) {
+			return null;
+		}
+		header[0] = (byte) first;
+		readFully(header, 1, header.length - 1);
+		if ((header[0] & 0xff) != Bgzf.ID1 || (header[1] & 0xff) != Bgzf.ID2 || header[2] != Bgzf.CM_DEFLATE || (header[3] & Bgzf.FLG_EXTRA) == 0) {
+			throw new IOException("Not a BGZF block.");
+		}
+
+		final int extraLength = readShort(header, 10);
+		final byte[] extra = new byte[extraLength];
+		readFully(extra, 0, extraLength);
+		int blockSize = -1;
+		for (int i = 0; i + 4 <= extraLength; i += 4 + readShort(extra, i + 2)) {
+			if (extra[i] == Bgzf.SI1 && extra[i + 1] == Bgzf.SI2 && readShort(extra, i + 2) == 2 && i + 6 <= extraLength) {
+				blockSize = readShort(extra, i + 4) + 1;
+			}
+		}
+		if (blockSize < 0) {
+			throw new IOException("Not a BGZF block, block size is missing.");
+		}
+
+		final int remaining = blockSize - header.length - extraLength;
+		if (remaining < Bgzf.FOOTER_SIZE) {
+			throw new IOException("Invalid BGZF block size: " + blockSize);
+		}
+		final byte[] raw = new byte[remaining];
+		readFully(raw, 0, remaining);
+		return raw;
+	}
+
+	private void readFully(final byte[] b, final int off, final int len) throws IOException {
+		int read = 0;
+		while (read < len) {
+			final int count = in.read(b, off + read, len - read);
+			if (count < 0) {
+				throw new EOFException("Unexpected end of BGZF stream.");
+			}
+			read += count;
+		}
+	}
+
+	/**
+	 * Decompresses a single block.
+	 *
+	 * @param raw
+	 *            The compressed data of the block, followed by its footer.
+	 * @return The decompressed data.
+	 * @throws IOException
+	 *             If the block is corrupt.
+	 */
+	static byte[] decompress(final byte[] raw) throws IOException {
+		final int size = readInt(raw, raw.length - 4);
+		if (size < 0 || size > Bgzf.MAX_BLOCK_SIZE) {
+			throw new IOException("Invalid BGZF data size: " + size);
+		}
+		final byte[] data = new byte[size];
+		final Inflater inflater = new Inflater(true);
+		try {
+			inflater.setInput(raw, 0, raw.length - Bgzf.FOOTER_SIZE);
+			int length = 0;
+			while (length < size && !inflater.finished()) {
+				final int count = inflater.inflate(data, length, size - length);
+				if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					break;
+				}
+				length += count;
+			}
+			if (length != size) {
+				throw new IOException("Corrupt BGZF block, data size doesn't match.");
+			}
+		} catch (final DataFormatException e) {
+			throw new IOException("Corrupt BGZF block. Error message: " + e.getMessage(), e);
+		} finally {
+			inflater.end();
+		}
+
+		final CRC32 crc = new CRC32();
+		crc.update(data, 0, size);
+		if ((int) crc.getValue() != readInt(raw, raw.length - 8)) {
+			throw new IOException("Corrupt BGZF block, CRC32 doesn't match.");
+		}
+		return data;
+	}
+
+	private static byte[] take(final Future<byte[]> future) throws IOException {
+		try {
+			return future.get();
+		} catch (final ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException(e.getCause().getMessage(), e.getCause());
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while decompressing.", e);
+		}
+	}
+
+	private static int readShort(final byte[] b, final int offset) {
+		return b[offset] & 0xff | (b[offset + 1] & 0xff) << 8;
+	}
+
+	private static int readInt(final byte[] b, final int offset) {
+		return readShort(b, offset) | readShort(b, offset + 2) << 16;
+	}
+
+}
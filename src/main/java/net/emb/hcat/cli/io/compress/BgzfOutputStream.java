@@ -0,0 +1,250 @@
+package net.emb.hcat.cli.io.compress;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes data compressed in BGZF format. The data is cut into blocks of at
+ * most {@link Bgzf#MAX_DATA_SIZE} bytes, which are compressed on several
+ * threads and written in order. At most a few blocks per thread are in flight,
+ * so memory stays bounded. Closing the stream writes the BGZF end-of-file
+ * block.
+ * <br>
+ * <br>
+ * Flushing only writes the blocks that are already complete, so frequent
+ * flushes don't lead to tiny blocks.
+ *
+ * @author Heiko Mattes
+ */
+public class BgzfOutputStream extends FilterOutputStream {
+
+	private final int level;
+	private final int threads;
+	private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+	private ExecutorService executor;
+	private byte[] buffer = new byte[Bgzf.MAX_DATA_SIZE];
+	private int count;
+	private boolean closed;
+
+	/**
+	 * Constructor, using the default compression level.
+	 *
+	 * @param out
+	 *            The stream to write the compressed data to. Must not be
+	 *            <code>null</code>.
+	 * @param threads
+	 *            Number of threads compressing blocks. Must be a positive
+	 *            number.
+	 */
+	public BgzfOutputStream(final OutputStream out, final int threads) {
+		this(out, threads, Deflater.DEFAULT_COMPRESSION);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param out
+	 *            The stream to write the compressed data to. Must not be
+	 *            <code>null</code>.
+	 * @param threads
+	 *            Number of threads compressing blocks. Must be a positive
+	 *            number.
+	 * @param level
+	 *            The compression level, between 0 and 9, or
+	 *            {@link Deflater#DEFAULT_COMPRESSION}.
+	 */
+	public BgzfOutputStream(final OutputStream out, final int threads, final int level) {
+		super(out);
+		if (out == null) {
+			throw new IllegalArgumentException("Output stream must not be null.");
+		}
+		if (threads < 1) {
+			throw new IllegalArgumentException("Threads must be a positive number.");
+		}
+		if (level != Deflater.DEFAULT_COMPRESSION && (level < 0 || level > 9)) {
+			throw new IllegalArgumentException("Compression level must be between 0 and 9.");
+		}
+		this.threads = threads;
+		this.level = level;
+	}
+
+	@Override
+	public void write(final int b) throws IOException {
+		ensureOpen();
+		buffer[count++] = (byte) b;
+		if (count == buffer.length) {
+			submit();
+		}
+	}
+
+	@Override
+	public void write(final byte[] b, final int off, final int len) throws IOException {
+		ensureOpen();
+		if (off < 0 || len < 0 || off + len > b.length) {
+			throw new IndexOutOfBoundsException();
+		}
+		int offset = off;
+		int remaining = len;
+		while (remaining > 0) {
+			final int length = Math.min(remaining, buffer.length - count);
+			System.arraycopy(b, offset, buffer, count, length);
+			count += length;
+			offset += length;
+			remaining -= length;
+			if (count == buffer.length) {
+				submit();
+			}
+		}
+	}
+
+	/**
+	 * Writes all complete blocks and flushes the underlying stream. Data not
+	 * filling a block yet is kept until more data is written or the stream is
+	 * closed.
+	 */
+	@Override
+	public void flush() throws IOException {
+		ensureOpen();
+		while (!pending.isEmpty()) {
+			writeBlock();
+		}
+		out.flush();
+	}
+
+	/**
+	 * Writes all remaining data and the end-of-file block, and closes the
+	 * underlying stream.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		try {
+			if (count > 0) {
+				submit();
+			}
+			while (!pending.isEmpty()) {
+				writeBlock();
+			}
+			out.write(Bgzf.EOF_BLOCK);
+			out.flush();
+		} finally {
+			closed = true;
+			if (executor != null) {
+				executor.shutdownNow();
+			}
+			out.close();
+		}
+	}
+
+	private void ensureOpen() throws IOException {
+		if (closed) {
+			throw new IOException("Stream closed.");
+		}
+	}
+
+	private void submit() throws IOException {
+		final byte[] data = buffer;
+		final int length = count;
+		buffer = new byte[Bgzf.MAX_DATA_SIZE];
+		count = 0;
+
+		if (threads == 1) {
+			out.write(compress(data, length, level));
+			return;
+		}
+		if (executor == null) {
+			executor = Bgzf.createExecutor(threads, "bgzf-compress");
+		}
+		pending.add(executor.submit(() -> compress(data, length, level)));
+		if (pending.size() >= threads * Bgzf.BLOCKS_PER_THREAD) {
+			writeBlock();
+		}
+	}
+
+	private void writeBlock() throws IOException {
+		try {
+			out.write(pending.poll().get());
+		} catch (final ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException(e.getCause().getMessage(), e.getCause());
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while compressing.", e);
+		}
+	}
+
+	/**
+	 * Compresses a single block.
+	 *
+	 * @param data
+	 *            The data to compress.
+	 * @param length
+	 *            The number of bytes to compress. At most
+	 *            {@link Bgzf#MAX_DATA_SIZE}.
+	 * @param level
+	 *            The compression level.
+	 * @return The complete block, including header and footer.
+	 * @throws IOException
+	 *             If the compressed data doesn't fit into a block.
+	 */
+	static byte[] compress(final byte[] data, final int length, final int level) throws IOException {
+		final byte[] block = new byte[Bgzf.MAX_BLOCK_SIZE];
+		final Deflater deflater = new Deflater(level, true);
+		final int compressed;
+		try {
+			deflater.setInput(data, 0, length);
+			deflater.finish();
+			compressed = deflater.deflate(block, Bgzf.HEADER_SIZE, block.length - Bgzf.HEADER_SIZE - Bgzf.FOOTER_SIZE);
+			if (!deflater.finished()) {
+				throw new IOException("Compressed data does not fit into a BGZF block.");
+			}
+		} finally {
+			deflater.end();
+		}
+
+		final int size = Bgzf.HEADER_SIZE + compressed + Bgzf.FOOTER_SIZE;
+		block[0] = (byte) Bgzf.ID1;
+		block[1] = (byte) Bgzf.ID2;
+		block[2] = Bgzf.CM_DEFLATE;
+		block[3] = Bgzf.FLG_EXTRA;
+		// MTIME and XFL stay 0, OS is unknown.
+		block[9] = (byte) 0xff;
+		writeShort(block, 10, 6);
+		block[12] = Bgzf.SI1;
+		block[13] = Bgzf.SI2;
+		writeShort(block, 14, 2);
+		writeShort(block, 16, size - 1);
+
+		final CRC32 crc = new CRC32();
+		crc.update(data, 0, length);
+		writeInt(block, size - 8, (int) crc.getValue());
+		writeInt(block, size - 4, length);
+
+		final byte[] result = new byte[size];
+		System.arraycopy(block, 0, result, 0, size);
+		return result;
+	}
+
+	private static void writeShort(final byte[] b, final int offset, final int value) {
+		b[offset] = (byte) value;
+		b[offset + 1] = (byte) (value >>> 8);
+	}
+
+	private static void writeInt(final byte[] b, final int offset, final int value) {
+		writeShort(b, offset, value);
+		writeShort(b, offset + 2, value >>> 16);
+	}
+
+}
@@ -0,0 +1,199 @@
+package net.emb.hcat.cli.io.compress;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Opens files transparently, whether they are compressed or not. Compressed
+ * input is detected by its magic bytes, not by its file name. BGZF input is
+ * decompressed on several threads, any other gzip input on a single thread.
+ * Output is compressed in BGZF format, if the file name ends with one of the
+ * {@link #COMPRESSED_ENDINGS}. As BGZF is valid gzip, any gzip reader can
+ * read it.
+ *
+ * @author Heiko Mattes
+ */
+public final class Compression {
+
+	/** File endings of compressed files. */
+	public static final String[] COMPRESSED_ENDINGS = { ".gz", ".bgz", ".bgzf" };
+
+	// Number of bytes needed to detect the format.
+	private static final int MAGIC_SIZE = 14;
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * The detected format of a stream.
+	 */
+	public enum EFormat {
+		/** Not compressed. */
+		PLAIN,
+		/** Compressed with gzip. */
+		GZIP,
+		/** Compressed with BGZF, which can be decompressed in parallel. */
+		BGZF
+	}
+
+	private Compression() {
+		// Only static methods.
+	}
+
+	/**
+	 * Detects the format of the given stream, without consuming any data.
+	 *
+	 * @param in
+	 *            The stream. Must support mark and reset.
+	 * @return The detected format.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	public static EFormat detect(final InputStream in) throws IOException {
+		if (!in.markSupported()) {
+			throw new IllegalArgumentException("Stream must support mark and reset.");
+		}
+		final byte[] magic = new byte[MAGIC_SIZE];
+		in.mark(MAGIC_SIZE);
+		int length = 0;
+		try {
+			int count;
+			while (length < MAGIC_SIZE && (count = in.read(magic, length, MAGIC_SIZE - length)) >= 0) {
+				length += count;
+			}
+		} finally {
+			in.reset();
+		}
+
+		if (length < 2 || (magic[0] & 0xff) != Bgzf.ID1 || (magic[1] & 0xff) != Bgzf.ID2) {
+			return EFormat.PLAIN;
+		}
+		if (length == MAGIC_SIZE && (magic[3] & Bgzf.FLG_EXTRA) != 0 && magic[12] == Bgzf.SI1 && magic[13] == Bgzf.SI2) {
+			return EFormat.BGZF;
+		}
+		return EFormat.GZIP;
+	}
+
+	/**
+	 * Detects the format of the given file.
+	 *
+	 * @param file
+	 *            The file.
+	 * @return The detected format.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	public static EFormat detect(final File file) throws IOException {
+		try (InputStream in = new BufferedInputStream(new FileInputStream(file), MAGIC_SIZE)) {
+			return detect(in);
+		}
+	}
+
+	/**
+	 * Opens the given stream for reading, decompressing it if needed.
+	 *
+	 * @param in
+	 *            The stream to read from.
+	 * @param threads
+	 *            Number of threads decompressing BGZF input. Must be a
+	 *            positive number.
+	 * @return A buffered stream returning the uncompressed data.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	public static InputStream open(final InputStream in, final int threads) throws IOException {
+		final InputStream buffered = in.markSupported() ? in : new BufferedInputStream(in, BUFFER_SIZE);
+		switch (detect(buffered)) {
+		case BGZF:
+			return new BufferedInputStream(new BgzfInputStream(buffered, threads), BUFFER_SIZE);
+		case GZIP:
+			return new BufferedInputStream(new GZIPInputStream(buffered, BUFFER_SIZE), BUFFER_SIZE);
+		default:
+			return buffered;
+		}
+	}
+
+	/**
+	 * Opens the given file for reading, decompressing it if needed.
+	 *
+	 * @param file
+	 *            The file to read from.
+	 * @param threads
+	 *            Number of threads decompressing BGZF input. Must be a
+	 *            positive number.
+	 * @return A buffered stream returning the uncompressed data.
+	 * @throws FileNotFoundException
+	 *             If the file can't be opened.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	public static InputStream open(final File file, final int threads) throws IOException {
+		final InputStream in = new FileInputStream(file);
+		try {
+			return open(in, threads);
+		} catch (final IOException | RuntimeException e) {
+			in.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Creates the given file for writing, compressing it in BGZF format if
+	 * its name ends with one of the {@link #COMPRESSED_ENDINGS}.
+	 *
+	 * @param file
+	 *            The file to write to.
+	 * @param threads
+	 *            Number of threads compressing BGZF output. Must be a positive
+	 *            number.
+	 * @return A stream writing to the file.
+	 * @throws FileNotFoundException
+	 *             If the file can't be created.
+	 */
+	public static OutputStream create(final File file, final int threads) throws FileNotFoundException {
+		final OutputStream out = new FileOutputStream(file);
+		if (isCompressed(file.getName())) {
+			return new BgzfOutputStream(out, threads);
+		}
+		return out;
+	}
+
+	/**
+	 * Checks whether the given file name ends with one of the
+	 * {@link #COMPRESSED_ENDINGS}.
+	 *
+	 * @param fileName
+	 *            The file name.
+	 * @return <code>true</code>, if the file name denotes a compressed file,
+	 *         <code>false</code> otherwise.
+	 */
+	public static boolean isCompressed(final String fileName) {
+		return fileName != null && stripEnding(fileName).length() != fileName.length();
+	}
+
+	/**
+	 * Removes the compression ending from the given file name, e.g. to find
+	 * out the format of the compressed data.
+	 *
+	 * @param fileName
+	 *            The file name.
+	 * @return The file name without compression ending, or the given file name,
+	 *         if it doesn't have one.
+	 */
+	public static String stripEnding(final String fileName) {
+		final String lower = fileName.toLowerCase();
+		for (final String ending : COMPRESSED_ENDINGS) {
+			if (lower.endsWith(ending)) {
+				return fileName.substring(0, fileName.length() - ending.length());
+			}
+		}
+		return fileName;
+	}
+
+}
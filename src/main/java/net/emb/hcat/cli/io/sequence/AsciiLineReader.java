@@ -0,0 +1,371 @@
+package net.emb.hcat.cli.io.sequence;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A buffered reader working on bytes instead of characters. Sequence data is
+ * plain ASCII, so lines consisting of ASCII bytes only are turned into strings
+ * by copying the bytes, without a {@link java.nio.charset.CharsetDecoder}. Only
+ * lines containing other bytes, like names with special characters, are
+ * decoded with the charset. Lines end with '\n', '\r' or "\r\n", as with
+ * {@link BufferedReader}.
+ * <br>
+ * <br>
+ * Only works for charsets compatible to ASCII, see
+ * {@link #isAsciiCompatible(Charset)}. Use {@link #create(InputStream, Charset)}
+ * to fall back to an {@link InputStreamReader} for all other charsets.
+ *
+ * @author Heiko Mattes
+ */
+public class AsciiLineReader extends BufferedReader {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * Checks whether the given charset encodes ASCII characters as single
+	 * bytes with the same value, and uses no such bytes for other characters.
+	 *
+	 * @param charset
+	 *            The charset.
+	 * @return <code>true</code>, if the charset is compatible to ASCII,
+	 *         <code>false</code> otherwise.
+	 */
+	public static boolean isAsciiCompatible(final Charset charset) {
+		return StandardCharsets.UTF_8.equals(charset) || StandardCharsets.US_ASCII.equals(charset) || StandardCharsets.ISO_8859_1.equals(charset);
+	}
+
+	/**
+	 * Creates a buffered reader for the given stream, which is an
+	 * {@link AsciiLineReader}, if the charset allows it.
+	 *
+	 * @param in
+	 *            The stream to read from. Must not be <code>null</code>.
+	 * @param charset
+	 *            The charset of the stream. Must not be <code>null</code>.
+	 * @return The reader.
+	 */
+	public static BufferedReader create(final InputStream in, final Charset charset) {
+		if (isAsciiCompatible(charset)) {
+			return new AsciiLineReader(in, charset);
+		}
+		return new BufferedReader(new InputStreamReader(in, charset), BUFFER_SIZE);
+	}
+
+	private final InputStream in;
+	private final Charset charset;
+
+	private byte[] buffer = new byte[BUFFER_SIZE];
+	private int position;
+	private int limit;
+	// Collects lines not ending within the buffer.
+	private byte[] line = new byte[256];
+	private boolean skipLF;
+	private boolean closed;
+
+	// A line including its terminator, partially read by the character based
+	// methods.
+	private String pending;
+	private int pendingPosition;
+
+	private int markPosition = -1;
+	private int markLimit;
+	private long markChars;
+	private boolean markSkipLF;
+	private String markPending;
+	private int markPendingPosition;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param in
+	 *            The stream to read from. Must not be <code>null</code>.
+	 * @param charset
+	 *            The charset of the stream. Must be compatible to ASCII, see
+	 *            {@link #isAsciiCompatible(Charset)}.
+	 */
+	public AsciiLineReader(final InputStream in, final Charset charset) {
+		// All methods are overridden, so the reader of the super class is
+		// never used.
+		super(new StringReader(""), 1);
+		if (in == null) {
+			throw new IllegalArgumentException("Input stream must not be null.");
+		}
+		if (!isAsciiCompatible(charset)) {
+			throw new IllegalArgumentException("Charset is not compatible to ASCII: " + charset);
+		}
+		this.in = in;
+		this.charset = charset;
+	}
+
+	@Override
+	public String readLine() throws IOException {
+		checkOpen();
+		if (pending != null) {
+			if (pendingPosition < pending.length()) {
+				return pendingLine();
+			}
+			// The line has been read including its terminator, so the next
+			// one is read.
+			pending = null;
+		}
+		return readLine(false);
+	}
+
+	// Reads the next line. Ignores the pending line.
+	private String readLine(final boolean withTerminator) throws IOException {
+		int length = 0;
+		while (true) {
+			if (position >= limit && !fill()) {
+				consumed(length);
+				return length == 0 ? null : decode(line, 0, length);
+			}
+			if (skipLF) {
+				skipLF = false;
+				if (buffer[position] == '\n') {
+					position++;
+					continue;
+				}
+			}
+
+			final int start = position;
+			int i = start;
+			byte b = 0;
+			while (i < limit && (b = buffer[i]) != '\n' && b != '\r') {
+				i++;
+			}
+			if (i == limit) {
+				// Line continues after the buffer.
+				length = append(start, i, length);
+				position = limit;
+				continue;
+			}
+
+			position = i + 1;
+			skipLF = b == '\r';
+			if (!withTerminator) {
+				consumed(length + i - start + 1);
+				if (length == 0) {
+					return decode(buffer, start, i - start);
+				}
+				length = append(start, i, length);
+				return decode(line, 0, length);
+			}
+
+			// The line is copied, as filling the buffer moves its content.
+			length = append(start, position, length);
+			if (b == '\r' && (position < limit || fill()) && buffer[position] == '\n') {
+				skipLF = false;
+				length = append(position, ++position, length);
+			}
+			return decode(line, 0, length);
+		}
+	}
+
+	private int append(final int start, final int end, final int length) {
+		final int newLength = length + end - start;
+		if (newLength > line.length) {
+			line = Arrays.copyOf(line, Math.max(newLength, line.length * 2));
+		}
+		System.arraycopy(buffer, start, line, length, end - start);
+		return newLength;
+	}
+
+	// Counts the characters read since the mark, and invalidates it once the
+	// read-ahead limit has been passed. Lines read at once are counted in
+	// bytes, which is never less than their characters.
+	private void consumed(final long chars) {
+		if (markPosition >= 0) {
+			markChars += chars;
+			if (markChars > markLimit) {
+				markPosition = -1;
+			}
+		}
+	}
+
+	// ASCII bytes are the same in ISO-8859-1, which is simply copied.
+	private String decode(final byte[] bytes, final int offset, final int length) {
+		for (int i = offset; i < offset + length; i++) {
+			if (bytes[i] < 0) {
+				return new String(bytes, offset, length, charset);
+			}
+		}
+		return new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+	}
+
+	// Rest of the pending line, without its terminator.
+	private String pendingLine() {
+		int end = pending.length();
+		if (end > pendingPosition && pending.charAt(end - 1) == '\n') {
+			end--;
+		}
+		if (end > pendingPosition && pending.charAt(end - 1) == '\r') {
+			end--;
+		}
+		final String result = pending.substring(pendingPosition, end);
+		consumed(pending.length() - pendingPosition);
+		pending = null;
+		return result;
+	}
+
+	private boolean fill() throws IOException {
+		// Keeps the bytes since the mark, as long as the mark is valid.
+		final int keep = markPosition >= 0 ? markPosition : position;
+		if (keep > 0) {
+			System.arraycopy(buffer, keep, buffer, 0, limit - keep);
+			limit -= keep;
+			position -= keep;
+			if (markPosition >= 0) {
+				markPosition -= keep;
+			}
+		}
+		if (limit == buffer.length) {
+			buffer = Arrays.copyOf(buffer, buffer.length * 2);
+		}
+
+		final int read = in.read(buffer, limit, buffer.length - limit);
+		if (read <= 0) {
+			return false;
+		}
+		limit += read;
+		return true;
+	}
+
+	@Override
+	public int read() throws IOException {
+		final char[] c = new char[1];
+		return read(c, 0, 1) < 0 ? -1 : c[0];
+	}
+
+	@Override
+	public int read(final char[] cbuf, final int off, final int len) throws IOException {
+		checkOpen();
+		if (off < 0 || len < 0 || off + len > cbuf.length) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (len == 0) {
+			return 0;
+		}
+		if (pending == null || pendingPosition == pending.length()) {
+			pending = null;
+			final int copied = readAscii(cbuf, off, len);
+			if (copied > 0) {
+				return copied;
+			}
+			// Other bytes are decoded line by line.
+			pending = readLine(true);
+			pendingPosition = 0;
+			if (pending == null) {
+				return -1;
+			}
+		}
+		final int count = Math.min(len, pending.length() - pendingPosition);
+		pending.getChars(pendingPosition, pendingPosition + count, cbuf, off);
+		pendingPosition += count;
+		consumed(count);
+		return count;
+	}
+
+	// Copies ASCII bytes up to the next other byte, which is the start of a
+	// character encoded in several bytes.
+	private int readAscii(final char[] cbuf, final int off, final int len) throws IOException {
+		while (true) {
+			if (position >= limit && !fill()) {
+				return 0;
+			}
+			if (!skipLF) {
+				break;
+			}
+			skipLF = false;
+			if (buffer[position] == '\n') {
+				position++;
+			}
+		}
+
+		final byte[] bytes = buffer;
+		final int start = position;
+		final int end = Math.min(limit, start + len);
+		int i = start;
+		byte b;
+		while (i < end && (b = bytes[i]) >= 0) {
+			cbuf[off + i - start] = (char) b;
+			i++;
+		}
+		position = i;
+		consumed(i - start);
+		return i - start;
+	}
+
+	@Override
+	public long skip(final long n) throws IOException {
+		if (n < 0) {
+			throw new IllegalArgumentException("Skip value is negative.");
+		}
+		final char[] skipped = new char[(int) Math.min(n, BUFFER_SIZE)];
+		long remaining = n;
+		int read;
+		while (remaining > 0 && (read = read(skipped, 0, (int) Math.min(remaining, skipped.length))) > 0) {
+			remaining -= read;
+		}
+		return n - remaining;
+	}
+
+	@Override
+	public boolean ready() throws IOException {
+		checkOpen();
+		return pending != null && pendingPosition < pending.length() || position < limit || in.available() > 0;
+	}
+
+	@Override
+	public boolean markSupported() {
+		return true;
+	}
+
+	@Override
+	public void mark(final int readAheadLimit) throws IOException {
+		if (readAheadLimit < 0) {
+			throw new IllegalArgumentException("Read-ahead limit < 0");
+		}
+		checkOpen();
+		markPosition = position;
+		markLimit = readAheadLimit;
+		markChars = 0;
+		markSkipLF = skipLF;
+		markPending = pending;
+		markPendingPosition = pendingPosition;
+	}
+
+	@Override
+	public void reset() throws IOException {
+		checkOpen();
+		if (markPosition < 0) {
+			throw new IOException("Stream not marked, or mark invalid.");
+		}
+		position = markPosition;
+		skipLF = markSkipLF;
+		pending = markPending;
+		pendingPosition = markPendingPosition;
+	}
+
+	private void checkOpen() throws IOException {
+		if (closed) {
+			throw new IOException("Stream closed");
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (!closed) {
+			closed = true;
+			in.close();
+		}
+	}
+
+}
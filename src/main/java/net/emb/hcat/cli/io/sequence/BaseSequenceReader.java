@@ -5,6 +5,7 @@ import java.io.IOException;
 import java.io.Reader;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,6 +13,7 @@ import org.slf4j.helpers.MessageFormatter;
 
 import net.emb.hcat.cli.ErrorCodeException;
 import net.emb.hcat.cli.ErrorCodeException.EErrorCode;
+import net.emb.hcat.cli.jfr.ReadChunkEvent;
 import net.emb.hcat.cli.sequence.Sequence;
 
 /**
@@ -26,7 +28,26 @@ public class BaseSequenceReader implements ISequenceReader {
 
 	private static final Logger log = LoggerFactory.getLogger(BaseSequenceReader.class);
 
+	// Whether a class still overrides the deprecated isData(String), which
+	// must then be called for each line.
+	private static final ClassValue<Boolean> LEGACY_IS_DATA = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue(final Class<?> type) {
+			for (Class<?> current = type; current != BaseSequenceReader.class; current = current.getSuperclass()) {
+				try {
+					current.getDeclaredMethod("isData", String.class);
+					return true;
+				} catch (final NoSuchMethodException e) {
+					// Not overridden here, check the super class.
+				}
+			}
+			return false;
+		}
+	};
+
 	private final BufferedReader reader;
+	private final LineScanner scanner;
+	private final boolean legacyIsData = LEGACY_IS_DATA.get(getClass());
 	private int lineCount = 0;
 
 	private boolean enforceSameLength;
@@ -42,6 +63,7 @@ public class BaseSequenceReader implements ISequenceReader {
 			throw new IllegalArgumentException("Reader can't be null.");
 		}
 		this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader, 1024);
+		scanner = new LineScanner(this.reader);
 	}
 
 	@Override
@@ -61,6 +83,26 @@ public class BaseSequenceReader implements ISequenceReader {
 		}
 	}
 
+	@Override
+	public void read(final Consumer<Sequence> consumer) throws ErrorCodeException {
+		if (consumer == null) {
+			throw new IllegalArgumentException("Consumer must not be null.");
+		}
+
+		log.info("Reading sequences.");
+		try {
+			readHeader();
+			final int count = readSequences(consumer);
+			log.info("Read {} sequence(s) successfully.", count);
+		} catch (final ErrorCodeException e) {
+			throw e;
+		} catch (final IOException e) {
+			throw new ErrorCodeException(EErrorCode.GENERIC_READ, e, "Error reading sequences. Error message: {}", e.getMessage());
+		} catch (final Exception e) {
+			throw new ErrorCodeException(EErrorCode.UNEXPECTED, e, "Could not read sequences. Error message: {}", e.getMessage());
+		}
+	}
+
 	/**
 	 * Reads all sequences from the underlying reader. A check that enforces
 	 * same length of all sequences is performed, if
@@ -72,12 +114,35 @@ public class BaseSequenceReader implements ISequenceReader {
 	 *             An exception happened reading in the sequences.
 	 * @throws IOException
 	 *             If an I/O error occurs.
+	 * @see #readSequences(Consumer)
 	 */
 	protected List<Sequence> readSequences() throws ErrorCodeException, IOException {
-		int previousLength = 0;
 		final ArrayList<Sequence> sequences = new ArrayList<>();
+		readSequences(sequences::add);
+		return sequences;
+	}
+
+	/**
+	 * Reads all sequences from the underlying reader, handing each to the
+	 * given consumer after it has been validated. A check that enforces same
+	 * length of all sequences is performed, if
+	 * {@link #setEnforceSameLength(boolean)} is configured.
+	 *
+	 * @param consumer
+	 *            The consumer receiving the sequences.
+	 * @return The number of sequences read.
+	 * @throws ErrorCodeException
+	 *             An exception happened reading in the sequences.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	protected int readSequences(final Consumer<Sequence> consumer) throws ErrorCodeException, IOException {
+		int previousLength = 0;
+		int count = 0;
 		Sequence sequence;
 
+		ReadChunkEvent chunk = new ReadChunkEvent();
+		chunk.begin();
 		while ((sequence = readSequence()) != null) {
 			log.debug("Sequence read: {}", sequence);
 			validateSequence(sequence);
@@ -88,14 +153,31 @@ public class BaseSequenceReader implements ISequenceReader {
 				throw new ErrorCodeException(EErrorCode.SEQUENCE_WRONG_LENGTH, msg, sequence, lineIndex, previousLength);
 			}
 
-			sequences.add(sequence);
+			count++;
 			previousLength = sequence.getLength();
 
 			if (sequence.getName() == null) {
-				sequence.setName(String.valueOf(sequences.size()));
+				sequence.setName(String.valueOf(count));
+			}
+			consumer.accept(sequence);
+
+			chunk.sequences++;
+			chunk.bases += sequence.getLength();
+			if (chunk.sequences == ReadChunkEvent.CHUNK_SIZE) {
+				commitChunk(chunk);
+				chunk = new ReadChunkEvent();
+				chunk.begin();
 			}
 		}
-		return sequences;
+		commitChunk(chunk);
+		return count;
+	}
+
+	private void commitChunk(final ReadChunkEvent chunk) {
+		if (chunk.sequences > 0 && chunk.shouldCommit()) {
+			chunk.reader = getClass().getSimpleName();
+			chunk.commit();
+		}
 	}
 
 	/**
@@ -133,27 +215,47 @@ public class BaseSequenceReader implements ISequenceReader {
 
 	/**
 	 * Reads a new line from the underlying stream. It will skip over lines that
-	 * are not to be considered as data.
+	 * are not to be considered as data. Skipped lines are only checked on the
+	 * buffer of the {@link LineScanner}, so no string is created for them.
 	 *
 	 * @return The line read from the underlying stream. <code>null</code> if
 	 *         the end of the stream has been reached.
 	 * @throws IOException
 	 *             If an I/O error occurs.
-	 * @see #isData(String)
+	 * @see #isData(CharSequence)
 	 */
 	protected String readLine() throws IOException {
-		final String line = getReader().readLine();
-		log.trace("Read line ({}): {}", lineCount, line);
-		if (line == null) {
-			// End of stream reached.
-			return null;
-		}
+		final CharSequence line = readLineView();
+		return line == null ? null : line.toString();
+	}
 
-		lineCount++;
-		if (isData(line)) {
-			return line;
+	/**
+	 * Reads a new line from the underlying stream, just like
+	 * {@link #readLine()}, but doesn't create a string for it. Lets subclasses
+	 * look at lines, which are not kept.
+	 *
+	 * @return The line read from the underlying stream. Is only valid until
+	 *         the next line is read, as it is a view on the buffer of the
+	 *         {@link LineScanner}. <code>null</code> if the end of the stream
+	 *         has been reached.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 * @see #isData(CharSequence)
+	 */
+	protected CharSequence readLineView() throws IOException {
+		final boolean trace = log.isTraceEnabled();
+		CharSequence line;
+		while ((line = scanner.next()) != null) {
+			lineCount++;
+			if (trace) {
+				log.trace("Read line ({}): {}", lineCount, line);
+			}
+			if (isData(line)) {
+				return line;
+			}
 		}
-		return readLine();
+		// End of stream reached.
+		return null;
 	}
 
 	/**
@@ -174,18 +276,54 @@ public class BaseSequenceReader implements ISequenceReader {
 	 * empty lines or comments and such.
 	 *
 	 * @param line
+	 *            The line to check. Will not be null. Is only valid during
+	 *            this call, as it is a view on the buffer of the
+	 *            {@link LineScanner}.
+	 * @return <code>true</code>, if the data is to be considered data,
+	 *         <code>false</code> otherwise. Default implementation checks
+	 *         whether the line is empty or contains only blank chars. If a
+	 *         subclass overrides {@link #isData(String)}, that one is called
+	 *         instead.
+	 */
+	protected boolean isData(final CharSequence line) {
+		if (legacyIsData) {
+			return isData(line.toString());
+		}
+		return hasData(line);
+	}
+
+	/**
+	 * Checks whether the given line contains data. Still called, if a subclass
+	 * overrides it, but creates a string for each line.
+	 *
+	 * @param line
 	 *            The line to check. Will not be null.
 	 * @return <code>true</code>, if the data is to be considered data,
 	 *         <code>false</code> otherwise. Default implementation checks
 	 *         whether the line is empty or contains only blank chars.
+	 * @deprecated Override {@link #isData(CharSequence)} instead.
 	 */
+	@Deprecated
 	protected boolean isData(final String line) {
-		return !line.trim().isEmpty();
+		return hasData(line);
+	}
+
+	private static boolean hasData(final CharSequence line) {
+		// Same as trim, but without creating a string.
+		for (int i = 0; i < line.length(); i++) {
+			if (line.charAt(i) > ' ') {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	/**
 	 * Gets the reader to read sequences from. Usually, the actual reader
 	 * shouldn't be used directly. Instead, use the {@link #readLine()} method.
+	 * Once a line has been read with {@link #readLine()}, the reader must not
+	 * be used anymore, as characters following that line may already have
+	 * been buffered.
 	 *
 	 * @return The reader.
 	 */
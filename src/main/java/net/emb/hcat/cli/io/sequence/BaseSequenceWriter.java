@@ -8,6 +8,7 @@ import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import net.emb.hcat.cli.jfr.WriterFlushEvent;
 import net.emb.hcat.cli.sequence.Sequence;
 
 /**
@@ -26,6 +27,10 @@ public class BaseSequenceWriter implements ISequenceWriter {
 
 	private int lineBreak;
 
+	// Number of sequences and bases written since the last call to start.
+	private int count;
+	private long written;
+
 	/**
 	 * Constructor.
 	 *
@@ -36,7 +41,7 @@ public class BaseSequenceWriter implements ISequenceWriter {
 		if (writer == null) {
 			throw new IllegalArgumentException("Writer can't be null.");
 		}
-		this.writer = writer instanceof BufferedWriter ? (BufferedWriter) writer : new BufferedWriter(writer, 1024);
+		this.writer = writer instanceof BufferedWriter ? (BufferedWriter) writer : new BufferedWriter(writer);
 	}
 
 	@Override
@@ -45,16 +50,68 @@ public class BaseSequenceWriter implements ISequenceWriter {
 			throw new IllegalArgumentException("Sequences must not be null.");
 		}
 
+		start();
+		writeSequences(sequences);
+		end();
+	}
+
+	/**
+	 * Checks whether sequences can be written one by one with
+	 * {@link #append(Sequence)}, without knowing all of them up front.
+	 *
+	 * @return <code>true</code>, if the format doesn't need to know all
+	 *         sequences up front, <code>false</code> otherwise. Base
+	 *         implementation returns <code>true</code>.
+	 */
+	public boolean isStreaming() {
+		return true;
+	}
+
+	/**
+	 * Starts writing sequences one by one. Writes the header. Must be followed
+	 * by any number of calls to {@link #append(Sequence)} and a single call to
+	 * {@link #end()}. Only supported, if {@link #isStreaming()} returns
+	 * <code>true</code>.
+	 *
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	public void start() throws IOException {
 		log.info("Writing sequences.");
 
+		count = 0;
+		written = 0;
 		writeHeader();
+	}
 
-		writeSequences(sequences);
+	/**
+	 * Writes a single sequence, after writing has been started with
+	 * {@link #start()}.
+	 *
+	 * @param sequence
+	 *            The sequence to write. Must not be <code>null</code>.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	public void append(final Sequence sequence) throws IOException {
+		if (sequence == null) {
+			throw new IllegalArgumentException("Sequence must not be null.");
+		}
+		writeSequence(sequence);
+	}
 
+	/**
+	 * Ends writing sequences one by one. Writes the footer and flushes the
+	 * output.
+	 *
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	public void end() throws IOException {
 		writeFooter();
 
-		getWriter().flush();
-		log.info("{} sequence(s) successfully written.", sequences.size());
+		WriterFlushEvent.flush(getWriter(), this, count, written);
+		log.info("{} sequence(s) successfully written.", count);
 	}
 
 	/**
@@ -108,6 +165,22 @@ public class BaseSequenceWriter implements ISequenceWriter {
 	protected void writeSequence(final Sequence sequence) throws IOException {
 		writeSeqName(sequence.getName());
 		writeSeqValue(sequence.getValue());
+		countWritten(1, sequence.getLength());
+	}
+
+	/**
+	 * Counts sequences as written, for the log and the flush event of
+	 * {@link #end()}. Only needed by subclasses writing sequences without
+	 * {@link #writeSequence(Sequence)}, e.g. block by block.
+	 *
+	 * @param sequences
+	 *            The number of sequences written.
+	 * @param bases
+	 *            The number of bases written.
+	 */
+	protected void countWritten(final int sequences, final long bases) {
+		count += sequences;
+		written += bases;
 	}
 
 	/**
@@ -0,0 +1,104 @@
+package net.emb.hcat.cli.io.sequence;
+
+import java.util.Arrays;
+
+/**
+ * Constants of the binary alignment format, shared by
+ * {@link BinaryAlignmentWriter} and {@link BinaryAlignmentReader}. All numbers
+ * are stored big-endian. A file consists of:
+ * <ul>
+ * <li>The header: magic number, version, number of sequences, reserved flags,
+ * offset of the name table and offset of the index.</li>
+ * <li>One row per sequence: the bases packed with 2 bits each, 4 bases per
+ * byte with the first base in the lowest bits, followed by the number of
+ * exception runs and the runs themselves. Each run is a position, a length and
+ * the character replacing the bases of the run. All characters other than
+ * upper case ACGT are stored as exceptions.</li>
+ * <li>The name table: for each sequence the length of its UTF-8 encoded name,
+ * or -1 if it has none, followed by the name.</li>
+ * <li>The index: for each sequence the offset of its row and its length.</li>
+ * </ul>
+ *
+ * @author Heiko Mattes
+ */
+final class BinaryAlignment {
+
+	/** Magic number at the start of the file, "HCAB". */
+	static final int MAGIC = 0x48434142;
+
+	/** Version of the format. */
+	static final int VERSION = 1;
+
+	/** Size of the header in bytes. */
+	static final int HEADER_SIZE = 32;
+
+	/** Size of an index entry in bytes. */
+	static final int INDEX_ENTRY_SIZE = 12;
+
+	/** Size of an exception run in bytes. */
+	static final int RUN_SIZE = 10;
+
+	/** The bases that are packed, in the order of their 2 bit code. */
+	static final String BASES = "ACGT";
+
+	private static final byte[] CODE = new byte[128];
+
+	// For each packed byte, its 4 bases.
+	private static final char[] DECODE = new char[256 * 4];
+
+	static {
+		Arrays.fill(CODE, (byte) -1);
+		for (int i = 0; i < BASES.length(); i++) {
+			CODE[BASES.charAt(i)] = (byte) i;
+		}
+		for (int b = 0; b < 256; b++) {
+			for (int i = 0; i < 4; i++) {
+				DECODE[b * 4 + i] = BASES.charAt(b >> i * 2 & 3);
+			}
+		}
+	}
+
+	private BinaryAlignment() {
+		// Only constants.
+	}
+
+	/**
+	 * Gets the 2 bit code of the given character.
+	 *
+	 * @param c
+	 *            The character.
+	 * @return The code between 0 and 3, or -1, if the character must be stored
+	 *         as an exception.
+	 */
+	static int code(final char c) {
+		return c < CODE.length ? CODE[c] : -1;
+	}
+
+	/**
+	 * Unpacks the bases of a packed byte.
+	 *
+	 * @param b
+	 *            The packed byte.
+	 * @param target
+	 *            The array to unpack to.
+	 * @param offset
+	 *            The position of the first base in the target.
+	 * @param count
+	 *            The number of bases to unpack, at most 4.
+	 */
+	static void decode(final byte b, final char[] target, final int offset, final int count) {
+		System.arraycopy(DECODE, (b & 0xff) * 4, target, offset, count);
+	}
+
+	/**
+	 * Gets the number of bytes needed to pack the given number of bases.
+	 *
+	 * @param length
+	 *            The number of bases.
+	 * @return The number of bytes.
+	 */
+	static int packedSize(final int length) {
+		return (length + 3) / 4;
+	}
+
+}
@@ -0,0 +1,341 @@
+package net.emb.hcat.cli.io.sequence;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.emb.hcat.cli.ErrorCodeException;
+import net.emb.hcat.cli.ErrorCodeException.EErrorCode;
+import net.emb.hcat.cli.sequence.Sequence;
+
+/**
+ * Reads sequences written by {@link BinaryAlignmentWriter}. The file is
+ * memory-mapped and only the names are read up front, so opening even large
+ * alignments is fast. Sequences are decoded from the mapped rows when they are
+ * accessed.
+ * <br>
+ * <br>
+ * The list returned by {@link #read()} decodes each sequence on first access
+ * and keeps it. The mapping stays valid after the reader has been closed, so
+ * the list can still be used.
+ *
+ * @author Heiko Mattes
+ * @see BinaryAlignment
+ */
+public class BinaryAlignmentReader implements ISequenceReader {
+
+	private static final Logger log = LoggerFactory.getLogger(BinaryAlignmentReader.class);
+
+	// Files larger than this are mapped in several segments.
+	private static final int SEGMENT_SHIFT = 30;
+	private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+
+	private final RandomAccessFile file;
+	private final long size;
+	private final MappedByteBuffer[] segments;
+
+	private final String[] names;
+	private final long indexOffset;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param file
+	 *            The file to read from. Must not be <code>null</code>.
+	 * @throws IOException
+	 *             If the file can't be opened, or isn't a binary alignment
+	 *             file.
+	 */
+	public BinaryAlignmentReader(final File file) throws IOException {
+		if (file == null) {
+			throw new IllegalArgumentException("File must not be null.");
+		}
+		this.file = new RandomAccessFile(file, "r");
+		try {
+			final FileChannel channel = this.file.getChannel();
+			size = channel.size();
+			segments = new MappedByteBuffer[(int) ((size + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+			for (int i = 0; i < segments.length; i++) {
+				final long start = i * SEGMENT_SIZE;
+				segments[i] = channel.map(MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, size - start));
+			}
+
+			if (size < BinaryAlignment.HEADER_SIZE || getInt(0) != BinaryAlignment.MAGIC) {
+				throw new IOException("Not a binary alignment file: " + file);
+			}
+			if (getInt(4) != BinaryAlignment.VERSION) {
+				throw new IOException("Unsupported version of binary alignment file: " + getInt(4));
+			}
+			final int count = getInt(8);
+			final long namesOffset = getLong(16);
+			indexOffset = getLong(24);
+			if (count < 0 || namesOffset < BinaryAlignment.HEADER_SIZE || indexOffset < namesOffset || indexOffset + (long) count * BinaryAlignment.INDEX_ENTRY_SIZE > size) {
+				throw new IOException("Binary alignment file is corrupt: " + file);
+			}
+
+			names = new String[count];
+			long position = namesOffset;
+			for (int i = 0; i < count; i++) {
+				final int length = getInt(position);
+				position += 4;
+				if (length >= 0) {
+					if (position + length > indexOffset) {
+						throw new IOException("Binary alignment file is corrupt: " + file);
+					}
+					names[i] = new String(getBytes(position, length), StandardCharsets.UTF_8);
+					position += length;
+				}
+			}
+		} catch (final IOException | RuntimeException e) {
+			this.file.close();
+			throw e;
+		}
+	}
+
+	@Override
+	public List<Sequence> read() {
+		log.info("Reading binary alignment with {} sequence(s).", size());
+		return new SequenceList();
+	}
+
+	@Override
+	public void read(final Consumer<Sequence> consumer) throws ErrorCodeException {
+		if (consumer == null) {
+			throw new IllegalArgumentException("Consumer must not be null.");
+		}
+
+		log.info("Reading binary alignment with {} sequence(s).", size());
+		try {
+			for (int i = 0; i < size(); i++) {
+				consumer.accept(get(i));
+			}
+		} catch (final IllegalStateException e) {
+			throw new ErrorCodeException(EErrorCode.GENERIC_READ, e, "Error reading sequences. Error message: {}", e.getMessage());
+		}
+		log.info("Read {} sequence(s) successfully.", size());
+	}
+
+	/**
+	 * Gets the number of sequences.
+	 *
+	 * @return The number of sequences.
+	 */
+	public int size() {
+		return names.length;
+	}
+
+	/**
+	 * Gets the name of a sequence, without decoding it.
+	 *
+	 * @param index
+	 *            The index of the sequence.
+	 * @return The name, may be <code>null</code>.
+	 */
+	public String getName(final int index) {
+		return names[index];
+	}
+
+	/**
+	 * Gets the length of a sequence, without decoding it.
+	 *
+	 * @param index
+	 *            The index of the sequence.
+	 * @return The number of bases.
+	 */
+	public int getLength(final int index) {
+		checkIndex(index);
+		return getInt(indexOffset + (long) index * BinaryAlignment.INDEX_ENTRY_SIZE + 8);
+	}
+
+	/**
+	 * Decodes a sequence.
+	 *
+	 * @param index
+	 *            The index of the sequence.
+	 * @return The sequence.
+	 * @throws IllegalStateException
+	 *             If the row of the sequence is corrupt.
+	 */
+	public Sequence get(final int index) {
+		final int length = getLength(index);
+		if (length < 0) {
+			throw new IllegalStateException("Corrupt row of sequence: " + names[index]);
+		}
+		final char[] value = new char[length];
+		getBases(index, 0, value, 0, length);
+		return new Sequence(new String(value), names[index]);
+	}
+
+	/**
+	 * Decodes a part of a sequence. Only the packed bytes and exception runs
+	 * covering that part are read, so columns of an alignment can be read
+	 * block by block without decoding whole rows.
+	 *
+	 * @param index
+	 *            The index of the sequence.
+	 * @param start
+	 *            The position of the first base to decode, starting with 0.
+	 * @param target
+	 *            The array to decode the bases into. Must not be
+	 *            <code>null</code>.
+	 * @param offset
+	 *            The offset in the array of the first decoded base.
+	 * @param length
+	 *            The number of bases to decode.
+	 * @throws IndexOutOfBoundsException
+	 *             If the part is not within the sequence, or doesn't fit into
+	 *             the array.
+	 * @throws IllegalStateException
+	 *             If the row of the sequence is corrupt.
+	 */
+	public void getBases(final int index, final int start, final char[] target, final int offset, final int length) {
+		checkIndex(index);
+		final long entry = indexOffset + (long) index * BinaryAlignment.INDEX_ENTRY_SIZE;
+		final long rowOffset = getLong(entry);
+		final int rowLength = getInt(entry + 8);
+		final int packedSize = BinaryAlignment.packedSize(rowLength);
+		if (rowOffset < BinaryAlignment.HEADER_SIZE || rowLength < 0 || rowOffset + packedSize + 4 > indexOffset) {
+			throw new IllegalStateException("Corrupt row of sequence: " + names[index]);
+		}
+		if (start < 0 || length < 0 || start > rowLength - length || offset < 0 || offset > target.length - length) {
+			throw new IndexOutOfBoundsException("Bases " + start + "-" + (start + length) + " of sequence with length " + rowLength);
+		}
+		final int end = start + length;
+
+		if (length > 0) {
+			final int first = start / 4;
+			final byte[] packed = getBytes(rowOffset + first, (end - 1) / 4 - first + 1);
+			final char[] quad = new char[4];
+			for (int i = 0; i < packed.length; i++) {
+				final int base = (first + i) * 4;
+				final int from = Math.max(start, base);
+				final int to = Math.min(end, base + 4);
+				if (from == base && to == base + 4) {
+					BinaryAlignment.decode(packed[i], target, offset + base - start, 4);
+				} else {
+					BinaryAlignment.decode(packed[i], quad, 0, 4);
+					System.arraycopy(quad, from - base, target, offset + from - start, to - from);
+				}
+			}
+		}
+
+		final long runs = rowOffset + packedSize + 4;
+		final int runCount = getInt(runs - 4);
+		if (runCount < 0 || runs + (long) runCount * BinaryAlignment.RUN_SIZE > indexOffset) {
+			throw new IllegalStateException("Corrupt row of sequence: " + names[index]);
+		}
+		// Runs are ordered by position, so the first run reaching into the
+		// part can be searched.
+		int low = 0;
+		int high = runCount;
+		while (low < high) {
+			final int middle = low + high >>> 1;
+			final long position = runs + (long) middle * BinaryAlignment.RUN_SIZE;
+			if ((long) getInt(position) + getInt(position + 4) <= start) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		for (int i = low; i < runCount; i++) {
+			final long position = runs + (long) i * BinaryAlignment.RUN_SIZE;
+			final int runStart = getInt(position);
+			final int runLength = getInt(position + 4);
+			if (runStart < 0 || runLength < 0 || runStart > rowLength - runLength) {
+				throw new IllegalStateException("Corrupt row of sequence: " + names[index]);
+			}
+			if (runStart >= end) {
+				break;
+			}
+			final char c = (char) (get(position + 8) << 8 | get(position + 9) & 0xff);
+			for (int j = Math.max(start, runStart); j < Math.min(end, runStart + runLength); j++) {
+				target[offset + j - start] = c;
+			}
+		}
+	}
+
+	private void checkIndex(final int index) {
+		if (index < 0 || index >= names.length) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + names.length);
+		}
+	}
+
+	private byte get(final long position) {
+		return segments[(int) (position >>> SEGMENT_SHIFT)].get((int) (position & SEGMENT_SIZE - 1));
+	}
+
+	private int getInt(final long position) {
+		return (get(position) & 0xff) << 24 | (get(position + 1) & 0xff) << 16 | (get(position + 2) & 0xff) << 8 | get(position + 3) & 0xff;
+	}
+
+	private long getLong(final long position) {
+		return (long) getInt(position) << 32 | getInt(position + 4) & 0xffffffffL;
+	}
+
+	private byte[] getBytes(final long position, final int length) {
+		final byte[] bytes = new byte[length];
+		int done = 0;
+		while (done < length) {
+			final long current = position + done;
+			// Duplicate, so concurrent reads don't share the buffer position.
+			final ByteBuffer segment = segments[(int) (current >>> SEGMENT_SHIFT)].duplicate();
+			final int start = (int) (current & SEGMENT_SIZE - 1);
+			final int count = Math.min(length - done, segment.limit() - start);
+			segment.position(start);
+			segment.get(bytes, done, count);
+			done += count;
+		}
+		return bytes;
+	}
+
+	/**
+	 * Convenience method to close the underlying file. Sequences already
+	 * returned by {@link #read()} stay readable.
+	 */
+	@Override
+	public void close() {
+		try {
+			file.close();
+		} catch (final IOException e) {
+			log.error(e.getMessage(), e);
+		}
+	}
+
+	// Decodes sequences on first access.
+	private final class SequenceList extends AbstractList<Sequence> implements RandomAccess {
+
+		private final AtomicReferenceArray<Sequence> decoded = new AtomicReferenceArray<>(names.length);
+
+		@Override
+		public Sequence get(final int index) {
+			Sequence sequence = decoded.get(index);
+			if (sequence == null) {
+				sequence = BinaryAlignmentReader.this.get(index);
+				if (!decoded.compareAndSet(index, null, sequence)) {
+					sequence = decoded.get(index);
+				}
+			}
+			return sequence;
+		}
+
+		@Override
+		public int size() {
+			return names.length;
+		}
+
+	}
+
+}
@@ -0,0 +1,219 @@
+package net.emb.hcat.cli.io.sequence;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.emb.hcat.cli.sequence.Sequence;
+
+/**
+ * Writes sequences in the binary alignment format, which can be reloaded by
+ * {@link BinaryAlignmentReader} without parsing. Sequences can be written one
+ * by one, so the alignment doesn't have to be kept in memory. Only the names
+ * and the index are kept until the end, when they are appended and the header
+ * is completed.
+ *
+ * @author Heiko Mattes
+ * @see BinaryAlignment
+ */
+public class BinaryAlignmentWriter implements ISequenceWriter {
+
+	private static final Logger log = LoggerFactory.getLogger(BinaryAlignmentWriter.class);
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final FileOutputStream file;
+	private final DataOutputStream out;
+	private long position;
+
+	private final ByteArrayOutputStream names = new ByteArrayOutputStream();
+	private final DataOutputStream nameOut = new DataOutputStream(names);
+	private long[] offsets = new long[1024];
+	private int[] lengths = new int[1024];
+	private int count;
+	private long written;
+
+	// Reused between rows.
+	private byte[] packed = new byte[0];
+	private int[] runs = new int[3 * 16];
+
+	/**
+	 * Constructor.
+	 *
+	 * @param file
+	 *            The file to write to. Must not be <code>null</code>.
+	 * @throws FileNotFoundException
+	 *             If the file can't be created.
+	 */
+	public BinaryAlignmentWriter(final File file) throws FileNotFoundException {
+		if (file == null) {
+			throw new IllegalArgumentException("File must not be null.");
+		}
+		this.file = new FileOutputStream(file);
+		out = new DataOutputStream(new BufferedOutputStream(this.file, BUFFER_SIZE));
+	}
+
+	@Override
+	public void write(final List<Sequence> sequences) throws IOException {
+		if (sequences == null) {
+			throw new IllegalArgumentException("Sequences must not be null.");
+		}
+
+		start();
+		for (final Sequence sequence : sequences) {
+			if (sequence != null) {
+				append(sequence);
+			}
+		}
+		end();
+	}
+
+	/**
+	 * Starts writing sequences one by one. Writes a placeholder for the
+	 * header. Must be followed by any number of calls to
+	 * {@link #append(Sequence)} and a single call to {@link #end()}.
+	 *
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	public void start() throws IOException {
+		log.info("Writing binary alignment.");
+		out.write(new byte[BinaryAlignment.HEADER_SIZE]);
+		position = BinaryAlignment.HEADER_SIZE;
+	}
+
+	/**
+	 * Writes a single sequence, after writing has been started with
+	 * {@link #start()}.
+	 *
+	 * @param sequence
+	 *            The sequence to write. Must not be <code>null</code>.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	public void append(final Sequence sequence) throws IOException {
+		if (sequence == null) {
+			throw new IllegalArgumentException("Sequence must not be null.");
+		}
+
+		if (count == offsets.length) {
+			offsets = Arrays.copyOf(offsets, count * 2);
+			lengths = Arrays.copyOf(lengths, count * 2);
+		}
+		offsets[count] = position;
+		lengths[count] = sequence.getLength();
+		count++;
+		written += sequence.getLength();
+
+		final String name = sequence.getName();
+		if (name == null) {
+			nameOut.writeInt(-1);
+		} else {
+			final byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+			nameOut.writeInt(bytes.length);
+			nameOut.write(bytes);
+		}
+
+		writeRow(sequence.getValue());
+	}
+
+	private void writeRow(final String value) throws IOException {
+		final int length = value.length();
+		final int size = BinaryAlignment.packedSize(length);
+		if (packed.length < size) {
+			packed = new byte[size];
+		} else {
+			Arrays.fill(packed, 0, size, (byte) 0);
+		}
+
+		// Each run is stored as position, length and character.
+		int runCount = 0;
+		for (int i = 0; i < length; i++) {
+			final char c = value.charAt(i);
+			final int code = BinaryAlignment.code(c);
+			if (code >= 0) {
+				packed[i >> 2] |= code << (i & 3) * 2;
+				continue;
+			}
+			if (runCount > 0 && runs[runCount * 3 - 1] == c && runs[runCount * 3 - 3] + runs[runCount * 3 - 2] == i) {
+				runs[runCount * 3 - 2]++;
+				continue;
+			}
+			if (runs.length < runCount * 3 + 3) {
+				runs = Arrays.copyOf(runs, runs.length * 2);
+			}
+			runs[runCount * 3] = i;
+			runs[runCount * 3 + 1] = 1;
+			runs[runCount * 3 + 2] = c;
+			runCount++;
+		}
+
+		out.write(packed, 0, size);
+		out.writeInt(runCount);
+		for (int i = 0; i < runCount; i++) {
+			out.writeInt(runs[i * 3]);
+			out.writeInt(runs[i * 3 + 1]);
+			out.writeChar(runs[i * 3 + 2]);
+		}
+		position += size + 4 + (long) runCount * BinaryAlignment.RUN_SIZE;
+	}
+
+	/**
+	 * Ends writing sequences one by one. Writes the name table and the index,
+	 * and completes the header.
+	 *
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	public void end() throws IOException {
+		final long namesOffset = position;
+		nameOut.flush();
+		names.writeTo(out);
+		position += names.size();
+
+		final long indexOffset = position;
+		for (int i = 0; i < count; i++) {
+			out.writeLong(offsets[i]);
+			out.writeInt(lengths[i]);
+		}
+		out.flush();
+
+		final ByteBuffer header = ByteBuffer.allocate(BinaryAlignment.HEADER_SIZE);
+		header.putInt(BinaryAlignment.MAGIC);
+		header.putInt(BinaryAlignment.VERSION);
+		header.putInt(count);
+		header.putInt(0);
+		header.putLong(namesOffset);
+		header.putLong(indexOffset);
+		header.flip();
+		while (header.hasRemaining()) {
+			file.getChannel().write(header, header.position());
+		}
+
+		log.info("{} sequence(s) with {} bases successfully written.", count, written);
+	}
+
+	/**
+	 * Convenience method to close the underlying file.
+	 */
+	@Override
+	public void close() {
+		try {
+			out.close();
+		} catch (final IOException e) {
+			log.error(e.getMessage(), e);
+		}
+	}
+
+}
@@ -25,6 +25,9 @@ public class CsvReader extends BaseSequenceReader {
 
 	private boolean nameIncluded = true;
 
+	// Reused for each line.
+	private char[] buffer = new char[0];
+
 	/**
 	 * Constructor.
 	 *
@@ -86,20 +89,33 @@ public class CsvReader extends BaseSequenceReader {
 		return null;
 	}
 
+	// Scans the line once, copying all characters but the delimiters into the
+	// buffer. Values of several characters are simply concatenated.
 	private Sequence readSequence(final String seqString) {
-		final String[] split = seqString.split("\\" + getDelimiter());
+		final char delim = getDelimiter();
+		final int length = seqString.length();
+		int start = 0;
+		String name = null;
 		if (isNameIncluded()) {
-			return new Sequence(toValue(split, 1, split.length - 1), split[0]);
+			final int index = seqString.indexOf(delim);
+			name = index < 0 ? seqString : seqString.substring(0, index);
+			start = index < 0 ? length : index + 1;
 		}
-		return new Sequence(toValue(split, 0, split.length));
-	}
 
-	private String toValue(final String[] parts, final int from, final int length) {
-		final StringBuilder builder = new StringBuilder(length);
-		for (int i = from; i < from + length; i++) {
-			builder.append(parts[i]);
+		if (buffer.length < length - start) {
+			buffer = new char[length - start];
 		}
-		return builder.toString();
+		seqString.getChars(start, length, buffer, 0);
+		int count = 0;
+		for (int i = 0; i < length - start; i++) {
+			final char c = buffer[i];
+			if (c != delim) {
+				buffer[count++] = c;
+			}
+		}
+
+		final String value = new String(buffer, 0, count);
+		return name == null ? new Sequence(value) : new Sequence(value, name);
 	}
 
 	/**
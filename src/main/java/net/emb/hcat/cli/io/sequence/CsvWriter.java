@@ -20,10 +20,16 @@ public class CsvWriter extends BaseSequenceWriter {
 
 	private static final char DEFAULT_DELIMITER = ',';
 
+	// Number of bases written with a single call.
+	private static final int BLOCK_BASES = 1 << 15;
+
 	private char delimiter;
 
 	private boolean excelHeader;
 
+	// Reused for each row, holding delimiters and bases.
+	private char[] block = new char[0];
+
 	/**
 	 * Constructor.
 	 *
@@ -69,11 +75,24 @@ public class CsvWriter extends BaseSequenceWriter {
 		}
 	}
 
+	// Each character is preceded by the delimiter. The row is built in a
+	// reused block and handed to the writer with a single call. Rows longer
+	// than the block are written block by block.
 	@Override
 	protected void writeSeqValue(final String value) throws IOException {
-		for (int i = 0; i < value.length(); i++) {
-			getWriter().write(getDelimiter());
-			getWriter().write(value.charAt(i));
+		final char delim = getDelimiter();
+		final int length = value.length();
+		if (block.length < Math.min(length, BLOCK_BASES) * 2) {
+			block = new char[Math.min(length, BLOCK_BASES) * 2];
+		}
+		for (int start = 0; start < length; start += BLOCK_BASES) {
+			final int end = Math.min(length, start + BLOCK_BASES);
+			int count = 0;
+			for (int i = start; i < end; i++) {
+				block[count++] = delim;
+				block[count++] = value.charAt(i);
+			}
+			getWriter().write(block, 0, count);
 		}
 		getWriter().newLine();
 	}
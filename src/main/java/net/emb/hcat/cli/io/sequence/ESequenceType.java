@@ -1,7 +1,17 @@
 package net.emb.hcat.cli.io.sequence;
 
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import net.emb.hcat.cli.io.compress.Compression;
 
 /**
  * Enum containing all known types on how to read/write sequences.
@@ -17,11 +27,34 @@ public enum ESequenceType {
 	/** Phylip TCS format */
 	PHYLIP_TCS,
 	/** CSV (Comma Separated Value) format */
-	CSV;
+	CSV,
+	/**
+	 * Binary alignment format, see {@link BinaryAlignmentReader} and
+	 * {@link BinaryAlignmentWriter}. Can only be read from and written to
+	 * files.
+	 */
+	BINARY,
+	/**
+	 * FASTQ format of reads with qualities, see {@link FastqReader}. Can only
+	 * be read.
+	 */
+	FASTQ;
+
+	/** Number of bytes looked at to detect the sequence type by content. */
+	public static final int DETECT_SIZE = 1 << 13;
+
+	// Header of Phylip and Phylip TCS: number and length of sequences.
+	private static final Pattern PHYLIP_HEADER = Pattern.compile("\\s*(\\d+)\\s+(\\d+)\\s*");
+
+	// Phylip is written with line breaks after that many bases, Phylip TCS
+	// without line breaks and with short names.
+	private static final int PHYLIP_LINE_LENGTH = 60;
+	private static final int TCS_MAX_NAME_LENGTH = 9;
 
 	/**
 	 * Estimates what sequence type the file represents, by checking the file
-	 * ending.
+	 * ending. A compression ending like ".gz" is ignored, so the ending before
+	 * it is checked.
 	 *
 	 * @param fileName
 	 *            The name of the file, or the file ending.
@@ -33,8 +66,9 @@ public enum ESequenceType {
 			return null;
 		}
 
-		final int indexEnding = fileName.lastIndexOf('.');
-		final String ending = indexEnding == -1 ? fileName.toLowerCase() : fileName.substring(indexEnding + 1).toLowerCase();
+		final String name = Compression.stripEnding(fileName);
+		final int indexEnding = name.lastIndexOf('.');
+		final String ending = indexEnding == -1 ? name.toLowerCase() : name.substring(indexEnding + 1).toLowerCase();
 
 		switch (ending) {
 		case "fas":
@@ -48,17 +82,177 @@ public enum ESequenceType {
 			return PHYLIP_TCS;
 		case "csv":
 			return CSV;
+		case "hcb":
+		case "binary":
+			return BINARY;
+		case "fq":
+		case "fastq":
+			return FASTQ;
 		default:
 			return null;
 		}
 	}
 
+	/**
+	 * Detects the sequence type of a file by its content, using the file
+	 * ending only if the content is ambiguous. Only the first
+	 * {@link #DETECT_SIZE} bytes are read, decompressing them if needed, so
+	 * the file isn't parsed.
+	 *
+	 * @param file
+	 *            The file. Must not be <code>null</code>.
+	 * @return The detected sequence type, or the type estimated by
+	 *         {@link #byFileEnding(String)}, if the content isn't recognized.
+	 *         May be <code>null</code>, if neither works.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	public static ESequenceType detect(final File file) throws IOException {
+		final ESequenceType byEnding = byFileEnding(file.getName());
+		final ESequenceType byContent = byContent(file);
+		if (byContent == null) {
+			return byEnding;
+		}
+		// Short Phylip TCS files can be read as Phylip, too, so the ending
+		// decides.
+		if (byContent == PHYLIP && byEnding == PHYLIP_TCS) {
+			return byEnding;
+		}
+		return byContent;
+	}
+
+	/**
+	 * Detects the sequence type of a file by its content. Only the first
+	 * {@link #DETECT_SIZE} bytes are read, decompressing them if needed.
+	 *
+	 * @param file
+	 *            The file. Must not be <code>null</code>.
+	 * @return The detected sequence type, or <code>null</code>, if the content
+	 *         isn't recognized.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 * @see #byContent(InputStream)
+	 */
+	public static ESequenceType byContent(final File file) throws IOException {
+		if (file == null) {
+			throw new IllegalArgumentException("File must not be null.");
+		}
+		try (InputStream in = Compression.open(new BufferedInputStream(new FileInputStream(file), DETECT_SIZE), 1)) {
+			return byContent(in);
+		}
+	}
+
+	/**
+	 * Detects the sequence type of a stream by its content, without consuming
+	 * any data. Only the first {@link #DETECT_SIZE} bytes are looked at:
+	 * <ul>
+	 * <li>{@link #BINARY}, if it starts with the magic number of binary
+	 * alignments.</li>
+	 * <li>{@link #FASTA}, if the first line, which isn't blank, starts with
+	 * '&gt;' or ';'.</li>
+	 * <li>{@link #FASTQ}, if the first line, which isn't blank, starts with
+	 * '@'.</li>
+	 * <li>{@link #CSV}, if it starts with "sep=", or the first line contains a
+	 * comma.</li>
+	 * <li>{@link #PHYLIP} or {@link #PHYLIP_TCS}, if the first line contains
+	 * two numbers. Phylip TCS is detected, if the first sequence is written in
+	 * a single line longer than Phylip lines, and its name is short
+	 * enough.</li>
+	 * </ul>
+	 *
+	 * @param in
+	 *            The stream, already decompressed. Must support mark and
+	 *            reset.
+	 * @return The detected sequence type, or <code>null</code>, if the content
+	 *         isn't recognized.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	public static ESequenceType byContent(final InputStream in) throws IOException {
+		if (!in.markSupported()) {
+			throw new IllegalArgumentException("Stream must support mark and reset.");
+		}
+		final byte[] head = new byte[DETECT_SIZE];
+		in.mark(DETECT_SIZE);
+		int length = 0;
+		try {
+			int count;
+			while (length < DETECT_SIZE && (count = in.read(head, length, DETECT_SIZE - length)) >= 0) {
+				length += count;
+			}
+		} finally {
+			in.reset();
+		}
+
+		if (length >= 4 && ((head[0] & 0xff) << 24 | (head[1] & 0xff) << 16 | (head[2] & 0xff) << 8 | head[3] & 0xff) == BinaryAlignment.MAGIC) {
+			return BINARY;
+		}
+
+		// Structure is ASCII in all supported charsets. A line cut off at the
+		// end is only used, if the whole stream has been read.
+		final String text = new String(head, 0, length, StandardCharsets.ISO_8859_1);
+		final String[] lines = text.split("\r\n|\r|\n", -1);
+		final int complete = length < DETECT_SIZE ? lines.length : lines.length - 1;
+		int first = 0;
+		while (first < complete && lines[first].trim().isEmpty()) {
+			first++;
+		}
+		if (first >= lines.length || lines[first].trim().isEmpty()) {
+			return null;
+		}
+
+		final String line = lines[first];
+		if (line.startsWith("sep=")) {
+			return CSV;
+		}
+		if (line.charAt(0) == '>' || line.charAt(0) == ';') {
+			return FASTA;
+		}
+		if (line.charAt(0) == '@') {
+			return FASTQ;
+		}
+		final Matcher header = PHYLIP_HEADER.matcher(line);
+		if (header.matches()) {
+			return detectPhylip(lines, first + 1, complete, header.group(2));
+		}
+		if (line.indexOf(',') >= 0) {
+			return CSV;
+		}
+		return null;
+	}
+
+	// Distinguishes Phylip from Phylip TCS by the first sequence.
+	private static ESequenceType detectPhylip(final String[] lines, final int start, final int complete, final String length) {
+		int index = start;
+		while (index < lines.length && lines[index].trim().isEmpty()) {
+			index++;
+		}
+		final int value = index + 1;
+		if (value >= lines.length) {
+			return PHYLIP;
+		}
+		final String name = lines[index].trim();
+		if (name.length() > TCS_MAX_NAME_LENGTH || name.split("\\s+").length > 1) {
+			// Long names, or names followed by bases, as in the interleaved
+			// layout.
+			return PHYLIP;
+		}
+		// A line cut off by the end of the looked at bytes is even longer.
+		final int valueLength = lines[value].trim().length();
+		if (valueLength > PHYLIP_LINE_LENGTH && (value >= complete || String.valueOf(valueLength).equals(length))) {
+			return PHYLIP_TCS;
+		}
+		return PHYLIP;
+	}
+
 	/**
 	 * Gets a reader that can read sequences in the format of this enum.
 	 *
 	 * @param reader
 	 *            The underlying reader to read sequences from.
 	 * @return The reader.
+	 * @throws UnsupportedOperationException
+	 *             If this is {@link #BINARY}.
 	 */
 	public ISequenceReader createReader(final Reader reader) {
 		switch (this) {
@@ -70,6 +264,10 @@ public enum ESequenceType {
 			return new PhylipTcsReader(reader);
 		case CSV:
 			return new CsvReader(reader);
+		case FASTQ:
+			return new FastqReader(reader);
+		case BINARY:
+			throw new UnsupportedOperationException("Binary alignments can only be read from files.");
 		default:
 			// Will never happen.
 			throw new IllegalStateException("Enum not fully implemented. Missing case: " + this);
@@ -82,6 +280,8 @@ public enum ESequenceType {
 	 * @param writer
 	 *            The underlying writer to write sequences to.
 	 * @return The writer.
+	 * @throws UnsupportedOperationException
+	 *             If this is {@link #BINARY} or {@link #FASTQ}.
 	 */
 	public ISequenceWriter createWriter(final Writer writer) {
 		switch (this) {
@@ -93,6 +293,10 @@ public enum ESequenceType {
 			return new PhylipTcsWriter(writer);
 		case CSV:
 			return new CsvWriter(writer);
+		case BINARY:
+			throw new UnsupportedOperationException("Binary alignments can only be written to files.");
+		case FASTQ:
+			throw new UnsupportedOperationException("FASTQ files can only be read.");
 		default:
 			// Will never happen.
 			throw new IllegalStateException("Enum not fully implemented. Missing case: " + this);
@@ -0,0 +1,428 @@
+package net.emb.hcat.cli.io.sequence;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An index of a FASTA file, compatible with the <code>.fai</code> files of
+ * samtools. For each sequence, it stores its name, its length, the byte offset
+ * of its first base, the number of bases per line and the number of bytes per
+ * line, including the line break. With it, any sequence or part of a sequence
+ * can be read without parsing the whole file, see {@link IndexedFastaReader}.
+ * <br>
+ * <br>
+ * As with samtools, the name of a sequence is its ID up to the first white
+ * space, and all lines of a sequence but the last must have the same length.
+ *
+ * @author Heiko Mattes
+ */
+public class FastaIndex {
+
+	private static final Logger log = LoggerFactory.getLogger(FastaIndex.class);
+
+	/** File ending of index files. */
+	public static final String FILE_ENDING = ".fai";
+
+	/**
+	 * A single sequence of the index.
+	 */
+	public static final class Entry {
+
+		private final String name;
+		private final long length;
+		private final long offset;
+		private final int lineBases;
+		private final int lineWidth;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param name
+		 *            The name of the sequence. Must not be <code>null</code>.
+		 * @param length
+		 *            The number of bases.
+		 * @param offset
+		 *            The byte offset of the first base.
+		 * @param lineBases
+		 *            The number of bases per line.
+		 * @param lineWidth
+		 *            The number of bytes per line, including the line break.
+		 */
+		public Entry(final String name, final long length, final long offset, final int lineBases, final int lineWidth) {
+			if (name == null) {
+				throw new IllegalArgumentException("Name must not be null.");
+			}
+			if (length < 0 || offset < 0 || lineBases < 0 || lineWidth < lineBases) {
+				throw new IllegalArgumentException("Invalid index entry for sequence: " + name);
+			}
+			this.name = name;
+			this.length = length;
+			this.offset = offset;
+			this.lineBases = lineBases;
+			this.lineWidth = lineWidth;
+		}
+
+		/**
+		 * Gets the byte offset of the base at the given position.
+		 *
+		 * @param position
+		 *            The position of the base, starting with 0.
+		 * @return The byte offset of the base in the FASTA file.
+		 */
+		public long offsetOf(final long position) {
+			if (lineBases == 0) {
+				return offset;
+			}
+			return offset + position / lineBases * lineWidth + position % lineBases;
+		}
+
+		/**
+		 * Gets the name of the sequence.
+		 *
+		 * @return The name.
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * Gets the number of bases of the sequence.
+		 *
+		 * @return The length.
+		 */
+		public long getLength() {
+			return length;
+		}
+
+		/**
+		 * Gets the byte offset of the first base.
+		 *
+		 * @return The offset.
+		 */
+		public long getOffset() {
+			return offset;
+		}
+
+		/**
+		 * Gets the number of bases per line.
+		 *
+		 * @return The number of bases.
+		 */
+		public int getLineBases() {
+			return lineBases;
+		}
+
+		/**
+		 * Gets the number of bytes per line, including the line break.
+		 *
+		 * @return The number of bytes.
+		 */
+		public int getLineWidth() {
+			return lineWidth;
+		}
+
+		@Override
+		public String toString() {
+			return name + '\t' + length + '\t' + offset + '\t' + lineBases + '\t' + lineWidth;
+		}
+
+	}
+
+	/**
+	 * Gets the index file belonging to the given FASTA file.
+	 *
+	 * @param fasta
+	 *            The FASTA file.
+	 * @return The index file, which is the FASTA file with {@link #FILE_ENDING}
+	 *         appended.
+	 */
+	public static File indexFile(final File fasta) {
+		return new File(fasta.getPath() + FILE_ENDING);
+	}
+
+	/**
+	 * Loads the index of the given FASTA file. If the index file doesn't exist
+	 * or is older than the FASTA file, the index is rebuilt and written. The
+	 * index file is replaced at once, so concurrent loads never see a partly
+	 * written index. If writing fails, the rebuilt index is still returned.
+	 *
+	 * @param fasta
+	 *            The FASTA file. Must not be <code>null</code>.
+	 * @param charset
+	 *            The charset of the sequence names. Must not be
+	 *            <code>null</code>.
+	 * @return The index.
+	 * @throws IOException
+	 *             If an I/O error occurs, or the FASTA file can't be indexed.
+	 */
+	public static FastaIndex load(final File fasta, final Charset charset) throws IOException {
+		final File index = indexFile(fasta);
+		if (index.isFile() && index.lastModified() >= fasta.lastModified()) {
+			try (Reader reader = new InputStreamReader(new FileInputStream(index), charset)) {
+				return read(reader);
+			}
+		}
+
+		log.info("Building index of {}.", fasta);
+		final FastaIndex result;
+		try (InputStream in = new FileInputStream(fasta)) {
+			result = build(in, charset);
+		}
+		try {
+			write(result, index, charset);
+		} catch (final IOException e) {
+			log.warn("Could not write index file {}. Error message: {}", index, e.getMessage());
+		}
+		return result;
+	}
+
+	// Writes to a temporary file next to the index file first, which then
+	// replaces the index file.
+	private static void write(final FastaIndex result, final File index, final Charset charset) throws IOException {
+		final File temp = File.createTempFile(index.getName() + ".", ".tmp", index.getAbsoluteFile().getParentFile());
+		try {
+			try (Writer writer = new OutputStreamWriter(new FileOutputStream(temp), charset)) {
+				result.write(writer);
+			}
+			try {
+				Files.move(temp.toPath(), index.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (final AtomicMoveNotSupportedException e) {
+				Files.move(temp.toPath(), index.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			temp.delete();
+		}
+	}
+
+	/**
+	 * Builds the index of a FASTA file.
+	 *
+	 * @param in
+	 *            The content of the FASTA file. Will not be closed.
+	 * @param charset
+	 *            The charset of the sequence names.
+	 * @return The index.
+	 * @throws IOException
+	 *             If an I/O error occurs, or the lines of a sequence differ in
+	 *             length.
+	 */
+	public static FastaIndex build(final InputStream in, final Charset charset) throws IOException {
+		final InputStream input = in instanceof BufferedInputStream ? in : new BufferedInputStream(in);
+		final List<Entry> entries = new ArrayList<>();
+		final ByteArrayOutputStream header = new ByteArrayOutputStream();
+
+		String name = null;
+		long length = 0;
+		long offset = 0;
+		int lineBases = 0;
+		int lineWidth = 0;
+		// Set, once a line shorter than the others was found, which must be
+		// the last line of the sequence.
+		boolean ended = false;
+
+		long position = 0;
+		int b = input.read();
+		while (b >= 0) {
+			final long lineStart = position;
+			if (b == '>') {
+				if (name != null) {
+					entries.add(new Entry(name, length, offset, lineBases, lineWidth));
+				}
+				header.reset();
+				while ((b = input.read()) >= 0 && b != '\n') {
+					position++;
+					header.write(b);
+				}
+				position++;
+				name = name(new String(header.toByteArray(), charset));
+				length = 0;
+				lineBases = 0;
+				lineWidth = 0;
+				ended = false;
+				if (b >= 0) {
+					b = input.read();
+					position++;
+				}
+				offset = position;
+				continue;
+			}
+
+			// Sequence line.
+			int bases = 0;
+			while (b >= 0 && b != '\n') {
+				if (b != '\r') {
+					bases++;
+				}
+				position++;
+				b = input.read();
+			}
+			if (b >= 0) {
+				b = input.read();
+				position++;
+			}
+			final int width = (int) (position - lineStart);
+
+			if (name == null) {
+				if (bases > 0) {
+					throw new IOException("FASTA file doesn't start with an ID.");
+				}
+				continue;
+			}
+			if (bases == 0) {
+				// Blank lines are only allowed at the end of a sequence.
+				ended = true;
+				continue;
+			}
+			if (ended) {
+				throw new IOException("Different line length in sequence \"" + name + "\".");
+			}
+			if (lineBases == 0) {
+				lineBases = bases;
+				lineWidth = width;
+			} else if (bases > lineBases || bases == lineBases && width > lineWidth) {
+				throw new IOException("Different line length in sequence \"" + name + "\".");
+			} else if (bases < lineBases || width < lineWidth) {
+				ended = true;
+			}
+			length += bases;
+		}
+		if (name != null) {
+			entries.add(new Entry(name, length, offset, lineBases, lineWidth));
+		}
+		return new FastaIndex(entries);
+	}
+
+	// Name of the sequence is its ID up to the first white space.
+	private static String name(final String id) {
+		final String trimmed = id.endsWith("\r") ? id.substring(0, id.length() - 1) : id;
+		for (int i = 0; i < trimmed.length(); i++) {
+			if (Character.isWhitespace(trimmed.charAt(i))) {
+				return trimmed.substring(0, i);
+			}
+		}
+		return trimmed;
+	}
+
+	/**
+	 * Reads an index in <code>.fai</code> format.
+	 *
+	 * @param reader
+	 *            The reader to read from. Will not be closed.
+	 * @return The index.
+	 * @throws IOException
+	 *             If an I/O error occurs, or the index is malformed.
+	 */
+	public static FastaIndex read(final Reader reader) throws IOException {
+		final BufferedReader lines = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+		final List<Entry> entries = new ArrayList<>();
+		String line;
+		int lineCount = 0;
+		while ((line = lines.readLine()) != null) {
+			lineCount++;
+			if (line.isEmpty()) {
+				continue;
+			}
+			final String[] fields = line.split("\t");
+			if (fields.length < 5) {
+				throw new IOException("Malformed index in line " + lineCount + ": " + line);
+			}
+			try {
+				entries.add(new Entry(fields[0], Long.parseLong(fields[1]), Long.parseLong(fields[2]), Integer.parseInt(fields[3]), Integer.parseInt(fields[4])));
+			} catch (final IllegalArgumentException e) {
+				throw new IOException("Malformed index in line " + lineCount + ": " + line, e);
+			}
+		}
+		return new FastaIndex(entries);
+	}
+
+	private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param entries
+	 *            The entries of the index. If several entries share the same
+	 *            name, only the first is kept.
+	 */
+	public FastaIndex(final List<Entry> entries) {
+		if (entries == null) {
+			throw new IllegalArgumentException("Entries must not be null.");
+		}
+		for (final Entry entry : entries) {
+			if (this.entries.putIfAbsent(entry.getName(), entry) != null) {
+				log.warn("Ignoring duplicate sequence \"{}\".", entry.getName());
+			}
+		}
+	}
+
+	/**
+	 * Writes the index in <code>.fai</code> format.
+	 *
+	 * @param writer
+	 *            The writer to write to. Will be flushed, but not closed.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	public void write(final Writer writer) throws IOException {
+		final BufferedWriter out = new BufferedWriter(writer);
+		for (final Entry entry : entries.values()) {
+			out.write(entry.toString());
+			out.write('\n');
+		}
+		out.flush();
+	}
+
+	/**
+	 * Gets the entry of the sequence with the given name.
+	 *
+	 * @param name
+	 *            The name of the sequence.
+	 * @return The entry, or <code>null</code>, if no sequence with that name
+	 *         is known.
+	 */
+	public Entry get(final String name) {
+		return entries.get(name);
+	}
+
+	/**
+	 * Gets all entries, in the order of the FASTA file.
+	 *
+	 * @return An unmodifiable list of all entries.
+	 */
+	public List<Entry> getEntries() {
+		return Collections.unmodifiableList(new ArrayList<>(entries.values()));
+	}
+
+	/**
+	 * Gets the number of sequences.
+	 *
+	 * @return The number of sequences.
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+}
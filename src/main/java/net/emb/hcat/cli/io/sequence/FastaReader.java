@@ -74,7 +74,7 @@ public class FastaReader extends BaseSequenceReader {
 	}
 
 	@Override
-	protected boolean isData(final String line) {
+	protected boolean isData(final CharSequence line) {
 		return super.isData(line) && line.charAt(0) != COMMENT_CHAR;
 	}
 
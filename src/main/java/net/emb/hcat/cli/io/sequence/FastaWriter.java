@@ -7,6 +7,7 @@ import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import net.emb.hcat.cli.jfr.WriterFlushEvent;
 import net.emb.hcat.cli.sequence.Sequence;
 
 /**
@@ -57,7 +58,7 @@ public class FastaWriter extends BaseSequenceWriter {
 
 		writeSequence(sequence);
 
-		getWriter().flush();
+		WriterFlushEvent.flush(getWriter(), this, 1, sequence.getLength());
 	}
 
 }
@@ -0,0 +1,269 @@
+package net.emb.hcat.cli.io.sequence;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.emb.hcat.cli.ErrorCodeException;
+import net.emb.hcat.cli.ErrorCodeException.EErrorCode;
+import net.emb.hcat.cli.sequence.Sequence;
+
+/**
+ * A reader to read in reads of DNA in FASTQ format. Each record consists of a
+ * line with '@' and the ID, the bases, a line starting with '+' and the
+ * qualities, one for each base. Bases and qualities may span several lines.
+ * <br>
+ * <br>
+ * Qualities are only looked at while they are read, so no string is created
+ * for them. Reads can be filtered by their length, the lowest quality of their
+ * bases and their mean quality. Filtered reads are skipped, as if they were
+ * not part of the file. All filters are disabled by default.
+ *
+ * @author Heiko Mattes
+ */
+public class FastqReader extends BaseSequenceReader {
+
+	// FASTQ format: https://en.wikipedia.org/wiki/FASTQ_format
+
+	private static final Logger log = LoggerFactory.getLogger(FastqReader.class);
+
+	private static final char ID_CHAR = '@';
+	private static final char SEPARATOR_CHAR = '+';
+
+	/**
+	 * Default offset of the quality characters, as used by Sanger and Illumina
+	 * 1.8 and later. '!' is a quality of 0.
+	 */
+	public static final int DEFAULT_QUALITY_OFFSET = 33;
+
+	private final StringBuilder builder = new StringBuilder(1024);
+
+	private int qualityOffset = DEFAULT_QUALITY_OFFSET;
+	private int minQuality;
+	private double minMeanQuality;
+	private int minLength;
+	private int maxLength;
+	private int filtered;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param reader
+	 *            The reader data should be read from.
+	 */
+	public FastqReader(final Reader reader) {
+		super(reader);
+	}
+
+	@Override
+	protected int readSequences(final Consumer<Sequence> consumer) throws ErrorCodeException, IOException {
+		log.debug("Reading reads with following parameters. Same length: {}; Length: {} to {}; Minimum quality: {}; Minimum mean quality: {}", isEnforceSameLength(), minLength, maxLength, minQuality, minMeanQuality);
+		filtered = 0;
+		final int count = super.readSequences(consumer);
+		if (filtered > 0) {
+			log.info("Filtered out {} read(s).", filtered);
+		}
+		return count;
+	}
+
+	@Override
+	protected Sequence readSequence() throws ErrorCodeException, IOException {
+		CharSequence line;
+		while ((line = readLineView()) != null) {
+			if (line.charAt(0) != ID_CHAR) {
+				final String header = line.toString();
+				throw new ErrorCodeException(EErrorCode.INVALID_HEADER, "Read doesn't start with '@'. Line: {}; Header: \"{}\"", getLineCount(), header);
+			}
+			final String id = line.subSequence(1, line.length()).toString();
+
+			// Bases, up to the separator line.
+			builder.setLength(0);
+			while ((line = readLineView()) != null && line.charAt(0) != SEPARATOR_CHAR) {
+				builder.append(line);
+			}
+			if (line == null) {
+				throw new ErrorCodeException(EErrorCode.MISSING_VALUE, "Unexpected end reach. Qualities of read \"{}\" are missing.", id);
+			}
+
+			// Qualities, one for each base. Only their minimum and sum are
+			// kept.
+			final int length = builder.length();
+			int qualities = 0;
+			int min = Integer.MAX_VALUE;
+			long sum = 0;
+			while (qualities < length) {
+				line = readLineView();
+				if (line == null) {
+					throw new ErrorCodeException(EErrorCode.MISSING_VALUE, "Unexpected end reach. Qualities of read \"{}\" are missing.", id);
+				}
+				for (int i = 0; i < line.length(); i++) {
+					final int quality = line.charAt(i) - qualityOffset;
+					if (quality < 0) {
+						throw new ErrorCodeException(EErrorCode.GENERIC_READ, "Invalid quality '{}' of read \"{}\". Line: {}", line.charAt(i), id, getLineCount());
+					}
+					min = Math.min(min, quality);
+					sum += quality;
+				}
+				qualities += line.length();
+			}
+			if (qualities != length) {
+				final String msg = "Number of qualities doesn't match number of bases. Name of read: \"{}\"; Index: {}; Expected length: {}, Actual length: {}";
+				throw new ErrorCodeException(EErrorCode.SEQUENCE_WRONG_LENGTH, msg, id, getLineCount(), length, qualities);
+			}
+
+			if (accept(length, min, sum)) {
+				return new Sequence(builder.toString(), id);
+			}
+			filtered++;
+			if (log.isTraceEnabled()) {
+				log.trace("Filtered out read \"{}\".", id);
+			}
+		}
+		// End of stream reached.
+		return null;
+	}
+
+	private boolean accept(final int length, final int min, final long sum) {
+		if (length == 0 || length < minLength || maxLength > 0 && length > maxLength) {
+			return false;
+		}
+		return min >= minQuality && sum >= minMeanQuality * length;
+	}
+
+	/**
+	 * Gets the number of reads filtered out by the last read.
+	 *
+	 * @return The number of filtered reads.
+	 */
+	public int getFilteredCount() {
+		return filtered;
+	}
+
+	/**
+	 * Gets the offset of the quality characters. Default is
+	 * {@link #DEFAULT_QUALITY_OFFSET}.
+	 *
+	 * @return The offset. A character with this value is a quality of 0.
+	 */
+	public int getQualityOffset() {
+		return qualityOffset;
+	}
+
+	/**
+	 * Sets the offset of the quality characters. Default is
+	 * {@link #DEFAULT_QUALITY_OFFSET}. Older Illumina files use 64.
+	 *
+	 * @param qualityOffset
+	 *            The offset. A character with this value is a quality of 0.
+	 *            Must not be negative.
+	 */
+	public void setQualityOffset(final int qualityOffset) {
+		if (qualityOffset < 0) {
+			throw new IllegalArgumentException("Quality offset must not be negative.");
+		}
+		this.qualityOffset = qualityOffset;
+	}
+
+	/**
+	 * Gets the quality each base of a read must have at least. Default is 0,
+	 * which doesn't filter anything.
+	 *
+	 * @return The minimum quality.
+	 */
+	public int getMinQuality() {
+		return minQuality;
+	}
+
+	/**
+	 * Sets the quality each base of a read must have at least. Reads with a
+	 * lower quality for any of their bases are filtered out. Default is 0,
+	 * which doesn't filter anything.
+	 *
+	 * @param minQuality
+	 *            The minimum quality. Must not be negative.
+	 */
+	public void setMinQuality(final int minQuality) {
+		if (minQuality < 0) {
+			throw new IllegalArgumentException("Minimum quality must not be negative.");
+		}
+		this.minQuality = minQuality;
+	}
+
+	/**
+	 * Gets the mean quality of all bases a read must have at least. Default is
+	 * 0, which doesn't filter anything.
+	 *
+	 * @return The minimum mean quality.
+	 */
+	public double getMinMeanQuality() {
+		return minMeanQuality;
+	}
+
+	/**
+	 * Sets the mean quality of all bases a read must have at least. Reads with
+	 * a lower mean quality are filtered out. Default is 0, which doesn't
+	 * filter anything.
+	 *
+	 * @param minMeanQuality
+	 *            The minimum mean quality. Must not be negative.
+	 */
+	public void setMinMeanQuality(final double minMeanQuality) {
+		if (!(minMeanQuality >= 0)) {
+			throw new IllegalArgumentException("Minimum mean quality must not be negative.");
+		}
+		this.minMeanQuality = minMeanQuality;
+	}
+
+	/**
+	 * Gets the number of bases a read must have at least. Default is 0. Reads
+	 * without any bases are always filtered out.
+	 *
+	 * @return The minimum length.
+	 */
+	public int getMinLength() {
+		return minLength;
+	}
+
+	/**
+	 * Sets the number of bases a read must have at least. Shorter reads are
+	 * filtered out. Default is 0. Reads without any bases are always filtered
+	 * out.
+	 *
+	 * @param minLength
+	 *            The minimum length. Must not be negative.
+	 */
+	public void setMinLength(final int minLength) {
+		if (minLength < 0) {
+			throw new IllegalArgumentException("Minimum length must not be negative.");
+		}
+		this.minLength = minLength;
+	}
+
+	/**
+	 * Gets the number of bases a read may have at most. Default is 0, which
+	 * doesn't filter anything.
+	 *
+	 * @return The maximum length.
+	 */
+	public int getMaxLength() {
+		return maxLength;
+	}
+
+	/**
+	 * Sets the number of bases a read may have at most. Longer reads are
+	 * filtered out. Default is 0, which doesn't filter anything.
+	 *
+	 * @param maxLength
+	 *            The maximum length. Must not be negative.
+	 */
+	public void setMaxLength(final int maxLength) {
+		if (maxLength < 0) {
+			throw new IllegalArgumentException("Maximum length must not be negative.");
+		}
+		this.maxLength = maxLength;
+	}
+
+}
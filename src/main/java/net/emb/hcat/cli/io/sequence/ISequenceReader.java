@@ -2,6 +2,7 @@ package net.emb.hcat.cli.io.sequence;
 
 import java.io.Closeable;
 import java.util.List;
+import java.util.function.Consumer;
 
 import net.emb.hcat.cli.ErrorCodeException;
 import net.emb.hcat.cli.sequence.Sequence;
@@ -22,4 +23,22 @@ public interface ISequenceReader extends Closeable {
 	 */
 	List<Sequence> read() throws ErrorCodeException;
 
+	/**
+	 * Reads in sequences, handing each sequence to the given consumer as soon
+	 * as it has been read. Default implementation reads in all sequences
+	 * first.
+	 *
+	 * @param consumer
+	 *            The consumer receiving the sequences in the order they are
+	 *            read. Must not be <code>null</code>.
+	 * @throws ErrorCodeException
+	 *             An exception happened reading in the sequences.
+	 */
+	default void read(final Consumer<Sequence> consumer) throws ErrorCodeException {
+		if (consumer == null) {
+			throw new IllegalArgumentException("Consumer must not be null.");
+		}
+		read().forEach(consumer);
+	}
+
 }
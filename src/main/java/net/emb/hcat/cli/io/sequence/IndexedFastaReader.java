@@ -0,0 +1,156 @@
+package net.emb.hcat.cli.io.sequence;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.emb.hcat.cli.io.sequence.FastaIndex.Entry;
+import net.emb.hcat.cli.sequence.Sequence;
+
+/**
+ * Reads single sequences, or parts of them, from a FASTA file by name, using a
+ * {@link FastaIndex}. Only the requested bases are read, so the file doesn't
+ * have to be parsed. The index is loaded from the <code>.fai</code> file next
+ * to the FASTA file, and rebuilt if it is missing or outdated.
+ *
+ * @author Heiko Mattes
+ */
+public class IndexedFastaReader implements Closeable {
+
+	private static final Logger log = LoggerFactory.getLogger(IndexedFastaReader.class);
+
+	private final FastaIndex index;
+	private final Charset charset;
+	private final RandomAccessFile file;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param fasta
+	 *            The FASTA file to read from. Must not be <code>null</code>.
+	 * @param charset
+	 *            The charset of the file. Must be compatible to ASCII. Must not
+	 *            be <code>null</code>.
+	 * @throws IOException
+	 *             If the file can't be opened, or the index can't be loaded.
+	 */
+	public IndexedFastaReader(final File fasta, final Charset charset) throws IOException {
+		if (fasta == null || charset == null) {
+			throw new IllegalArgumentException("File and charset must not be null.");
+		}
+		this.charset = charset;
+		file = new RandomAccessFile(fasta, "r");
+		try {
+			index = FastaIndex.load(fasta, charset);
+		} catch (final IOException e) {
+			file.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Reads the sequence with the given name.
+	 *
+	 * @param name
+	 *            The name of the sequence, its ID up to the first white space.
+	 * @return The sequence, or <code>null</code>, if no sequence with that name
+	 *         is known.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	public Sequence read(final String name) throws IOException {
+		final Entry entry = index.get(name);
+		if (entry == null) {
+			return null;
+		}
+		return new Sequence(readBases(entry, 0, entry.getLength()), name);
+	}
+
+	/**
+	 * Reads a part of the sequence with the given name.
+	 *
+	 * @param name
+	 *            The name of the sequence, its ID up to the first white space.
+	 * @param start
+	 *            The position of the first base to read, starting with 0.
+	 * @param end
+	 *            The position after the last base to read. If it is beyond the
+	 *            end of the sequence, the sequence is read up to its end.
+	 * @return The part of the sequence, named like <code>name:from-to</code>
+	 *         with positions starting at 1, or <code>null</code>, if no
+	 *         sequence with that name is known.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	public Sequence read(final String name, final long start, final long end) throws IOException {
+		if (start < 0 || end < start) {
+			throw new IllegalArgumentException("Invalid region: " + start + "-" + end);
+		}
+		final Entry entry = index.get(name);
+		if (entry == null) {
+			return null;
+		}
+		final long from = Math.min(start, entry.getLength());
+		final long to = Math.min(end, entry.getLength());
+		return new Sequence(readBases(entry, from, to), name + ":" + (from + 1) + "-" + to);
+	}
+
+	private String readBases(final Entry entry, final long start, final long end) throws IOException {
+		if (end - start > Integer.MAX_VALUE) {
+			throw new IOException("Sequence is too large to be read: " + entry.getName());
+		}
+		if (start == end) {
+			return "";
+		}
+		final long first = entry.offsetOf(start);
+		final long last = entry.offsetOf(end - 1);
+		log.debug("Reading bases {} to {} of {} at offset {}.", start, end, entry.getName(), first);
+
+		final ByteBuffer buffer = ByteBuffer.allocate((int) (last - first + 1));
+		final FileChannel channel = file.getChannel();
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, first + buffer.position()) < 0) {
+				throw new IOException("FASTA file is shorter than its index. Rebuild the index: " + entry.getName());
+			}
+		}
+
+		// Strip line breaks.
+		final byte[] bytes = buffer.array();
+		int length = 0;
+		for (final byte b : bytes) {
+			if (b != '\n' && b != '\r') {
+				bytes[length++] = b;
+			}
+		}
+		return new String(bytes, 0, length, charset);
+	}
+
+	/**
+	 * Gets the index of the FASTA file.
+	 *
+	 * @return The index.
+	 */
+	public FastaIndex getIndex() {
+		return index;
+	}
+
+	/**
+	 * Convenience method to close the underlying file.
+	 */
+	@Override
+	public void close() {
+		try {
+			file.close();
+		} catch (final IOException e) {
+			log.error(e.getMessage(), e);
+		}
+	}
+
+}
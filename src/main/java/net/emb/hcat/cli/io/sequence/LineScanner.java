@@ -0,0 +1,150 @@
+package net.emb.hcat.cli.io.sequence;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Splits the characters of a reader into lines, like
+ * {@link java.io.BufferedReader#readLine()} does. Lines end with '\n', '\r' or
+ * "\r\n". Instead of creating a string for each line, every line is returned
+ * as the same {@link CharSequence}, which is a view on the buffer of the
+ * scanner. Thus, lines can be checked and skipped without allocating anything.
+ * Only lines needed beyond the next call to {@link #next()} have to be copied,
+ * e.g. with {@link CharSequence#toString()}.
+ *
+ * @author Heiko Mattes
+ */
+public class LineScanner {
+
+	private static final int BUFFER_SIZE = 1 << 14;
+
+	// A view on a line in the buffer.
+	private final class Line implements CharSequence {
+
+		private int offset;
+		private int length;
+
+		@Override
+		public int length() {
+			return length;
+		}
+
+		@Override
+		public char charAt(final int index) {
+			if (index < 0 || index >= length) {
+				throw new StringIndexOutOfBoundsException(index);
+			}
+			return buffer[offset + index];
+		}
+
+		@Override
+		public CharSequence subSequence(final int start, final int end) {
+			if (start < 0 || end > length || start > end) {
+				throw new StringIndexOutOfBoundsException("Begin: " + start + ", end: " + end + ", length: " + length);
+			}
+			return new String(buffer, offset + start, end - start);
+		}
+
+		@Override
+		public String toString() {
+			return new String(buffer, offset, length);
+		}
+
+	}
+
+	private final Reader reader;
+	private final Line line = new Line();
+
+	private char[] buffer = new char[BUFFER_SIZE];
+	private int position;
+	private int limit;
+	private boolean skipLF;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param reader
+	 *            The reader to read the characters from. It is read in blocks,
+	 *            so it doesn't need to be buffered. Must not be
+	 *            <code>null</code>.
+	 */
+	public LineScanner(final Reader reader) {
+		if (reader == null) {
+			throw new IllegalArgumentException("Reader can't be null.");
+		}
+		this.reader = reader;
+	}
+
+	/**
+	 * Reads the next line.
+	 *
+	 * @return The line without its terminator, or <code>null</code>, if the
+	 *         end of the reader has been reached. The returned view is only
+	 *         valid until the next call of this method.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	public CharSequence next() throws IOException {
+		// Characters of the line already scanned in previous fills.
+		int scanned = 0;
+		while (true) {
+			if (position + scanned >= limit && !fill()) {
+				if (scanned == 0) {
+					return null;
+				}
+				return take(scanned, scanned);
+			}
+			if (skipLF) {
+				skipLF = false;
+				if (buffer[position] == '\n') {
+					position++;
+					continue;
+				}
+			}
+
+			final char[] chars = buffer;
+			final int end = limit;
+			int i = position + scanned;
+			char c = 0;
+			while (i < end && (c = chars[i]) != '\n' && c != '\r') {
+				i++;
+			}
+			scanned = i - position;
+			if (i < end) {
+				skipLF = c == '\r';
+				return take(scanned, scanned + 1);
+			}
+		}
+	}
+
+	private CharSequence take(final int length, final int consumed) {
+		line.offset = position;
+		line.length = length;
+		position += consumed;
+		return line;
+	}
+
+	// Moves the current line to the start of the buffer, and reads more
+	// characters behind it.
+	private boolean fill() throws IOException {
+		if (position > 0) {
+			System.arraycopy(buffer, position, buffer, 0, limit - position);
+			limit -= position;
+			position = 0;
+		} else if (limit == buffer.length) {
+			buffer = Arrays.copyOf(buffer, buffer.length * 2);
+		}
+
+		int read;
+		do {
+			read = reader.read(buffer, limit, buffer.length - limit);
+		} while (read == 0);
+		if (read < 0) {
+			return false;
+		}
+		limit += read;
+		return true;
+	}
+
+}
@@ -0,0 +1,429 @@
+package net.emb.hcat.cli.io.sequence;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.emb.hcat.cli.ErrorCodeException;
+import net.emb.hcat.cli.sequence.Sequence;
+
+/**
+ * A reader to read in sequences of DNA in FASTA format from a file, parsing
+ * several parts of the file at the same time. The file is memory-mapped and
+ * split into chunks of about {@link #getChunkSize()} bytes. Each chunk
+ * boundary is moved forward to the next line starting with '&gt;', so no
+ * sequence is split between chunks. The chunks are parsed concurrently, but
+ * sequences are still returned in their original order, and are validated
+ * exactly like {@link FastaReader} does, including the line indexes of
+ * errors.
+ * <br>
+ * <br>
+ * Falls back to reading sequentially, if only a single thread is to be used,
+ * or if the charset is not one of US-ASCII, ISO-8859-1 or UTF-8. Only those
+ * guarantee that line breaks and '&gt;' can be found on byte level.
+ *
+ * @author Heiko Mattes
+ */
+public class ParallelFastaReader extends FastaReader {
+
+	private static final Logger log = LoggerFactory.getLogger(ParallelFastaReader.class);
+
+	/** Default size of a chunk in bytes. */
+	public static final int DEFAULT_CHUNK_SIZE = 1 << 22;
+
+	// Number of chunks parsed ahead per thread. Keeps memory bounded, if the
+	// consumer of the sequences is slow.
+	private static final int CHUNKS_AHEAD_PER_THREAD = 2;
+
+	// Size of the buffer used to find the chunk boundaries.
+	private static final int SCAN_BUFFER_SIZE = 8192;
+
+	private static final byte ID_BYTE = '>';
+	private static final byte COMMENT_BYTE = ';';
+
+	// A sequence as found in a single chunk.
+	private static final class Record {
+		// Null, if data preceding the very first ID.
+		private final String id;
+		// Line of the ID within the chunk, starting with 1.
+		private final int line;
+		private String value;
+
+		private Record(final String id, final int line) {
+			this.id = id;
+			this.line = line;
+		}
+	}
+
+	// All sequences found in a single chunk.
+	private static final class Chunk {
+		private final List<Record> records = new ArrayList<>();
+		private int lines;
+	}
+
+	private final File file;
+	private final Charset charset;
+	private final int threads;
+	private final FileChannel channel;
+	private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+	// State of a parallel read.
+	private ExecutorService executor;
+	private List<long[]> ranges;
+	private int nextRange;
+	private final Deque<Future<Chunk>> pending = new ArrayDeque<>();
+	private Chunk current;
+	private int currentIndex;
+	private int lineOffset;
+	private int lineCount;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param file
+	 *            The FASTA file to read. Must not be <code>null</code>.
+	 * @param charset
+	 *            The charset of the file. Must not be <code>null</code>.
+	 * @param threads
+	 *            Number of threads parsing the file. Must be a positive number.
+	 * @throws FileNotFoundException
+	 *             If the file can't be opened.
+	 */
+	public ParallelFastaReader(final File file, final Charset charset, final int threads) throws FileNotFoundException {
+		this(file, new FileInputStream(file), charset, threads);
+	}
+
+	private ParallelFastaReader(final File file, final FileInputStream in, final Charset charset, final int threads) {
+		super(AsciiLineReader.create(in, charset));
+		if (threads < 1) {
+			throw new IllegalArgumentException("Threads must be a positive number.");
+		}
+		this.file = file;
+		this.charset = charset;
+		this.threads = threads;
+		// Only positional operations are used, so the sequential reader is
+		// not affected.
+		channel = in.getChannel();
+	}
+
+	/**
+	 * Checks whether the file is parsed in parallel, or read sequentially.
+	 *
+	 * @return <code>true</code>, if the file is parsed in parallel,
+	 *         <code>false</code> otherwise.
+	 */
+	public boolean isParallel() {
+		return threads > 1 && AsciiLineReader.isAsciiCompatible(charset);
+	}
+
+	@Override
+	protected void readHeader() throws ErrorCodeException, IOException {
+		super.readHeader();
+		if (!isParallel()) {
+			return;
+		}
+
+		ranges = split();
+		log.debug("Parsing {} in {} chunk(s) on {} thread(s).", file, ranges.size(), threads);
+		if (ranges.size() > 1) {
+			executor = Executors.newFixedThreadPool(threads);
+		}
+		fill();
+	}
+
+	@Override
+	protected Sequence readSequence() throws ErrorCodeException, IOException {
+		if (ranges == null) {
+			return super.readSequence();
+		}
+
+		Record record = nextRecord();
+		if (record == null) {
+			finish();
+			return null;
+		}
+		if (record.id == null) {
+			// Data preceding the very first ID belongs to the first sequence.
+			final Record next = nextRecord();
+			if (next != null) {
+				next.value = record.value + next.value;
+				record = next;
+			}
+		}
+
+		// Same line count a sequential read would have reached: the ID of the
+		// next sequence, or the end of the file.
+		final int nextLine = peekLine();
+		if (nextLine < 0) {
+			finish();
+		} else {
+			lineCount = nextLine;
+		}
+
+		if (record.value.isEmpty()) {
+			return null;
+		}
+		final Sequence sequence = new Sequence(record.value);
+		sequence.setName(record.id);
+		return sequence;
+	}
+
+	@Override
+	protected int getLineCount() {
+		return ranges == null ? super.getLineCount() : lineCount;
+	}
+
+	@Override
+	public void close() {
+		shutdown();
+		super.close();
+	}
+
+	private Record nextRecord() throws IOException {
+		while (advance()) {
+			if (currentIndex < current.records.size()) {
+				return current.records.get(currentIndex++);
+			}
+		}
+		return null;
+	}
+
+	private int peekLine() throws IOException {
+		while (advance()) {
+			if (currentIndex < current.records.size()) {
+				return lineOffset + current.records.get(currentIndex).line;
+			}
+		}
+		return -1;
+	}
+
+	// Makes sure the current chunk has records left, or moves on to the next
+	// chunk. Returns false, if all chunks were consumed.
+	private boolean advance() throws IOException {
+		if (current != null && currentIndex < current.records.size()) {
+			return true;
+		}
+		if (pending.isEmpty()) {
+			return false;
+		}
+		if (current != null) {
+			lineOffset += current.lines;
+		}
+		current = take(pending.poll());
+		currentIndex = 0;
+		fill();
+		return true;
+	}
+
+	private void finish() {
+		// All chunks were consumed, so the line count is the total number of
+		// lines.
+		lineCount = lineOffset + (current == null ? 0 : current.lines);
+		shutdown();
+	}
+
+	private void shutdown() {
+		for (final Future<Chunk> future : pending) {
+			future.cancel(true);
+		}
+		pending.clear();
+		if (executor != null) {
+			executor.shutdownNow();
+			executor = null;
+		}
+	}
+
+	private void fill() throws IOException {
+		while (nextRange < ranges.size() && pending.size() < threads * CHUNKS_AHEAD_PER_THREAD) {
+			final long[] range = ranges.get(nextRange++);
+			final Callable<Chunk> task = () -> parse(range[0], range[1]);
+			if (executor == null) {
+				final FutureTask<Chunk> future = new FutureTask<>(task);
+				future.run();
+				pending.add(future);
+			} else {
+				pending.add(executor.submit(task));
+			}
+		}
+	}
+
+	private static Chunk take(final Future<Chunk> future) throws IOException {
+		try {
+			return future.get();
+		} catch (final ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException(e.getCause().getMessage(), e.getCause());
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while parsing.", e);
+		}
+	}
+
+	// Splits the file into byte ranges, each starting with an ID line.
+	private List<long[]> split() throws IOException {
+		final long size = channel.size();
+		final List<long[]> result = new ArrayList<>();
+		final long count = Math.max(1, (size + chunkSize - 1) / chunkSize);
+		long start = 0;
+		for (long i = 1; i < count && start < size; i++) {
+			final long boundary = findBoundary(Math.max(start + 1, size * i / count), size);
+			if (boundary >= size) {
+				break;
+			}
+			result.add(checkRange(start, boundary));
+			start = boundary;
+		}
+		if (start < size || result.isEmpty()) {
+			result.add(checkRange(start, size));
+		}
+		return result;
+	}
+
+	private static long[] checkRange(final long start, final long end) throws IOException {
+		if (end - start > Integer.MAX_VALUE) {
+			throw new IOException("Sequence is too large to be read. Offset: " + start);
+		}
+		return new long[] { start, end };
+	}
+
+	// Finds the next line starting with an ID, at or after the given offset.
+	private long findBoundary(final long from, final long size) throws IOException {
+		final ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+		long position = from - 1;
+		byte previous = 0;
+		boolean first = true;
+		while (position < size) {
+			buffer.clear();
+			final int read = channel.read(buffer, position);
+			if (read <= 0) {
+				break;
+			}
+			for (int i = 0; i < read; i++) {
+				final byte b = buffer.get(i);
+				if (!first && b == ID_BYTE && (previous == '\n' || previous == '\r')) {
+					return position + i;
+				}
+				first = false;
+				previous = b;
+			}
+			position += read;
+		}
+		return size;
+	}
+
+	private Chunk parse(final long start, final long end) throws IOException {
+		final Chunk chunk = new Chunk();
+		final int length = (int) (end - start);
+		if (length == 0) {
+			return chunk;
+		}
+		final MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, start, length);
+		final StringBuilder builder = new StringBuilder(1024);
+		byte[] line = new byte[256];
+		Record record = null;
+
+		int position = 0;
+		while (position < length) {
+			// Read a single line, just like BufferedReader does.
+			int lineLength = 0;
+			byte b = 0;
+			while (position < length && (b = buffer.get(position)) != '\n' && b != '\r') {
+				if (lineLength == line.length) {
+					final byte[] grown = new byte[line.length * 2];
+					System.arraycopy(line, 0, grown, 0, lineLength);
+					line = grown;
+				}
+				line[lineLength++] = b;
+				position++;
+			}
+			if (position < length) {
+				position++;
+				if (b == '\r' && position < length && buffer.get(position) == '\n') {
+					position++;
+				}
+			}
+			chunk.lines++;
+
+			if (!isData(line, lineLength)) {
+				continue;
+			}
+			if (line[0] == ID_BYTE) {
+				if (record != null) {
+					record.value = builder.toString();
+					builder.setLength(0);
+				}
+				record = new Record(new String(line, 1, lineLength - 1, charset), chunk.lines);
+				chunk.records.add(record);
+			} else {
+				if (record == null) {
+					record = new Record(null, 0);
+					chunk.records.add(record);
+				}
+				builder.append(new String(line, 0, lineLength, charset));
+			}
+		}
+		if (record != null) {
+			record.value = builder.toString();
+		}
+		return chunk;
+	}
+
+	// Same as isData(CharSequence) on byte level: not blank and not a comment.
+	private static boolean isData(final byte[] line, final int length) {
+		if (length == 0 || line[0] == COMMENT_BYTE) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if ((line[i] & 0xFF) > ' ') {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Gets the size of a chunk in bytes. Default is {@link #DEFAULT_CHUNK_SIZE}.
+	 *
+	 * @return The size of a chunk.
+	 */
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * Sets the size of a chunk in bytes. The actual chunks will be a little
+	 * bigger, as their boundaries are moved to the next ID. Default is
+	 * {@link #DEFAULT_CHUNK_SIZE}.
+	 *
+	 * @param chunkSize
+	 *            The size of a chunk. Must be a positive number.
+	 */
+	public void setChunkSize(final int chunkSize) {
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("Chunk size must be a positive number.");
+		}
+		this.chunkSize = chunkSize;
+	}
+
+}
@@ -2,18 +2,33 @@ package net.emb.hcat.cli.io.sequence;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.util.Arrays;
 
 import net.emb.hcat.cli.ErrorCodeException;
 import net.emb.hcat.cli.ErrorCodeException.EErrorCode;
 import net.emb.hcat.cli.sequence.Sequence;
 
 /**
- * A reader to read in sequences of DNA in Pyhlip format.
+ * A reader to read in sequences of DNA in Pyhlip format. By default, the
+ * sequential layout is read, where each sequence is given completely, with its
+ * name in a line of its own. If {@link #setInterleaved(boolean)} is set, the
+ * interleaved layout is read instead, as written by {@link PhylipWriter}: the
+ * alignment is given in blocks, each containing a line for every sequence.
+ * The lines of the first block start with the name of the sequence, followed
+ * by white space and the first bases.
  *
  * @author Heiko Mattes
  */
 public class PhylipReader extends PhylipTcsReader {
 
+	private boolean interleaved;
+
+	// Interleaved layout: names and bases of all sequences, filled block by
+	// block. Each row is released when its sequence is returned.
+	private String[] names;
+	private StringBuilder[] rows;
+	private int nextRow;
+
 	/**
 	 * Constructor.
 	 *
@@ -26,6 +41,10 @@ public class PhylipReader extends PhylipTcsReader {
 
 	@Override
 	protected Sequence readSequence() throws ErrorCodeException, IOException {
+		if (interleaved) {
+			return readInterleavedSequence();
+		}
+
 		String line = readLine();
 		if (line == null) {
 			return null;
@@ -48,9 +67,100 @@ public class PhylipReader extends PhylipTcsReader {
 		return sequence;
 	}
 
+	private Sequence readInterleavedSequence() throws ErrorCodeException, IOException {
+		if (rows == null) {
+			readBlocks();
+		}
+		if (nextRow >= rows.length) {
+			return null;
+		}
+
+		final Sequence sequence = new Sequence(rows[nextRow].toString(), names[nextRow]);
+		rows[nextRow] = null;
+		nextRow++;
+		return sequence;
+	}
+
+	// The last sequence is only complete after the last block, so all blocks
+	// are read before the first sequence is returned.
+	private void readBlocks() throws ErrorCodeException, IOException {
+		final int count = getExpectedSeqCount();
+		names = new String[count];
+		rows = new StringBuilder[count];
+
+		// First block, with the names.
+		for (int i = 0; i < count; i++) {
+			final String line = readLine();
+			if (line == null) {
+				break;
+			}
+			int split = 0;
+			while (split < line.length() && !Character.isWhitespace(line.charAt(split))) {
+				split++;
+			}
+			names[i] = line.substring(0, split);
+			rows[i] = new StringBuilder(getExpectedSeqLength());
+			appendBases(rows[i], line, split);
+		}
+
+		// Further blocks, in the same order of sequences.
+		while (count > 0 && rows[count - 1] != null && rows[0].length() < getExpectedSeqLength()) {
+			for (int i = 0; i < count; i++) {
+				final String line = readLine();
+				if (line == null) {
+					throw new ErrorCodeException(EErrorCode.MISSING_VALUE, "Unexpected end reach. Sequence data is missing.");
+				}
+				appendBases(rows[i], line, 0);
+			}
+		}
+
+		// Fewer sequences than expected are reported by the caller.
+		int read = 0;
+		while (read < count && rows[read] != null) {
+			read++;
+		}
+		if (read < count) {
+			names = Arrays.copyOf(names, read);
+			rows = Arrays.copyOf(rows, read);
+		}
+	}
+
+	// Bases may be grouped by blanks.
+	private static void appendBases(final StringBuilder row, final String line, final int start) {
+		for (int i = start; i < line.length(); i++) {
+			final char c = line.charAt(i);
+			if (!Character.isWhitespace(c)) {
+				row.append(c);
+			}
+		}
+	}
+
 	@Override
 	protected int getMaxLengthOfName() {
 		return -1;
 	}
 
+	/**
+	 * Gets whether the interleaved layout is read. Default is
+	 * <code>false</code>.
+	 *
+	 * @return <code>true</code>, if the interleaved layout is read,
+	 *         <code>false</code> if the sequential layout is read.
+	 */
+	public boolean isInterleaved() {
+		return interleaved;
+	}
+
+	/**
+	 * Sets whether the interleaved layout is read. Default is
+	 * <code>false</code>.
+	 *
+	 * @param interleaved
+	 *            <code>true</code>, if the interleaved layout should be read,
+	 *            <code>false</code> if the sequential layout should be read.
+	 */
+	public void setInterleaved(final boolean interleaved) {
+		this.interleaved = interleaved;
+	}
+
 }
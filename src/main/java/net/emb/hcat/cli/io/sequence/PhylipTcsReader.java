@@ -3,6 +3,7 @@ package net.emb.hcat.cli.io.sequence;
 import java.io.IOException;
 import java.io.Reader;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -76,12 +77,12 @@ public class PhylipTcsReader extends BaseSequenceReader {
 	}
 
 	@Override
-	protected List<Sequence> readSequences() throws ErrorCodeException, IOException {
-		final List<Sequence> sequences = super.readSequences();
-		if (sequences.size() != getExpectedSeqCount()) {
-			throw new ErrorCodeException(EErrorCode.SEQUENCES_WRONG_AMOUNT, "Wrong number of sequences read. Expected/Actual: {}/{}", getExpectedSeqCount(), sequences.size());
+	protected int readSequences(final Consumer<Sequence> consumer) throws ErrorCodeException, IOException {
+		final int count = super.readSequences(consumer);
+		if (count != getExpectedSeqCount()) {
+			throw new ErrorCodeException(EErrorCode.SEQUENCES_WRONG_AMOUNT, "Wrong number of sequences read. Expected/Actual: {}/{}", getExpectedSeqCount(), count);
 		}
-		return sequences;
+		return count;
 	}
 
 	@Override
@@ -1,9 +1,12 @@
 package net.emb.hcat.cli.io.sequence;
 
 import java.io.BufferedWriter;
+import java.io.File;
 import java.io.IOException;
 import java.io.Writer;
+import java.nio.file.Files;
 import java.util.List;
+import java.util.RandomAccess;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -11,7 +14,18 @@ import org.slf4j.LoggerFactory;
 import net.emb.hcat.cli.sequence.Sequence;
 
 /**
- * A writer to write out sequences of DNA in Phylip format.
+ * A writer to write out sequences of DNA in Phylip format. By default, the
+ * sequential layout is written: each sequence is written completely, with its
+ * name in a line of its own. If {@link #setInterleaved(boolean)} is set, the
+ * interleaved layout is written instead: the alignment is written in blocks of
+ * {@link #getLineBreak()} columns, each block containing a line for every
+ * sequence. Only the lines of the first block start with the name of the
+ * sequence, separated from the bases by a space.
+ * <br>
+ * <br>
+ * Alignments stored as binary alignment file can be written with
+ * {@link #write(BinaryAlignmentReader)}. Then only a single block of bases is
+ * decoded at a time, so even alignments larger than the heap can be written.
  *
  * @author Heiko Mattes
  */
@@ -21,9 +35,14 @@ public class PhylipWriter extends BaseSequenceWriter {
 
 	private static final int MAX_LINE_LENGTH = 60;
 
+	// Bases decoded at once from a binary alignment, if lines aren't broken.
+	private static final int BLOCK_BASES = 1 << 15;
+
 	private int seqSize;
 	private int seqLength;
 
+	private boolean interleaved;
+
 	/**
 	 * Constructor.
 	 *
@@ -44,10 +63,72 @@ public class PhylipWriter extends BaseSequenceWriter {
 		seqSize = sequences.size();
 		seqLength = seqSize == 0 ? 0 : sequences.get(0).getLength();
 
-		log.debug("Writing sequences with following parameters. Line break after: {} / Sequence length: {} / Sequence size: {}", getLineBreak(), seqLength, seqSize);
+		log.debug("Writing sequences with following parameters. Line break after: {} / Sequence length: {} / Sequence size: {} / Interleaved: {}", getLineBreak(), seqLength, seqSize, interleaved);
 		super.write(sequences);
 	}
 
+	/**
+	 * Writes all sequences of a binary alignment, decoding only a block of
+	 * bases of a single sequence at a time.
+	 *
+	 * @param alignment
+	 *            The alignment to write. Must not be <code>null</code>.
+	 * @throws IOException
+	 *             If an I/O error occurs, the sequences differ in length, or
+	 *             the alignment is corrupt.
+	 */
+	public void write(final BinaryAlignmentReader alignment) throws IOException {
+		if (alignment == null) {
+			throw new IllegalArgumentException("Alignment must not be null.");
+		}
+
+		seqSize = alignment.size();
+		seqLength = seqSize == 0 ? 0 : alignment.getLength(0);
+		for (int i = 0; i < seqSize; i++) {
+			checkSequence(alignment.getName(i), alignment.getLength(i));
+		}
+
+		log.debug("Writing binary alignment with following parameters. Line break after: {} / Sequence length: {} / Sequence size: {} / Interleaved: {}", getLineBreak(), seqLength, seqSize, interleaved);
+		start();
+		try {
+			if (interleaved) {
+				writeBlocks(alignment::getName, (index, start, target, length) -> alignment.getBases(index, start, target, 0, length));
+			} else {
+				final char[] buffer = new char[getLineBreak() == 0 ? Math.min(seqLength, BLOCK_BASES) : getLineBreak()];
+				final BufferedWriter writer = getWriter();
+				for (int i = 0; i < seqSize; i++) {
+					writeSeqName(alignment.getName(i));
+					for (int start = 0; start < seqLength; start += buffer.length) {
+						final int length = Math.min(buffer.length, seqLength - start);
+						alignment.getBases(i, start, buffer, 0, length);
+						writer.write(buffer, 0, length);
+						if (getLineBreak() != 0) {
+							writer.newLine();
+						}
+					}
+					if (getLineBreak() == 0) {
+						writer.newLine();
+					}
+				}
+			}
+		} catch (final IllegalStateException e) {
+			throw new IOException(e.getMessage(), e);
+		}
+		countWritten(seqSize, (long) seqSize * seqLength);
+		end();
+	}
+
+	/**
+	 * Phylip needs the number of sequences in its header, so sequences can't
+	 * be written one by one.
+	 *
+	 * @return Always <code>false</code>.
+	 */
+	@Override
+	public boolean isStreaming() {
+		return false;
+	}
+
 	@Override
 	protected void writeHeader() throws IOException {
 		final BufferedWriter writer = getWriter();
@@ -58,12 +139,135 @@ public class PhylipWriter extends BaseSequenceWriter {
 	}
 
 	@Override
-	protected void writeSequence(final Sequence sequence) throws IOException {
-		if (seqLength != sequence.getLength()) {
-			throw new IOException("Sequence with name \"" + sequence.getName() + "\" has not the correct length. Expected/Actual: " + seqLength + "/" + sequence.getLength());
+	protected void writeSequences(final List<Sequence> sequences) throws IOException {
+		if (!interleaved) {
+			super.writeSequences(sequences);
+			return;
 		}
 
+		// All sequences are checked before anything is written.
+		for (final Sequence sequence : sequences) {
+			checkSequence(sequence.getName(), sequence.getLength());
+		}
+		if (sequences instanceof RandomAccess) {
+			writeBlocks(index -> sequences.get(index).getName(), (index, start, target, length) -> sequences.get(index).getValue().getChars(start, start + length, target, 0));
+		} else {
+			writeSpooled(sequences);
+		}
+		countWritten(seqSize, (long) seqSize * seqLength);
+	}
+
+	// Each block needs every sequence again. Lists without random access,
+	// like generated alignments, may recreate their sequences on each access,
+	// so they are iterated only once into a temporary binary alignment, which
+	// is then written block by block.
+	private void writeSpooled(final List<Sequence> sequences) throws IOException {
+		final File file = File.createTempFile("hcat", ".hcb");
+		try {
+			try (BinaryAlignmentWriter binary = new BinaryAlignmentWriter(file)) {
+				binary.start();
+				for (final Sequence sequence : sequences) {
+					binary.append(sequence);
+				}
+				binary.end();
+			}
+			try (BinaryAlignmentReader alignment = new BinaryAlignmentReader(file)) {
+				writeBlocks(alignment::getName, (index, start, target, length) -> alignment.getBases(index, start, target, 0, length));
+			} catch (final IllegalStateException e) {
+				throw new IOException(e.getMessage(), e);
+			}
+		} finally {
+			Files.deleteIfExists(file.toPath());
+		}
+	}
+
+	@Override
+	protected void writeSequence(final Sequence sequence) throws IOException {
+		checkSequence(sequence.getName(), sequence.getLength());
 		super.writeSequence(sequence);
 	}
 
+	private void checkSequence(final String name, final int length) throws IOException {
+		if (seqLength != length) {
+			throw new IOException("Sequence with name \"" + name + "\" has not the correct length. Expected/Actual: " + seqLength + "/" + length);
+		}
+		if (interleaved && !isValidName(name)) {
+			throw new IOException("Sequence name must not be empty or contain white space in interleaved format. Name: \"" + name + "\"");
+		}
+	}
+
+	// Names of the interleaved layout are separated from the bases by white
+	// space, so they must not contain any.
+	private static boolean isValidName(final String name) {
+		if (name == null || name.isEmpty()) {
+			return false;
+		}
+		for (int i = 0; i < name.length(); i++) {
+			if (Character.isWhitespace(name.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// Source of the names of the sequences, by index.
+	private interface Names {
+		String get(int index);
+	}
+
+	// Source of the bases of the sequences, by index.
+	private interface Bases {
+		void get(int index, int start, char[] target, int length);
+	}
+
+	// Writes the interleaved layout. Only a single line of bases is held at a
+	// time.
+	private void writeBlocks(final Names names, final Bases bases) throws IOException {
+		final BufferedWriter writer = getWriter();
+		final int block = getLineBreak() == 0 ? Math.max(1, seqLength) : getLineBreak();
+		final char[] buffer = new char[Math.min(block, Math.max(1, seqLength))];
+		int start = 0;
+		do {
+			if (start > 0) {
+				writer.newLine();
+			}
+			final int length = Math.min(block, seqLength - start);
+			for (int i = 0; i < seqSize; i++) {
+				if (start == 0) {
+					writer.append(names.get(i));
+					writer.append(' ');
+				}
+				bases.get(i, start, buffer, length);
+				writer.write(buffer, 0, length);
+				writer.newLine();
+			}
+			start += block;
+		} while (start < seqLength);
+	}
+
+	/**
+	 * Gets whether the interleaved layout is written. Default is
+	 * <code>false</code>.
+	 *
+	 * @return <code>true</code>, if the interleaved layout is written,
+	 *         <code>false</code> if the sequential layout is written.
+	 */
+	public boolean isInterleaved() {
+		return interleaved;
+	}
+
+	/**
+	 * Sets whether the interleaved layout is written. Default is
+	 * <code>false</code>. In the interleaved layout, names of sequences must
+	 * not be empty or contain white space.
+	 *
+	 * @param interleaved
+	 *            <code>true</code>, if the interleaved layout should be
+	 *            written, <code>false</code> if the sequential layout should be
+	 *            written.
+	 */
+	public void setInterleaved(final boolean interleaved) {
+		this.interleaved = interleaved;
+	}
+
 }
@@ -0,0 +1,36 @@
+package net.emb.hcat.cli.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event, covering a batch of sequences whose codons were
+ * processed.
+ *
+ * @author Heiko Mattes
+ */
+@Name("net.emb.hcat.CodonBatch")
+@Label("Codon Batch")
+@Category({ "HCAT", "Codon" })
+@Description("A batch of sequences whose codons were counted or translated.")
+public class CodonBatchEvent extends Event {
+
+	/** Number of sequences in a single batch. */
+	public static final int BATCH_SIZE = 256;
+
+	/** Kind of processing, e.g. "usage" or "translate". */
+	@Label("Operation")
+	public String operation;
+
+	/** Number of sequences processed. */
+	@Label("Sequences")
+	public int sequences;
+
+	/** Number of codons processed. */
+	@Label("Codons")
+	public long codons;
+
+}
@@ -0,0 +1,28 @@
+package net.emb.hcat.cli.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event, covering sequences being collapsed into haplotypes.
+ *
+ * @author Heiko Mattes
+ */
+@Name("net.emb.hcat.Collapse")
+@Label("Haplotype Collapse")
+@Category({ "HCAT", "Haplotype" })
+@Description("Sequences collapsed into haplotypes.")
+public class CollapseEvent extends Event {
+
+	/** Number of sequences collapsed. */
+	@Label("Sequences")
+	public int sequences;
+
+	/** Number of haplotypes found. */
+	@Label("Haplotypes")
+	public int haplotypes;
+
+}
@@ -0,0 +1,37 @@
+package net.emb.hcat.cli.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event, covering a tile of a pairwise matrix, comparing one
+ * haplotype to several others.
+ *
+ * @author Heiko Mattes
+ */
+@Name("net.emb.hcat.DistanceTile")
+@Label("Distance Tile")
+@Category({ "HCAT", "Haplotype" })
+@Description("A tile of pairwise haplotype comparisons.")
+public class DistanceTileEvent extends Event {
+
+	/** Kind of matrix, e.g. "distance" or "dnds". */
+	@Label("Matrix")
+	public String matrix;
+
+	/** Index of the row of the tile. */
+	@Label("Row")
+	public int row;
+
+	/** Number of pairs compared. */
+	@Label("Comparisons")
+	public int comparisons;
+
+	/** Length of the compared sequences. */
+	@Label("Length")
+	public int length;
+
+}
@@ -0,0 +1,35 @@
+package net.emb.hcat.cli.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event, covering a chunk of sequences parsed by a reader.
+ *
+ * @author Heiko Mattes
+ */
+@Name("net.emb.hcat.ReadChunk")
+@Label("Read Chunk")
+@Category({ "HCAT", "I/O" })
+@Description("A chunk of sequences parsed by a sequence reader.")
+public class ReadChunkEvent extends Event {
+
+	/** Number of sequences in a single chunk. */
+	public static final int CHUNK_SIZE = 1000;
+
+	/** Simple class name of the reader. */
+	@Label("Reader")
+	public String reader;
+
+	/** Number of sequences parsed. */
+	@Label("Sequences")
+	public int sequences;
+
+	/** Number of bases parsed. */
+	@Label("Bases")
+	public long bases;
+
+}
@@ -0,0 +1,63 @@
+package net.emb.hcat.cli.jfr;
+
+import java.io.Flushable;
+import java.io.IOException;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event, covering a writer flushing its output.
+ *
+ * @author Heiko Mattes
+ */
+@Name("net.emb.hcat.WriterFlush")
+@Label("Writer Flush")
+@Category({ "HCAT", "I/O" })
+@Description("A writer flushing its output.")
+public class WriterFlushEvent extends Event {
+
+	/**
+	 * Flushes the given output, recording an event if the flight recorder is
+	 * running.
+	 *
+	 * @param flushable
+	 *            The output to flush.
+	 * @param source
+	 *            The writer flushing, used to name the event.
+	 * @param rows
+	 *            Number of rows or sequences written since the last flush.
+	 * @param characters
+	 *            Number of characters written since the last flush, or 0 if
+	 *            unknown.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	public static void flush(final Flushable flushable, final Object source, final int rows, final long characters) throws IOException {
+		final WriterFlushEvent event = new WriterFlushEvent();
+		event.begin();
+		flushable.flush();
+		if (event.shouldCommit()) {
+			event.writer = source.getClass().getSimpleName();
+			event.rows = rows;
+			event.characters = characters;
+			event.commit();
+		}
+	}
+
+	/** Simple class name of the writer. */
+	@Label("Writer")
+	public String writer;
+
+	/** Number of rows or sequences written since the last flush. */
+	@Label("Rows")
+	public int rows;
+
+	/** Number of characters written since the last flush, 0 if unknown. */
+	@Label("Characters")
+	public long characters;
+
+}
@@ -0,0 +1,89 @@
+package net.emb.hcat.cli.pipeline;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
+import net.emb.hcat.cli.io.ChannelWriter;
+import net.emb.hcat.cli.io.ChannelWriter.EFlushPolicy;
+import net.emb.hcat.cli.io.compress.Compression;
+
+/**
+ * Base class of sinks writing their result into a file.
+ *
+ * @author Heiko Mattes
+ */
+public abstract class BaseFileSink implements ISequenceSink {
+
+	private final File file;
+	private final Charset charset;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param file
+	 *            The file to write the result to. Must not be
+	 *            <code>null</code>.
+	 * @param charset
+	 *            The encoding of the file. Must not be <code>null</code>.
+	 */
+	public BaseFileSink(final File file, final Charset charset) {
+		if (file == null || charset == null) {
+			throw new IllegalArgumentException("File and charset must not be null.");
+		}
+		this.file = file;
+		this.charset = charset;
+	}
+
+	/**
+	 * Opens the file for writing. Compresses the file, if its name ends with
+	 * one of the {@link Compression#COMPRESSED_ENDINGS}. Data is only written
+	 * when the buffer is full, and when the writer is closed.
+	 *
+	 * @return A new writer. Must be closed by the caller.
+	 * @throws IOException
+	 *             If the file could not be opened.
+	 */
+	protected Writer openWriter() throws IOException {
+		return openWriter(file);
+	}
+
+	/**
+	 * Opens the given file for writing, just like {@link #openWriter()}, e.g.
+	 * a temporary file replacing the actual file later on.
+	 *
+	 * @param target
+	 *            The file to open. Compression is determined by its name.
+	 * @return A new writer. Must be closed by the caller.
+	 * @throws IOException
+	 *             If the file could not be opened.
+	 */
+	protected Writer openWriter(final File target) throws IOException {
+		return new ChannelWriter(Compression.create(target, Runtime.getRuntime().availableProcessors()), charset, EFlushPolicy.ON_CLOSE);
+	}
+
+	/**
+	 * Gets the file the result is written to.
+	 *
+	 * @return The file.
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Gets the encoding of the file.
+	 *
+	 * @return The encoding.
+	 */
+	public Charset getCharset() {
+		return charset;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [file=" + file + "]";
+	}
+
+}
@@ -0,0 +1,48 @@
+package net.emb.hcat.cli.pipeline;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
+import net.emb.hcat.cli.haplotype.DistanceMatrix;
+import net.emb.hcat.cli.haplotype.HaplotypeCollector;
+import net.emb.hcat.cli.io.DistanceMatrixWriter;
+import net.emb.hcat.cli.sequence.Sequence;
+
+/**
+ * Sink collapsing all sequences into haplotypes and writing the matrix of
+ * distances between all haplotypes.
+ *
+ * @author Heiko Mattes
+ */
+public class DistanceMatrixSink extends BaseFileSink {
+
+	private final HaplotypeCollector collector = new HaplotypeCollector();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param file
+	 *            The file to write to. Must not be <code>null</code>.
+	 * @param charset
+	 *            The encoding of the file. Must not be <code>null</code>.
+	 */
+	public DistanceMatrixSink(final File file, final Charset charset) {
+		super(file, charset);
+	}
+
+	@Override
+	public void accept(final Sequence sequence) {
+		collector.accept(sequence);
+	}
+
+	@Override
+	public void finish() throws IOException {
+		final DistanceMatrix matrix = new DistanceMatrix(collector.getHaplotypes());
+		try (Writer writer = openWriter()) {
+			new DistanceMatrixWriter(writer).write(matrix);
+		}
+	}
+
+}
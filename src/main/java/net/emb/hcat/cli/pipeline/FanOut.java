@@ -0,0 +1,198 @@
+package net.emb.hcat.cli.pipeline;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import net.emb.hcat.cli.sequence.Sequence;
+
+/**
+ * Hands each sequence to several sinks, so a single read can feed several
+ * operations. Each sink runs on its own thread and is fed by its own bounded
+ * queue. If a sink falls behind, its full queue blocks the reader, so the
+ * queues never hold more than their capacity. If a sink fails, it keeps
+ * draining its queue, so the other sinks are not affected.
+ *
+ * @author Heiko Mattes
+ */
+public class FanOut implements Consumer<Sequence> {
+
+	/** Default number of sequences each queue can hold. */
+	public static final int DEFAULT_CAPACITY = 256;
+
+	// Marks the end of the stream of sequences for the sinks.
+	private static final Sequence END = new Sequence("");
+
+	private final List<ISequenceSink> sinks;
+	private final List<BlockingQueue<Sequence>> queues;
+	private final List<Future<Void>> futures = new ArrayList<>();
+	private ExecutorService executor;
+	private volatile boolean cancelled;
+	private int count;
+	private long bases;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param sinks
+	 *            The sinks to feed. Must not be <code>null</code> or empty.
+	 * @param capacity
+	 *            Number of sequences each queue can hold. Must be a positive
+	 *            number.
+	 */
+	public FanOut(final List<ISequenceSink> sinks, final int capacity) {
+		if (sinks == null || sinks.isEmpty()) {
+			throw new IllegalArgumentException("Sinks must not be empty.");
+		}
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Capacity must be a positive number.");
+		}
+		this.sinks = new ArrayList<>(sinks);
+		queues = new ArrayList<>(sinks.size());
+		for (int i = 0; i < sinks.size(); i++) {
+			queues.add(new ArrayBlockingQueue<>(capacity));
+		}
+	}
+
+	/**
+	 * Starts a thread for each sink.
+	 */
+	public void start() {
+		if (executor != null) {
+			throw new IllegalStateException("Already started.");
+		}
+		executor = Executors.newFixedThreadPool(sinks.size());
+		for (int i = 0; i < sinks.size(); i++) {
+			final ISequenceSink sink = sinks.get(i);
+			final BlockingQueue<Sequence> queue = queues.get(i);
+			futures.add(executor.submit(() -> drain(sink, queue)));
+		}
+	}
+
+	private Void drain(final ISequenceSink sink, final BlockingQueue<Sequence> queue) throws Exception {
+		Exception failure = null;
+		Sequence sequence;
+		while ((sequence = queue.take()) != END) {
+			if (failure == null) {
+				try {
+					sink.accept(sequence);
+				} catch (final IOException | RuntimeException e) {
+					// Keep draining, so the reader doesn't block.
+					failure = e;
+				}
+			}
+		}
+		if (failure != null) {
+			sink.abort();
+			throw failure;
+		}
+		if (cancelled) {
+			sink.abort();
+		} else {
+			sink.finish();
+		}
+		return null;
+	}
+
+	/**
+	 * Hands the sequence to all sinks. Blocks, while the queue of any sink is
+	 * full.
+	 *
+	 * @param sequence
+	 *            The sequence. Must not be modified afterwards.
+	 */
+	@Override
+	public void accept(final Sequence sequence) {
+		if (executor == null) {
+			throw new IllegalStateException("Not started.");
+		}
+		for (final BlockingQueue<Sequence> queue : queues) {
+			put(queue, sequence);
+		}
+		count++;
+		bases += sequence.getLength();
+	}
+
+	/**
+	 * Signals the end of the sequences and waits for all sinks to finish.
+	 *
+	 * @return For each sink, in the given order, the exception it failed with,
+	 *         or <code>null</code> if it succeeded.
+	 */
+	public List<Exception> finish() {
+		return end(false);
+	}
+
+	/**
+	 * Signals the end of the sequences without finishing the sinks, e.g.
+	 * because reading failed, and waits for all threads to end. Does nothing,
+	 * if already finished or cancelled.
+	 */
+	public void cancel() {
+		end(true);
+	}
+
+	private List<Exception> end(final boolean cancel) {
+		if (executor == null || executor.isShutdown()) {
+			return Collections.emptyList();
+		}
+		cancelled = cancel;
+		for (final BlockingQueue<Sequence> queue : queues) {
+			put(queue, END);
+		}
+
+		final List<Exception> failures = new ArrayList<>(futures.size());
+		try {
+			for (final Future<Void> future : futures) {
+				try {
+					future.get();
+					failures.add(null);
+				} catch (final ExecutionException e) {
+					failures.add(e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+				}
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for sinks.", e);
+		} finally {
+			executor.shutdownNow();
+		}
+		return failures;
+	}
+
+	private static void put(final BlockingQueue<Sequence> queue, final Sequence sequence) {
+		try {
+			queue.put(sequence);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while handing over sequence.", e);
+		}
+	}
+
+	/**
+	 * Gets the number of sequences handed over so far.
+	 *
+	 * @return The number of sequences.
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Gets the number of bases of all sequences handed over so far.
+	 *
+	 * @return The number of bases.
+	 */
+	public long getBases() {
+		return bases;
+	}
+
+}
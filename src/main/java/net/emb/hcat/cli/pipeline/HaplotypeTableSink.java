@@ -0,0 +1,170 @@
+package net.emb.hcat.cli.pipeline;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Map;
+
+import net.emb.hcat.cli.codon.CodonTable;
+import net.emb.hcat.cli.haplotype.Haplotype;
+import net.emb.hcat.cli.haplotype.HaplotypeCollector;
+import net.emb.hcat.cli.haplotype.HaplotypeTransformer;
+import net.emb.hcat.cli.io.HaplotypeTableWriter;
+import net.emb.hcat.cli.sequence.Difference;
+import net.emb.hcat.cli.sequence.Sequence;
+
+/**
+ * Sink collapsing all sequences into haplotypes and writing a haplotype table,
+ * comparing each haplotype to a master sequence.
+ *
+ * @author Heiko Mattes
+ */
+public class HaplotypeTableSink extends BaseFileSink {
+
+	private final HaplotypeCollector collector = new HaplotypeCollector();
+	private Sequence first;
+	private String masterId;
+	private String masterSequence;
+	private CodonTable codonTable;
+	private int codonOffset;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param file
+	 *            The file to write to. Must not be <code>null</code>.
+	 * @param charset
+	 *            The encoding of the file. Must not be <code>null</code>.
+	 */
+	public HaplotypeTableSink(final File file, final Charset charset) {
+		super(file, charset);
+		collector.setShareValues(true);
+	}
+
+	@Override
+	public void accept(final Sequence sequence) {
+		if (first == null) {
+			first = sequence;
+		}
+		collector.accept(sequence);
+	}
+
+	@Override
+	public void finish() throws IOException {
+		final List<Haplotype> haplotypes = collector.getHaplotypes();
+		final Sequence master = findMaster(haplotypes);
+		final Map<Haplotype, Difference> result = new HaplotypeTransformer(haplotypes).compareToMaster(master);
+
+		try (Writer writer = openWriter()) {
+			final HaplotypeTableWriter tableWriter = new HaplotypeTableWriter(writer);
+			tableWriter.setCodonTable(codonTable);
+			tableWriter.setCodonOffset(codonOffset);
+			tableWriter.write(master, result);
+		}
+	}
+
+	private Sequence findMaster(final List<Haplotype> haplotypes) throws IOException {
+		if (masterId != null) {
+			for (final Haplotype haplotype : haplotypes) {
+				for (final Sequence sequence : haplotype) {
+					if (masterId.equals(sequence.getName())) {
+						return sequence;
+					}
+				}
+			}
+			throw new IOException("Master sequence with ID \"" + masterId + "\" not found in input file.");
+		}
+		if (masterSequence != null) {
+			return new Sequence(masterSequence, "Master Sequence");
+		}
+		if (first == null) {
+			throw new IOException("No sequences found in input file.");
+		}
+		return first;
+	}
+
+	/**
+	 * Gets the ID of the master sequence.
+	 *
+	 * @return The ID, or <code>null</code>, if not set.
+	 */
+	public String getMasterId() {
+		return masterId;
+	}
+
+	/**
+	 * Sets the ID of the sequence to compare all haplotypes to. Takes
+	 * precedence over the master sequence. If neither is set, the first
+	 * sequence is used.
+	 *
+	 * @param masterId
+	 *            The ID of the master sequence.
+	 */
+	public void setMasterId(final String masterId) {
+		this.masterId = masterId;
+	}
+
+	/**
+	 * Gets the value of the master sequence.
+	 *
+	 * @return The value, or <code>null</code>, if not set.
+	 */
+	public String getMasterSequence() {
+		return masterSequence;
+	}
+
+	/**
+	 * Sets the value of the sequence to compare all haplotypes to. If neither
+	 * master ID nor sequence is set, the first sequence is used.
+	 *
+	 * @param masterSequence
+	 *            The value of the master sequence.
+	 */
+	public void setMasterSequence(final String masterSequence) {
+		this.masterSequence = masterSequence;
+	}
+
+	/**
+	 * Gets the codon table differences are classified with.
+	 *
+	 * @return The codon table, or <code>null</code>, if differences are not
+	 *         classified.
+	 */
+	public CodonTable getCodonTable() {
+		return codonTable;
+	}
+
+	/**
+	 * Sets the codon table to classify each difference as synonymous or
+	 * non-synonymous with.
+	 *
+	 * @param codonTable
+	 *            The codon table, or <code>null</code>, to not classify
+	 *            differences.
+	 */
+	public void setCodonTable(final CodonTable codonTable) {
+		this.codonTable = codonTable;
+	}
+
+	/**
+	 * Gets the offset of the first codon.
+	 *
+	 * @return The offset.
+	 */
+	public int getCodonOffset() {
+		return codonOffset;
+	}
+
+	/**
+	 * Sets the offset of the first codon in the master sequence.
+	 *
+	 * @param codonOffset
+	 *            The offset. Must be 0, 1 or 2.
+	 */
+	public void setCodonOffset(final int codonOffset) {
+		this.codonOffset = codonOffset;
+	}
+
+}
@@ -0,0 +1,44 @@
+package net.emb.hcat.cli.pipeline;
+
+import java.io.IOException;
+
+import net.emb.hcat.cli.sequence.Sequence;
+
+/**
+ * Receives sequences one by one and produces a result, once all sequences
+ * were received. Each sink is only ever called by a single thread.
+ *
+ * @author Heiko Mattes
+ */
+public interface ISequenceSink {
+
+	/**
+	 * Receives the next sequence.
+	 *
+	 * @param sequence
+	 *            The sequence. Shared with other sinks, so it must not be
+	 *            modified.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	void accept(Sequence sequence) throws IOException;
+
+	/**
+	 * Called once, after all sequences were received. Not called, if reading
+	 * the sequences failed.
+	 *
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	void finish() throws IOException;
+
+	/**
+	 * Called once instead of {@link #finish()}, if reading the sequences or
+	 * this sink failed, so the sink can release its resources. Default
+	 * implementation does nothing.
+	 */
+	default void abort() {
+		// Default implementation does nothing.
+	}
+
+}
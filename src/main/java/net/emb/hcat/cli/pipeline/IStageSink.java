@@ -0,0 +1,24 @@
+package net.emb.hcat.cli.pipeline;
+
+/**
+ * The writing stage of a {@link Pipeline}. Receives the transformed items one
+ * by one, in the order they were read.
+ *
+ * @author Heiko Mattes
+ * @param <R>
+ *            The type of the received items.
+ */
+@FunctionalInterface
+public interface IStageSink<R> {
+
+	/**
+	 * Receives the next item. Always called by the same thread.
+	 *
+	 * @param item
+	 *            The item.
+	 * @throws Exception
+	 *             If writing fails.
+	 */
+	void accept(R item) throws Exception;
+
+}
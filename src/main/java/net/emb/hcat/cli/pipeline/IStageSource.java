@@ -0,0 +1,27 @@
+package net.emb.hcat.cli.pipeline;
+
+import java.util.function.Consumer;
+
+/**
+ * The reading stage of a {@link Pipeline}. Produces items one by one.
+ *
+ * @author Heiko Mattes
+ * @param <T>
+ *            The type of the produced items.
+ */
+@FunctionalInterface
+public interface IStageSource<T> {
+
+	/**
+	 * Reads all items and hands them to the given consumer, in order. Called
+	 * exactly once, on a thread of its own.
+	 *
+	 * @param consumer
+	 *            The consumer receiving the items. May block, if the later
+	 *            stages fall behind.
+	 * @throws Exception
+	 *             If reading fails.
+	 */
+	void read(Consumer<T> consumer) throws Exception;
+
+}
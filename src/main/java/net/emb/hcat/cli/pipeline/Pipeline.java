@@ -0,0 +1,201 @@
+package net.emb.hcat.cli.pipeline;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import net.emb.hcat.cli.pipeline.PipelineException.EStage;
+
+/**
+ * Runs reading, transforming and writing at the same time, instead of one
+ * after another. A reader thread collects the read items into batches and
+ * hands each batch to a pool of transform threads. The calling thread writes
+ * the transformed batches in the order they were read. At most
+ * <code>capacity</code> batches are in flight at any time: if transforming or
+ * writing falls behind, the reader blocks, so memory stays bounded.
+ *
+ * @author Heiko Mattes
+ * @param <T>
+ *            The type of the read items.
+ * @param <R>
+ *            The type of the transformed items.
+ */
+public class Pipeline<T, R> {
+
+	/** Default number of items per batch. */
+	public static final int DEFAULT_BATCH_SIZE = 256;
+
+	/** Default number of batches in flight. */
+	public static final int DEFAULT_CAPACITY = 16;
+
+	private final int threads;
+	private final int batchSize;
+	private final int capacity;
+
+	/**
+	 * Constructor, using the default batch size and capacity.
+	 *
+	 * @param threads
+	 *            Number of transform threads. Must be a positive number.
+	 */
+	public Pipeline(final int threads) {
+		this(threads, DEFAULT_BATCH_SIZE, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param threads
+	 *            Number of transform threads. Must be a positive number.
+	 * @param batchSize
+	 *            Number of items per batch. Must be a positive number.
+	 * @param capacity
+	 *            Number of batches in flight between reader and writer. Must
+	 *            be a positive number.
+	 */
+	public Pipeline(final int threads, final int batchSize, final int capacity) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("Threads must be a positive number.");
+		}
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("Batch size must be a positive number.");
+		}
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Capacity must be a positive number.");
+		}
+		this.threads = threads;
+		this.batchSize = batchSize;
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Runs the pipeline. Returns, once all items were written, or as soon as
+	 * any stage fails. In the latter case, all other stages are stopped.
+	 *
+	 * @param source
+	 *            The reading stage. Must not be <code>null</code>.
+	 * @param transform
+	 *            The transform stage. Transforms a batch of read items into a
+	 *            list of items to write. Called concurrently for different
+	 *            batches. Must not be <code>null</code>.
+	 * @param sink
+	 *            The writing stage. Must not be <code>null</code>.
+	 * @return The number of written items.
+	 * @throws PipelineException
+	 *             If any stage fails.
+	 */
+	public int run(final IStageSource<T> source, final Function<List<T>, List<R>> transform, final IStageSink<R> sink) throws PipelineException {
+		if (source == null || transform == null || sink == null) {
+			throw new IllegalArgumentException("Source, transform and sink must not be null.");
+		}
+
+		final BlockingQueue<Future<List<R>>> pending = new ArrayBlockingQueue<>(capacity);
+		final ExecutorService reader = Executors.newSingleThreadExecutor();
+		final ExecutorService workers = Executors.newFixedThreadPool(threads);
+		final Batcher batcher = new Batcher(pending, workers, transform);
+		try {
+			final Future<Void> reading = reader.submit(() -> {
+				try {
+					source.read(batcher);
+					batcher.submit();
+				} finally {
+					if (!batcher.aborted) {
+						pending.put(batcher.end);
+					}
+				}
+				return null;
+			});
+
+			int count = 0;
+			Future<List<R>> future;
+			while ((future = pending.take()) != batcher.end) {
+				final List<R> items;
+				try {
+					items = future.get();
+				} catch (final ExecutionException e) {
+					throw new PipelineException(EStage.TRANSFORM, e.getCause());
+				}
+				for (final R item : items) {
+					try {
+						sink.accept(item);
+					} catch (final Exception e) {
+						throw new PipelineException(EStage.WRITE, e);
+					}
+				}
+				count += items.size();
+			}
+
+			try {
+				reading.get();
+			} catch (final ExecutionException e) {
+				throw new PipelineException(EStage.READ, e.getCause());
+			}
+			return count;
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while running pipeline.", e);
+		} finally {
+			batcher.aborted = true;
+			for (final Future<List<R>> future : pending) {
+				future.cancel(true);
+			}
+			pending.clear();
+			reader.shutdownNow();
+			workers.shutdownNow();
+		}
+	}
+
+	// Collects read items into batches and submits each full batch.
+	private final class Batcher implements Consumer<T> {
+
+		private final BlockingQueue<Future<List<R>>> pending;
+		private final ExecutorService workers;
+		private final Function<List<T>, List<R>> transform;
+		// Marks the end of the batches for the writer.
+		private final Future<List<R>> end = CompletableFuture.completedFuture(null);
+		private volatile boolean aborted;
+		private List<T> batch = new ArrayList<>(batchSize);
+
+		private Batcher(final BlockingQueue<Future<List<R>>> pending, final ExecutorService workers, final Function<List<T>, List<R>> transform) {
+			this.pending = pending;
+			this.workers = workers;
+			this.transform = transform;
+		}
+
+		@Override
+		public void accept(final T item) {
+			if (aborted) {
+				throw new CancellationException("Pipeline was stopped.");
+			}
+			batch.add(item);
+			if (batch.size() == batchSize) {
+				submit();
+			}
+		}
+
+		private void submit() {
+			if (batch.isEmpty()) {
+				return;
+			}
+			final List<T> items = batch;
+			batch = new ArrayList<>(batchSize);
+			try {
+				pending.put(workers.submit(() -> transform.apply(items)));
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new CancellationException("Pipeline was stopped.");
+			}
+		}
+
+	}
+
+}
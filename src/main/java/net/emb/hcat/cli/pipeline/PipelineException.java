@@ -0,0 +1,49 @@
+package net.emb.hcat.cli.pipeline;
+
+/**
+ * Thrown, if a stage of a {@link Pipeline} fails. Remembers which stage
+ * failed, so the error can be reported accordingly.
+ *
+ * @author Heiko Mattes
+ */
+public class PipelineException extends Exception {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The stages of a {@link Pipeline}.
+	 */
+	public enum EStage {
+		/** Reading the items. */
+		READ,
+		/** Transforming the items. */
+		TRANSFORM,
+		/** Writing the transformed items. */
+		WRITE
+	}
+
+	private final EStage stage;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param stage
+	 *            The failed stage.
+	 * @param cause
+	 *            The error the stage failed with.
+	 */
+	public PipelineException(final EStage stage, final Throwable cause) {
+		super(cause == null ? null : cause.getMessage(), cause);
+		this.stage = stage;
+	}
+
+	/**
+	 * Gets the failed stage.
+	 *
+	 * @return The stage.
+	 */
+	public EStage getStage() {
+		return stage;
+	}
+
+}
@@ -0,0 +1,139 @@
+package net.emb.hcat.cli.pipeline;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+import net.emb.hcat.cli.io.sequence.BaseSequenceWriter;
+import net.emb.hcat.cli.io.sequence.BinaryAlignmentWriter;
+import net.emb.hcat.cli.io.sequence.ESequenceType;
+import net.emb.hcat.cli.io.sequence.ISequenceWriter;
+import net.emb.hcat.cli.sequence.Sequence;
+
+/**
+ * Sink writing all sequences into a file of the given format, optionally
+ * transforming each sequence first, e.g. translating it. Used for
+ * conversions and codon translations.
+ * <br>
+ * <br>
+ * Sequences are written as they are received, so they are not kept in memory.
+ * Only formats needing the number of sequences up front, like Phylip, collect
+ * all sequences and write them when finished. The sequences are written to a
+ * temporary file next to the file, which replaces the file once finished.
+ *
+ * @author Heiko Mattes
+ */
+public class SequenceWriterSink extends BaseFileSink {
+
+	private final ESequenceType type;
+	private final UnaryOperator<Sequence> transformation;
+
+	// Opened with the first sequence.
+	private File temp;
+	private ISequenceWriter writer;
+	private BaseSequenceWriter streamWriter;
+	private BinaryAlignmentWriter binaryWriter;
+	// Sequences of formats needing all of them up front.
+	private List<Sequence> sequences;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param file
+	 *            The file to write to. Must not be <code>null</code>.
+	 * @param charset
+	 *            The encoding of the file. Must not be <code>null</code>.
+	 * @param type
+	 *            The format of the file. Must not be <code>null</code>.
+	 * @param transformation
+	 *            Transforms each sequence before it is written. May be
+	 *            <code>null</code>, to write the sequences as they are.
+	 */
+	public SequenceWriterSink(final File file, final Charset charset, final ESequenceType type, final UnaryOperator<Sequence> transformation) {
+		super(file, charset);
+		if (type == null) {
+			throw new IllegalArgumentException("Type must not be null.");
+		}
+		this.type = type;
+		this.transformation = transformation;
+	}
+
+	private void open() throws IOException {
+		final File file = getFile().getAbsoluteFile();
+		temp = File.createTempFile(".hcat", "-" + file.getName(), file.getParentFile());
+		if (type == ESequenceType.BINARY) {
+			binaryWriter = new BinaryAlignmentWriter(temp);
+			binaryWriter.start();
+			writer = binaryWriter;
+			return;
+		}
+		writer = type.createWriter(openWriter(temp));
+		if (writer instanceof BaseSequenceWriter && ((BaseSequenceWriter) writer).isStreaming()) {
+			streamWriter = (BaseSequenceWriter) writer;
+			streamWriter.start();
+		} else {
+			sequences = new ArrayList<>();
+		}
+	}
+
+	@Override
+	public void accept(final Sequence sequence) throws IOException {
+		if (writer == null) {
+			open();
+		}
+		final Sequence transformed = transformation == null ? sequence : transformation.apply(sequence);
+		if (streamWriter != null) {
+			streamWriter.append(transformed);
+		} else if (binaryWriter != null) {
+			binaryWriter.append(transformed);
+		} else {
+			sequences.add(transformed);
+		}
+	}
+
+	@Override
+	public void finish() throws IOException {
+		if (writer == null) {
+			open();
+		}
+		try {
+			if (streamWriter != null) {
+				streamWriter.end();
+			} else if (binaryWriter != null) {
+				binaryWriter.end();
+			} else {
+				writer.write(sequences);
+			}
+			writer.close();
+			writer = null;
+			Files.move(temp.toPath(), getFile().toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			abort();
+		}
+	}
+
+	@Override
+	public void abort() {
+		if (writer != null) {
+			try {
+				writer.close();
+			} catch (final IOException e) {
+				// The temporary file is deleted anyway.
+			}
+			writer = null;
+		}
+		if (temp != null) {
+			temp.delete();
+			temp = null;
+		}
+		streamWriter = null;
+		binaryWriter = null;
+		sequences = null;
+	}
+
+}
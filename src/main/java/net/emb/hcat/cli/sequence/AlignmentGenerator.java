@@ -0,0 +1,368 @@
+package net.emb.hcat.cli.sequence;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Generates reproducible, synthetic alignments. A random master sequence is
+ * created, from which a number of haplotypes are derived by mutating,
+ * gapping and masking positions. Each generated sequence is a copy of one of
+ * these haplotypes, chosen according to a {@link EFrequencyDistribution}.
+ * <br>
+ * <br>
+ * Every sequence and haplotype is derived from its own random generator,
+ * seeded by the seed of this generator and its index. Thus, the same seed
+ * always produces the same alignment, no matter in which order or on how many
+ * threads sequences are generated.
+ *
+ * @author Heiko Mattes
+ */
+public class AlignmentGenerator {
+
+	private static final char[] BASES = { 'A', 'C', 'G', 'T' };
+	private static final char GAP = '-';
+	private static final char UNKNOWN = 'N';
+
+	// Number of characters generated in parallel at once, when iterating
+	// over a generated alignment.
+	private static final int PREFETCH_CHARS = 1 << 24;
+	private static final int MAX_PREFETCH_SEQUENCES = 4096;
+
+	private static final long MASTER_STREAM = 1;
+	private static final long HAPLOTYPE_STREAM = 2;
+	private static final long SEQUENCE_STREAM = 3;
+
+	// Finalizer of SplitMix64, spreading the bits of the given value.
+	private static long mix(final long value) {
+		long z = value;
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+	private long seed;
+	private int count = 100;
+	private int length = 1000;
+	private int haplotypes = 10;
+	private double mutationRate = 0.01;
+	private double gapFraction;
+	private double unknownFraction;
+	private EFrequencyDistribution distribution = EFrequencyDistribution.UNIFORM;
+
+	/**
+	 * Creates the alignment with the current configuration. Sequences are not
+	 * held in memory, but generated on access. When iterating, sequences are
+	 * generated in parallel blocks ahead of time. Thus, alignments can be much
+	 * bigger than the available memory, as long as they are consumed in a
+	 * streaming way, e.g. by an {@link net.emb.hcat.cli.io.sequence.ISequenceWriter}.
+	 * <br>
+	 * <br>
+	 * Changing the configuration afterwards does not affect the returned list.
+	 *
+	 * @return An unmodifiable list of all sequences, named "seq1" to "seqN".
+	 */
+	public List<Sequence> generate() {
+		return new GeneratedAlignment(this);
+	}
+
+	private char[] createMaster() {
+		final SplittableRandom random = random(MASTER_STREAM, 0);
+		final char[] master = new char[length];
+		for (int i = 0; i < length; i++) {
+			master[i] = BASES[random.nextInt(BASES.length)];
+		}
+		return master;
+	}
+
+	private double[] createCumulativeWeights() {
+		final double[] cumulative = new double[haplotypes];
+		double sum = 0;
+		for (int i = 0; i < haplotypes; i++) {
+			sum += distribution.weight(i);
+			cumulative[i] = sum;
+		}
+		for (int i = 0; i < haplotypes; i++) {
+			cumulative[i] /= sum;
+		}
+		return cumulative;
+	}
+
+	private SplittableRandom random(final long stream, final long index) {
+		return new SplittableRandom(mix(seed ^ mix(stream * 0x9e3779b97f4a7c15L + index)));
+	}
+
+	// Immutable snapshot of a generator's configuration.
+	private static final class GeneratedAlignment extends AbstractList<Sequence> {
+
+		private final AlignmentGenerator config;
+		private final char[] master;
+		private final double[] cumulativeWeights;
+		private final int blockSize;
+
+		private int blockStart = -1;
+		private Sequence[] block;
+
+		private GeneratedAlignment(final AlignmentGenerator generator) {
+			config = new AlignmentGenerator();
+			config.seed = generator.seed;
+			config.count = generator.count;
+			config.length = generator.length;
+			config.haplotypes = generator.haplotypes;
+			config.mutationRate = generator.mutationRate;
+			config.gapFraction = generator.gapFraction;
+			config.unknownFraction = generator.unknownFraction;
+			config.distribution = generator.distribution;
+
+			master = config.createMaster();
+			cumulativeWeights = config.createCumulativeWeights();
+			blockSize = Math.max(1, Math.min(MAX_PREFETCH_SEQUENCES, PREFETCH_CHARS / Math.max(1, config.length)));
+		}
+
+		@Override
+		public synchronized Sequence get(final int index) {
+			if (index < 0 || index >= config.count) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + config.count);
+			}
+			if (blockStart < 0 || index < blockStart || index >= blockStart + block.length) {
+				final int start = index;
+				final int end = (int) Math.min(config.count, (long) start + blockSize);
+				block = IntStream.range(start, end).parallel().mapToObj(this::createSequence).toArray(Sequence[]::new);
+				blockStart = start;
+			}
+			return block[index - blockStart];
+		}
+
+		@Override
+		public int size() {
+			return config.count;
+		}
+
+		private Sequence createSequence(final int index) {
+			final SplittableRandom random = config.random(SEQUENCE_STREAM, index);
+			int haplotype = Arrays.binarySearch(cumulativeWeights, random.nextDouble());
+			if (haplotype < 0) {
+				haplotype = -haplotype - 1;
+			}
+			haplotype = Math.min(haplotype, cumulativeWeights.length - 1);
+			return new Sequence(createHaplotype(haplotype), "seq" + (index + 1));
+		}
+
+		// Haplotypes are not stored, but recreated from their own random
+		// generator for each sequence, keeping memory usage independent of the
+		// number of haplotypes.
+		private String createHaplotype(final int haplotype) {
+			final SplittableRandom random = config.random(HAPLOTYPE_STREAM, haplotype);
+			final char[] value = new char[master.length];
+			for (int i = 0; i < value.length; i++) {
+				final double r = random.nextDouble();
+				if (r < config.gapFraction) {
+					value[i] = GAP;
+				} else if (r < config.gapFraction + config.unknownFraction) {
+					value[i] = UNKNOWN;
+				} else if (random.nextDouble() < config.mutationRate) {
+					// Always choose a base that differs from the master.
+					value[i] = BASES[(indexOf(master[i]) + 1 + random.nextInt(BASES.length - 1)) % BASES.length];
+				} else {
+					value[i] = master[i];
+				}
+			}
+			return new String(value);
+		}
+
+		private static int indexOf(final char base) {
+			for (int i = 0; i < BASES.length; i++) {
+				if (BASES[i] == base) {
+					return i;
+				}
+			}
+			return 0;
+		}
+
+	}
+
+	/**
+	 * Gets the seed.
+	 *
+	 * @return The seed.
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Sets the seed. The same seed and configuration always produce the same
+	 * alignment. Default is 0.
+	 *
+	 * @param seed
+	 *            The seed.
+	 */
+	public void setSeed(final long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Gets the number of sequences.
+	 *
+	 * @return The number of sequences.
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Sets the number of sequences to generate. Default is 100.
+	 *
+	 * @param count
+	 *            The number of sequences. Must be a non-negative number.
+	 */
+	public void setCount(final int count) {
+		if (count < 0) {
+			throw new IllegalArgumentException("Count must be a non-negative number.");
+		}
+		this.count = count;
+	}
+
+	/**
+	 * Gets the length of each sequence.
+	 *
+	 * @return The length.
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * Sets the length of each sequence. Default is 1000.
+	 *
+	 * @param length
+	 *            The length. Must be a non-negative number.
+	 */
+	public void setLength(final int length) {
+		if (length < 0) {
+			throw new IllegalArgumentException("Length must be a non-negative number.");
+		}
+		this.length = length;
+	}
+
+	/**
+	 * Gets the number of haplotypes.
+	 *
+	 * @return The number of haplotypes.
+	 */
+	public int getHaplotypes() {
+		return haplotypes;
+	}
+
+	/**
+	 * Sets the number of haplotypes, sequences are drawn from. Depending on
+	 * the number of sequences and the distribution, not every haplotype may
+	 * actually occur. Default is 10.
+	 *
+	 * @param haplotypes
+	 *            The number of haplotypes. Must be a positive number.
+	 */
+	public void setHaplotypes(final int haplotypes) {
+		if (haplotypes < 1) {
+			throw new IllegalArgumentException("Number of haplotypes must be a positive number.");
+		}
+		this.haplotypes = haplotypes;
+	}
+
+	/**
+	 * Gets the mutation rate.
+	 *
+	 * @return The mutation rate.
+	 */
+	public double getMutationRate() {
+		return mutationRate;
+	}
+
+	/**
+	 * Sets the probability of each position of a haplotype to differ from the
+	 * master sequence. Default is 0.01.
+	 *
+	 * @param mutationRate
+	 *            The mutation rate between 0 and 1.
+	 */
+	public void setMutationRate(final double mutationRate) {
+		if (mutationRate < 0 || mutationRate > 1) {
+			throw new IllegalArgumentException("Mutation rate must be between 0 and 1.");
+		}
+		this.mutationRate = mutationRate;
+	}
+
+	/**
+	 * Gets the fraction of gaps.
+	 *
+	 * @return The fraction of gaps.
+	 */
+	public double getGapFraction() {
+		return gapFraction;
+	}
+
+	/**
+	 * Sets the fraction of positions of a haplotype that are gaps ('-').
+	 * Default is 0.
+	 *
+	 * @param gapFraction
+	 *            The fraction between 0 and 1. Together with the fraction of
+	 *            unknown bases, must not be bigger than 1.
+	 */
+	public void setGapFraction(final double gapFraction) {
+		if (gapFraction < 0 || gapFraction + unknownFraction > 1) {
+			throw new IllegalArgumentException("Gap fraction must be between 0 and 1, including the fraction of unknown bases.");
+		}
+		this.gapFraction = gapFraction;
+	}
+
+	/**
+	 * Gets the fraction of unknown bases.
+	 *
+	 * @return The fraction of unknown bases.
+	 */
+	public double getUnknownFraction() {
+		return unknownFraction;
+	}
+
+	/**
+	 * Sets the fraction of positions of a haplotype that are unknown bases
+	 * ('N'). Default is 0.
+	 *
+	 * @param unknownFraction
+	 *            The fraction between 0 and 1. Together with the fraction of
+	 *            gaps, must not be bigger than 1.
+	 */
+	public void setUnknownFraction(final double unknownFraction) {
+		if (unknownFraction < 0 || gapFraction + unknownFraction > 1) {
+			throw new IllegalArgumentException("Fraction of unknown bases must be between 0 and 1, including the gap fraction.");
+		}
+		this.unknownFraction = unknownFraction;
+	}
+
+	/**
+	 * Gets the frequency distribution of the haplotypes.
+	 *
+	 * @return The distribution.
+	 */
+	public EFrequencyDistribution getDistribution() {
+		return distribution;
+	}
+
+	/**
+	 * Sets how frequently each haplotype occurs. Default is
+	 * {@link EFrequencyDistribution#UNIFORM}.
+	 *
+	 * @param distribution
+	 *            The distribution. Must not be <code>null</code>.
+	 */
+	public void setDistribution(final EFrequencyDistribution distribution) {
+		if (distribution == null) {
+			throw new IllegalArgumentException("Distribution must not be null.");
+		}
+		this.distribution = distribution;
+	}
+
+}
@@ -0,0 +1,39 @@
+package net.emb.hcat.cli.sequence;
+
+/**
+ * Enum containing all distributions, describing how often each haplotype
+ * occurs in a generated alignment.
+ *
+ * @author Heiko Mattes
+ * @see AlignmentGenerator
+ */
+public enum EFrequencyDistribution {
+
+	/** All haplotypes are equally frequent. */
+	UNIFORM,
+	/** The frequency of the k-th haplotype is proportional to 1/k. */
+	ZIPF,
+	/** Each haplotype is half as frequent as the previous one. */
+	GEOMETRIC;
+
+	/**
+	 * Gets the relative weight of the haplotype with the given index.
+	 *
+	 * @param index
+	 *            The index of the haplotype, starting at 0.
+	 * @return The weight. Only relative to the weights of other haplotypes.
+	 */
+	public double weight(final int index) {
+		switch (this) {
+		case UNIFORM:
+			return 1;
+		case ZIPF:
+			return 1d / (index + 1);
+		case GEOMETRIC:
+			return Math.pow(0.5, index);
+		default:
+			throw new IllegalStateException("Enum not fully implemented. Missing case: " + this);
+		}
+	}
+
+}
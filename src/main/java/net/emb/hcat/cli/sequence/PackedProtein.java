@@ -0,0 +1,116 @@
+package net.emb.hcat.cli.sequence;
+
+import java.util.Arrays;
+
+/**
+ * An amino acid sequence, packed into 5 bits per amino acid. Twelve amino
+ * acids share a single long, so two sequences can be compared twelve positions
+ * at a time.
+ *
+ * @author Heiko Mattes
+ */
+public final class PackedProtein {
+
+	/**
+	 * All characters that can be packed. Covers all amino acid letters, end
+	 * codons, gaps and invalid codons.
+	 */
+	public static final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ*-?.";
+
+	private static final int BITS = 5;
+	private static final int PER_WORD = 12;
+	// Lowest bit of each 5 bit group.
+	private static final long LOW_BITS = 0x0084210842108421L;
+
+	// Code 0 is reserved for padding, so characters start at 1.
+	private static final byte[] CODES = new byte[128];
+
+	static {
+		Arrays.fill(CODES, (byte) -1);
+		for (int i = 0; i < ALPHABET.length(); i++) {
+			CODES[ALPHABET.charAt(i)] = (byte) (i + 1);
+		}
+	}
+
+	/**
+	 * Checks whether all characters of the given sequence can be packed.
+	 *
+	 * @param sequence
+	 *            The sequence to check.
+	 * @return <code>true</code>, if every character is part of the
+	 *         {@link #ALPHABET}, <code>false</code> otherwise.
+	 */
+	public static boolean isPackable(final Sequence sequence) {
+		final String value = sequence.getValue();
+		for (int i = 0; i < value.length(); i++) {
+			final char c = value.charAt(i);
+			if (c >= CODES.length || CODES[c] < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private final long[] words;
+	private final int length;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param sequence
+	 *            The amino acid sequence to pack. Must not be
+	 *            <code>null</code>.
+	 * @throws IllegalArgumentException
+	 *             If the sequence contains characters that are not part of the
+	 *             {@link #ALPHABET}.
+	 * @see #isPackable(Sequence)
+	 */
+	public PackedProtein(final Sequence sequence) {
+		if (sequence == null) {
+			throw new IllegalArgumentException("Sequence must not be null.");
+		}
+		final String value = sequence.getValue();
+		length = value.length();
+		words = new long[(length + PER_WORD - 1) / PER_WORD];
+		for (int i = 0; i < length; i++) {
+			final char c = value.charAt(i);
+			if (c >= CODES.length || CODES[c] < 0) {
+				throw new IllegalArgumentException("Character can't be packed: " + c);
+			}
+			words[i / PER_WORD] |= (long) CODES[c] << i % PER_WORD * BITS;
+		}
+	}
+
+	/**
+	 * Gets the number of positions at which this and the other sequence
+	 * differ. Positions beyond the end of the shorter sequence count as
+	 * different, just like {@link Difference#getDistance()}.
+	 *
+	 * @param other
+	 *            The other packed sequence. Must not be <code>null</code>.
+	 * @return The number of differing positions.
+	 */
+	public int distance(final PackedProtein other) {
+		final int shared = Math.min(words.length, other.words.length);
+		int distance = 0;
+		for (int i = 0; i < shared; i++) {
+			// Fold each differing 5 bit group down to its lowest bit.
+			long x = words[i] ^ other.words[i];
+			x |= x >>> 1 | x >>> 2 | x >>> 3 | x >>> 4;
+			distance += Long.bitCount(x & LOW_BITS);
+		}
+		// Padding of the shorter sequence is zero and differs from every
+		// character, so only positions in missing words need to be added.
+		return distance + Math.max(0, Math.max(length, other.length) - shared * PER_WORD);
+	}
+
+	/**
+	 * Gets the number of amino acids of this sequence.
+	 *
+	 * @return The length.
+	 */
+	public int getLength() {
+		return length;
+	}
+
+}
@@ -0,0 +1,60 @@
+package net.emb.hcat.cli.server;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Output stream writing everything as frames of one channel into a shared
+ * stream. Standard out and standard error of a run share the same connection,
+ * so all access to it is synchronized on the shared stream. Closing does not
+ * close the shared stream.
+ *
+ * @author Heiko Mattes
+ */
+class ChannelOutputStream extends OutputStream {
+
+	private final DataOutputStream data;
+	private final byte channel;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param data
+	 *            The shared stream to write frames to.
+	 * @param channel
+	 *            The channel of all written frames.
+	 */
+	ChannelOutputStream(final DataOutputStream data, final byte channel) {
+		this.data = data;
+		this.channel = channel;
+	}
+
+	@Override
+	public void write(final int b) throws IOException {
+		write(new byte[] { (byte) b }, 0, 1);
+	}
+
+	@Override
+	public void write(final byte[] b, final int off, final int len) throws IOException {
+		if (len == 0) {
+			return;
+		}
+		synchronized (data) {
+			Protocol.writeFrame(data, channel, b, off, len);
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		synchronized (data) {
+			data.flush();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		flush();
+	}
+
+}
@@ -0,0 +1,113 @@
+package net.emb.hcat.cli.server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+
+/**
+ * Forwards a single run to a {@link Server} running on the same machine and
+ * streams back its standard out and standard error.
+ *
+ * @author Heiko Mattes
+ */
+public class Client {
+
+	private final int port;
+	private final String token;
+
+	/**
+	 * Constructor. The token of the server is read from its file in the
+	 * default token directory, when a run is performed.
+	 *
+	 * @param port
+	 *            The port the server listens on.
+	 * @see Protocol#getTokenDirectory()
+	 */
+	public Client(final int port) {
+		this(port, null);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param port
+	 *            The port the server listens on.
+	 * @param token
+	 *            The token of the server. If <code>null</code>, it is read
+	 *            from its file in the default token directory.
+	 */
+	public Client(final int port, final String token) {
+		this.port = port;
+		this.token = token;
+	}
+
+	/**
+	 * Performs a run on the server.
+	 *
+	 * @param workDir
+	 *            The directory relative paths within the arguments are
+	 *            resolved against. Must not be <code>null</code>.
+	 * @param args
+	 *            The arguments of the run. Must not be <code>null</code>.
+	 * @param out
+	 *            Stream to copy standard out of the run to. Will be flushed,
+	 *            but not closed.
+	 * @param err
+	 *            Stream to copy standard error of the run to. Will be flushed,
+	 *            but not closed.
+	 * @return The exit status of the run.
+	 * @throws IOException
+	 *             If the token of the server could not be read, the server
+	 *             could not be reached, or the connection was closed before
+	 *             the run ended.
+	 */
+	public int execute(final String workDir, final String[] args, final OutputStream out, final OutputStream err) throws IOException {
+		if (workDir == null || args == null) {
+			throw new IllegalArgumentException("Working directory and arguments must not be null.");
+		}
+
+		final String usedToken = token != null ? token : Protocol.readToken(Protocol.getTokenFile(Protocol.getTokenDirectory(), port));
+		try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+			final DataOutputStream request = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+			Protocol.writeRequest(request, usedToken, workDir, args);
+
+			final DataInputStream response = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			byte[] buffer = new byte[8192];
+			while (true) {
+				final byte channel = response.readByte();
+				if (channel == Protocol.EXIT) {
+					final int status = response.readInt();
+					out.flush();
+					err.flush();
+					return status;
+				}
+
+				final int length = response.readInt();
+				if (length < 0) {
+					throw new IOException("Invalid frame length: " + length);
+				}
+				if (length > buffer.length) {
+					buffer = new byte[length];
+				}
+				response.readFully(buffer, 0, length);
+				switch (channel) {
+				case Protocol.STDOUT:
+					out.write(buffer, 0, length);
+					break;
+				case Protocol.STDERR:
+					err.write(buffer, 0, length);
+					err.flush();
+					break;
+				default:
+					throw new IOException("Unknown channel: " + channel);
+				}
+			}
+		}
+	}
+
+}
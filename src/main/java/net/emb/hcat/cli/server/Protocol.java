@@ -0,0 +1,242 @@
+package net.emb.hcat.cli.server;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
+/**
+ * Wire format between {@link Client} and {@link Server}. The client sends the
+ * token of the server, its working directory and the arguments of a single
+ * run. The token is written by the server to a file only its owner can read,
+ * so only the owner can have runs performed. The server answers
+ * with a stream of frames, each consisting of a channel byte, followed by the
+ * length and content of a chunk of standard out or standard error. The last
+ * frame carries the exit status of the run.
+ *
+ * @author Heiko Mattes
+ */
+public final class Protocol {
+
+	/** Default port of the server. */
+	public static final int DEFAULT_PORT = 47474;
+
+	/** Channel of a frame containing standard out. */
+	public static final byte STDOUT = 1;
+	/** Channel of a frame containing standard error. */
+	public static final byte STDERR = 2;
+	/** Channel of the last frame, containing the exit status. */
+	public static final byte EXIT = 3;
+
+	private static final int MAGIC = 0x48434154; // HCAT
+	private static final int MAX_ARGS = 4096;
+	private static final int TOKEN_BYTES = 32;
+
+	private Protocol() {
+		// Utility class.
+	}
+
+	/**
+	 * Gets the default directory of token files, which is <code>.hcat</code>
+	 * within the home directory of the user.
+	 *
+	 * @return The directory.
+	 */
+	public static File getTokenDirectory() {
+		return new File(System.getProperty("user.home"), ".hcat");
+	}
+
+	/**
+	 * Gets the token file of the server listening on the given port.
+	 *
+	 * @param directory
+	 *            The directory of token files.
+	 * @param port
+	 *            The port the server listens on.
+	 * @return The token file.
+	 */
+	public static File getTokenFile(final File directory, final int port) {
+		return new File(directory, "server-" + port + ".token");
+	}
+
+	/**
+	 * Creates a new random token.
+	 *
+	 * @return The token, as hexadecimal digits.
+	 */
+	public static String createToken() {
+		final byte[] bytes = new byte[TOKEN_BYTES];
+		new SecureRandom().nextBytes(bytes);
+		final StringBuilder builder = new StringBuilder(2 * bytes.length);
+		for (final byte b : bytes) {
+			builder.append(Character.forDigit(b >> 4 & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Writes a token to a file, which only the owner can read and write.
+	 * Replaces an existing file.
+	 *
+	 * @param file
+	 *            The token file. Its directory is created, if needed.
+	 * @param token
+	 *            The token.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	public static void writeToken(final File file, final String token) throws IOException {
+		final Path path = file.toPath();
+		final Path directory = path.toAbsolutePath().getParent();
+		final boolean posix = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+		if (!Files.isDirectory(directory)) {
+			if (posix) {
+				Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+			} else {
+				Files.createDirectories(directory);
+			}
+		}
+		// Created with restricted permissions, before the token is written.
+		Files.deleteIfExists(path);
+		if (posix) {
+			Files.createFile(path, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+		} else {
+			Files.createFile(path);
+			file.setReadable(false, false);
+			file.setWritable(false, false);
+			file.setReadable(true, true);
+			file.setWritable(true, true);
+		}
+		Files.write(path, token.getBytes(StandardCharsets.US_ASCII));
+	}
+
+	/**
+	 * Reads a token from a file.
+	 *
+	 * @param file
+	 *            The token file.
+	 * @return The token.
+	 * @throws IOException
+	 *             If the file can't be read.
+	 */
+	public static String readToken(final File file) throws IOException {
+		return new String(Files.readAllBytes(file.toPath()), StandardCharsets.US_ASCII).trim();
+	}
+
+	/**
+	 * Writes a request.
+	 *
+	 * @param data
+	 *            The stream to write to. Will be flushed.
+	 * @param token
+	 *            The token of the server.
+	 * @param workDir
+	 *            The working directory of the client.
+	 * @param args
+	 *            The arguments of the run.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	public static void writeRequest(final DataOutputStream data, final String token, final String workDir, final String[] args) throws IOException {
+		data.writeInt(MAGIC);
+		data.writeUTF(token);
+		data.writeUTF(workDir);
+		data.writeInt(args.length);
+		for (final String arg : args) {
+			data.writeUTF(arg);
+		}
+		data.flush();
+	}
+
+	/**
+	 * Reads the working directory of a request, after checking its token.
+	 * Must be followed by {@link #readArguments(DataInputStream)}.
+	 *
+	 * @param data
+	 *            The stream to read from.
+	 * @param token
+	 *            The token of the server.
+	 * @return The working directory of the client.
+	 * @throws IOException
+	 *             If an I/O error occurs, the stream does not contain a
+	 *             request, or the request has the wrong token.
+	 */
+	public static String readWorkDir(final DataInputStream data, final String token) throws IOException {
+		if (data.readInt() != MAGIC) {
+			throw new IOException("Not a request.");
+		}
+		final byte[] sent = data.readUTF().getBytes(StandardCharsets.UTF_8);
+		if (!MessageDigest.isEqual(sent, token.getBytes(StandardCharsets.UTF_8))) {
+			throw new IOException("Request has an invalid token.");
+		}
+		return data.readUTF();
+	}
+
+	/**
+	 * Reads the arguments of a request.
+	 *
+	 * @param data
+	 *            The stream to read from.
+	 * @return The arguments of the run.
+	 * @throws IOException
+	 *             If an I/O error occurs, or the stream does not contain valid
+	 *             arguments.
+	 */
+	public static String[] readArguments(final DataInputStream data) throws IOException {
+		final int count = data.readInt();
+		if (count < 0 || count > MAX_ARGS) {
+			throw new IOException("Invalid number of arguments: " + count);
+		}
+		final String[] args = new String[count];
+		for (int i = 0; i < count; i++) {
+			args[i] = data.readUTF();
+		}
+		return args;
+	}
+
+	/**
+	 * Writes a frame containing a chunk of standard out or standard error.
+	 *
+	 * @param data
+	 *            The stream to write to.
+	 * @param channel
+	 *            Either {@link #STDOUT} or {@link #STDERR}.
+	 * @param b
+	 *            The content.
+	 * @param off
+	 *            The offset of the chunk within the content.
+	 * @param len
+	 *            The length of the chunk.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	public static void writeFrame(final DataOutputStream data, final byte channel, final byte[] b, final int off, final int len) throws IOException {
+		data.writeByte(channel);
+		data.writeInt(len);
+		data.write(b, off, len);
+	}
+
+	/**
+	 * Writes the last frame, containing the exit status.
+	 *
+	 * @param data
+	 *            The stream to write to. Will be flushed.
+	 * @param status
+	 *            The exit status of the run.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	public static void writeExit(final DataOutputStream data, final int status) throws IOException {
+		data.writeByte(EXIT);
+		data.writeInt(status);
+		data.flush();
+	}
+
+}
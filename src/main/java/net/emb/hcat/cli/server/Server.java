@@ -0,0 +1,219 @@
+package net.emb.hcat.cli.server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.emb.hcat.cli.IRunner;
+
+/**
+ * Keeps a virtual machine running and performs runs on behalf of
+ * {@link Client}s, so class loading and compilation of hot code only happen
+ * once, instead of for each run. Listens on the loopback interface only, and
+ * only performs requests carrying its token. The token is written to a file
+ * only the owner can read, see {@link Protocol#writeToken(File, String)}, and
+ * deleted when the server is closed.
+ * Requests are performed concurrently by a fixed number of threads. If all
+ * threads are busy and the queue of waiting requests is full, further
+ * requests are rejected.
+ *
+ * @author Heiko Mattes
+ */
+public class Server implements Closeable {
+
+	private static final Logger log = LoggerFactory.getLogger(Server.class);
+
+	/** Number of waiting requests per thread, before requests are rejected. */
+	public static final int QUEUE_PER_THREAD = 16;
+
+	private final IRunner runner;
+	private final ServerSocket socket;
+	private final ThreadPoolExecutor executor;
+	private final String token;
+	private final File tokenFile;
+
+	/**
+	 * Constructor. Binds the server and writes its token to the default token
+	 * directory, but does not accept requests yet.
+	 *
+	 * @param runner
+	 *            Performs the requested runs. Must not be <code>null</code>.
+	 * @param port
+	 *            The port to listen on. 0 to use any free port.
+	 * @param threads
+	 *            Number of requests performed concurrently. Must be a positive
+	 *            number.
+	 * @throws IOException
+	 *             If the port could not be bound, or the token could not be
+	 *             written.
+	 * @see Protocol#getTokenDirectory()
+	 */
+	public Server(final IRunner runner, final int port, final int threads) throws IOException {
+		this(runner, port, threads, Protocol.getTokenDirectory());
+	}
+
+	/**
+	 * Constructor. Binds the server and writes its token, but does not accept
+	 * requests yet.
+	 *
+	 * @param runner
+	 *            Performs the requested runs. Must not be <code>null</code>.
+	 * @param port
+	 *            The port to listen on. 0 to use any free port.
+	 * @param threads
+	 *            Number of requests performed concurrently. Must be a positive
+	 *            number.
+	 * @param tokenDirectory
+	 *            The directory to write the token file to. Must not be
+	 *            <code>null</code>.
+	 * @throws IOException
+	 *             If the port could not be bound, or the token could not be
+	 *             written.
+	 */
+	public Server(final IRunner runner, final int port, final int threads, final File tokenDirectory) throws IOException {
+		if (runner == null) {
+			throw new IllegalArgumentException("Runner must not be null.");
+		}
+		if (threads < 1) {
+			throw new IllegalArgumentException("Number of threads must be a positive number.");
+		}
+		if (tokenDirectory == null) {
+			throw new IllegalArgumentException("Token directory must not be null.");
+		}
+		this.runner = runner;
+		socket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+		token = Protocol.createToken();
+		tokenFile = Protocol.getTokenFile(tokenDirectory, socket.getLocalPort());
+		try {
+			Protocol.writeToken(tokenFile, token);
+		} catch (final IOException e) {
+			socket.close();
+			throw e;
+		}
+		executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(QUEUE_PER_THREAD * threads));
+	}
+
+	/**
+	 * Gets the port the server listens on.
+	 *
+	 * @return The port.
+	 */
+	public int getPort() {
+		return socket.getLocalPort();
+	}
+
+	/**
+	 * Gets the token requests must carry.
+	 *
+	 * @return The token.
+	 */
+	public String getToken() {
+		return token;
+	}
+
+	/**
+	 * Gets the file the token has been written to.
+	 *
+	 * @return The token file.
+	 */
+	public File getTokenFile() {
+		return tokenFile;
+	}
+
+	/**
+	 * Accepts requests, until the server is closed.
+	 *
+	 * @throws IOException
+	 *             If accepting requests failed.
+	 */
+	public void serve() throws IOException {
+		log.info("Listening on port {}.", getPort());
+		while (!socket.isClosed()) {
+			final Socket client;
+			try {
+				client = socket.accept();
+			} catch (final SocketException e) {
+				if (socket.isClosed()) {
+					break;
+				}
+				throw e;
+			}
+
+			try {
+				executor.execute(() -> handle(client));
+			} catch (final RejectedExecutionException e) {
+				log.warn("Rejecting request, server is busy.");
+				reject(client);
+			}
+		}
+	}
+
+	private void handle(final Socket client) {
+		try (Socket s = client) {
+			final DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+			final DataOutputStream data = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+			final File workDir = new File(Protocol.readWorkDir(in, token));
+			final String[] args = Protocol.readArguments(in);
+			log.info("Performing request: {}", String.join(" ", args));
+
+			final PrintStream out = new PrintStream(new BufferedOutputStream(new ChannelOutputStream(data, Protocol.STDOUT)), false, StandardCharsets.UTF_8.name());
+			final PrintStream err = new PrintStream(new ChannelOutputStream(data, Protocol.STDERR), true, StandardCharsets.UTF_8.name());
+			int status;
+			try {
+				status = runner.run(out, err, workDir, args);
+			} catch (final RuntimeException e) {
+				log.error(e.getMessage(), e);
+				e.printStackTrace(err);
+				status = 1;
+			}
+			out.flush();
+			err.flush();
+			synchronized (data) {
+				Protocol.writeExit(data, status);
+			}
+		} catch (final IOException e) {
+			log.warn("Could not answer request. Error message: {}", e.getMessage());
+		}
+	}
+
+	private void reject(final Socket client) {
+		try (Socket s = client) {
+			final DataOutputStream data = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+			final byte[] msg = "Server is busy, try again later.\n".getBytes(StandardCharsets.UTF_8);
+			Protocol.writeFrame(data, Protocol.STDERR, msg, 0, msg.length);
+			Protocol.writeExit(data, 1);
+		} catch (final IOException e) {
+			log.warn("Could not reject request. Error message: {}", e.getMessage());
+		}
+	}
+
+	/**
+	 * Stops accepting requests and deletes the token file. Requests already
+	 * accepted are still performed.
+	 */
+	@Override
+	public void close() throws IOException {
+		executor.shutdown();
+		socket.close();
+		Files.deleteIfExists(tokenFile.toPath());
+	}
+
+}
@@ -0,0 +1,208 @@
+package net.emb.hcat.cli.stats;
+
+import java.util.Collection;
+
+import net.emb.hcat.cli.sequence.Sequence;
+
+/**
+ * A single measured phase of a run. Measures wall time, as well as CPU time,
+ * allocated bytes and peak heap usage of the whole process during the phase.
+ * These include work of threads that end during the phase, but also work of
+ * other runs at the same time, like concurrent requests of the server.
+ *
+ * @author Heiko Mattes
+ * @see Statistics#start(String)
+ */
+public class Phase implements AutoCloseable {
+
+	/** Shared phase, that does not measure anything. */
+	static final Phase DISABLED = new Phase(null, false);
+
+	private final String name;
+	private final boolean enabled;
+
+	private final long startWall;
+	private final long startCpu;
+	private final long startAllocated;
+
+	private long wallNanos = -1;
+	private long cpuNanos = -1;
+	private long allocatedBytes = -1;
+	private long peakHeapBytes = -1;
+	private long sequences;
+	private long bases;
+
+	/**
+	 * Constructor. Starts measuring immediately.
+	 *
+	 * @param name
+	 *            The name of the phase.
+	 */
+	Phase(final String name) {
+		this(name, true);
+	}
+
+	private Phase(final String name, final boolean enabled) {
+		this.name = name;
+		this.enabled = enabled;
+		if (enabled) {
+			ProcessUsage.start();
+			startCpu = ProcessUsage.cpuTime();
+			startAllocated = ProcessUsage.allocatedBytes();
+			startWall = System.nanoTime();
+		} else {
+			startCpu = 0;
+			startAllocated = 0;
+			startWall = 0;
+		}
+	}
+
+	/**
+	 * Ends this phase. Closing a phase more than once has no effect.
+	 */
+	@Override
+	public void close() {
+		if (!enabled || wallNanos >= 0) {
+			return;
+		}
+		wallNanos = System.nanoTime() - startWall;
+		final long cpu = ProcessUsage.cpuTime();
+		cpuNanos = cpu < 0 || startCpu < 0 ? -1 : Math.max(0, cpu - startCpu);
+		final long allocated = ProcessUsage.allocatedBytes();
+		allocatedBytes = allocated < 0 || startAllocated < 0 ? -1 : Math.max(0, allocated - startAllocated);
+		peakHeapBytes = ProcessUsage.peakHeap();
+		ProcessUsage.end();
+	}
+
+	/**
+	 * Adds to the number of sequences processed in this phase.
+	 *
+	 * @param count
+	 *            The number of sequences.
+	 */
+	public void addSequences(final long count) {
+		if (enabled) {
+			sequences += count;
+		}
+	}
+
+	/**
+	 * Adds to the number of bases processed in this phase.
+	 *
+	 * @param count
+	 *            The number of bases.
+	 */
+	public void addBases(final long count) {
+		if (enabled) {
+			bases += count;
+		}
+	}
+
+	/**
+	 * Adds all given sequences and their bases to the processed sequences.
+	 *
+	 * @param processed
+	 *            The sequences processed in this phase.
+	 */
+	public void addSequences(final Collection<Sequence> processed) {
+		if (!enabled || processed == null) {
+			return;
+		}
+		sequences += processed.size();
+		for (final Sequence sequence : processed) {
+			bases += sequence.getLength();
+		}
+	}
+
+	/**
+	 * Gets the name of this phase.
+	 *
+	 * @return The name.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Gets the elapsed wall clock time.
+	 *
+	 * @return The wall time in nanoseconds, or -1 if the phase is not closed
+	 *         yet.
+	 */
+	public long getWallNanos() {
+		return wallNanos;
+	}
+
+	/**
+	 * Gets the CPU time used by the whole process.
+	 *
+	 * @return The CPU time in nanoseconds, or -1 if not supported or the phase
+	 *         is not closed yet.
+	 */
+	public long getCpuNanos() {
+		return cpuNanos;
+	}
+
+	/**
+	 * Gets the bytes allocated on the heap by the whole process. This is an
+	 * estimate based on the bytes freed by garbage collections.
+	 *
+	 * @return The allocated bytes, or -1 if not supported or the phase is not
+	 *         closed yet.
+	 */
+	public long getAllocatedBytes() {
+		return allocatedBytes;
+	}
+
+	/**
+	 * Gets the peak heap usage during this phase. If other phases were
+	 * measured at the same time, the peak may be from before this phase.
+	 *
+	 * @return The peak heap usage in bytes, or -1 if the phase is not closed
+	 *         yet.
+	 */
+	public long getPeakHeapBytes() {
+		return peakHeapBytes;
+	}
+
+	/**
+	 * Gets the number of sequences processed.
+	 *
+	 * @return The number of sequences.
+	 */
+	public long getSequences() {
+		return sequences;
+	}
+
+	/**
+	 * Gets the number of bases processed.
+	 *
+	 * @return The number of bases.
+	 */
+	public long getBases() {
+		return bases;
+	}
+
+	/**
+	 * Gets the throughput of sequences.
+	 *
+	 * @return Sequences per second, or 0 if the phase is not closed yet.
+	 */
+	public double getSequencesPerSecond() {
+		return perSecond(sequences);
+	}
+
+	/**
+	 * Gets the throughput of bases.
+	 *
+	 * @return Bases per second, or 0 if the phase is not closed yet.
+	 */
+	public double getBasesPerSecond() {
+		return perSecond(bases);
+	}
+
+	private double perSecond(final long count) {
+		return wallNanos <= 0 ? 0 : count * 1e9 / wallNanos;
+	}
+
+}
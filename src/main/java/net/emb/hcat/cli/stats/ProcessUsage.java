@@ -0,0 +1,144 @@
+package net.emb.hcat.cli.stats;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+/**
+ * Process-wide usage of CPU and heap, as measured by {@link Phase}. Threads
+ * ending during a phase, like those of thread pools, are included, but so is
+ * the work of concurrent runs of the same process.
+ *
+ * @author Heiko Mattes
+ */
+final class ProcessUsage {
+
+	private static final OperatingSystemMXBean SYSTEM = ManagementFactory.getOperatingSystemMXBean();
+
+	// Bytes freed by all garbage collections so far, as reported by the
+	// notifications of the garbage collectors.
+	private static final AtomicLong FREED = new AtomicLong();
+	private static final Set<String> HEAP_POOLS = new HashSet<>();
+	private static final boolean GC_NOTIFICATIONS;
+
+	// Number of phases currently measuring, of all runs.
+	private static final AtomicInteger ACTIVE = new AtomicInteger();
+
+	static {
+		for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				HEAP_POOLS.add(pool.getName());
+			}
+		}
+		boolean registered = false;
+		for (final GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+			if (collector instanceof NotificationEmitter) {
+				((NotificationEmitter) collector).addNotificationListener(ProcessUsage::collected, null, null);
+				registered = true;
+			}
+		}
+		GC_NOTIFICATIONS = registered;
+	}
+
+	private ProcessUsage() {
+		// Utility class.
+	}
+
+	private static void collected(final Notification notification, final Object handback) {
+		if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+			return;
+		}
+		final GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+		final long freed = heapUsed(info.getGcInfo().getMemoryUsageBeforeGc()) - heapUsed(info.getGcInfo().getMemoryUsageAfterGc());
+		if (freed > 0) {
+			FREED.addAndGet(freed);
+		}
+	}
+
+	private static long heapUsed(final Map<String, MemoryUsage> usage) {
+		long sum = 0;
+		for (final Map.Entry<String, MemoryUsage> entry : usage.entrySet()) {
+			if (HEAP_POOLS.contains(entry.getKey())) {
+				sum += entry.getValue().getUsed();
+			}
+		}
+		return sum;
+	}
+
+	/**
+	 * Gets the CPU time used by the process so far.
+	 *
+	 * @return The CPU time in nanoseconds, or -1 if not supported.
+	 */
+	static long cpuTime() {
+		if (!(SYSTEM instanceof com.sun.management.OperatingSystemMXBean)) {
+			return -1;
+		}
+		return ((com.sun.management.OperatingSystemMXBean) SYSTEM).getProcessCpuTime();
+	}
+
+	/**
+	 * Estimates the bytes allocated on the heap so far, as the bytes used now
+	 * plus the bytes freed by garbage collections. Collections are reported
+	 * asynchronously, so a collection just happening may be missing.
+	 *
+	 * @return The allocated bytes, or -1 if not supported.
+	 */
+	static long allocatedBytes() {
+		if (!GC_NOTIFICATIONS) {
+			return -1;
+		}
+		return FREED.get() + ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+
+	/**
+	 * Marks the start of a phase. Resets the peak heap usage, unless other
+	 * phases are measuring at the same time, which would lose their peak.
+	 */
+	static void start() {
+		if (ACTIVE.getAndIncrement() == 0) {
+			for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+				if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+					pool.resetPeakUsage();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Marks the end of a phase.
+	 */
+	static void end() {
+		ACTIVE.decrementAndGet();
+	}
+
+	/**
+	 * Gets the peak heap usage since the peak has been reset last.
+	 *
+	 * @return The peak heap usage in bytes.
+	 */
+	static long peakHeap() {
+		long sum = 0;
+		for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+				sum += pool.getPeakUsage().getUsed();
+			}
+		}
+		return sum;
+	}
+
+}
@@ -0,0 +1,88 @@
+package net.emb.hcat.cli.stats;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Collects statistics about the phases of a single run, like reading,
+ * collapsing into haplotypes or writing. A disabled instance does not measure
+ * anything, so phases can be started unconditionally.
+ *
+ * <pre>
+ * try (Phase phase = statistics.start("read")) {
+ * 	final List&lt;Sequence&gt; sequences = reader.read();
+ * 	phase.addSequences(sequences);
+ * }
+ * </pre>
+ *
+ * @author Heiko Mattes
+ */
+public class Statistics {
+
+	private static final Statistics DISABLED = new Statistics(false);
+
+	/**
+	 * Gets a disabled instance, that does not measure anything.
+	 *
+	 * @return The shared, disabled instance.
+	 */
+	public static Statistics disabled() {
+		return DISABLED;
+	}
+
+	private final boolean enabled;
+	private final List<Phase> phases = new ArrayList<>();
+
+	/**
+	 * Constructor. Creates an enabled instance.
+	 */
+	public Statistics() {
+		this(true);
+	}
+
+	private Statistics(final boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Starts measuring a new phase. The phase ends when it is closed.
+	 *
+	 * @param name
+	 *            The name of the phase.
+	 * @return The started phase. If this instance is disabled, a shared phase
+	 *         that does nothing.
+	 */
+	public Phase start(final String name) {
+		if (!enabled) {
+			return Phase.DISABLED;
+		}
+		final Phase phase = new Phase(name);
+		synchronized (phases) {
+			phases.add(phase);
+		}
+		return phase;
+	}
+
+	/**
+	 * Checks whether this instance measures anything.
+	 *
+	 * @return <code>true</code>, if enabled, <code>false</code> otherwise.
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Gets all phases started so far.
+	 *
+	 * @return An unmodifiable copy of all phases, in the order they were
+	 *         started.
+	 */
+	public List<Phase> getPhases() {
+		synchronized (phases) {
+			return Collections.unmodifiableList(new ArrayList<>(phases));
+		}
+	}
+
+}
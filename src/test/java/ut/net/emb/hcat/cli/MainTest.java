@@ -0,0 +1,131 @@
+package ut.net.emb.hcat.cli;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import net.emb.hcat.cli.Main;
+
+@SuppressWarnings("javadoc")
+public class MainTest {
+
+	private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+	private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+	private int run(final File workDir, final String... args) {
+		final PrintStream outStream = new PrintStream(out, true);
+		final PrintStream errStream = new PrintStream(err, true);
+		return new Main(outStream, errStream, workDir).run(args);
+	}
+
+	@Test
+	public void testHelp() {
+		Assert.assertEquals(0, run(new File("."), "-h"));
+		Assert.assertTrue(out.toString().contains("The following functions are available:"));
+	}
+
+	@Test
+	public void testUnknown() {
+		Assert.assertEquals(1, run(new File("."), "-unknown"));
+		Assert.assertTrue(out.toString().startsWith("Could not detect what function to perform."));
+	}
+
+	@Test
+	public void testMissingInput() {
+		Assert.assertEquals(1, run(new File("."), "-haplotype"));
+		Assert.assertTrue(err.toString().startsWith("No input file specified."));
+	}
+
+	@Test
+	public void testRelativeToWorkDir() throws IOException {
+		final Path dir = Files.createTempDirectory("hcat");
+		final Path input = dir.resolve("input.fas");
+		try {
+			Files.write(input, ">One\nACGT\n>Two\nACGA\n".getBytes(StandardCharsets.UTF_8));
+			Assert.assertEquals(0, run(dir.toFile(), "-convert", "input.fas", "csv"));
+			Assert.assertEquals("One,A,C,G,T" + System.lineSeparator() + "Two,A,C,G,A" + System.lineSeparator(), out.toString());
+		} finally {
+			Files.delete(input);
+			Files.delete(dir);
+		}
+	}
+
+	@Test
+	public void testConvertInPlace() throws IOException {
+		final Path dir = Files.createTempDirectory("hcat");
+		final Path file = dir.resolve("input.fas");
+		try {
+			Files.write(file, ">One\nACGT\n>Two\nACGA\n".getBytes(StandardCharsets.UTF_8));
+			Assert.assertEquals(0, run(dir.toFile(), "-convert", "input.fas", "csv", "input.fas"));
+			Assert.assertEquals("One,A,C,G,T" + System.lineSeparator() + "Two,A,C,G,A" + System.lineSeparator(), new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+			// No temporary file is left behind.
+			Assert.assertEquals(1, dir.toFile().list().length);
+		} finally {
+			Files.delete(file);
+			Files.delete(dir);
+		}
+	}
+
+	@Test
+	public void testFailedConvertKeepsOutput() throws IOException {
+		final Path dir = Files.createTempDirectory("hcat");
+		final Path input = dir.resolve("input.fas");
+		final Path output = dir.resolve("output.csv");
+		try {
+			Files.write(input, ">One\nACGT\n>Two\nACG\n".getBytes(StandardCharsets.UTF_8));
+			Files.write(output, "old".getBytes(StandardCharsets.UTF_8));
+			Assert.assertEquals(1, run(dir.toFile(), "-convert", "input.fas", "csv", "output.csv"));
+			Assert.assertEquals("old", new String(Files.readAllBytes(output), StandardCharsets.UTF_8));
+			Assert.assertEquals(2, dir.toFile().list().length);
+		} finally {
+			Files.delete(input);
+			Files.delete(output);
+			Files.delete(dir);
+		}
+	}
+
+	@Test
+	public void testCodonFastq() throws IOException {
+		final Path dir = Files.createTempDirectory("hcat");
+		final Path input = dir.resolve("reads.fq");
+		final Path output = dir.resolve("out.fq");
+		try {
+			Files.write(input, "@One\nATGTAA\n+\nIIIIII\n".getBytes(StandardCharsets.UTF_8));
+			Assert.assertEquals(0, run(dir.toFile(), "-codon", "-cn", "1", "-i", "reads.fq", "-o", "out.fq"));
+			// Translated reads are written as Fasta.
+			Assert.assertTrue(new String(Files.readAllBytes(output), StandardCharsets.UTF_8).startsWith(">Codon Transformed: One"));
+		} finally {
+			Files.deleteIfExists(output);
+			Files.delete(input);
+			Files.delete(dir);
+		}
+	}
+
+	@Test
+	public void testPipelineTranslateFastq() throws IOException {
+		final Path dir = Files.createTempDirectory("hcat");
+		final Path input = dir.resolve("input.fas");
+		try {
+			Files.write(input, ">One\nATGTAA\n".getBytes(StandardCharsets.UTF_8));
+			Assert.assertEquals(1, run(dir.toFile(), "-pipeline", "-cn", "1", "-pt", "out.fq", "input.fas"));
+			Assert.assertTrue(err.toString().startsWith("FASTQ files can only be read, not written: out.fq"));
+			Assert.assertEquals(1, dir.toFile().list().length);
+		} finally {
+			Files.delete(input);
+			Files.delete(dir);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNull() {
+		new Main(null, System.err, new File("."));
+	}
+
+}
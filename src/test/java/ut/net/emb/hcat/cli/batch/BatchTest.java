@@ -0,0 +1,119 @@
+package ut.net.emb.hcat.cli.batch;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import net.emb.hcat.cli.IRunner;
+import net.emb.hcat.cli.batch.Batch;
+import net.emb.hcat.cli.batch.BatchInput;
+import net.emb.hcat.cli.batch.BatchResult;
+import net.emb.hcat.cli.batch.OutputTemplate;
+
+@SuppressWarnings("javadoc")
+public class BatchTest {
+
+	// Fails for each input file containing "bad" in its name and crashes for
+	// each containing "crash".
+	private static final IRunner RUNNER = (out, err, workDir, args) -> {
+		final String input = args[args.length - 3];
+		if (input.contains("bad")) {
+			err.println("Could not read " + new File(input).getName());
+			return 1;
+		}
+		if (input.contains("crash")) {
+			throw new IllegalStateException("Crashed");
+		}
+		return 0;
+	};
+
+	private Path dir;
+
+	@Before
+	public void setUp() throws IOException {
+		dir = Files.createTempDirectory("hcat");
+		Files.createDirectories(dir.resolve("data/sub"));
+		for (final String name : new String[] { "data/a.fas", "data/b.fas", "data/bad.fas", "data/c.txt", "data/sub/d.fas" }) {
+			Files.write(dir.resolve(name), ">x\nACGT\n".getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		try (Stream<Path> stream = Files.walk(dir)) {
+			for (final Path path : stream.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+				Files.delete(path);
+			}
+		}
+	}
+
+	private static List<String> names(final List<File> files) {
+		return files.stream().map(File::getName).collect(Collectors.toList());
+	}
+
+	@Test
+	public void testDirectory() throws IOException {
+		Assert.assertEquals(Arrays.asList("a.fas", "b.fas", "bad.fas", "c.txt"), names(BatchInput.fromDirectory(dir.resolve("data").toFile())));
+	}
+
+	@Test
+	public void testGlob() throws IOException {
+		Assert.assertTrue(BatchInput.isGlob("data/*.fas"));
+		Assert.assertFalse(BatchInput.isGlob("data"));
+		Assert.assertEquals(Arrays.asList("a.fas", "b.fas", "bad.fas"), names(BatchInput.fromGlob(dir.toFile(), "data/*.fas")));
+		Assert.assertEquals(Arrays.asList("a.fas", "b.fas", "bad.fas", "d.fas"), names(BatchInput.fromGlob(dir.toFile(), "data/**/*.fas")));
+		Assert.assertEquals(Arrays.asList("d.fas"), names(BatchInput.fromGlob(dir.toFile(), "data/*/?.fas")));
+		Assert.assertTrue(BatchInput.fromGlob(dir.toFile(), "missing/*.fas").isEmpty());
+	}
+
+	@Test
+	public void testManifest() throws IOException {
+		final Path manifest = dir.resolve("data/files.txt");
+		Files.write(manifest, "# Comment\nb.fas\n\n  sub/d.fas  \n".getBytes(StandardCharsets.UTF_8));
+		final List<File> files = BatchInput.fromManifest(manifest.toFile(), StandardCharsets.UTF_8);
+		Assert.assertEquals(Arrays.asList(dir.resolve("data/b.fas").toFile(), dir.resolve("data/sub/d.fas").toFile()), files);
+	}
+
+	@Test
+	public void testErrorIsolation() throws IOException {
+		final List<File> inputs = BatchInput.fromGlob(dir.toFile(), "data/*.fas");
+		final List<BatchResult> results = new Batch(RUNNER, 2).run(dir.toFile(), inputs, new String[] { "-haplotype" }, new OutputTemplate("out/{base}.txt"));
+
+		Assert.assertEquals(3, results.size());
+		Assert.assertTrue(results.get(0).isSuccess());
+		Assert.assertEquals("out/a.txt", results.get(0).getOutput());
+		Assert.assertTrue(results.get(1).isSuccess());
+		Assert.assertFalse(results.get(2).isSuccess());
+		Assert.assertEquals(1, results.get(2).getStatus());
+		Assert.assertEquals("Could not read bad.fas", results.get(2).getErrors().trim());
+		Assert.assertTrue(Files.isDirectory(dir.resolve("out")));
+	}
+
+	@Test
+	public void testCrash() {
+		final List<File> inputs = Arrays.asList(new File("crash.fas"), new File("a.fas"));
+		final List<BatchResult> results = new Batch(RUNNER, 1).run(dir.toFile(), inputs, new String[0], new OutputTemplate("{base}.txt"));
+		Assert.assertFalse(results.get(0).isSuccess());
+		Assert.assertTrue(results.get(0).getErrors().contains("Crashed"));
+		Assert.assertTrue(results.get(1).isSuccess());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSameOutput() {
+		final List<File> inputs = Arrays.asList(new File("a/seq.fas"), new File("b/seq.fas"));
+		new Batch(RUNNER, 1).run(dir.toFile(), inputs, new String[0], new OutputTemplate("{base}.txt"));
+	}
+
+}
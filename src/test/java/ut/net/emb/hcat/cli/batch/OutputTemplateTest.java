@@ -0,0 +1,37 @@
+package ut.net.emb.hcat.cli.batch;
+
+import java.io.File;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import net.emb.hcat.cli.batch.OutputTemplate;
+
+@SuppressWarnings("javadoc")
+public class OutputTemplateTest {
+
+	@Test
+	public void testPlaceholders() {
+		final OutputTemplate template = new OutputTemplate("{dir}/{base}.out.{ext}|{name}");
+		Assert.assertEquals("data" + File.separator + "sub/seq.out.fas|seq.fas", template.apply(new File("data" + File.separator + "sub", "seq.fas")));
+	}
+
+	@Test
+	public void testNoExtension() {
+		final OutputTemplate template = new OutputTemplate("{base}[{ext}]");
+		Assert.assertEquals("seq[]", template.apply(new File("seq")));
+		Assert.assertEquals(".hidden[]", template.apply(new File(".hidden")));
+		Assert.assertEquals("seq.tar[gz]", template.apply(new File("seq.tar.gz")));
+	}
+
+	@Test
+	public void testNoDirectory() {
+		Assert.assertEquals("./seq.txt", new OutputTemplate("{dir}/{base}.txt").apply(new File("seq.fas")));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testEmpty() {
+		new OutputTemplate("");
+	}
+
+}
@@ -0,0 +1,63 @@
+package ut.net.emb.hcat.cli.codon;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import net.emb.hcat.cli.codon.CodonTable;
+import net.emb.hcat.cli.codon.CodonTransformationData;
+import net.emb.hcat.cli.io.CodonTableRegistry;
+
+@SuppressWarnings("javadoc")
+public class CodonTableTest {
+
+	@Test
+	public void codonIndex() {
+		Assert.assertEquals(0, CodonTable.codonIndex('T', 'T', 'T'));
+		Assert.assertEquals(63, CodonTable.codonIndex('G', 'G', 'G'));
+		Assert.assertEquals(CodonTable.codonIndex('A', 'T', 'G'), CodonTable.codonIndex('a', 't', 'g'));
+		Assert.assertEquals(-1, CodonTable.codonIndex('A', 'N', 'G'));
+		Assert.assertEquals(-1, CodonTable.codonIndex('A', '-', 'G'));
+		Assert.assertEquals(-1, CodonTable.codonIndex("ATGC", 2));
+	}
+
+	@Test
+	public void codonRoundTrip() {
+		for (int i = 0; i < CodonTable.CODON_COUNT; i++) {
+			final String codon = CodonTable.codon(i);
+			Assert.assertEquals(i, CodonTable.codonIndex(codon, 0));
+		}
+	}
+
+	@Test
+	public void compile() {
+		final CodonTransformationData data = CodonTableRegistry.getDefault().getData(1);
+		final CodonTable table = CodonTable.compile(data);
+		Assert.assertEquals(1, table.getNumber());
+		Assert.assertEquals(data.name, table.getName());
+
+		for (int i = 0; i < CodonTable.CODON_COUNT; i++) {
+			final String codon = CodonTable.codon(i);
+			Assert.assertEquals(data.codon.get(codon).charValue(), table.getAminoAcid(i));
+			Assert.assertEquals(data.start.containsKey(codon), table.isStart(i));
+			Assert.assertEquals(data.end.containsKey(codon), table.isEnd(i));
+		}
+
+		Assert.assertEquals('M', table.getAminoAcid(CodonTable.codonIndex("ATG", 0)));
+		Assert.assertTrue(table.isStart(CodonTable.codonIndex("ATG", 0)));
+		Assert.assertTrue(table.isEnd(CodonTable.codonIndex("TAA", 0)));
+		Assert.assertEquals('?', table.getAminoAcid(-1));
+	}
+
+	@Test
+	public void toData() {
+		final CodonTransformationData data = CodonTableRegistry.getDefault().getData(2);
+		final CodonTransformationData copy = CodonTable.compile(data).toData();
+		Assert.assertNotSame(data, copy);
+		Assert.assertEquals(data.name, copy.name);
+		Assert.assertEquals(data.number, copy.number);
+		Assert.assertEquals(data.codon, copy.codon);
+		Assert.assertEquals(data.start, copy.start);
+		Assert.assertEquals(data.end, copy.end);
+	}
+
+}
@@ -0,0 +1,93 @@
+package ut.net.emb.hcat.cli.codon;
+
+import java.io.StringReader;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import net.emb.hcat.cli.codon.CodonTable;
+import net.emb.hcat.cli.codon.CodonUsage;
+import net.emb.hcat.cli.io.CodonTableRegistry;
+import net.emb.hcat.cli.io.sequence.FastaReader;
+import net.emb.hcat.cli.sequence.Sequence;
+
+@SuppressWarnings("javadoc")
+public class CodonUsageTest {
+
+	private static final double DELTA = 1e-9;
+
+	private static final CodonTable STANDARD = CodonTableRegistry.getDefault().get(1);
+
+	private static int codon(final String codon) {
+		return CodonTable.codonIndex(codon, 0);
+	}
+
+	@Test
+	public void add() {
+		final CodonUsage usage = new CodonUsage();
+		usage.add(new Sequence("ATGGGGGGANNNGG"), 0);
+		Assert.assertEquals(1, usage.getCount(codon("ATG")));
+		Assert.assertEquals(1, usage.getCount(codon("GGG")));
+		Assert.assertEquals(1, usage.getCount(codon("GGA")));
+		Assert.assertEquals(3, usage.getTotal());
+		Assert.assertEquals(1, usage.getInvalid());
+	}
+
+	@Test
+	public void addOffset() {
+		final CodonUsage usage = new CodonUsage();
+		usage.add(new Sequence("AATGGGG"), 1);
+		Assert.assertEquals(1, usage.getCount(codon("ATG")));
+		Assert.assertEquals(1, usage.getCount(codon("GGG")));
+		Assert.assertEquals(2, usage.getTotal());
+	}
+
+	@Test
+	public void merge() {
+		final CodonUsage first = new CodonUsage();
+		first.add(new Sequence("ATGATG"), 0);
+		final CodonUsage second = new CodonUsage();
+		second.add(new Sequence("ATGNNN"), 0);
+		first.merge(second);
+		Assert.assertEquals(3, first.getCount(codon("ATG")));
+		Assert.assertEquals(1, first.getInvalid());
+	}
+
+	@Test
+	public void frequencyAndRscu() {
+		final CodonUsage usage = new CodonUsage();
+		usage.add(new Sequence("GGGGGGGGAATG"), 0);
+		Assert.assertEquals(0.5, usage.getFrequency(codon("GGG")), DELTA);
+		Assert.assertEquals(0.25, usage.getFrequency(codon("ATG")), DELTA);
+		// Glycine has 4 codons, GGG is used twice out of 3 glycine codons.
+		Assert.assertEquals(8.0 / 3, usage.getRscu(codon("GGG"), STANDARD), DELTA);
+		Assert.assertEquals(4.0 / 3, usage.getRscu(codon("GGA"), STANDARD), DELTA);
+		Assert.assertEquals(0, usage.getRscu(codon("GGC"), STANDARD), DELTA);
+		Assert.assertEquals(1, usage.getRscu(codon("ATG"), STANDARD), DELTA);
+		Assert.assertTrue(Double.isNaN(usage.getRscu(codon("TTT"), STANDARD)));
+	}
+
+	@Test
+	public void empty() {
+		final CodonUsage usage = new CodonUsage();
+		Assert.assertEquals(0, usage.getTotal());
+		Assert.assertTrue(Double.isNaN(usage.getFrequency(codon("ATG"))));
+	}
+
+	@Test
+	public void count() throws Exception {
+		final StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			builder.append(">").append(i).append('\n');
+			builder.append("ATGGGGTTT").append('\n');
+		}
+		final FastaReader reader = new FastaReader(new StringReader(builder.toString()));
+		final CodonUsage usage = CodonUsage.count(reader, 0, 4);
+		reader.close();
+		Assert.assertEquals(100, usage.getCount(codon("ATG")));
+		Assert.assertEquals(100, usage.getCount(codon("GGG")));
+		Assert.assertEquals(100, usage.getCount(codon("TTT")));
+		Assert.assertEquals(300, usage.getTotal());
+	}
+
+}
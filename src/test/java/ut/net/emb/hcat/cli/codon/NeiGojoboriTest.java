@@ -0,0 +1,85 @@
+package ut.net.emb.hcat.cli.codon;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import net.emb.hcat.cli.codon.CodonTable;
+import net.emb.hcat.cli.codon.NeiGojobori;
+import net.emb.hcat.cli.codon.SubstitutionCount;
+import net.emb.hcat.cli.io.CodonTableRegistry;
+import net.emb.hcat.cli.sequence.Sequence;
+
+@SuppressWarnings("javadoc")
+public class NeiGojoboriTest {
+
+	private static final double DELTA = 1e-9;
+
+	private static final NeiGojobori STANDARD = new NeiGojobori(CodonTableRegistry.getDefault().get(1));
+
+	private static int codon(final String codon) {
+		return CodonTable.codonIndex(codon, 0);
+	}
+
+	@Test
+	public void synonymousSites() {
+		Assert.assertEquals(0, STANDARD.getSynonymousSites(codon("ATG")), DELTA);
+		Assert.assertEquals(1.0 / 3, STANDARD.getSynonymousSites(codon("TTT")), DELTA);
+		Assert.assertEquals(2.0 / 3, STANDARD.getSynonymousSites(codon("TTA")), DELTA);
+		Assert.assertEquals(1, STANDARD.getSynonymousSites(codon("GGG")), DELTA);
+		Assert.assertEquals(1, STANDARD.getSynonymousSites(codon("CTT")), DELTA);
+		Assert.assertEquals(4.0 / 3, STANDARD.getSynonymousSites(codon("CTA")), DELTA);
+		Assert.assertEquals(0, STANDARD.getSynonymousSites(codon("TAA")), DELTA);
+	}
+
+	@Test
+	public void pathways() {
+		// Single change.
+		Assert.assertEquals(1, STANDARD.getSynonymousDifferences(codon("GGG"), codon("GGA")), DELTA);
+		Assert.assertEquals(0, STANDARD.getNonSynonymousDifferences(codon("GGG"), codon("GGA")), DELTA);
+		// Two pathways: TTT-CTT-CTC (N, S) and TTT-TTC-CTC (S, N).
+		Assert.assertEquals(1, STANDARD.getSynonymousDifferences(codon("TTT"), codon("CTC")), DELTA);
+		Assert.assertEquals(1, STANDARD.getNonSynonymousDifferences(codon("TTT"), codon("CTC")), DELTA);
+		// Pathway TAT-TAG-TGG passes through an end codon and is ignored.
+		Assert.assertEquals(0, STANDARD.getSynonymousDifferences(codon("TAT"), codon("TGG")), DELTA);
+		Assert.assertEquals(2, STANDARD.getNonSynonymousDifferences(codon("TAT"), codon("TGG")), DELTA);
+		// Identical codons.
+		Assert.assertEquals(0, STANDARD.getSynonymousDifferences(codon("ATG"), codon("ATG")), DELTA);
+		Assert.assertEquals(0, STANDARD.getNonSynonymousDifferences(codon("ATG"), codon("ATG")), DELTA);
+	}
+
+	@Test
+	public void compare() {
+		final SubstitutionCount count = STANDARD.compare(new Sequence("TTTGGGATG"), new Sequence("TTCGGAATG"), 0);
+		Assert.assertEquals(3, count.getCodons());
+		Assert.assertEquals(4.0 / 3, count.getSynonymousSites(), DELTA);
+		Assert.assertEquals(9 - 4.0 / 3, count.getNonSynonymousSites(), DELTA);
+		Assert.assertEquals(2, count.getSynonymousDifferences(), DELTA);
+		Assert.assertEquals(0, count.getNonSynonymousDifferences(), DELTA);
+		Assert.assertEquals(0, count.getPN(), DELTA);
+		Assert.assertEquals(0, count.getDN(), DELTA);
+	}
+
+	@Test
+	public void compareSkipsInvalidCodons() {
+		final SubstitutionCount count = STANDARD.compare(new Sequence("ATGTAANNNGGG"), new Sequence("ATGTAAGGGGG-"), 0);
+		Assert.assertEquals(1, count.getCodons());
+	}
+
+	@Test
+	public void jukesCantor() {
+		final SubstitutionCount count = new SubstitutionCount(10, 30, 1, 1, 10);
+		Assert.assertEquals(0.1, count.getPS(), DELTA);
+		Assert.assertEquals(1.0 / 30, count.getPN(), DELTA);
+		Assert.assertEquals(-0.75 * Math.log(1 - 4 * 0.1 / 3), count.getDS(), DELTA);
+		Assert.assertEquals(-0.75 * Math.log(1 - 4 * (1.0 / 30) / 3), count.getDN(), DELTA);
+		Assert.assertEquals(count.getDN() / count.getDS(), count.getDNDS(), DELTA);
+	}
+
+	@Test
+	public void undefinedRatio() {
+		final SubstitutionCount count = new SubstitutionCount(10, 30, 0, 1, 10);
+		Assert.assertTrue(Double.isNaN(count.getDNDS()));
+		Assert.assertTrue(Double.isInfinite(new SubstitutionCount(1, 2, 1, 0, 1).getDS()));
+	}
+
+}
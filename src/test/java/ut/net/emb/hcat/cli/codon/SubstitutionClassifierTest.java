@@ -0,0 +1,63 @@
+package ut.net.emb.hcat.cli.codon;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import net.emb.hcat.cli.codon.CodonTable;
+import net.emb.hcat.cli.codon.ESubstitution;
+import net.emb.hcat.cli.codon.SubstitutionClassifier;
+import net.emb.hcat.cli.io.CodonTableRegistry;
+import net.emb.hcat.cli.sequence.Sequence;
+
+@SuppressWarnings("javadoc")
+public class SubstitutionClassifierTest {
+
+	private static final CodonTable STANDARD = CodonTableRegistry.getDefault().get(1);
+	private static final Sequence MASTER = new Sequence("ATGAAACCCT", "Master");
+
+	@Test
+	public void synonymous() {
+		final SubstitutionClassifier classifier = new SubstitutionClassifier(STANDARD, MASTER, 0);
+		Assert.assertEquals(ESubstitution.SYNONYMOUS, classifier.classify(new Sequence("ATGAAGCCCT"), 5));
+		Assert.assertEquals(ESubstitution.SYNONYMOUS, classifier.classify(new Sequence("ATGAAACCGT"), 8));
+	}
+
+	@Test
+	public void nonSynonymous() {
+		final SubstitutionClassifier classifier = new SubstitutionClassifier(STANDARD, MASTER, 0);
+		Assert.assertEquals(ESubstitution.NON_SYNONYMOUS, classifier.classify(new Sequence("ATGGAACCCT"), 3));
+		Assert.assertEquals(ESubstitution.NON_SYNONYMOUS, classifier.classify(new Sequence("ATGAACCCCT"), 5));
+	}
+
+	@Test
+	public void twoDifferencesInCodon() {
+		// TTA (Leu) against CTT (Leu): T to C alone gives CTA (Leu), but A to T
+		// alone gives TTT (Phe).
+		final SubstitutionClassifier classifier = new SubstitutionClassifier(STANDARD, new Sequence("TTA"), 0);
+		Assert.assertEquals(ESubstitution.SYNONYMOUS, classifier.classify(new Sequence("CTT"), 0));
+		Assert.assertEquals(ESubstitution.NON_SYNONYMOUS, classifier.classify(new Sequence("CTT"), 2));
+	}
+
+	@Test
+	public void unknown() {
+		final SubstitutionClassifier classifier = new SubstitutionClassifier(STANDARD, MASTER, 0);
+		Assert.assertEquals(ESubstitution.UNKNOWN, classifier.classify(new Sequence("ATGANACCCT"), 4));
+		Assert.assertEquals(ESubstitution.UNKNOWN, classifier.classify(new Sequence("ATGA-ACCCT"), 4));
+		// Incomplete trailing codon.
+		Assert.assertEquals(ESubstitution.UNKNOWN, classifier.classify(new Sequence("ATGAAACCCA"), 9));
+	}
+
+	@Test
+	public void offset() {
+		final SubstitutionClassifier classifier = new SubstitutionClassifier(STANDARD, new Sequence("GATGAAA"), 1);
+		Assert.assertEquals(ESubstitution.UNKNOWN, classifier.classify(new Sequence("TATGAAA"), 0));
+		Assert.assertEquals(ESubstitution.SYNONYMOUS, classifier.classify(new Sequence("GATGAAG"), 6));
+		Assert.assertEquals(ESubstitution.NON_SYNONYMOUS, classifier.classify(new Sequence("GATTAAA"), 3));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void invalidOffset() {
+		new SubstitutionClassifier(STANDARD, MASTER, 3);
+	}
+
+}
@@ -110,4 +110,23 @@ public class DistanceMatrixTest {
 		Assert.assertEquals(4, matrix.getMaxDistance());
 	}
 
+	@Test
+	public void testProteins() {
+		final DistanceMatrix matrix = DistanceMatrix.ofProteins(Arrays.asList(MASTER_HAPLOTYPE, MULTI_DIFF_HAPLOTYPE, ALL_DIFF_HAPLOTYPE, SHORT_HAPLOTYPE, LONG_HAPLOTYPE));
+		Assert.assertEquals(2, matrix.getDistance(MASTER_HAPLOTYPE, MULTI_DIFF_HAPLOTYPE).intValue());
+		Assert.assertEquals(4, matrix.getDistance(MASTER_HAPLOTYPE, ALL_DIFF_HAPLOTYPE).intValue());
+		Assert.assertEquals(1, matrix.getDistance(MASTER_HAPLOTYPE, SHORT_HAPLOTYPE).intValue());
+		Assert.assertEquals(2, matrix.getDistance(SHORT_HAPLOTYPE, LONG_HAPLOTYPE).intValue());
+	}
+
+	@Test
+	public void testProteinsSameAsDifference() {
+		final Haplotype hap1 = new Haplotype(new Sequence("MKVLAAGIVGLLLAWQ*STRDEFHIKNPY"));
+		final Haplotype hap2 = new Haplotype(new Sequence("MKVLSAGIVGLLLAWQ*STRDEYHIKNP"));
+		final Haplotype hap3 = new Haplotype(new Sequence("mKVLSAGIVGLLLAWQ*STRDEYHIKNPYW"));
+		final DistanceMatrix expected = new DistanceMatrix(Arrays.asList(hap1, hap2, hap3));
+		final DistanceMatrix actual = DistanceMatrix.ofProteins(Arrays.asList(hap1, hap2, hap3));
+		Assert.assertEquals(expected.getMatrix(), actual.getMatrix());
+	}
+
 }
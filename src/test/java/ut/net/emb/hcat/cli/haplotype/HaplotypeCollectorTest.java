@@ -0,0 +1,64 @@
+package ut.net.emb.hcat.cli.haplotype;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import net.emb.hcat.cli.haplotype.Haplotype;
+import net.emb.hcat.cli.haplotype.HaplotypeCollector;
+import net.emb.hcat.cli.sequence.Sequence;
+
+@SuppressWarnings("javadoc")
+public class HaplotypeCollectorTest {
+
+	@Test
+	public void testCollect() {
+		final HaplotypeCollector collector = new HaplotypeCollector();
+		collector.accept(new Sequence("ACGT", "One"));
+		collector.accept(new Sequence("ACGA", "Two"));
+		collector.accept(new Sequence("ACGT", "Three"));
+		Assert.assertEquals(3, collector.getSequenceCount());
+		Assert.assertEquals(2, collector.getHaplotypeCount());
+
+		final List<Haplotype> haplotypes = collector.getHaplotypes();
+		Assert.assertEquals(2, haplotypes.size());
+		Assert.assertEquals("Hap1", haplotypes.get(0).getName());
+		Assert.assertEquals(2, haplotypes.get(0).size());
+		Assert.assertEquals("Three", haplotypes.get(0).get(1).getName());
+		Assert.assertEquals("Hap2", haplotypes.get(1).getName());
+	}
+
+	@Test
+	public void testPaddedNames() {
+		final HaplotypeCollector collector = new HaplotypeCollector();
+		for (int i = 0; i < 10; i++) {
+			collector.accept(new Sequence("ACG" + (char) ('A' + i)));
+		}
+		final List<Haplotype> haplotypes = collector.getHaplotypes();
+		Assert.assertEquals("Hap01", haplotypes.get(0).getName());
+		Assert.assertEquals("Hap10", haplotypes.get(9).getName());
+	}
+
+	@Test
+	public void testShareValues() {
+		final HaplotypeCollector collector = new HaplotypeCollector();
+		collector.setShareValues(true);
+		final Sequence first = new Sequence("ACGT", "One");
+		collector.accept(first);
+		collector.accept(new Sequence(new String("ACGT"), "Two"));
+		collector.accept(new Sequence("ACGA", "Three"));
+
+		final List<Haplotype> haplotypes = collector.getHaplotypes();
+		Assert.assertEquals(2, haplotypes.size());
+		Assert.assertSame(first, haplotypes.get(0).get(0));
+		Assert.assertEquals("Two", haplotypes.get(0).get(1).getName());
+		Assert.assertSame(first.getValue(), haplotypes.get(0).get(1).getValue());
+	}
+
+	@Test
+	public void testEmpty() {
+		Assert.assertTrue(new HaplotypeCollector().getHaplotypes().isEmpty());
+	}
+
+}
@@ -0,0 +1,134 @@
+package ut.net.emb.hcat.cli.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import net.emb.hcat.cli.io.ChannelWriter;
+import net.emb.hcat.cli.io.ChannelWriter.EFlushPolicy;
+
+@SuppressWarnings("javadoc")
+public class ChannelWriterTest {
+
+	// Writes the text in pieces of the given size, and checks that the result
+	// is the same as with an OutputStreamWriter.
+	private static void compare(final String text, final Charset charset, final int bufferSize, final int piece) throws IOException {
+		final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		try (Writer writer = new OutputStreamWriter(expected, charset)) {
+			writer.write(text);
+		}
+
+		final ByteArrayOutputStream actual = new ByteArrayOutputStream();
+		try (Writer writer = new ChannelWriter(Channels.newChannel(actual), null, charset, EFlushPolicy.ON_CLOSE, bufferSize)) {
+			for (int i = 0; i < text.length(); i += piece) {
+				final int end = Math.min(text.length(), i + piece);
+				if (piece == 1) {
+					writer.write(text.charAt(i));
+				} else if (i % 2 == 0) {
+					writer.write(text, i, end - i);
+				} else {
+					writer.write(text.toCharArray(), i, end - i);
+				}
+			}
+		}
+		Assert.assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+	}
+
+	private static void compareAll(final String text) throws IOException {
+		for (final Charset charset : new Charset[] { StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1, StandardCharsets.UTF_16, StandardCharsets.US_ASCII }) {
+			for (final int piece : new int[] { 1, 2, 3, 7, 1000 }) {
+				compare(text, charset, 16, piece);
+				compare(text, charset, ChannelWriter.DEFAULT_BUFFER_SIZE, piece);
+			}
+		}
+	}
+
+	@Test
+	public void empty() throws Exception {
+		compareAll("");
+	}
+
+	@Test
+	public void ascii() throws Exception {
+		compareAll(">seq1\nACGTACGTACGTACGTACGTACGTACGTACGT\n>seq2\nTTTT\n");
+	}
+
+	@Test
+	public void nonAscii() throws Exception {
+		compareAll(">ä\nACGT\n>€ name\nACÿGT\n");
+	}
+
+	@Test
+	public void surrogates() throws Exception {
+		compareAll("A😀B😀😀C");
+		// Unpaired surrogates are replaced.
+		compareAll("A\ud83dB\ude00C\ud83d");
+	}
+
+	@Test
+	public void random() throws Exception {
+		final Random random = new Random(42);
+		final String alphabet = "ACGT\n>äö€😀";
+		final StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < 5000; i++) {
+			builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+		}
+		compareAll(builder.toString());
+	}
+
+	@Test
+	public void explicitFlush() throws Exception {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (Writer writer = new ChannelWriter(out, StandardCharsets.UTF_8, EFlushPolicy.EXPLICIT)) {
+			writer.write("ACGT");
+			Assert.assertEquals(0, out.size());
+			writer.flush();
+			Assert.assertEquals("ACGT", out.toString("UTF-8"));
+		}
+	}
+
+	@Test
+	public void flushOnClose() throws Exception {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final Writer writer = new ChannelWriter(out, StandardCharsets.UTF_8, EFlushPolicy.ON_CLOSE);
+		writer.write("ACGT");
+		writer.flush();
+		Assert.assertEquals(0, out.size());
+		writer.close();
+		Assert.assertEquals("ACGT", out.toString("UTF-8"));
+		// Closing twice does nothing.
+		writer.close();
+	}
+
+	@Test
+	public void fullBuffer() throws Exception {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (Writer writer = new ChannelWriter(Channels.newChannel(out), null, StandardCharsets.UTF_8, EFlushPolicy.ON_CLOSE, 16)) {
+			writer.write("ACGTACGTACGTACGTA");
+			Assert.assertEquals(16, out.size());
+		}
+		Assert.assertEquals(17, out.size());
+	}
+
+	@Test(expected = IOException.class)
+	public void writeAfterClose() throws Exception {
+		final Writer writer = new ChannelWriter(new ByteArrayOutputStream(), StandardCharsets.UTF_8, EFlushPolicy.EXPLICIT);
+		writer.close();
+		writer.write('A');
+	}
+
+	@SuppressWarnings({ "unused", "resource" })
+	@Test(expected = IllegalArgumentException.class)
+	public void nullPolicy() throws Exception {
+		new ChannelWriter(new ByteArrayOutputStream(), StandardCharsets.UTF_8, null);
+	}
+
+}
@@ -0,0 +1,123 @@
+package ut.net.emb.hcat.cli.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import net.emb.hcat.cli.codon.CodonTable;
+import net.emb.hcat.cli.codon.CodonTransformationData;
+import net.emb.hcat.cli.io.CodonTableReader;
+import net.emb.hcat.cli.io.CodonTableRegistry;
+
+@SuppressWarnings("javadoc")
+public class CodonTableRegistryTest {
+
+	@Test
+	public void matchesTextTable() throws Exception {
+		final List<CodonTransformationData> parsed;
+		try (InputStreamReader reader = new InputStreamReader(getClass().getResourceAsStream(CodonTableRegistry.TEXT_RESOURCE), StandardCharsets.UTF_8)) {
+			parsed = new CodonTableReader(reader).read();
+		}
+
+		final CodonTableRegistry registry = CodonTableRegistry.getDefault();
+		Assert.assertEquals(parsed.size(), registry.getTables().size());
+		for (final CodonTransformationData data : parsed) {
+			final CodonTransformationData registered = registry.getData(data.number);
+			Assert.assertNotNull(registered);
+			Assert.assertEquals(data.name, registered.name);
+			Assert.assertEquals(data.codon, registered.codon);
+			Assert.assertEquals(data.start, registered.start);
+			Assert.assertEquals(data.end, registered.end);
+			Assert.assertEquals(data.number, registry.get(data.number).getNumber());
+		}
+	}
+
+	@Test
+	public void unknownNumber() {
+		Assert.assertNull(CodonTableRegistry.getDefault().get(-1));
+		Assert.assertNull(CodonTableRegistry.getDefault().getData(-1));
+	}
+
+	@Test
+	public void readDefaultTable() {
+		final List<CodonTransformationData> table = CodonTableReader.readDefaultTable();
+		Assert.assertEquals(CodonTableRegistry.getDefault().getData(), table);
+		Assert.assertNotSame(CodonTableReader.readDefaultTable(), table);
+		table.clear();
+		Assert.assertFalse(CodonTableReader.readDefaultTable().isEmpty());
+	}
+
+	@Test
+	public void dataNotShared() {
+		final CodonTableRegistry registry = CodonTableRegistry.getDefault();
+		final CodonTransformationData data = registry.getData(1);
+		data.name = "Changed";
+		data.number = 99;
+		try {
+			data.codon.put("TTT", '*');
+			Assert.fail();
+		} catch (final UnsupportedOperationException e) {
+			// Expected.
+		}
+		try {
+			data.start.clear();
+			Assert.fail();
+		} catch (final UnsupportedOperationException e) {
+			// Expected.
+		}
+
+		final CodonTransformationData fresh = registry.getData(1);
+		Assert.assertEquals(1, fresh.number);
+		Assert.assertEquals(registry.get(1).getName(), fresh.name);
+		Assert.assertEquals(registry.get(1).toData().codon, fresh.codon);
+		Assert.assertEquals(registry.get(1).toData().start, fresh.start);
+		Assert.assertEquals(registry.get(1).toData().end, fresh.end);
+	}
+
+	@Test
+	public void binaryRoundTrip() throws Exception {
+		final CodonTableRegistry registry = CodonTableRegistry.getDefault();
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		CodonTableRegistry.writeBinary(registry.getTables(), out);
+
+		final List<CodonTable> tables = CodonTableRegistry.readBinary(new ByteArrayInputStream(out.toByteArray()));
+		Assert.assertEquals(registry.getTables().size(), tables.size());
+		for (final CodonTable table : tables) {
+			final CodonTable expected = registry.get(table.getNumber());
+			Assert.assertEquals(expected.getName(), table.getName());
+			Assert.assertEquals(expected.getStartMask(), table.getStartMask());
+			Assert.assertEquals(expected.getEndMask(), table.getEndMask());
+			for (int i = 0; i < CodonTable.CODON_COUNT; i++) {
+				Assert.assertEquals(expected.getAminoAcid(i), table.getAminoAcid(i));
+			}
+		}
+	}
+
+	@Test
+	public void concurrentAccess() throws Exception {
+		final ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			final List<Future<CodonTableRegistry>> futures = new ArrayList<>();
+			for (int i = 0; i < 32; i++) {
+				futures.add(executor.submit((Callable<CodonTableRegistry>) CodonTableRegistry::getDefault));
+			}
+			final CodonTableRegistry registry = CodonTableRegistry.getDefault();
+			for (final Future<CodonTableRegistry> future : futures) {
+				Assert.assertSame(registry, future.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+}
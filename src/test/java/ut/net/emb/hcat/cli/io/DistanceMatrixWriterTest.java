@@ -80,4 +80,23 @@ public class DistanceMatrixWriterTest {
 		Assert.assertEquals(builder.toString(), boas.toString());
 	}
 
+	@Test
+	public void testWriterProportional() throws Exception {
+		final List<Haplotype> haplotypes = Haplotype.wrap(Arrays.asList(MASTER_SEQUENCE, MID_DIFF_SEQUENCE, FRONT_BACK_DIFF_SEQUENCE));
+		final DistanceMatrix matrix = new DistanceMatrix(haplotypes);
+
+		final ByteArrayOutputStream boas = new ByteArrayOutputStream(100);
+		final DistanceMatrixWriter writer = new DistanceMatrixWriter(new OutputStreamWriter(boas));
+		writer.setProportional(true);
+		writer.write(matrix);
+
+		final StringBuilder builder = new StringBuilder(200);
+		builder.append("HT-ID\tHap1\tHap2\tHap3").append(System.lineSeparator());
+		builder.append("Hap1 \t-   \t0.2000\t0.4000").append(System.lineSeparator());
+		builder.append("Hap2 \t0.2000\t-   \t0.6000").append(System.lineSeparator());
+		builder.append("Hap3 \t0.4000\t0.6000\t-   ").append(System.lineSeparator());
+
+		Assert.assertEquals(builder.toString(), boas.toString());
+	}
+
 }
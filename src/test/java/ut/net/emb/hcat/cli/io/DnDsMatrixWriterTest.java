@@ -0,0 +1,77 @@
+package ut.net.emb.hcat.cli.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStreamWriter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import net.emb.hcat.cli.codon.EDnDsValue;
+import net.emb.hcat.cli.codon.NeiGojobori;
+import net.emb.hcat.cli.haplotype.DnDsMatrix;
+import net.emb.hcat.cli.haplotype.Haplotype;
+import net.emb.hcat.cli.io.CodonTableRegistry;
+import net.emb.hcat.cli.io.DnDsMatrixWriter;
+import net.emb.hcat.cli.sequence.Sequence;
+
+@SuppressWarnings("javadoc")
+public class DnDsMatrixWriterTest {
+
+	private static final NeiGojobori STANDARD = new NeiGojobori(CodonTableRegistry.getDefault().get(1));
+
+	private static final Sequence MASTER_SEQUENCE = new Sequence("TTTGGGATGCCC", "Master");
+	private static final Sequence SYNONYMOUS_SEQUENCE = new Sequence("TTCGGGATGCCC", "Syn");
+	private static final Sequence NON_SYNONYMOUS_SEQUENCE = new Sequence("TTTGGGATGACC", "NonSyn");
+
+	@Test
+	public void testMatrix() {
+		final List<Haplotype> haplotypes = Haplotype.wrap(Arrays.asList(MASTER_SEQUENCE, SYNONYMOUS_SEQUENCE, NON_SYNONYMOUS_SEQUENCE));
+		final DnDsMatrix matrix = new DnDsMatrix(haplotypes, STANDARD, 0);
+		Assert.assertEquals(1, matrix.getCount(haplotypes.get(0), haplotypes.get(1)).getSynonymousDifferences(), 1e-9);
+		Assert.assertEquals(0, matrix.getCount(haplotypes.get(0), haplotypes.get(1)).getNonSynonymousDifferences(), 1e-9);
+		Assert.assertEquals(1, matrix.getCount(haplotypes.get(2), haplotypes.get(0)).getNonSynonymousDifferences(), 1e-9);
+		Assert.assertSame(matrix.getCount(haplotypes.get(1), haplotypes.get(2)), matrix.getCount(haplotypes.get(2), haplotypes.get(1)));
+		Assert.assertEquals(2, matrix.getCounts(haplotypes.get(0)).size());
+	}
+
+	@Test
+	public void testWriter() throws Exception {
+		final List<Haplotype> haplotypes = Haplotype.wrap(Arrays.asList(MASTER_SEQUENCE, SYNONYMOUS_SEQUENCE, NON_SYNONYMOUS_SEQUENCE));
+		final DnDsMatrix matrix = new DnDsMatrix(haplotypes, STANDARD, 0);
+
+		final ByteArrayOutputStream boas = new ByteArrayOutputStream(100);
+		final DnDsMatrixWriter writer = new DnDsMatrixWriter(new OutputStreamWriter(boas));
+		writer.setValue(EDnDsValue.PN);
+		writer.write(matrix);
+
+		final String pN = String.format(Locale.ROOT, "%.4f", 1 / (12 - matrix.getCount(haplotypes.get(0), haplotypes.get(2)).getSynonymousSites()));
+		final StringBuilder builder = new StringBuilder(200);
+		builder.append("HT-ID\tHap1  \tHap2  \tHap3  ").append(System.lineSeparator());
+		builder.append("Hap1 \t-     \t0.0000\t" + pN).append(System.lineSeparator());
+		builder.append("Hap2 \t0.0000\t-     \t" + pN).append(System.lineSeparator());
+		builder.append("Hap3 \t" + pN + "\t" + pN + "\t-     ").append(System.lineSeparator());
+
+		Assert.assertEquals(builder.toString(), boas.toString());
+	}
+
+	@Test
+	public void testWriterUndefined() throws Exception {
+		final List<Haplotype> haplotypes = Haplotype.wrap(Arrays.asList(MASTER_SEQUENCE, NON_SYNONYMOUS_SEQUENCE));
+		final DnDsMatrix matrix = new DnDsMatrix(haplotypes, STANDARD, 0);
+
+		final ByteArrayOutputStream boas = new ByteArrayOutputStream(100);
+		final DnDsMatrixWriter writer = new DnDsMatrixWriter(new OutputStreamWriter(boas));
+		writer.write(matrix);
+
+		final StringBuilder builder = new StringBuilder(200);
+		builder.append("HT-ID\tHap1\tHap2").append(System.lineSeparator());
+		builder.append("Hap1 \t-   \tNA  ").append(System.lineSeparator());
+		builder.append("Hap2 \tNA  \t-   ").append(System.lineSeparator());
+
+		Assert.assertEquals(builder.toString(), boas.toString());
+	}
+
+}
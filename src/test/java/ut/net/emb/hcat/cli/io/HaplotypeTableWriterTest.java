@@ -13,6 +13,7 @@ import org.junit.Test;
 
 import net.emb.hcat.cli.haplotype.Haplotype;
 import net.emb.hcat.cli.haplotype.HaplotypeTransformer;
+import net.emb.hcat.cli.io.CodonTableRegistry;
 import net.emb.hcat.cli.io.HaplotypeTableWriter;
 import net.emb.hcat.cli.sequence.Difference;
 import net.emb.hcat.cli.sequence.Sequence;
@@ -66,6 +67,29 @@ public class HaplotypeTableWriterTest {
 		Assert.assertEquals(builder.toString(), boas.toString());
 	}
 
+	@Test
+	public void testWriter_Coding() throws Exception {
+		final Sequence master = new Sequence("ATGAAACCC", "Master");
+		final Sequence synonymous = new Sequence("ATGAAGCCC", "Syn");
+		final Sequence mixed = new Sequence("ATGGAACCT", "Mixed");
+		final List<Haplotype> haplotypes = Haplotype.wrap(Arrays.asList(master, synonymous, mixed));
+		final HaplotypeTransformer transformer = new HaplotypeTransformer(haplotypes);
+		final Map<Haplotype, Difference> transformed = transformer.compareToMaster(master);
+
+		final ByteArrayOutputStream boas = new ByteArrayOutputStream(100);
+		final HaplotypeTableWriter writer = new HaplotypeTableWriter(new OutputStreamWriter(boas));
+		writer.setCodonTable(CodonTableRegistry.getDefault().get(1));
+		writer.write(master, transformed);
+
+		final StringBuilder builder = new StringBuilder(100);
+		builder.append("Haplotype\tSequences\tCount\tSyn\tNonSyn\t4\t6\t9").append(System.lineSeparator());
+		builder.append("Hap1     \tMaster   \t1\t0\t0\tA\tA\tC").append(System.lineSeparator());
+		builder.append("Hap2     \tSyn      \t1\t1\t0\t.\tG:S\t.").append(System.lineSeparator());
+		builder.append("Hap3     \tMixed    \t1\t1\t1\tG:N\t.\tT:S").append(System.lineSeparator());
+
+		Assert.assertEquals(builder.toString(), boas.toString());
+	}
+
 	@Test(expected = IOException.class)
 	public void testMasterHaplotypeNotFound() throws Exception {
 		final Map<Haplotype, Difference> map = new HashMap<>();
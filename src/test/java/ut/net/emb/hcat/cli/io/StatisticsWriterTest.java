@@ -0,0 +1,54 @@
+package ut.net.emb.hcat.cli.io;
+
+import java.io.StringWriter;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import net.emb.hcat.cli.io.StatisticsWriter;
+import net.emb.hcat.cli.stats.Phase;
+import net.emb.hcat.cli.stats.Statistics;
+
+@SuppressWarnings("javadoc")
+public class StatisticsWriterTest {
+
+	private static Statistics create() {
+		final Statistics statistics = new Statistics();
+		try (Phase phase = statistics.start("read")) {
+			phase.addSequences(2);
+			phase.addBases(8);
+		}
+		try (Phase phase = statistics.start("write")) {
+			phase.addSequences(2);
+		}
+		return statistics;
+	}
+
+	@Test
+	public void testText() throws Exception {
+		final StringWriter output = new StringWriter();
+		new StatisticsWriter(output).write(create());
+
+		final String[] lines = output.toString().split(System.lineSeparator());
+		Assert.assertEquals(3, lines.length);
+		Assert.assertTrue(lines[0].startsWith("Phase"));
+		Assert.assertTrue(lines[1].startsWith("read "));
+		Assert.assertTrue(lines[2].startsWith("write "));
+	}
+
+	@Test
+	public void testJson() throws Exception {
+		final StringWriter output = new StringWriter();
+		final StatisticsWriter writer = new StatisticsWriter(output);
+		writer.setJson(true);
+		writer.write(create());
+
+		final String json = output.toString();
+		Assert.assertTrue(json.startsWith("{\"phases\":["));
+		Assert.assertTrue(json.trim().endsWith("]}"));
+		Assert.assertTrue(json.contains("{\"name\":\"read\",\"wallNanos\":"));
+		Assert.assertTrue(json.contains("\"sequences\":2,\"bases\":8,"));
+		Assert.assertTrue(json.contains("{\"name\":\"write\""));
+	}
+
+}
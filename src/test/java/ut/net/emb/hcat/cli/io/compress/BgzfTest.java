@@ -0,0 +1,150 @@
+package ut.net.emb.hcat.cli.io.compress;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import net.emb.hcat.cli.io.compress.BgzfInputStream;
+import net.emb.hcat.cli.io.compress.BgzfOutputStream;
+
+@SuppressWarnings("javadoc")
+public class BgzfTest {
+
+	// Bytes of the empty block marking the end of a BGZF file.
+	private static final int EOF_BLOCK_SIZE = 28;
+
+	private static byte[] data(final int size) {
+		final byte[] data = new byte[size];
+		final Random random = new Random(42);
+		final byte[] bases = { 'A', 'C', 'G', 'T', '\n' };
+		for (int i = 0; i < size; i++) {
+			data[i] = bases[random.nextInt(bases.length)];
+		}
+		return data;
+	}
+
+	private static byte[] compress(final byte[] data, final int threads) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (BgzfOutputStream bgzf = new BgzfOutputStream(out, threads)) {
+			// Write in odd pieces to cross block boundaries.
+			int offset = 0;
+			while (offset < data.length) {
+				final int length = Math.min(7777, data.length - offset);
+				bgzf.write(data, offset, length);
+				offset += length;
+			}
+		}
+		return out.toByteArray();
+	}
+
+	private static byte[] readAll(final InputStream in) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final byte[] buffer = new byte[4096];
+		int count;
+		while ((count = in.read(buffer)) >= 0) {
+			out.write(buffer, 0, count);
+		}
+		return out.toByteArray();
+	}
+
+	private static byte[] decompress(final byte[] compressed, final int threads) throws IOException {
+		try (InputStream in = new BgzfInputStream(new ByteArrayInputStream(compressed), threads)) {
+			return readAll(in);
+		}
+	}
+
+	@SuppressWarnings({ "unused", "resource" })
+	@Test(expected = IllegalArgumentException.class)
+	public void zeroThreads() throws Exception {
+		new BgzfOutputStream(new ByteArrayOutputStream(), 0);
+	}
+
+	@Test
+	public void empty() throws Exception {
+		final byte[] compressed = compress(new byte[0], 1);
+		Assert.assertEquals(EOF_BLOCK_SIZE, compressed.length);
+		Assert.assertEquals(0, decompress(compressed, 1).length);
+	}
+
+	@Test
+	public void roundTrip() throws Exception {
+		final byte[] data = data(300000);
+		for (final int threads : new int[] { 1, 4 }) {
+			final byte[] compressed = compress(data, threads);
+			Assert.assertTrue(compressed.length < data.length);
+			Assert.assertArrayEquals(data, decompress(compressed, 1));
+			Assert.assertArrayEquals(data, decompress(compressed, 4));
+		}
+	}
+
+	@Test
+	public void sameOutputForAllThreads() throws Exception {
+		final byte[] data = data(200000);
+		Assert.assertArrayEquals(compress(data, 1), compress(data, 3));
+	}
+
+	@Test
+	public void readableByGzip() throws Exception {
+		final byte[] data = data(150000);
+		try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compress(data, 2)))) {
+			Assert.assertArrayEquals(data, readAll(in));
+		}
+	}
+
+	@Test
+	public void singleBytes() throws Exception {
+		final byte[] data = data(100000);
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (BgzfOutputStream bgzf = new BgzfOutputStream(out, 1)) {
+			for (final byte b : data) {
+				bgzf.write(b);
+			}
+		}
+		try (InputStream in = new BgzfInputStream(new ByteArrayInputStream(out.toByteArray()), 2)) {
+			for (int i = 0; i < data.length; i++) {
+				Assert.assertEquals(data[i], in.read());
+			}
+			Assert.assertEquals(-1, in.read());
+		}
+	}
+
+	@Test
+	public void concatenated() throws Exception {
+		final byte[] first = data(70000);
+		final byte[] second = "ACGT".getBytes();
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(compress(first, 1));
+		out.write(compress(second, 1));
+		final byte[] expected = Arrays.copyOf(first, first.length + second.length);
+		System.arraycopy(second, 0, expected, first.length, second.length);
+		Assert.assertArrayEquals(expected, decompress(out.toByteArray(), 2));
+	}
+
+	@Test(expected = IOException.class)
+	public void corruptChecksum() throws Exception {
+		final byte[] compressed = compress(data(1000), 1);
+		// CRC32 of the first block is stored right before the size of its
+		// uncompressed data, in front of the end of file block.
+		compressed[compressed.length - EOF_BLOCK_SIZE - 8] ^= 1;
+		decompress(compressed, 1);
+	}
+
+	@Test(expected = IOException.class)
+	public void truncated() throws Exception {
+		final byte[] compressed = compress(data(1000), 1);
+		decompress(Arrays.copyOf(compressed, compressed.length - EOF_BLOCK_SIZE - 4), 1);
+	}
+
+	@Test(expected = IOException.class)
+	public void notBgzf() throws Exception {
+		decompress("ACGTACGTACGTACGTACGT".getBytes(), 1);
+	}
+
+}
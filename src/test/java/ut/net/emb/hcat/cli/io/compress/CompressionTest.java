@@ -0,0 +1,148 @@
+package ut.net.emb.hcat.cli.io.compress;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import net.emb.hcat.cli.io.compress.BgzfOutputStream;
+import net.emb.hcat.cli.io.compress.Compression;
+import net.emb.hcat.cli.io.compress.Compression.EFormat;
+import net.emb.hcat.cli.io.sequence.ESequenceType;
+
+@SuppressWarnings("javadoc")
+public class CompressionTest {
+
+	private static final byte[] DATA = ">a\nACGT\n>b\nTTGA\n".getBytes(StandardCharsets.US_ASCII);
+
+	private File dir;
+
+	@Before
+	public void setUp() throws IOException {
+		dir = Files.createTempDirectory("hcat").toFile();
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		for (final File file : dir.listFiles()) {
+			Files.delete(file.toPath());
+		}
+		Files.delete(dir.toPath());
+	}
+
+	private static byte[] gzip(final byte[] data) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (OutputStream gzip = new GZIPOutputStream(out)) {
+			gzip.write(data);
+		}
+		return out.toByteArray();
+	}
+
+	private static byte[] bgzf(final byte[] data) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (OutputStream bgzf = new BgzfOutputStream(out, 1)) {
+			bgzf.write(data);
+		}
+		return out.toByteArray();
+	}
+
+	private static byte[] readAll(final InputStream in) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		int b;
+		while ((b = in.read()) >= 0) {
+			out.write(b);
+		}
+		return out.toByteArray();
+	}
+
+	private static InputStream stream(final byte[] data) {
+		return new BufferedInputStream(new ByteArrayInputStream(data));
+	}
+
+	@Test
+	public void detect() throws Exception {
+		Assert.assertEquals(EFormat.PLAIN, Compression.detect(stream(DATA)));
+		Assert.assertEquals(EFormat.PLAIN, Compression.detect(stream(new byte[0])));
+		Assert.assertEquals(EFormat.PLAIN, Compression.detect(stream(new byte[] { 0x1f })));
+		Assert.assertEquals(EFormat.GZIP, Compression.detect(stream(gzip(DATA))));
+		Assert.assertEquals(EFormat.BGZF, Compression.detect(stream(bgzf(DATA))));
+	}
+
+	@Test
+	public void detectDoesNotConsume() throws Exception {
+		final InputStream in = stream(DATA);
+		Compression.detect(in);
+		Assert.assertArrayEquals(DATA, readAll(in));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void detectWithoutMark() throws Exception {
+		Compression.detect(new InputStream() {
+			@Override
+			public int read() {
+				return -1;
+			}
+
+			@Override
+			public boolean markSupported() {
+				return false;
+			}
+		});
+	}
+
+	@Test
+	public void open() throws Exception {
+		for (final byte[] content : new byte[][] { DATA, gzip(DATA), bgzf(DATA) }) {
+			try (InputStream in = Compression.open(new ByteArrayInputStream(content), 2)) {
+				Assert.assertArrayEquals(DATA, readAll(in));
+			}
+		}
+	}
+
+	@Test
+	public void createAndOpenFile() throws Exception {
+		final File plain = new File(dir, "test.fas");
+		final File compressed = new File(dir, "test.fas.gz");
+		for (final File file : new File[] { plain, compressed }) {
+			try (OutputStream out = Compression.create(file, 2)) {
+				out.write(DATA);
+			}
+			try (InputStream in = Compression.open(file, 2)) {
+				Assert.assertArrayEquals(DATA, readAll(in));
+			}
+		}
+		Assert.assertEquals(EFormat.PLAIN, Compression.detect(plain));
+		Assert.assertEquals(EFormat.BGZF, Compression.detect(compressed));
+		Assert.assertArrayEquals(DATA, Files.readAllBytes(plain.toPath()));
+	}
+
+	@Test
+	public void fileEndings() throws Exception {
+		Assert.assertTrue(Compression.isCompressed("test.fas.gz"));
+		Assert.assertTrue(Compression.isCompressed("test.fas.BGZ"));
+		Assert.assertTrue(Compression.isCompressed("test.bgzf"));
+		Assert.assertFalse(Compression.isCompressed("test.fas"));
+		Assert.assertFalse(Compression.isCompressed("gz"));
+		Assert.assertFalse(Compression.isCompressed(null));
+		Assert.assertEquals("test.fas", Compression.stripEnding("test.fas.gz"));
+		Assert.assertEquals("test.fas", Compression.stripEnding("test.fas"));
+	}
+
+	@Test
+	public void sequenceTypeOfCompressedFile() throws Exception {
+		Assert.assertEquals(ESequenceType.FASTA, ESequenceType.byFileEnding("test.fas.gz"));
+		Assert.assertEquals(ESequenceType.FASTA, ESequenceType.byFileEnding("test.fas"));
+	}
+
+}
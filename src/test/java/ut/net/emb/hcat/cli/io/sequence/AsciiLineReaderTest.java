@@ -0,0 +1,204 @@
+package ut.net.emb.hcat.cli.io.sequence;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import net.emb.hcat.cli.io.sequence.AsciiLineReader;
+import net.emb.hcat.cli.io.sequence.CsvReader;
+import net.emb.hcat.cli.sequence.Sequence;
+
+@SuppressWarnings("javadoc")
+public class AsciiLineReaderTest {
+
+	private static AsciiLineReader reader(final String content, final Charset charset) {
+		return new AsciiLineReader(new ByteArrayInputStream(content.getBytes(charset)), charset);
+	}
+
+	// Reads all lines, and checks that they are the same as with a
+	// BufferedReader.
+	private static void compare(final String content, final Charset charset) throws IOException {
+		try (BufferedReader expected = new BufferedReader(new StringReader(content)); BufferedReader actual = reader(content, charset)) {
+			String line;
+			do {
+				line = expected.readLine();
+				Assert.assertEquals(line, actual.readLine());
+			} while (line != null);
+		}
+	}
+
+	@Test
+	public void lines() throws Exception {
+		compare("", StandardCharsets.UTF_8);
+		compare("\n", StandardCharsets.UTF_8);
+		compare(">a\nACGT\n>b\r\nTTTT\r\n\r\n>c\rGG\r\rAA", StandardCharsets.UTF_8);
+		compare("no line break", StandardCharsets.UTF_8);
+		compare("\r\n\r\r\n\n\r", StandardCharsets.US_ASCII);
+	}
+
+	@Test
+	public void nonAscii() throws Exception {
+		compare(">ä name\nACGT\n>€\nTTTT\n>😀\r\n", StandardCharsets.UTF_8);
+		compare(">äöü\nACGT\n", StandardCharsets.ISO_8859_1);
+	}
+
+	@Test
+	public void longLines() throws Exception {
+		final StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < 200000; i++) {
+			builder.append("ACGT".charAt(i % 4));
+		}
+		final String value = builder.toString();
+		compare(">a\n" + value + "\n>ä\r\n" + value + "ä" + value + "\r\n", StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void lineBreakAtBufferEnd() throws Exception {
+		// Puts the \r at the end of the buffer, and the \n at the start of
+		// the next one.
+		final StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < (1 << 16) - 1; i++) {
+			builder.append('A');
+		}
+		builder.append("\r\nC\r\n");
+		compare(builder.toString(), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void random() throws Exception {
+		final Random random = new Random(42);
+		final String[] parts = { "ACGT", "\n", "\r", "\r\n", "ä", ">", " " };
+		for (int run = 0; run < 100; run++) {
+			final StringBuilder builder = new StringBuilder();
+			final int count = random.nextInt(50);
+			for (int i = 0; i < count; i++) {
+				builder.append(parts[random.nextInt(parts.length)]);
+			}
+			compare(builder.toString(), StandardCharsets.UTF_8);
+		}
+	}
+
+	@Test
+	public void characters() throws Exception {
+		try (BufferedReader reader = reader("AC\r\nä€\n", StandardCharsets.UTF_8)) {
+			Assert.assertEquals('A', reader.read());
+			final char[] chars = new char[10];
+			Assert.assertEquals(3, reader.read(chars, 0, 10));
+			Assert.assertEquals("C\r\n", new String(chars, 0, 3));
+			Assert.assertEquals('ä', reader.read());
+			Assert.assertEquals("€", reader.readLine());
+			Assert.assertEquals(-1, reader.read());
+			Assert.assertNull(reader.readLine());
+		}
+	}
+
+	@Test
+	public void readThenReadLine() throws Exception {
+		try (BufferedReader reader = reader(">näme\nACGT\n", StandardCharsets.UTF_8)) {
+			final char[] chars = new char[10];
+			Assert.assertEquals(">n", new String(chars, 0, reader.read(chars, 0, 10)));
+			Assert.assertEquals("äme\n", new String(chars, 0, reader.read(chars, 0, 10)));
+			Assert.assertEquals("ACGT", reader.readLine());
+			Assert.assertNull(reader.readLine());
+		}
+		// Same as BufferedReader, if a line has been read up to its
+		// terminator.
+		for (final String content : new String[] { ">ä\r\nAC\r\nGT", ">ä\rAC\r\n", ">ä" }) {
+			try (BufferedReader reader = reader(content, StandardCharsets.UTF_8); BufferedReader expected = new BufferedReader(new StringReader(content))) {
+				final char[] chars = new char[3];
+				Assert.assertEquals(expected.read(chars, 0, 1), reader.read(chars, 0, 1));
+				Assert.assertEquals(expected.read(chars, 0, 2), reader.read(chars, 0, 2));
+				Assert.assertEquals(expected.readLine(), reader.readLine());
+				Assert.assertEquals(expected.readLine(), reader.readLine());
+			}
+		}
+	}
+
+	@Test
+	public void bulkCharacters() throws Exception {
+		final String content = ">ä name\r\nACGT\r\n>€\rTT\nGG\n";
+		for (final int size : new int[] { 1, 3, 1000 }) {
+			try (BufferedReader reader = reader(content, StandardCharsets.UTF_8)) {
+				final StringBuilder builder = new StringBuilder();
+				final char[] chars = new char[size];
+				int read;
+				while ((read = reader.read(chars, 0, size)) >= 0) {
+					builder.append(chars, 0, read);
+				}
+				Assert.assertEquals(content, builder.toString());
+			}
+		}
+	}
+
+	@Test
+	public void markAndReset() throws Exception {
+		try (BufferedReader reader = reader("sep=;\nACGT\n", StandardCharsets.UTF_8)) {
+			reader.mark(5);
+			final char[] chars = new char[5];
+			Assert.assertEquals(5, reader.read(chars));
+			Assert.assertEquals("sep=;", new String(chars));
+			reader.reset();
+			Assert.assertEquals("sep=;", reader.readLine());
+			reader.mark(100);
+			Assert.assertEquals("ACGT", reader.readLine());
+			reader.reset();
+			Assert.assertEquals("ACGT", reader.readLine());
+			Assert.assertNull(reader.readLine());
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void markInvalid() throws Exception {
+		try (BufferedReader reader = reader("ACGT\nACGT\nACGT\n", StandardCharsets.UTF_8)) {
+			reader.mark(3);
+			reader.readLine();
+			reader.readLine();
+			reader.reset();
+		}
+	}
+
+	@Test
+	public void csvHeader() throws Exception {
+		for (final String content : new String[] { "sep=;\nOne;A;C\nTwo;G;T\n", "One,A,C\nTwo,G,T\n" }) {
+			try (CsvReader reader = new CsvReader(reader(content, StandardCharsets.UTF_8))) {
+				final List<Sequence> sequences = reader.read();
+				Assert.assertEquals(Arrays.asList(new Sequence("AC", "One"), new Sequence("GT", "Two")), sequences);
+			}
+		}
+	}
+
+	@Test
+	public void create() throws Exception {
+		final byte[] content = "ACGT\n".getBytes(StandardCharsets.UTF_16);
+		try (BufferedReader reader = AsciiLineReader.create(new ByteArrayInputStream(content), StandardCharsets.UTF_16)) {
+			Assert.assertFalse(reader instanceof AsciiLineReader);
+			Assert.assertEquals("ACGT", reader.readLine());
+		}
+		try (BufferedReader reader = AsciiLineReader.create(new ByteArrayInputStream(new byte[0]), StandardCharsets.UTF_8)) {
+			Assert.assertTrue(reader instanceof AsciiLineReader);
+		}
+	}
+
+	@SuppressWarnings({ "unused", "resource" })
+	@Test(expected = IllegalArgumentException.class)
+	public void incompatibleCharset() throws Exception {
+		new AsciiLineReader(new ByteArrayInputStream(new byte[0]), StandardCharsets.UTF_16);
+	}
+
+	@Test(expected = IOException.class)
+	public void closed() throws Exception {
+		final BufferedReader reader = reader("ACGT", StandardCharsets.UTF_8);
+		reader.close();
+		reader.readLine();
+	}
+
+}
@@ -1,6 +1,7 @@
 package ut.net.emb.hcat.cli.io.sequence;
 
 import java.io.StringReader;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.hamcrest.Matchers;
@@ -99,6 +100,19 @@ public class BaseSequenceReaderTest {
 		Assert.assertEquals(LONG_VALUE.length(), longSeq.getLength());
 	}
 
+	@Test
+	public void readStreamed() throws Exception {
+		final BaseSequenceReader baseReader = new BaseSequenceReader(new StringReader(getStandard() + getStandard2()));
+		final List<Sequence> sequences = new ArrayList<>();
+		baseReader.read(sequences::add);
+		baseReader.close();
+		Assert.assertEquals(2, sequences.size());
+		Assert.assertEquals("1", sequences.get(0).getName());
+		Assert.assertEquals(STANDARD_VALUE, sequences.get(0).getValue());
+		Assert.assertEquals("2", sequences.get(1).getName());
+		Assert.assertEquals(STANDARD_2_VALUE, sequences.get(1).getValue());
+	}
+
 	@Test
 	public void enforceSameLengthValid() throws Exception {
 		final BaseSequenceReader baseReader = new BaseSequenceReader(new StringReader(getStandard() + getStandard2()));
@@ -132,4 +146,36 @@ public class BaseSequenceReaderTest {
 		baseReader.close();
 	}
 
+	@Test
+	public void manyBlankLines() throws Exception {
+		final StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < 100000; i++) {
+			builder.append(i % 2 == 0 ? "\n" : " \t \r\n");
+		}
+		builder.append(getStandard());
+
+		final BaseSequenceReader baseReader = new BaseSequenceReader(new StringReader(builder.toString()));
+		final List<Sequence> sequences = baseReader.read();
+		baseReader.close();
+		Assert.assertEquals(1, sequences.size());
+		Assert.assertEquals(STANDARD_VALUE, sequences.get(0).getValue());
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")
+	public void legacyIsData() throws Exception {
+		// Subclass still overriding the old hook, skipping comment lines.
+		final BaseSequenceReader baseReader = new BaseSequenceReader(new StringReader("#comment\n" + getStandard() + "\n#other\n" + getStandard2())) {
+			@Override
+			protected boolean isData(final String line) {
+				return super.isData(line) && !line.startsWith("#");
+			}
+		};
+		final List<Sequence> sequences = baseReader.read();
+		baseReader.close();
+		Assert.assertEquals(2, sequences.size());
+		Assert.assertEquals(STANDARD_VALUE, sequences.get(0).getValue());
+		Assert.assertEquals(STANDARD_2_VALUE, sequences.get(1).getValue());
+	}
+
 }
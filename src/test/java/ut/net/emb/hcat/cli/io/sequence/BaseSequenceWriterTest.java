@@ -125,6 +125,29 @@ public class BaseSequenceWriterTest {
 		Assert.assertEquals("\nABCD\nName\nDCBA\n".replace("\n", LINEBREAK), output);
 	}
 
+	@Test
+	public void writeStreaming() throws Exception {
+		final StringWriter writer = new StringWriter();
+		final BaseSequenceWriter baseWriter = new BaseSequenceWriter(writer);
+		Assert.assertTrue(baseWriter.isStreaming());
+		baseWriter.start();
+		baseWriter.append(SEQUENCE);
+		baseWriter.append(SEQUENCE_NAMED);
+		baseWriter.end();
+		baseWriter.close();
+		final String output = writer.toString();
+		Assert.assertEquals("\nABCD\nName\nDCBA\n".replace("\n", LINEBREAK), output);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void appendNull() throws Exception {
+		final StringWriter writer = new StringWriter();
+		final BaseSequenceWriter baseWriter = new BaseSequenceWriter(writer);
+		baseWriter.start();
+		baseWriter.append(null);
+		baseWriter.close();
+	}
+
 	@Test(expected = IllegalArgumentException.class)
 	public void lineBreakNegative() throws Exception {
 		final StringWriter writer = new StringWriter();
@@ -0,0 +1,202 @@
+package ut.net.emb.hcat.cli.io.sequence;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import net.emb.hcat.cli.io.sequence.BinaryAlignmentReader;
+import net.emb.hcat.cli.io.sequence.BinaryAlignmentWriter;
+import net.emb.hcat.cli.io.sequence.ESequenceType;
+import net.emb.hcat.cli.sequence.Sequence;
+
+@SuppressWarnings("javadoc")
+public class BinaryAlignmentTest {
+
+	private File file;
+
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile("hcat", ".hcb");
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(file.toPath());
+	}
+
+	private List<Sequence> roundTrip(final List<Sequence> sequences) throws IOException {
+		try (BinaryAlignmentWriter writer = new BinaryAlignmentWriter(file)) {
+			writer.write(sequences);
+		}
+		try (BinaryAlignmentReader reader = new BinaryAlignmentReader(file)) {
+			Assert.assertEquals(sequences.size(), reader.size());
+			for (int i = 0; i < sequences.size(); i++) {
+				Assert.assertEquals(sequences.get(i).getName(), reader.getName(i));
+				Assert.assertEquals(sequences.get(i).getLength(), reader.getLength(i));
+			}
+			final List<Sequence> read = reader.read();
+			Assert.assertEquals(sequences, read);
+			return read;
+		}
+	}
+
+	@Test
+	public void standard() throws Exception {
+		roundTrip(Arrays.asList(new Sequence("ACGTACGT", "a"), new Sequence("TTGACCAG", "b"), new Sequence("A", "c")));
+	}
+
+	@Test
+	public void exceptions() throws Exception {
+		roundTrip(Arrays.asList(new Sequence("AC-NNNNacgtRY?", "gaps"), new Sequence("----", "allGaps"), new Sequence("NANANA", "alternating")));
+	}
+
+	@Test
+	public void empty() throws Exception {
+		Assert.assertTrue(roundTrip(new ArrayList<>()).isEmpty());
+		roundTrip(Arrays.asList(new Sequence("", "empty"), new Sequence("ACG", "")));
+	}
+
+	@Test
+	public void names() throws Exception {
+		roundTrip(Arrays.asList(new Sequence("ACGT"), new Sequence("ACGT", "ä € name with spaces")));
+	}
+
+	@Test
+	public void random() throws Exception {
+		final Random random = new Random(42);
+		final String alphabet = "ACGTACGTACGTN-acgtRY";
+		final List<Sequence> sequences = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			final char[] value = new char[random.nextInt(300)];
+			for (int j = 0; j < value.length; j++) {
+				value[j] = alphabet.charAt(random.nextInt(alphabet.length()));
+			}
+			sequences.add(new Sequence(new String(value), "s" + i));
+		}
+		roundTrip(sequences);
+	}
+
+	@Test
+	public void bases() throws Exception {
+		final Random random = new Random(7);
+		final String alphabet = "ACGTACGTN-";
+		final List<Sequence> sequences = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			final StringBuilder builder = new StringBuilder();
+			final int length = random.nextInt(300);
+			for (int j = 0; j < length; j++) {
+				builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+			}
+			sequences.add(new Sequence(builder.toString(), "s" + i));
+		}
+		roundTrip(sequences);
+
+		try (BinaryAlignmentReader reader = new BinaryAlignmentReader(file)) {
+			final char[] target = new char[310];
+			for (int run = 0; run < 1000; run++) {
+				final int index = random.nextInt(sequences.size());
+				final String value = sequences.get(index).getValue();
+				final int start = random.nextInt(value.length() + 1);
+				final int length = random.nextInt(value.length() - start + 1);
+				final int offset = random.nextInt(10);
+				reader.getBases(index, start, target, offset, length);
+				Assert.assertEquals(value.substring(start, start + length), new String(target, offset, length));
+			}
+		}
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void basesOutOfRange() throws Exception {
+		roundTrip(Arrays.asList(new Sequence("ACGT", "a")));
+		try (BinaryAlignmentReader reader = new BinaryAlignmentReader(file)) {
+			reader.getBases(0, 2, new char[10], 0, 3);
+		}
+	}
+
+	@Test
+	public void appendOneByOne() throws Exception {
+		try (BinaryAlignmentWriter writer = new BinaryAlignmentWriter(file)) {
+			writer.start();
+			for (int i = 0; i < 3000; i++) {
+				writer.append(new Sequence("ACGTN", "s" + i));
+			}
+			writer.end();
+		}
+		final List<Sequence> sequences = new ArrayList<>();
+		try (BinaryAlignmentReader reader = new BinaryAlignmentReader(file)) {
+			reader.read(sequences::add);
+		}
+		Assert.assertEquals(3000, sequences.size());
+		Assert.assertEquals(new Sequence("ACGTN", "s2999"), sequences.get(2999));
+	}
+
+	@Test
+	public void decodedOnce() throws Exception {
+		final List<Sequence> read = roundTrip(Arrays.asList(new Sequence("ACGT", "a")));
+		Assert.assertSame(read.get(0), read.get(0));
+	}
+
+	@Test
+	public void readableAfterClose() throws Exception {
+		try (BinaryAlignmentWriter writer = new BinaryAlignmentWriter(file)) {
+			writer.write(new Sequence("ACGT", "a"), new Sequence("TTTT", "b"));
+		}
+		final List<Sequence> read;
+		try (BinaryAlignmentReader reader = new BinaryAlignmentReader(file)) {
+			read = reader.read();
+		}
+		Assert.assertEquals("TTTT", read.get(1).getValue());
+	}
+
+	@SuppressWarnings("resource")
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void invalidIndex() throws Exception {
+		roundTrip(Arrays.asList(new Sequence("ACGT", "a")));
+		new BinaryAlignmentReader(file).get(1);
+	}
+
+	@SuppressWarnings({ "unused", "resource" })
+	@Test(expected = IOException.class)
+	public void notBinary() throws Exception {
+		Files.write(file.toPath(), ">a\nACGTACGTACGTACGTACGTACGTACGTACGTACGTACGT\n".getBytes(StandardCharsets.US_ASCII));
+		new BinaryAlignmentReader(file);
+	}
+
+	@SuppressWarnings({ "unused", "resource" })
+	@Test(expected = IOException.class)
+	public void emptyFile() throws Exception {
+		new BinaryAlignmentReader(file);
+	}
+
+	@SuppressWarnings({ "unused", "resource" })
+	@Test(expected = IOException.class)
+	public void truncated() throws Exception {
+		roundTrip(Arrays.asList(new Sequence("ACGT", "a"), new Sequence("ACGT", "b")));
+		final byte[] content = Files.readAllBytes(file.toPath());
+		Files.write(file.toPath(), Arrays.copyOf(content, content.length - 4));
+		new BinaryAlignmentReader(file);
+	}
+
+	@Test
+	public void sequenceType() throws Exception {
+		Assert.assertEquals(ESequenceType.BINARY, ESequenceType.byFileEnding("alignment.hcb"));
+		Assert.assertEquals(ESequenceType.BINARY, ESequenceType.byFileEnding("binary"));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void noTextReader() throws Exception {
+		ESequenceType.BINARY.createReader(new StringReader(""));
+	}
+
+}
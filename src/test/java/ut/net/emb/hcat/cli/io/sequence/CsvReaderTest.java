@@ -123,4 +123,39 @@ public class CsvReaderTest {
 		Assert.assertEquals("2", seq2.getName());
 	}
 
+	@Test
+	public void readMultiCharacterAndEmptyValues() throws Exception {
+		final CsvReader reader = new CsvReader(new StringReader("One,AC,,G,T,\nTwo,,ACGT\n"));
+		final List<Sequence> sequences = reader.read();
+		reader.close();
+
+		Assert.assertEquals(2, sequences.size());
+		Assert.assertEquals(new Sequence("ACGT", "One"), sequences.get(0));
+		Assert.assertEquals(new Sequence("ACGT", "Two"), sequences.get(1));
+	}
+
+	@Test
+	public void readNameOnly() throws Exception {
+		final CsvReader reader = new CsvReader(new StringReader("One\nTwo,\n,ACGT"));
+		final List<Sequence> sequences = reader.read();
+		reader.close();
+
+		Assert.assertEquals(3, sequences.size());
+		Assert.assertEquals(new Sequence("", "One"), sequences.get(0));
+		Assert.assertEquals(new Sequence("", "Two"), sequences.get(1));
+		Assert.assertEquals(new Sequence("ACGT", ""), sequences.get(2));
+	}
+
+	@Test
+	public void readDifferentLineLengths() throws Exception {
+		final CsvReader reader = new CsvReader(new StringReader("sep=;\nLong;A;C;G;T;A;C;G;T\nShort;A\nLonger;A;C;G;T;A;C;G;T;A;C\n"));
+		final List<Sequence> sequences = reader.read();
+		reader.close();
+
+		Assert.assertEquals(3, sequences.size());
+		Assert.assertEquals("ACGTACGT", sequences.get(0).getValue());
+		Assert.assertEquals("A", sequences.get(1).getValue());
+		Assert.assertEquals("ACGTACGTAC", sequences.get(2).getValue());
+	}
+
 }
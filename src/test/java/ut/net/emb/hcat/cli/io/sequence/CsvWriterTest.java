@@ -103,4 +103,23 @@ public class CsvWriterTest {
 		Assert.assertEquals("Test1,A,C,G,T\nTest2,T,G,C,A\n".replace("\n", LINEBREAK), output);
 	}
 
+	@Test
+	public void writeLongSequences() throws Exception {
+		final StringBuilder value = new StringBuilder();
+		final StringBuilder expected = new StringBuilder("Long");
+		for (int i = 0; i < 100000; i++) {
+			final char c = "ACGT".charAt(i % 4);
+			value.append(c);
+			expected.append(';').append(c);
+		}
+		expected.append(LINEBREAK).append("Short;T").append(LINEBREAK);
+
+		final StringWriter writer = new StringWriter();
+		final CsvWriter csvWriter = new CsvWriter(writer, ';');
+		csvWriter.write(new Sequence(value.toString(), "Long"), new Sequence("T", "Short"));
+		csvWriter.close();
+
+		Assert.assertEquals(expected.toString(), writer.toString());
+	}
+
 }
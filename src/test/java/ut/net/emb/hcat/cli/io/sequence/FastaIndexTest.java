@@ -0,0 +1,131 @@
+package ut.net.emb.hcat.cli.io.sequence;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import net.emb.hcat.cli.io.sequence.FastaIndex;
+import net.emb.hcat.cli.io.sequence.FastaIndex.Entry;
+
+@SuppressWarnings("javadoc")
+public class FastaIndexTest {
+
+	private static FastaIndex build(final String content) throws IOException {
+		return FastaIndex.build(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void build() throws Exception {
+		final FastaIndex index = build(">one first\nACGTAC\nGTACGT\nAC\n>two\nTTTT\n");
+		final List<Entry> entries = index.getEntries();
+		Assert.assertEquals(2, entries.size());
+		Assert.assertEquals("one\t14\t11\t6\t7", entries.get(0).toString());
+		Assert.assertEquals("two\t4\t33\t4\t5", entries.get(1).toString());
+	}
+
+	@Test
+	public void buildCarriageReturn() throws Exception {
+		final FastaIndex index = build(">one\r\nACG\r\nTA\r\n>two\r\nGG");
+		Assert.assertEquals("one\t5\t6\t3\t5", index.get("one").toString());
+		Assert.assertEquals("two\t2\t21\t2\t2", index.get("two").toString());
+	}
+
+	@Test
+	public void buildTrailingBlankLines() throws Exception {
+		final FastaIndex index = build(">one\nACG\nT\n\n\n>two\nGG\n");
+		Assert.assertEquals(4, index.get("one").getLength());
+		Assert.assertEquals(2, index.get("two").getLength());
+	}
+
+	@Test(expected = IOException.class)
+	public void buildDifferentLineLength() throws Exception {
+		build(">one\nACG\nT\nACG\n");
+	}
+
+	@Test(expected = IOException.class)
+	public void buildBlankLineInSequence() throws Exception {
+		build(">one\nACG\n\nACG\n");
+	}
+
+	@Test(expected = IOException.class)
+	public void buildNoId() throws Exception {
+		build("ACGT\n");
+	}
+
+	@Test
+	public void duplicateName() throws Exception {
+		final FastaIndex index = build(">one\nAC\n>one\nACGT\n");
+		Assert.assertEquals(1, index.size());
+		Assert.assertEquals(2, index.get("one").getLength());
+	}
+
+	@Test
+	public void offsetOf() throws Exception {
+		final Entry entry = build(">one\nACGTAC\nGTACGT\nAC\n").get("one");
+		Assert.assertEquals(5, entry.offsetOf(0));
+		Assert.assertEquals(10, entry.offsetOf(5));
+		Assert.assertEquals(12, entry.offsetOf(6));
+		Assert.assertEquals(20, entry.offsetOf(13));
+	}
+
+	@Test
+	public void writeRead() throws Exception {
+		final FastaIndex index = build(">one\nACGTAC\nGT\n>two\nTTTT\n");
+		final StringWriter writer = new StringWriter();
+		index.write(writer);
+		Assert.assertEquals("one\t8\t5\t6\t7\ntwo\t4\t20\t4\t5\n", writer.toString());
+
+		final FastaIndex read = FastaIndex.read(new StringReader(writer.toString()));
+		Assert.assertEquals(index.getEntries().toString(), read.getEntries().toString());
+	}
+
+	@Test
+	public void loadConcurrently() throws Exception {
+		final Path dir = Files.createTempDirectory("hcat");
+		final File fasta = dir.resolve("ref.fas").toFile();
+		final StringBuilder content = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			content.append(">seq").append(i).append("\nACGTACGT\nACG\n");
+		}
+		Files.write(fasta.toPath(), content.toString().getBytes(StandardCharsets.UTF_8));
+
+		final ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			final List<Future<FastaIndex>> futures = new ArrayList<>();
+			for (int i = 0; i < 32; i++) {
+				futures.add(executor.submit((Callable<FastaIndex>) () -> FastaIndex.load(fasta, StandardCharsets.UTF_8)));
+			}
+			for (final Future<FastaIndex> future : futures) {
+				Assert.assertEquals(1000, future.get().size());
+			}
+			// Only the FASTA and its index are left.
+			Assert.assertEquals(2, dir.toFile().list().length);
+			Assert.assertEquals(1000, FastaIndex.load(fasta, StandardCharsets.UTF_8).size());
+		} finally {
+			executor.shutdown();
+			Files.deleteIfExists(FastaIndex.indexFile(fasta).toPath());
+			Files.delete(fasta.toPath());
+			Files.delete(dir);
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void readMalformed() throws Exception {
+		FastaIndex.read(new StringReader("one\t8\t5\n"));
+	}
+
+}
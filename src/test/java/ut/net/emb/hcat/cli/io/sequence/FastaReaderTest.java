@@ -181,4 +181,19 @@ public class FastaReaderTest {
 		Assert.assertEquals(34, sequences.size());
 	}
 
+	@Test
+	public void readLongCommentBlock() throws Exception {
+		final StringBuilder builder = new StringBuilder(">Name\nAC\n");
+		for (int i = 0; i < 100000; i++) {
+			builder.append(";comment ").append(i).append('\n');
+		}
+		builder.append("GT\n");
+
+		final FastaReader fasta = new FastaReader(new StringReader(builder.toString()));
+		final List<Sequence> sequences = fasta.read();
+		fasta.close();
+		Assert.assertEquals(1, sequences.size());
+		Assert.assertEquals(new Sequence("ACGT", "Name"), sequences.get(0));
+	}
+
 }
@@ -0,0 +1,171 @@
+package ut.net.emb.hcat.cli.io.sequence;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import net.emb.hcat.cli.ErrorCodeException;
+import net.emb.hcat.cli.ErrorCodeException.EErrorCode;
+import net.emb.hcat.cli.io.sequence.FastqReader;
+import net.emb.hcat.cli.sequence.Sequence;
+
+@SuppressWarnings("javadoc")
+public class FastqReaderTest {
+
+	// Qualities: '!' is 0, '+' is 10, '5' is 20, '?' is 30, 'I' is 40.
+	private static final String READS = "@one\nACGT\n+\nIIII\n@two first\nACGA\n+two first\n?!??\n@three\nAC\n+\n55\n";
+
+	private static List<Sequence> read(final FastqReader reader) throws ErrorCodeException {
+		try (FastqReader r = reader) {
+			return r.read();
+		}
+	}
+
+	@Test
+	public void standard() throws Exception {
+		final List<Sequence> sequences = read(new FastqReader(new StringReader(READS)));
+		Assert.assertEquals(3, sequences.size());
+		Assert.assertEquals("one", sequences.get(0).getName());
+		Assert.assertEquals("ACGT", sequences.get(0).getValue());
+		Assert.assertEquals("two first", sequences.get(1).getName());
+		Assert.assertEquals("ACGA", sequences.get(1).getValue());
+		Assert.assertEquals("AC", sequences.get(2).getValue());
+	}
+
+	@Test
+	public void multiLine() throws Exception {
+		// Qualities may start with '@' and '+'.
+		final String content = "@a\r\nAC\r\nGT\r\n\r\n+\r\n@+\r\nII\r\n@b\r\nTT\r\n+\r\n+@\r\n";
+		final List<Sequence> sequences = read(new FastqReader(new StringReader(content)));
+		Assert.assertEquals(2, sequences.size());
+		Assert.assertEquals("ACGT", sequences.get(0).getValue());
+		Assert.assertEquals("b", sequences.get(1).getName());
+		Assert.assertEquals("TT", sequences.get(1).getValue());
+	}
+
+	@Test
+	public void minQuality() throws Exception {
+		final FastqReader reader = new FastqReader(new StringReader(READS));
+		reader.setMinQuality(20);
+		final List<Sequence> sequences = read(reader);
+		Assert.assertEquals(2, sequences.size());
+		Assert.assertEquals("one", sequences.get(0).getName());
+		Assert.assertEquals("three", sequences.get(1).getName());
+		Assert.assertEquals(1, reader.getFilteredCount());
+	}
+
+	@Test
+	public void minMeanQuality() throws Exception {
+		final FastqReader reader = new FastqReader(new StringReader(READS));
+		// Mean of "two" is 22.5.
+		reader.setMinMeanQuality(22.5);
+		Assert.assertEquals(2, read(reader).size());
+
+		final FastqReader stricter = new FastqReader(new StringReader(READS));
+		stricter.setMinMeanQuality(22.6);
+		final List<Sequence> sequences = read(stricter);
+		Assert.assertEquals(1, sequences.size());
+		Assert.assertEquals("one", sequences.get(0).getName());
+	}
+
+	@Test
+	public void length() throws Exception {
+		final FastqReader reader = new FastqReader(new StringReader(READS));
+		reader.setMinLength(3);
+		Assert.assertEquals(2, read(reader).size());
+
+		final FastqReader shorter = new FastqReader(new StringReader(READS));
+		shorter.setMaxLength(3);
+		final List<Sequence> sequences = read(shorter);
+		Assert.assertEquals(1, sequences.size());
+		Assert.assertEquals("three", sequences.get(0).getName());
+	}
+
+	@Test
+	public void sameLengthAfterFilter() throws Exception {
+		final FastqReader reader = new FastqReader(new StringReader(READS));
+		reader.setEnforceSameLength(true);
+		reader.setMinLength(4);
+		Assert.assertEquals(2, read(reader).size());
+	}
+
+	@Test
+	public void emptyReadFiltered() throws Exception {
+		final FastqReader reader = new FastqReader(new StringReader("@empty\n\n+\n\n@a\nA\n+\nI\n"));
+		final List<Sequence> sequences = read(reader);
+		Assert.assertEquals(1, sequences.size());
+		Assert.assertEquals("a", sequences.get(0).getName());
+		Assert.assertEquals(1, reader.getFilteredCount());
+	}
+
+	@Test
+	public void qualityOffset() throws Exception {
+		// 'h' is 40 with an offset of 64, but '5' is invalid.
+		final FastqReader reader = new FastqReader(new StringReader("@a\nAC\n+\nhh\n"));
+		reader.setQualityOffset(64);
+		reader.setMinQuality(40);
+		Assert.assertEquals(1, read(reader).size());
+
+		final FastqReader invalid = new FastqReader(new StringReader(READS));
+		invalid.setQualityOffset(64);
+		try {
+			read(invalid);
+			Assert.fail();
+		} catch (final ErrorCodeException e) {
+			Assert.assertEquals(EErrorCode.GENERIC_READ, e.getErrorCode());
+		}
+	}
+
+	@Test
+	public void consumer() throws Exception {
+		final List<Sequence> sequences = new ArrayList<>();
+		try (FastqReader reader = new FastqReader(new StringReader(READS))) {
+			reader.setMinQuality(20);
+			reader.read(sequences::add);
+		}
+		Assert.assertEquals(2, sequences.size());
+	}
+
+	@Test
+	public void invalidHeader() throws Exception {
+		try {
+			read(new FastqReader(new StringReader(">a\nACGT\n+\nIIII\n")));
+			Assert.fail();
+		} catch (final ErrorCodeException e) {
+			Assert.assertEquals(EErrorCode.INVALID_HEADER, e.getErrorCode());
+		}
+	}
+
+	@Test
+	public void missingQualities() throws Exception {
+		for (final String content : new String[] { "@a\nACGT\n", "@a\nACGT\n+\nII\n" }) {
+			try {
+				read(new FastqReader(new StringReader(content)));
+				Assert.fail();
+			} catch (final ErrorCodeException e) {
+				Assert.assertEquals(EErrorCode.MISSING_VALUE, e.getErrorCode());
+			}
+		}
+	}
+
+	@Test
+	public void tooManyQualities() throws Exception {
+		try {
+			read(new FastqReader(new StringReader("@a\nACGT\n+\nII\nIII\n")));
+			Assert.fail();
+		} catch (final ErrorCodeException e) {
+			Assert.assertEquals(EErrorCode.SEQUENCE_WRONG_LENGTH, e.getErrorCode());
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void negativeFilter() throws Exception {
+		try (FastqReader reader = new FastqReader(new StringReader(""))) {
+			reader.setMinMeanQuality(-1);
+		}
+	}
+
+}
@@ -0,0 +1,94 @@
+package ut.net.emb.hcat.cli.io.sequence;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import net.emb.hcat.cli.io.sequence.FastaIndex;
+import net.emb.hcat.cli.io.sequence.IndexedFastaReader;
+import net.emb.hcat.cli.sequence.Sequence;
+
+@SuppressWarnings("javadoc")
+public class IndexedFastaReaderTest {
+
+	private File file;
+	private File index;
+
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile("hcat", ".fas");
+		index = FastaIndex.indexFile(file);
+		write(">one first\nACGTAC\nGTACGT\nAC\n>two\nTTTT\n");
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(file.toPath());
+		Files.deleteIfExists(index.toPath());
+	}
+
+	private void write(final String content) throws IOException {
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void read() throws Exception {
+		try (IndexedFastaReader reader = new IndexedFastaReader(file, StandardCharsets.UTF_8)) {
+			final Sequence one = reader.read("one");
+			Assert.assertEquals("one", one.getName());
+			Assert.assertEquals("ACGTACGTACGTAC", one.getValue());
+			Assert.assertEquals("TTTT", reader.read("two").getValue());
+			Assert.assertNull(reader.read("three"));
+		}
+		Assert.assertTrue(index.isFile());
+	}
+
+	@Test
+	public void readRegion() throws Exception {
+		try (IndexedFastaReader reader = new IndexedFastaReader(file, StandardCharsets.UTF_8)) {
+			final Sequence region = reader.read("one", 4, 13);
+			Assert.assertEquals("one:5-13", region.getName());
+			Assert.assertEquals("ACGTACGTA", region.getValue());
+			Assert.assertEquals("AC", reader.read("one", 12, 100).getValue());
+			Assert.assertEquals("", reader.read("two", 4, 4).getValue());
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void readInvalidRegion() throws Exception {
+		try (IndexedFastaReader reader = new IndexedFastaReader(file, StandardCharsets.UTF_8)) {
+			reader.read("one", 5, 4);
+		}
+	}
+
+	@Test
+	public void rebuildOutdated() throws Exception {
+		try (IndexedFastaReader reader = new IndexedFastaReader(file, StandardCharsets.UTF_8)) {
+			Assert.assertEquals(2, reader.getIndex().size());
+		}
+
+		write(">three\nGGGG\n");
+		Assert.assertTrue(index.setLastModified(file.lastModified() - 10000));
+		try (IndexedFastaReader reader = new IndexedFastaReader(file, StandardCharsets.UTF_8)) {
+			Assert.assertEquals(1, reader.getIndex().size());
+			Assert.assertEquals("GGGG", reader.read("three").getValue());
+		}
+	}
+
+	@Test
+	public void useExisting() throws Exception {
+		Files.write(index.toPath(), "two\t2\t33\t4\t5\n".getBytes(StandardCharsets.UTF_8));
+		Assert.assertTrue(index.setLastModified(file.lastModified() + 10000));
+		try (IndexedFastaReader reader = new IndexedFastaReader(file, StandardCharsets.UTF_8)) {
+			Assert.assertNull(reader.read("one"));
+			Assert.assertEquals("TT", reader.read("two").getValue());
+		}
+	}
+
+}
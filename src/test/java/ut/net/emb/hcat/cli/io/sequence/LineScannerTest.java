@@ -0,0 +1,111 @@
+package ut.net.emb.hcat.cli.io.sequence;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import net.emb.hcat.cli.io.sequence.LineScanner;
+
+@SuppressWarnings("javadoc")
+public class LineScannerTest {
+
+	// Hands out a single character per read, so lines are split over many
+	// fills.
+	private static final class SlowReader extends Reader {
+
+		private final Reader reader;
+
+		private SlowReader(final String content) {
+			reader = new StringReader(content);
+		}
+
+		@Override
+		public int read(final char[] cbuf, final int off, final int len) throws IOException {
+			return reader.read(cbuf, off, Math.min(1, len));
+		}
+
+		@Override
+		public void close() throws IOException {
+			reader.close();
+		}
+
+	}
+
+	// Reads all lines, and checks that they are the same as with a
+	// BufferedReader.
+	private static void compare(final String content) throws IOException {
+		for (final Reader reader : new Reader[] { new StringReader(content), new SlowReader(content) }) {
+			final LineScanner scanner = new LineScanner(reader);
+			try (BufferedReader expected = new BufferedReader(new StringReader(content))) {
+				String line;
+				do {
+					line = expected.readLine();
+					final CharSequence actual = scanner.next();
+					Assert.assertEquals(line, actual == null ? null : actual.toString());
+				} while (line != null);
+			}
+		}
+	}
+
+	@Test
+	public void lines() throws Exception {
+		compare("");
+		compare("\n");
+		compare(">a\nACGT\n>b\r\nTTTT\r\n\r\n>c\rGG\r\rAA");
+		compare("no line break");
+		compare("\r\n\r\r\n\n\r");
+	}
+
+	@Test
+	public void longLines() throws Exception {
+		final StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < 100000; i++) {
+			builder.append("ACGT".charAt(i % 4));
+		}
+		compare(">a\n" + builder + "\r\n>b\r" + builder);
+	}
+
+	@Test
+	public void random() throws Exception {
+		final Random random = new Random(42);
+		final String[] parts = { "ACGT", "\n", "\r", "\r\n", "ä", ">", " " };
+		for (int run = 0; run < 100; run++) {
+			final StringBuilder builder = new StringBuilder();
+			final int count = random.nextInt(50);
+			for (int i = 0; i < count; i++) {
+				builder.append(parts[random.nextInt(parts.length)]);
+			}
+			compare(builder.toString());
+		}
+	}
+
+	@Test
+	public void view() throws Exception {
+		final LineScanner scanner = new LineScanner(new StringReader("ACGT\n>name\n"));
+		final CharSequence first = scanner.next();
+		Assert.assertEquals(4, first.length());
+		Assert.assertEquals('G', first.charAt(2));
+		Assert.assertEquals("CG", first.subSequence(1, 3).toString());
+		final CharSequence second = scanner.next();
+		Assert.assertSame(first, second);
+		Assert.assertEquals(">name", second.toString());
+		Assert.assertNull(scanner.next());
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void viewOutOfBounds() throws Exception {
+		new LineScanner(new StringReader("ACGT\n")).next().charAt(4);
+	}
+
+	@SuppressWarnings("unused")
+	@Test(expected = IllegalArgumentException.class)
+	public void nullReader() throws Exception {
+		new LineScanner(null);
+	}
+
+}
@@ -0,0 +1,190 @@
+package ut.net.emb.hcat.cli.io.sequence;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import net.emb.hcat.cli.ErrorCodeException;
+import net.emb.hcat.cli.io.sequence.FastaReader;
+import net.emb.hcat.cli.io.sequence.ParallelFastaReader;
+import net.emb.hcat.cli.sequence.Sequence;
+
+@SuppressWarnings("javadoc")
+public class ParallelFastaReaderTest {
+
+	private File file;
+
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile("hcat", ".fas");
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(file.toPath());
+	}
+
+	// Reads the content sequentially and in parallel, and checks that both
+	// lead to the same result.
+	private List<Sequence> compare(final String content, final boolean sameLength, final int chunkSize) throws IOException {
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+
+		List<Sequence> expected = null;
+		ErrorCodeException expectedError = null;
+		try (FastaReader reader = new FastaReader(new StringReader(content))) {
+			reader.setEnforceSameLength(sameLength);
+			expected = reader.read();
+		} catch (final ErrorCodeException e) {
+			expectedError = e;
+		}
+
+		try (ParallelFastaReader reader = new ParallelFastaReader(file, StandardCharsets.UTF_8, 3)) {
+			reader.setEnforceSameLength(sameLength);
+			reader.setChunkSize(chunkSize);
+			Assert.assertTrue(reader.isParallel());
+			final List<Sequence> actual = reader.read();
+			Assert.assertNull("Expected error: " + expectedError, expectedError);
+			Assert.assertEquals(expected.size(), actual.size());
+			for (int i = 0; i < expected.size(); i++) {
+				Assert.assertEquals(expected.get(i).getName(), actual.get(i).getName());
+				Assert.assertEquals(expected.get(i).getValue(), actual.get(i).getValue());
+			}
+			return actual;
+		} catch (final ErrorCodeException e) {
+			Assert.assertNotNull("Unexpected error: " + e.getMessage(), expectedError);
+			Assert.assertEquals(expectedError.getErrorCode(), e.getErrorCode());
+			Assert.assertEquals(expectedError.getMessage(), e.getMessage());
+			Assert.assertArrayEquals(expectedError.getValues(), e.getValues());
+			return null;
+		}
+	}
+
+	private void compareAll(final String content, final boolean sameLength) throws IOException {
+		for (final int chunkSize : new int[] { 1, 2, 3, 5, 8, 13, 64, ParallelFastaReader.DEFAULT_CHUNK_SIZE }) {
+			compare(content, sameLength, chunkSize);
+		}
+	}
+
+	@SuppressWarnings({ "unused", "resource" })
+	@Test(expected = IllegalArgumentException.class)
+	public void zeroThreads() throws Exception {
+		new ParallelFastaReader(file, StandardCharsets.UTF_8, 0);
+	}
+
+	@Test
+	public void empty() throws Exception {
+		Assert.assertTrue(compare("", false, 1).isEmpty());
+		compareAll("\n\n;comment\n", false);
+	}
+
+	@Test
+	public void standard() throws Exception {
+		final List<Sequence> sequences = compare(">a\nACGT\n>b\nTTGA\nCC\n>c\nA\n", false, 4);
+		Assert.assertEquals(3, sequences.size());
+		Assert.assertEquals("TTGACC", sequences.get(1).getValue());
+		compareAll(">a\nACGT\n>b\nTTGA\nCC\n>c\nA", false);
+	}
+
+	@Test
+	public void lineBreaks() throws Exception {
+		compareAll(">a\r\nACGT\r\n>b\r\nTTGA\r\n\r\n>c\rAC\rGT\r", false);
+	}
+
+	@Test
+	public void commentsAndBlankLines() throws Exception {
+		compareAll("\n;start\n>a\n;inner\nAC\n  \nGT\n\n>b\n; >c\nTTTT\n\t\n", false);
+	}
+
+	@Test
+	public void dataBeforeFirstId() throws Exception {
+		compareAll("AC\nGT\n>a\nTT\n>b\nGG\n", false);
+		compareAll("ACGT\n", false);
+	}
+
+	@Test
+	public void emptySequenceStops() throws Exception {
+		compareAll(">a\nAC\n>b\n>c\nGT\n", false);
+		compareAll(">a\nAC\n>b\n", false);
+	}
+
+	@Test
+	public void sameLength() throws Exception {
+		compareAll(">a\nACGT\n>b\nAC\n\n>c\nACGT\n", true);
+		compareAll(">a\nACGT\n\n>b\nACGT\n>c\nAC\n\n\n", true);
+	}
+
+	@Test
+	public void multiByteCharacters() throws Exception {
+		compareAll(">ä\nACGT\n>€\nACGT\n", true);
+	}
+
+	@Test
+	public void random() throws Exception {
+		final Random random = new Random(42);
+		final String[] lines = { "ACGT", "TT", "", " ", ";x", ">", "G" };
+		for (int run = 0; run < 50; run++) {
+			final StringBuilder builder = new StringBuilder();
+			final int count = random.nextInt(40);
+			for (int i = 0; i < count; i++) {
+				String line = lines[random.nextInt(lines.length)];
+				if (line.equals(">")) {
+					line += "s" + i;
+				}
+				builder.append(line).append(random.nextBoolean() ? "\n" : "\r\n");
+			}
+			for (final int chunkSize : new int[] { 1, 7, 31 }) {
+				compare(builder.toString(), random.nextBoolean(), chunkSize);
+			}
+		}
+	}
+
+	@Test
+	public void sequentialFallback() throws Exception {
+		final Charset charset = StandardCharsets.UTF_16;
+		Files.write(file.toPath(), ">a\nACGT\n>b\nTT\n".getBytes(charset));
+		try (ParallelFastaReader reader = new ParallelFastaReader(file, charset, 4)) {
+			Assert.assertFalse(reader.isParallel());
+			final List<Sequence> sequences = reader.read();
+			Assert.assertEquals(Arrays.asList("ACGT", "TT"), values(sequences));
+		}
+	}
+
+	@Test
+	public void consumer() throws Exception {
+		final StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			builder.append(">s").append(i).append("\nACGTACGT\n");
+		}
+		Files.write(file.toPath(), builder.toString().getBytes(StandardCharsets.UTF_8));
+		final List<Sequence> sequences = new ArrayList<>();
+		try (ParallelFastaReader reader = new ParallelFastaReader(file, StandardCharsets.UTF_8, 4)) {
+			reader.setChunkSize(100);
+			reader.read(sequences::add);
+		}
+		Assert.assertEquals(1000, sequences.size());
+		for (int i = 0; i < sequences.size(); i++) {
+			Assert.assertEquals("s" + i, sequences.get(i).getName());
+		}
+	}
+
+	private static List<String> values(final List<Sequence> sequences) {
+		final List<String> values = new ArrayList<>();
+		for (final Sequence sequence : sequences) {
+			values.add(sequence.getValue());
+		}
+		return values;
+	}
+
+}
@@ -177,6 +177,52 @@ public class PhylipReaderTest {
 		reader.close();
 	}
 
+	@Test
+	public void interleaved() throws Exception {
+		final PhylipReader reader = new PhylipReader(new StringReader("3    10\nOne ACGTA\nTwo\tTTTTT\nThree  GG GGG\n\nCCCCC\nAAAAA\nTTTTT\n"));
+		reader.setInterleaved(true);
+		final List<Sequence> sequences = reader.read();
+		reader.close();
+
+		Assert.assertEquals(3, sequences.size());
+		Assert.assertEquals(new Sequence("ACGTACCCCC", "One"), sequences.get(0));
+		Assert.assertEquals(new Sequence("TTTTTAAAAA", "Two"), sequences.get(1));
+		Assert.assertEquals(new Sequence("GGGGGTTTTT", "Three"), sequences.get(2));
+	}
+
+	@Test
+	public void interleavedMissingBlock() throws Exception {
+		thrown.expect(ErrorCodeException.class);
+		thrown.expect(Matchers.hasProperty("errorCode", Matchers.is(EErrorCode.MISSING_VALUE)));
+
+		final PhylipReader reader = new PhylipReader(new StringReader("2    8\nOne ACGT\nTwo TTTT\n\nCCCC\n"));
+		reader.setInterleaved(true);
+		reader.read();
+		reader.close();
+	}
+
+	@Test
+	public void interleavedWrongLength() throws Exception {
+		thrown.expect(ErrorCodeException.class);
+		thrown.expect(Matchers.hasProperty("errorCode", Matchers.is(EErrorCode.SEQUENCE_WRONG_LENGTH)));
+
+		final PhylipReader reader = new PhylipReader(new StringReader("2    8\nOne ACGT\nTwo TTT\n\nCCCC\nAAAA\n"));
+		reader.setInterleaved(true);
+		reader.read();
+		reader.close();
+	}
+
+	@Test
+	public void interleavedTooFewSequences() throws Exception {
+		thrown.expect(ErrorCodeException.class);
+		thrown.expect(Matchers.hasProperty("errorCode", Matchers.is(EErrorCode.SEQUENCES_WRONG_AMOUNT)));
+
+		final PhylipReader reader = new PhylipReader(new StringReader("3    4\nOne ACGT\nTwo TTTT\n"));
+		reader.setInterleaved(true);
+		reader.read();
+		reader.close();
+	}
+
 	@Test
 	public void readTestData() throws Exception {
 		List<Sequence> sequences;
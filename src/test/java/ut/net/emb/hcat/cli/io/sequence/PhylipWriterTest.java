@@ -1,14 +1,25 @@
 package ut.net.emb.hcat.cli.io.sequence;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.StringReader;
 import java.io.StringWriter;
+import java.nio.file.Files;
+import java.util.AbstractList;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Random;
 
 import org.junit.Assert;
 import org.junit.Test;
 
+import net.emb.hcat.cli.io.sequence.BinaryAlignmentReader;
+import net.emb.hcat.cli.io.sequence.BinaryAlignmentWriter;
+import net.emb.hcat.cli.io.sequence.PhylipReader;
 import net.emb.hcat.cli.io.sequence.PhylipTcsWriter;
+import net.emb.hcat.cli.io.sequence.PhylipWriter;
 import net.emb.hcat.cli.sequence.Sequence;
 
 @SuppressWarnings("javadoc")
@@ -76,4 +87,105 @@ public class PhylipWriterTest {
 		phylipTcsWriter.close();
 	}
 
+	private static String write(final List<Sequence> sequences, final boolean interleaved, final int lineBreak) throws IOException {
+		final StringWriter writer = new StringWriter();
+		final PhylipWriter phylipWriter = new PhylipWriter(writer);
+		phylipWriter.setInterleaved(interleaved);
+		phylipWriter.setLineBreak(lineBreak);
+		phylipWriter.write(sequences);
+		phylipWriter.close();
+		return writer.toString();
+	}
+
+	private static List<Sequence> randomSequences(final int count, final int length) {
+		final Random random = new Random(42);
+		final String alphabet = "ACGTACGTN-";
+		final List<Sequence> sequences = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			final StringBuilder builder = new StringBuilder();
+			for (int j = 0; j < length; j++) {
+				builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+			}
+			sequences.add(new Sequence(builder.toString(), "s" + i));
+		}
+		return sequences;
+	}
+
+	@Test
+	public void writeInterleaved() throws Exception {
+		final List<Sequence> sequences = Arrays.asList(new Sequence("ACGTACGTAC", "One"), new Sequence("TTTTTGGGGG", "Two"));
+		Assert.assertEquals("2    10\nOne ACGT\nTwo TTTT\n\nACGT\nTGGG\n\nAC\nGG\n".replace("\n", LINEBREAK), write(sequences, true, 4));
+		Assert.assertEquals("2    10\nOne ACGTACGTAC\nTwo TTTTTGGGGG\n".replace("\n", LINEBREAK), write(sequences, true, 0));
+		Assert.assertEquals("1    0\nEmpty \n".replace("\n", LINEBREAK), write(Arrays.asList(new Sequence("", "Empty")), true, 4));
+	}
+
+	@Test
+	public void writeInterleavedSequentialList() throws Exception {
+		final List<Sequence> sequences = randomSequences(20, 250);
+		// Like a generated alignment: no random access, counting accesses.
+		final int[] accesses = new int[1];
+		final List<Sequence> sequential = new AbstractList<Sequence>() {
+			@Override
+			public Sequence get(final int index) {
+				accesses[0]++;
+				return sequences.get(index);
+			}
+
+			@Override
+			public int size() {
+				return sequences.size();
+			}
+		};
+		Assert.assertEquals(write(sequences, true, 7), write(sequential, true, 7));
+		// Not once per block.
+		Assert.assertTrue("Accesses: " + accesses[0], accesses[0] <= 2 * sequences.size() + 1);
+	}
+
+	@Test(expected = IOException.class)
+	public void writeInterleavedInvalidName() throws Exception {
+		write(Arrays.asList(new Sequence("ACGT", "Two words")), true, 60);
+	}
+
+	@Test(expected = IOException.class)
+	public void writeInterleavedUnnamed() throws Exception {
+		write(Arrays.asList(SEQUENCE_UNNAMED), true, 60);
+	}
+
+	@Test
+	public void readInterleaved() throws Exception {
+		final List<Sequence> sequences = randomSequences(20, 250);
+		for (final int lineBreak : new int[] { 0, 1, 7, 60, 250, 300 }) {
+			final PhylipReader reader = new PhylipReader(new StringReader(write(sequences, true, lineBreak)));
+			reader.setInterleaved(true);
+			Assert.assertEquals(sequences, reader.read());
+			reader.close();
+		}
+	}
+
+	@Test
+	public void writeBinaryAlignment() throws Exception {
+		final List<Sequence> sequences = randomSequences(20, 250);
+		final File file = File.createTempFile("hcat", ".hcb");
+		try {
+			try (BinaryAlignmentWriter writer = new BinaryAlignmentWriter(file)) {
+				writer.write(sequences);
+			}
+			try (BinaryAlignmentReader alignment = new BinaryAlignmentReader(file)) {
+				for (final boolean interleaved : new boolean[] { false, true }) {
+					for (final int lineBreak : new int[] { 0, 1, 7, 60, 250, 300 }) {
+						final StringWriter writer = new StringWriter();
+						final PhylipWriter phylipWriter = new PhylipWriter(writer);
+						phylipWriter.setInterleaved(interleaved);
+						phylipWriter.setLineBreak(lineBreak);
+						phylipWriter.write(alignment);
+						phylipWriter.close();
+						Assert.assertEquals(write(sequences, interleaved, lineBreak), writer.toString());
+					}
+				}
+			}
+		} finally {
+			Files.deleteIfExists(file.toPath());
+		}
+	}
+
 }
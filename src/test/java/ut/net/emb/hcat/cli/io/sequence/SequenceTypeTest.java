@@ -1,20 +1,33 @@
 package ut.net.emb.hcat.cli.io.sequence;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
 
 import org.junit.Assert;
 import org.junit.Test;
 
+import net.emb.hcat.cli.io.compress.Compression;
+import net.emb.hcat.cli.io.sequence.BinaryAlignmentWriter;
 import net.emb.hcat.cli.io.sequence.ESequenceType;
 import net.emb.hcat.cli.io.sequence.FastaReader;
 import net.emb.hcat.cli.io.sequence.FastaWriter;
+import net.emb.hcat.cli.io.sequence.FastqReader;
 import net.emb.hcat.cli.io.sequence.ISequenceReader;
 import net.emb.hcat.cli.io.sequence.ISequenceWriter;
 import net.emb.hcat.cli.io.sequence.PhylipReader;
 import net.emb.hcat.cli.io.sequence.PhylipTcsReader;
 import net.emb.hcat.cli.io.sequence.PhylipTcsWriter;
 import net.emb.hcat.cli.io.sequence.PhylipWriter;
+import net.emb.hcat.cli.sequence.Sequence;
 
 @SuppressWarnings("javadoc")
 public class SequenceTypeTest {
@@ -55,4 +68,120 @@ public class SequenceTypeTest {
 		Assert.assertSame(writer.getClass(), PhylipTcsWriter.class);
 	}
 
+	@Test
+	public void fastqReader() throws Exception {
+		final ISequenceReader reader = ESequenceType.FASTQ.createReader(new StringReader(""));
+		Assert.assertSame(reader.getClass(), FastqReader.class);
+		Assert.assertEquals(ESequenceType.FASTQ, ESequenceType.byFileEnding("reads.fq.gz"));
+		Assert.assertEquals(ESequenceType.FASTQ, ESequenceType.byFileEnding("reads.fastq"));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void fastqWriter() throws Exception {
+		ESequenceType.FASTQ.createWriter(new StringWriter());
+	}
+
+	private static ESequenceType byContent(final String content) throws IOException {
+		final byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+		final InputStream in = new BufferedInputStream(new ByteArrayInputStream(bytes));
+		final ESequenceType type = ESequenceType.byContent(in);
+		// Nothing has been consumed.
+		final byte[] read = new byte[bytes.length];
+		Assert.assertEquals(Math.max(bytes.length, 1), Math.max(in.read(read), 1));
+		Assert.assertArrayEquals(bytes, read);
+		return type;
+	}
+
+	private static String repeat(final char c, final int count) {
+		final char[] chars = new char[count];
+		Arrays.fill(chars, c);
+		return new String(chars);
+	}
+
+	@Test
+	public void contentFasta() throws Exception {
+		Assert.assertEquals(ESequenceType.FASTA, byContent(">a\nACGT\n"));
+		Assert.assertEquals(ESequenceType.FASTA, byContent("\r\n  \n;comment\n>a\nACGT\n"));
+		Assert.assertEquals(ESequenceType.FASTA, byContent(">a, b\nACGT\n"));
+	}
+
+	@Test
+	public void contentFastq() throws Exception {
+		Assert.assertEquals(ESequenceType.FASTQ, byContent("@a\nACGT\n+\nIIII\n"));
+		Assert.assertEquals(ESequenceType.FASTQ, byContent("\n@a, b\nACGT\n+a, b\nIIII\n"));
+	}
+
+	@Test
+	public void contentCsv() throws Exception {
+		Assert.assertEquals(ESequenceType.CSV, byContent("sep=;\na;A;C\n"));
+		Assert.assertEquals(ESequenceType.CSV, byContent("a,A,C\nb,G,T\n"));
+		// First line longer than the bytes looked at.
+		Assert.assertEquals(ESequenceType.CSV, byContent("a," + repeat('A', 2 * ESequenceType.DETECT_SIZE) + "\n"));
+	}
+
+	@Test
+	public void contentPhylip() throws Exception {
+		final String value = repeat('A', 100);
+		Assert.assertEquals(ESequenceType.PHYLIP, byContent("1    100\nname\n" + value.substring(0, 60) + "\n" + value.substring(60) + "\n"));
+		Assert.assertEquals(ESequenceType.PHYLIP, byContent("1    100\nmuch_longer_name\n" + value + "\n"));
+		Assert.assertEquals(ESequenceType.PHYLIP, byContent("1 100\nname " + value.substring(0, 60) + "\n\n" + value.substring(60) + "\n"));
+		Assert.assertEquals(ESequenceType.PHYLIP, byContent("1    4\nname\nACGT\n"));
+		Assert.assertEquals(ESequenceType.PHYLIP, byContent("1    4\n"));
+	}
+
+	@Test
+	public void contentPhylipTcs() throws Exception {
+		Assert.assertEquals(ESequenceType.PHYLIP_TCS, byContent("1    100\nname\n" + repeat('A', 100) + "\n"));
+		final int length = 2 * ESequenceType.DETECT_SIZE;
+		Assert.assertEquals(ESequenceType.PHYLIP_TCS, byContent("1    " + length + "\nname\n" + repeat('A', length) + "\n"));
+	}
+
+	@Test
+	public void contentUnknown() throws Exception {
+		Assert.assertNull(byContent(""));
+		Assert.assertNull(byContent("\n\n  \n"));
+		Assert.assertNull(byContent("ACGT\nACGT\n"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void contentNoMark() throws Exception {
+		ESequenceType.byContent(new ByteArrayInputStream(new byte[0]) {
+			@Override
+			public boolean markSupported() {
+				return false;
+			}
+		});
+	}
+
+	@Test
+	public void detectFile() throws Exception {
+		final File file = File.createTempFile("hcat", ".txt");
+		final File tcs = File.createTempFile("hcat", ".tcs");
+		final File compressed = File.createTempFile("hcat", ".csv.gz");
+		try {
+			Files.write(file.toPath(), "1    4\nname\nACGT\n".getBytes(StandardCharsets.UTF_8));
+			Assert.assertEquals(ESequenceType.PHYLIP, ESequenceType.detect(file));
+			Files.write(tcs.toPath(), "1    4\nname\nACGT\n".getBytes(StandardCharsets.UTF_8));
+			Assert.assertEquals(ESequenceType.PHYLIP_TCS, ESequenceType.detect(tcs));
+
+			// Unknown content falls back to the file ending.
+			Files.write(file.toPath(), "ACGT\n".getBytes(StandardCharsets.UTF_8));
+			Assert.assertEquals(ESequenceType.FASTA, ESequenceType.detect(file));
+
+			try (OutputStream out = Compression.create(compressed, 1)) {
+				out.write(">a\nACGT\n".getBytes(StandardCharsets.UTF_8));
+			}
+			Assert.assertEquals(ESequenceType.FASTA, ESequenceType.detect(compressed));
+
+			try (BinaryAlignmentWriter writer = new BinaryAlignmentWriter(file)) {
+				writer.write(Arrays.asList(new Sequence("ACGT", "a")));
+			}
+			Assert.assertEquals(ESequenceType.BINARY, ESequenceType.detect(file));
+		} finally {
+			Files.deleteIfExists(file.toPath());
+			Files.deleteIfExists(tcs.toPath());
+			Files.deleteIfExists(compressed.toPath());
+		}
+	}
+
 }
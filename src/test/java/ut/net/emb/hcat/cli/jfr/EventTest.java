@@ -0,0 +1,90 @@
+package ut.net.emb.hcat.cli.jfr;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import net.emb.hcat.cli.ErrorCodeException;
+import net.emb.hcat.cli.haplotype.DistanceMatrix;
+import net.emb.hcat.cli.haplotype.Haplotype;
+import net.emb.hcat.cli.io.sequence.FastaReader;
+import net.emb.hcat.cli.io.sequence.FastaWriter;
+import net.emb.hcat.cli.sequence.Sequence;
+
+@SuppressWarnings("javadoc")
+public class EventTest {
+
+	private static final String FASTA = ">One\nACGTACGT\n>Two\nACGTACGA\n>Three\nACGTACGT\n";
+
+	@Test
+	public void testEventsRecorded() throws IOException, ErrorCodeException {
+		final Path file = Files.createTempFile("hcat", ".jfr");
+		try {
+			try (Recording recording = new Recording()) {
+				recording.enable("net.emb.hcat.ReadChunk").withThreshold(Duration.ZERO);
+				recording.enable("net.emb.hcat.Collapse").withThreshold(Duration.ZERO);
+				recording.enable("net.emb.hcat.DistanceTile").withThreshold(Duration.ZERO);
+				recording.enable("net.emb.hcat.WriterFlush").withThreshold(Duration.ZERO);
+				recording.start();
+
+				final List<Sequence> sequences = new FastaReader(new StringReader(FASTA)).read();
+				final List<Haplotype> haplotypes = Haplotype.wrap(sequences);
+				new DistanceMatrix(haplotypes);
+				new FastaWriter(new StringWriter()).write(sequences);
+
+				recording.stop();
+				recording.dump(file);
+			}
+
+			final Map<String, RecordedEvent> events = new HashMap<>();
+			for (final RecordedEvent event : RecordingFile.readAllEvents(file)) {
+				events.put(event.getEventType().getName(), event);
+			}
+
+			final RecordedEvent chunk = events.get("net.emb.hcat.ReadChunk");
+			Assert.assertNotNull(chunk);
+			Assert.assertEquals("FastaReader", chunk.getString("reader"));
+			Assert.assertEquals(3, chunk.getInt("sequences"));
+			Assert.assertEquals(24, chunk.getLong("bases"));
+
+			final RecordedEvent collapse = events.get("net.emb.hcat.Collapse");
+			Assert.assertNotNull(collapse);
+			Assert.assertEquals(3, collapse.getInt("sequences"));
+			Assert.assertEquals(2, collapse.getInt("haplotypes"));
+
+			final RecordedEvent tile = events.get("net.emb.hcat.DistanceTile");
+			Assert.assertNotNull(tile);
+			Assert.assertEquals("distance", tile.getString("matrix"));
+			Assert.assertEquals(8, tile.getInt("length"));
+
+			final RecordedEvent flush = events.get("net.emb.hcat.WriterFlush");
+			Assert.assertNotNull(flush);
+			Assert.assertEquals("FastaWriter", flush.getString("writer"));
+			Assert.assertEquals(3, flush.getInt("rows"));
+			Assert.assertEquals(24, flush.getLong("characters"));
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testNoRecording() {
+		// Without a recording, events must not interfere with the results.
+		final List<Sequence> sequences = Arrays.asList(new Sequence("ACGT"), new Sequence("ACGT"));
+		Assert.assertEquals(1, Haplotype.wrap(sequences).size());
+	}
+
+}
@@ -0,0 +1,117 @@
+package ut.net.emb.hcat.cli.pipeline;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import net.emb.hcat.cli.pipeline.FanOut;
+import net.emb.hcat.cli.pipeline.ISequenceSink;
+import net.emb.hcat.cli.sequence.Sequence;
+
+@SuppressWarnings("javadoc")
+public class FanOutTest {
+
+	private static class ListSink implements ISequenceSink {
+		private final List<String> names = new ArrayList<>();
+		private final String failOn;
+		private volatile boolean finished;
+		private volatile boolean aborted;
+
+		private ListSink(final String failOn) {
+			this.failOn = failOn;
+		}
+
+		@Override
+		public void accept(final Sequence sequence) throws IOException {
+			if (sequence.getName().equals(failOn)) {
+				throw new IOException("Failed on " + failOn);
+			}
+			names.add(sequence.getName());
+		}
+
+		@Override
+		public void finish() {
+			finished = true;
+		}
+
+		@Override
+		public void abort() {
+			aborted = true;
+		}
+	}
+
+	private static void feed(final FanOut fanOut, final int count) {
+		for (int i = 0; i < count; i++) {
+			fanOut.accept(new Sequence("ACGT", String.valueOf(i)));
+		}
+	}
+
+	@Test
+	public void testAllSinksReceiveAll() {
+		final ListSink sink1 = new ListSink(null);
+		final ListSink sink2 = new ListSink(null);
+		// Small queues make the reader wait for the sinks.
+		final FanOut fanOut = new FanOut(Arrays.asList(sink1, sink2), 2);
+		fanOut.start();
+		feed(fanOut, 1000);
+		final List<Exception> failures = fanOut.finish();
+
+		Assert.assertEquals(Arrays.asList(null, null), failures);
+		Assert.assertEquals(1000, fanOut.getCount());
+		Assert.assertEquals(4000, fanOut.getBases());
+		Assert.assertEquals(1000, sink1.names.size());
+		Assert.assertEquals(sink1.names, sink2.names);
+		Assert.assertEquals("999", sink2.names.get(999));
+		Assert.assertTrue(sink1.finished);
+		Assert.assertTrue(sink2.finished);
+	}
+
+	@Test
+	public void testFailingSink() {
+		final ListSink failing = new ListSink("5");
+		final ListSink working = new ListSink(null);
+		final FanOut fanOut = new FanOut(Arrays.asList(failing, working), 2);
+		fanOut.start();
+		feed(fanOut, 100);
+		final List<Exception> failures = fanOut.finish();
+
+		Assert.assertTrue(failures.get(0) instanceof IOException);
+		Assert.assertEquals("Failed on 5", failures.get(0).getMessage());
+		Assert.assertNull(failures.get(1));
+		Assert.assertEquals(5, failing.names.size());
+		Assert.assertFalse(failing.finished);
+		Assert.assertTrue(failing.aborted);
+		Assert.assertEquals(100, working.names.size());
+		Assert.assertTrue(working.finished);
+		Assert.assertFalse(working.aborted);
+	}
+
+	@Test
+	public void testCancel() {
+		final ListSink sink = new ListSink(null);
+		final FanOut fanOut = new FanOut(Arrays.asList(sink), 2);
+		fanOut.start();
+		feed(fanOut, 10);
+		fanOut.cancel();
+		Assert.assertEquals(10, sink.names.size());
+		Assert.assertFalse(sink.finished);
+		Assert.assertTrue(sink.aborted);
+		// Finishing after cancelling does nothing.
+		Assert.assertTrue(fanOut.finish().isEmpty());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNoSinks() {
+		new FanOut(new ArrayList<>(), 1);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testNotStarted() {
+		new FanOut(Arrays.asList(new ListSink(null)), 1).accept(new Sequence("A"));
+	}
+
+}
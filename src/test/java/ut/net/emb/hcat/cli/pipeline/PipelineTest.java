@@ -0,0 +1,168 @@
+package ut.net.emb.hcat.cli.pipeline;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import net.emb.hcat.cli.pipeline.IStageSource;
+import net.emb.hcat.cli.pipeline.Pipeline;
+import net.emb.hcat.cli.pipeline.PipelineException;
+import net.emb.hcat.cli.pipeline.PipelineException.EStage;
+
+@SuppressWarnings("javadoc")
+public class PipelineTest {
+
+	private static final int ITEMS = 1000;
+
+	private static IStageSource<Integer> numbers(final int count) {
+		return consumer -> {
+			for (int i = 0; i < count; i++) {
+				consumer.accept(i);
+			}
+		};
+	}
+
+	@SuppressWarnings("unused")
+	@Test(expected = IllegalArgumentException.class)
+	public void zeroThreads() {
+		new Pipeline<Integer, Integer>(0);
+	}
+
+	@SuppressWarnings("unused")
+	@Test(expected = IllegalArgumentException.class)
+	public void zeroCapacity() {
+		new Pipeline<Integer, Integer>(1, 1, 0);
+	}
+
+	@Test
+	public void empty() throws Exception {
+		final List<Integer> written = new ArrayList<>();
+		final int count = new Pipeline<Integer, Integer>(2).run(numbers(0), Function.identity(), written::add);
+		Assert.assertEquals(0, count);
+		Assert.assertTrue(written.isEmpty());
+	}
+
+	@Test
+	public void keepsOrder() throws Exception {
+		final List<Integer> written = new ArrayList<>();
+		final Pipeline<Integer, Integer> pipeline = new Pipeline<>(4, 7, 3);
+		final int count = pipeline.run(numbers(ITEMS), batch -> {
+			// Let later batches overtake earlier ones.
+			try {
+				Thread.sleep(ThreadLocalRandom.current().nextInt(3));
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return batch.stream().map(i -> i * 2).collect(Collectors.toList());
+		}, written::add);
+
+		Assert.assertEquals(ITEMS, count);
+		for (int i = 0; i < ITEMS; i++) {
+			Assert.assertEquals(i * 2, written.get(i).intValue());
+		}
+	}
+
+	@Test
+	public void filter() throws Exception {
+		final List<Integer> written = new ArrayList<>();
+		final int count = new Pipeline<Integer, Integer>(2, 10, 2).run(numbers(ITEMS), batch -> batch.stream().filter(i -> i % 3 == 0).collect(Collectors.toList()), written::add);
+		Assert.assertEquals((ITEMS + 2) / 3, count);
+		Assert.assertEquals(Integer.valueOf(999), written.get(written.size() - 1));
+	}
+
+	@Test
+	public void backpressure() throws Exception {
+		final AtomicInteger read = new AtomicInteger();
+		final AtomicInteger count = new AtomicInteger();
+		final CountDownLatch blocked = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final IStageSource<Integer> source = consumer -> {
+			for (int i = 0; i < ITEMS; i++) {
+				read.incrementAndGet();
+				consumer.accept(i);
+			}
+		};
+
+		final Thread thread = new Thread(() -> {
+			try {
+				count.set(new Pipeline<Integer, Integer>(1, 1, 2).run(source, Function.identity(), item -> {
+					if (item == 0) {
+						blocked.countDown();
+						release.await();
+					}
+				}));
+			} catch (final PipelineException e) {
+				count.set(-1);
+			}
+		});
+		thread.start();
+
+		Assert.assertTrue(blocked.await(10, TimeUnit.SECONDS));
+		Thread.sleep(200);
+		// One item being written, two in flight and one waiting to be handed
+		// over.
+		Assert.assertTrue("Read " + read.get() + " items.", read.get() <= 4);
+
+		release.countDown();
+		thread.join(TimeUnit.SECONDS.toMillis(10));
+		Assert.assertEquals(ITEMS, count.get());
+	}
+
+	@Test
+	public void readFails() throws Exception {
+		final List<Integer> written = new ArrayList<>();
+		try {
+			new Pipeline<Integer, Integer>(2, 10, 2).run(consumer -> {
+				consumer.accept(1);
+				throw new IOException("Read failed");
+			}, Function.identity(), written::add);
+			Assert.fail("Expected exception.");
+		} catch (final PipelineException e) {
+			Assert.assertEquals(EStage.READ, e.getStage());
+			Assert.assertEquals("Read failed", e.getMessage());
+		}
+	}
+
+	@Test
+	public void transformFails() throws Exception {
+		try {
+			new Pipeline<Integer, Integer>(2, 10, 2).run(numbers(ITEMS), batch -> {
+				if (batch.contains(500)) {
+					throw new IllegalStateException("Transform failed");
+				}
+				return batch;
+			}, item -> {
+				// Ignore.
+			});
+			Assert.fail("Expected exception.");
+		} catch (final PipelineException e) {
+			Assert.assertEquals(EStage.TRANSFORM, e.getStage());
+			Assert.assertEquals("Transform failed", e.getMessage());
+		}
+	}
+
+	@Test
+	public void writeFails() throws Exception {
+		try {
+			new Pipeline<Integer, Integer>(2, 10, 2).run(numbers(ITEMS), Function.identity(), item -> {
+				if (item == 500) {
+					throw new IOException("Write failed");
+				}
+			});
+			Assert.fail("Expected exception.");
+		} catch (final PipelineException e) {
+			Assert.assertEquals(EStage.WRITE, e.getStage());
+			Assert.assertEquals("Write failed", e.getMessage());
+		}
+	}
+
+}
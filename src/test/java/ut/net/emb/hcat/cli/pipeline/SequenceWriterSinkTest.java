@@ -0,0 +1,94 @@
+package ut.net.emb.hcat.cli.pipeline;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import net.emb.hcat.cli.io.sequence.BinaryAlignmentReader;
+import net.emb.hcat.cli.io.sequence.ESequenceType;
+import net.emb.hcat.cli.pipeline.SequenceWriterSink;
+import net.emb.hcat.cli.sequence.Sequence;
+
+@SuppressWarnings("javadoc")
+public class SequenceWriterSinkTest {
+
+	private Path dir;
+
+	@Before
+	public void setUp() throws Exception {
+		dir = Files.createTempDirectory("hcat");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		for (final File file : dir.toFile().listFiles()) {
+			Files.delete(file.toPath());
+		}
+		Files.delete(dir);
+	}
+
+	private static String read(final File file) throws Exception {
+		return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void streaming() throws Exception {
+		final File file = dir.resolve("out.fas").toFile();
+		final SequenceWriterSink sink = new SequenceWriterSink(file, StandardCharsets.UTF_8, ESequenceType.FASTA, null);
+		sink.accept(new Sequence("ACGT", "One"));
+		sink.accept(new Sequence("ACGA", "Two"));
+		// Written to a temporary file while receiving sequences.
+		Assert.assertFalse(file.exists());
+		Assert.assertEquals(1, dir.toFile().list().length);
+
+		sink.finish();
+		Assert.assertEquals(">One" + System.lineSeparator() + "ACGT" + System.lineSeparator() + ">Two" + System.lineSeparator() + "ACGA" + System.lineSeparator(), read(file));
+		Assert.assertEquals(1, dir.toFile().list().length);
+	}
+
+	@Test
+	public void collecting() throws Exception {
+		final File file = dir.resolve("out.phy").toFile();
+		final SequenceWriterSink sink = new SequenceWriterSink(file, StandardCharsets.UTF_8, ESequenceType.PHYLIP, sequence -> new Sequence(sequence.getValue().toLowerCase(), sequence.getName()));
+		sink.accept(new Sequence("ACGT", "One"));
+		sink.accept(new Sequence("ACGA", "Two"));
+		sink.finish();
+		final String content = read(file);
+		Assert.assertTrue(content.startsWith("2    4"));
+		Assert.assertTrue(content.contains("acga"));
+		Assert.assertEquals(1, dir.toFile().list().length);
+	}
+
+	@Test
+	public void binary() throws Exception {
+		final File file = dir.resolve("out.hcb").toFile();
+		final SequenceWriterSink sink = new SequenceWriterSink(file, StandardCharsets.UTF_8, ESequenceType.BINARY, null);
+		sink.accept(new Sequence("ACGT", "One"));
+		sink.accept(new Sequence("ACGA", "Two"));
+		sink.finish();
+		try (BinaryAlignmentReader reader = new BinaryAlignmentReader(file)) {
+			final List<Sequence> sequences = reader.read();
+			Assert.assertEquals(2, sequences.size());
+			Assert.assertEquals("ACGA", sequences.get(1).getValue());
+		}
+	}
+
+	@Test
+	public void abort() throws Exception {
+		final File file = dir.resolve("out.fas").toFile();
+		Files.write(file.toPath(), "old".getBytes(StandardCharsets.UTF_8));
+		final SequenceWriterSink sink = new SequenceWriterSink(file, StandardCharsets.UTF_8, ESequenceType.FASTA, null);
+		sink.accept(new Sequence("ACGT", "One"));
+		sink.abort();
+		Assert.assertEquals("old", read(file));
+		Assert.assertEquals(1, dir.toFile().list().length);
+	}
+
+}
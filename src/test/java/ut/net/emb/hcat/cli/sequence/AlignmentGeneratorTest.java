@@ -0,0 +1,99 @@
+package ut.net.emb.hcat.cli.sequence;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import net.emb.hcat.cli.haplotype.Haplotype;
+import net.emb.hcat.cli.sequence.AlignmentGenerator;
+import net.emb.hcat.cli.sequence.EFrequencyDistribution;
+import net.emb.hcat.cli.sequence.Sequence;
+
+@SuppressWarnings("javadoc")
+public class AlignmentGeneratorTest {
+
+	private static AlignmentGenerator create() {
+		final AlignmentGenerator generator = new AlignmentGenerator();
+		generator.setSeed(7);
+		generator.setCount(500);
+		generator.setLength(120);
+		generator.setHaplotypes(5);
+		generator.setMutationRate(0.1);
+		return generator;
+	}
+
+	@Test
+	public void generate() {
+		final List<Sequence> sequences = create().generate();
+		Assert.assertEquals(500, sequences.size());
+		Assert.assertEquals("seq1", sequences.get(0).getName());
+		Assert.assertEquals("seq500", sequences.get(499).getName());
+		for (final Sequence sequence : sequences) {
+			Assert.assertEquals(120, sequence.getLength());
+			Assert.assertTrue(sequence.getValue().matches("[ACGT]*"));
+		}
+		Assert.assertEquals(5, Haplotype.wrap(sequences).size());
+	}
+
+	@Test
+	public void reproducible() {
+		final List<Sequence> first = new ArrayList<>(create().generate());
+		final List<Sequence> second = create().generate();
+		// Access in reverse order, which creates other blocks.
+		for (int i = second.size() - 1; i >= 0; i--) {
+			Assert.assertEquals(first.get(i), second.get(i));
+			Assert.assertEquals(first.get(i).getName(), second.get(i).getName());
+		}
+
+		final AlignmentGenerator generator = create();
+		generator.setSeed(8);
+		Assert.assertNotEquals(first, new ArrayList<>(generator.generate()));
+	}
+
+	@Test
+	public void gapsAndUnknowns() {
+		final AlignmentGenerator generator = create();
+		generator.setGapFraction(1);
+		Assert.assertTrue(generator.generate().get(0).getValue().matches("-*"));
+
+		generator.setGapFraction(0);
+		generator.setUnknownFraction(1);
+		Assert.assertTrue(generator.generate().get(0).getValue().matches("N*"));
+
+		generator.setUnknownFraction(0.5);
+		generator.setGapFraction(0.25);
+		final String value = generator.generate().get(0).getValue();
+		Assert.assertTrue(value.contains("N"));
+		Assert.assertTrue(value.contains("-"));
+	}
+
+	@Test
+	public void distribution() {
+		final AlignmentGenerator generator = create();
+		generator.setHaplotypes(20);
+		generator.setDistribution(EFrequencyDistribution.GEOMETRIC);
+		final List<Haplotype> haplotypes = Haplotype.wrap(generator.generate());
+		// Most frequent haplotype should hold about half of all sequences.
+		int max = 0;
+		for (final Haplotype haplotype : haplotypes) {
+			max = Math.max(max, haplotype.size());
+		}
+		Assert.assertTrue(max > 200);
+		Assert.assertTrue(haplotypes.size() < 20);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void invalidFractions() {
+		final AlignmentGenerator generator = create();
+		generator.setGapFraction(0.6);
+		generator.setUnknownFraction(0.6);
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void unmodifiable() {
+		create().generate().add(new Sequence("ACGT"));
+	}
+
+}
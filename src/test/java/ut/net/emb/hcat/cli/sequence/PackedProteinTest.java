@@ -0,0 +1,56 @@
+package ut.net.emb.hcat.cli.sequence;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import net.emb.hcat.cli.sequence.Difference;
+import net.emb.hcat.cli.sequence.PackedProtein;
+import net.emb.hcat.cli.sequence.Sequence;
+
+@SuppressWarnings("javadoc")
+public class PackedProteinTest {
+
+	private static int distance(final String value1, final String value2) {
+		return new PackedProtein(new Sequence(value1)).distance(new PackedProtein(new Sequence(value2)));
+	}
+
+	@Test
+	public void packable() {
+		Assert.assertTrue(PackedProtein.isPackable(new Sequence("MKV*-?.")));
+		Assert.assertFalse(PackedProtein.isPackable(new Sequence("MKv")));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void notPackable() {
+		new PackedProtein(new Sequence("MK1"));
+	}
+
+	@Test
+	public void distance() {
+		Assert.assertEquals(0, distance("", ""));
+		Assert.assertEquals(0, distance("MKV", "MKV"));
+		Assert.assertEquals(1, distance("MKV", "MKA"));
+		Assert.assertEquals(3, distance("MKV", "*-?"));
+	}
+
+	@Test
+	public void distanceLength() {
+		Assert.assertEquals(2, distance("MKV", "MKVLA"));
+		Assert.assertEquals(2, distance("MKVLA", "MKV"));
+		Assert.assertEquals(13, distance("", "ABCDEFGHIJKLM"));
+	}
+
+	@Test
+	public void distanceAcrossWords() {
+		final String value1 = "ABCDEFGHIJKLMNOPQRSTUVWXYZ*-?.ABCDEFGHIJ";
+		final StringBuilder builder = new StringBuilder(value1);
+		for (int i = 0; i < builder.length(); i += 7) {
+			builder.setCharAt(i, '*');
+		}
+		final String value2 = builder.toString();
+		final int expected = new Difference(new Sequence(value1), new Sequence(value2)).getDistance();
+		Assert.assertEquals(expected, distance(value1, value2));
+		Assert.assertEquals(expected + 5, distance(value1, value2 + "MKVLA"));
+	}
+
+}
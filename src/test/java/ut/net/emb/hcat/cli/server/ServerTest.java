@@ -0,0 +1,161 @@
+package ut.net.emb.hcat.cli.server;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import net.emb.hcat.cli.IRunner;
+import net.emb.hcat.cli.server.Client;
+import net.emb.hcat.cli.server.Protocol;
+import net.emb.hcat.cli.server.Server;
+
+@SuppressWarnings("javadoc")
+public class ServerTest {
+
+	private static final int THREADS = 2;
+
+	private final CountDownLatch started = new CountDownLatch(THREADS);
+	private final AtomicInteger runs = new AtomicInteger();
+	private File tokenDirectory;
+	private Server server;
+	private Thread thread;
+
+	private final IRunner runner = (out, err, workDir, args) -> {
+		runs.incrementAndGet();
+		if (args.length > 0 && args[0].equals("block")) {
+			// Only succeeds, if all blocking requests run at the same time.
+			started.countDown();
+			try {
+				if (!started.await(10, TimeUnit.SECONDS)) {
+					return -1;
+				}
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return -1;
+			}
+		}
+		out.print(workDir.getPath() + ":" + String.join(" ", args));
+		err.print("error");
+		return args.length;
+	};
+
+	@Before
+	public void start() throws IOException {
+		tokenDirectory = Files.createTempDirectory("hcat").toFile();
+		server = new Server(runner, 0, THREADS, tokenDirectory);
+		thread = new Thread(() -> {
+			try {
+				server.serve();
+			} catch (final IOException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		thread.start();
+	}
+
+	@After
+	public void stop() throws IOException, InterruptedException {
+		server.close();
+		thread.join(10000);
+		Files.deleteIfExists(tokenDirectory.toPath());
+	}
+
+	@Test
+	public void testExecute() throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final ByteArrayOutputStream err = new ByteArrayOutputStream();
+		final int status = new Client(server.getPort(), server.getToken()).execute("dir", new String[] { "-a", "b" }, out, err);
+		Assert.assertEquals(2, status);
+		Assert.assertEquals("dir:-a b", out.toString("UTF-8"));
+		Assert.assertEquals("error", err.toString("UTF-8"));
+	}
+
+	@Test
+	public void testConcurrent() throws Exception {
+		final ExecutorService clients = Executors.newFixedThreadPool(THREADS);
+		try {
+			final List<Future<Integer>> results = new ArrayList<>();
+			for (int i = 0; i < THREADS; i++) {
+				final String id = String.valueOf(i);
+				results.add(clients.submit(() -> new Client(server.getPort(), server.getToken()).execute(id, new String[] { "block" }, new ByteArrayOutputStream(), new ByteArrayOutputStream())));
+			}
+			for (final Future<Integer> result : results) {
+				Assert.assertEquals(1, result.get(20, TimeUnit.SECONDS).intValue());
+			}
+		} finally {
+			clients.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testTokenFile() throws IOException {
+		final File file = Protocol.getTokenFile(tokenDirectory, server.getPort());
+		Assert.assertEquals(file, server.getTokenFile());
+		Assert.assertEquals(server.getToken(), Protocol.readToken(file));
+		Assert.assertEquals(64, server.getToken().length());
+		server.close();
+		Assert.assertFalse(file.exists());
+	}
+
+	@Test
+	public void testWrongToken() {
+		try {
+			new Client(server.getPort(), "wrong").execute("dir", new String[] { "-a" }, new ByteArrayOutputStream(), new ByteArrayOutputStream());
+			Assert.fail();
+		} catch (final IOException e) {
+			// Connection is closed without an answer.
+		}
+		Assert.assertEquals(0, runs.get());
+	}
+
+	@Test
+	public void testWithoutToken() throws IOException {
+		// Request as it was written before tokens were introduced.
+		try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+			final DataOutputStream request = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+			request.writeInt(0x48434154);
+			request.writeUTF("dir");
+			request.writeInt(1);
+			request.writeUTF("-a");
+			request.flush();
+			try {
+				Assert.assertEquals(-1, socket.getInputStream().read());
+			} catch (final SocketException e) {
+				// Connection may also be reset.
+			}
+		}
+		Assert.assertEquals(0, runs.get());
+	}
+
+	@Test(expected = IOException.class)
+	public void testNoServer() throws IOException {
+		final int port = server.getPort();
+		server.close();
+		new Client(port, server.getToken()).execute("dir", new String[0], new ByteArrayOutputStream(), new ByteArrayOutputStream());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNoThreads() throws IOException {
+		new Server(runner, 0, 0);
+	}
+
+}
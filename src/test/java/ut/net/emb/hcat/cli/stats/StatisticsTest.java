@@ -0,0 +1,109 @@
+package ut.net.emb.hcat.cli.stats;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import net.emb.hcat.cli.sequence.Sequence;
+import net.emb.hcat.cli.stats.Phase;
+import net.emb.hcat.cli.stats.Statistics;
+
+@SuppressWarnings("javadoc")
+public class StatisticsTest {
+
+	@Test
+	public void disabled() {
+		final Statistics statistics = Statistics.disabled();
+		Assert.assertFalse(statistics.isEnabled());
+		try (Phase phase = statistics.start("read")) {
+			phase.addSequences(Arrays.asList(new Sequence("ACGT")));
+			phase.addBases(10);
+		}
+		Assert.assertTrue(statistics.getPhases().isEmpty());
+	}
+
+	@Test
+	public void phases() throws Exception {
+		final Statistics statistics = new Statistics();
+		Assert.assertTrue(statistics.isEnabled());
+		try (Phase phase = statistics.start("read")) {
+			phase.addSequences(Arrays.asList(new Sequence("ACGT"), new Sequence("AC")));
+			Thread.sleep(5);
+		}
+		try (Phase phase = statistics.start("write")) {
+			phase.addSequences(3);
+			phase.addBases(12);
+		}
+
+		Assert.assertEquals(2, statistics.getPhases().size());
+		final Phase read = statistics.getPhases().get(0);
+		Assert.assertEquals("read", read.getName());
+		Assert.assertEquals(2, read.getSequences());
+		Assert.assertEquals(6, read.getBases());
+		Assert.assertTrue(read.getWallNanos() >= 5_000_000);
+		Assert.assertTrue(read.getPeakHeapBytes() > 0);
+		Assert.assertTrue(read.getSequencesPerSecond() > 0);
+
+		final Phase write = statistics.getPhases().get(1);
+		Assert.assertEquals("write", write.getName());
+		Assert.assertEquals(3, write.getSequences());
+		Assert.assertEquals(12, write.getBases());
+	}
+
+	@Test
+	public void endedThread() throws Exception {
+		// Work of a thread ending within the phase, like a pool thread.
+		final long[] threadCpu = new long[1];
+		final byte[][] data = new byte[64][];
+		final Phase phase = new Statistics().start("pool");
+		try {
+			final Thread thread = new Thread(() -> {
+				for (int i = 0; i < data.length; i++) {
+					data[i] = new byte[1 << 20];
+				}
+				while (ManagementFactory.getThreadMXBean().getCurrentThreadCpuTime() < 50_000_000) {
+					// Busy.
+				}
+				threadCpu[0] = ManagementFactory.getThreadMXBean().getCurrentThreadCpuTime();
+			});
+			thread.start();
+			thread.join();
+		} finally {
+			phase.close();
+		}
+		if (phase.getCpuNanos() >= 0) {
+			Assert.assertTrue(phase.getCpuNanos() >= threadCpu[0] / 2);
+		}
+		if (phase.getAllocatedBytes() >= 0) {
+			Assert.assertTrue(phase.getAllocatedBytes() >= 32 << 20);
+		}
+		Assert.assertEquals(64, data.length);
+	}
+
+	@Test
+	public void concurrent() throws Exception {
+		final Statistics statistics = new Statistics();
+		final Phase outer = statistics.start("outer");
+		final byte[] data = new byte[16 << 20];
+		try (Phase inner = statistics.start("inner")) {
+			inner.addBases(data.length);
+		}
+		outer.close();
+		final Phase inner = statistics.getPhases().get(1);
+		Assert.assertTrue(inner.getWallNanos() >= 0);
+		// The inner phase must not reset the peak of the outer one.
+		Assert.assertTrue(outer.getPeakHeapBytes() >= 16 << 20);
+		Assert.assertTrue(outer.getPeakHeapBytes() >= inner.getPeakHeapBytes());
+	}
+
+	@Test
+	public void notClosed() {
+		final Phase phase = new Statistics().start("open");
+		Assert.assertEquals(-1, phase.getWallNanos());
+		Assert.assertEquals(0, phase.getBasesPerSecond(), 0);
+		phase.close();
+	}
+
+}